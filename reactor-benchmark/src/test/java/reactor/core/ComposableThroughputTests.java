@@ -25,14 +25,17 @@ import reactor.core.composable.Composable;
 import reactor.core.composable.Deferred;
 import reactor.core.composable.Promise;
 import reactor.core.composable.Stream;
+import reactor.core.composable.spec.DeferredStreamSpec;
 import reactor.core.composable.spec.Promises;
 import reactor.core.composable.spec.Streams;
 import reactor.event.dispatch.ActorDispatcher;
 import reactor.event.dispatch.Dispatcher;
 import reactor.event.dispatch.RingBufferDispatcher;
+import reactor.event.dispatch.SynchronousDispatcher;
 import reactor.event.dispatch.WorkQueueDispatcher;
 import reactor.function.Consumer;
 import reactor.function.Function;
+import reactor.function.Predicate;
 import reactor.tuple.Tuple2;
 
 import java.util.concurrent.CountDownLatch;
@@ -78,13 +81,32 @@ public class ComposableThroughputTests extends AbstractReactorTest {
 	}
 
 	private Deferred<Integer, Stream<Integer>> createDeferred(Dispatcher dispatcher) {
+		return createDeferred(dispatcher, false);
+	}
+
+	private Deferred<Integer, Stream<Integer>> createDeferred(Dispatcher dispatcher, boolean fused) {
 		latch = new CountDownLatch(1);
-		Deferred<Integer, Stream<Integer>> dInt = Streams.<Integer>defer()
+		DeferredStreamSpec<Integer> spec = Streams.<Integer>defer()
 				.env(env)
-				.dispatcher(dispatcher)
-				.get();
+				.dispatcher(dispatcher);
+		if (fused) {
+			spec.fused();
+		}
+		Deferred<Integer, Stream<Integer>> dInt = spec.get();
 
 		dInt.compose()
+				.map(new Function<Integer, Integer>() {
+					@Override
+					public Integer apply(Integer number) {
+						return number;
+					}
+				})
+				.filter(new Predicate<Integer>() {
+					@Override
+					public boolean test(Integer number) {
+						return number >= 0;
+					}
+				})
 				.map(new Function<Integer, Integer>() {
 					@Override
 					public Integer apply(Integer number) {
@@ -163,7 +185,11 @@ public class ComposableThroughputTests extends AbstractReactorTest {
 	}
 
 	private void doTest(Dispatcher dispatcher, String name) throws InterruptedException {
-		doTest(dispatcher, name, createDeferred(dispatcher));
+		doTest(dispatcher, name, false);
+	}
+
+	private void doTest(Dispatcher dispatcher, String name, boolean fused) throws InterruptedException {
+		doTest(dispatcher, name, createDeferred(dispatcher, fused));
 		assertThat("Totals matched expected", total, is(expectedTotal));
 	}
 
@@ -210,6 +236,21 @@ public class ComposableThroughputTests extends AbstractReactorTest {
 		doTest(env.getDispatcher("ringBuffer"), "ring buffer");
 	}
 
+	@Test
+	public void testFusedRingBufferDispatcherComposableThroughput() throws InterruptedException {
+		doTest(env.getDispatcher("ringBuffer"), "fused ring buffer", true);
+	}
+
+	@Test
+	public void testSynchronousDispatcherComposableThroughput() throws InterruptedException {
+		doTest(new SynchronousDispatcher(), "synchronous");
+	}
+
+	@Test
+	public void testFusedSynchronousDispatcherComposableThroughput() throws InterruptedException {
+		doTest(new SynchronousDispatcher(), "fused synchronous", true);
+	}
+
 	@Test
 	public void testActorDispatcherComposableThroughput() throws InterruptedException {
 		doTest(new ActorDispatcher(new Function<Object, Dispatcher>() {
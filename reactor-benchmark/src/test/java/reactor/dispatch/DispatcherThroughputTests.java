@@ -20,6 +20,7 @@ import org.junit.Test;
 import reactor.core.Reactor;
 import reactor.core.spec.Reactors;
 import reactor.event.Event;
+import reactor.event.dispatch.ShardedRingBufferDispatcher;
 import reactor.event.selector.Selectors;
 import reactor.function.Consumer;
 
@@ -112,6 +113,16 @@ public class DispatcherThroughputTests extends AbstractThroughputTests {
 		doTest("threadPoolExecutor");
 	}
 
+	@Test
+	public void shardedRingBufferDispatcherThroughput() throws InterruptedException {
+		log.info("Starting sharded ring buffer test...");
+		doTest(Reactors.reactor()
+		               .env(env)
+		               .dispatcher(new ShardedRingBufferDispatcher("shardedRingBuffer",
+		                                                           Runtime.getRuntime().availableProcessors()))
+		               .get());
+	}
+
 	@Test
 	public void workQueueDispatcherThroughput() throws InterruptedException {
 		log.info("Starting work queue test...");
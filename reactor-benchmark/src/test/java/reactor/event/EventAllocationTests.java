@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Reactor;
+import reactor.core.composable.Deferred;
+import reactor.core.composable.Stream;
+import reactor.core.composable.spec.DeferredStreamSpec;
+import reactor.core.composable.spec.Streams;
+import reactor.core.spec.ReactorSpec;
+import reactor.core.spec.Reactors;
+import reactor.function.Consumer;
+import reactor.function.Function;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static reactor.event.selector.Selectors.$;
+
+/**
+ * Measures the allocation rate and the garbage collections caused by notifying events at a target rate of 10M events
+ * per second, with and without pooled events. A synchronous dispatcher is used so that every allocation happens on the
+ * producing thread, where it is measured.
+ *
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+public class EventAllocationTests {
+
+	private final Logger     log          = LoggerFactory.getLogger(getClass());
+	private final int        testRuns     = 3;
+	private final int        events       = 10 * 1000 * 1000;
+	private final long       targetRate   = 10 * 1000 * 1000;
+	private final AtomicLong counter      = new AtomicLong();
+	private final Integer    value        = 1;
+
+	@Test
+	public void reactorEventAllocation() throws InterruptedException {
+		doReactorTest("reactor", Reactors.reactor().synchronousDispatcher());
+	}
+
+	@Test
+	public void pooledReactorEventAllocation() throws InterruptedException {
+		doReactorTest("pooled reactor", Reactors.reactor().synchronousDispatcher().pooledEvents());
+	}
+
+	@Test
+	public void streamEventAllocation() throws InterruptedException {
+		doStreamTest("stream", Streams.<Integer>defer().synchronousDispatcher());
+	}
+
+	@Test
+	public void pooledStreamEventAllocation() throws InterruptedException {
+		doStreamTest("pooled stream", Streams.<Integer>defer().synchronousDispatcher().pooledEvents());
+	}
+
+	private void doReactorTest(String name, ReactorSpec spec) throws InterruptedException {
+		final Reactor reactor = spec.get();
+		reactor.on($("test"), new Consumer<Event<Integer>>() {
+			@Override
+			public void accept(Event<Integer> ev) {
+				counter.addAndGet(ev.getData());
+			}
+		});
+
+		doTest(name, new Runnable() {
+			@Override
+			public void run() {
+				reactor.notify("test", reactor.wrap(value));
+			}
+		});
+	}
+
+	private void doStreamTest(String name, DeferredStreamSpec<Integer> spec) throws InterruptedException {
+		final Deferred<Integer, Stream<Integer>> d = spec.get();
+		d.compose()
+		 .map(new Function<Integer, Integer>() {
+			 @Override
+			 public Integer apply(Integer i) {
+				 return i;
+			 }
+		 })
+		 .consume(new Consumer<Integer>() {
+			 @Override
+			 public void accept(Integer i) {
+				 counter.addAndGet(i);
+			 }
+		 });
+
+		doTest(name, new Runnable() {
+			@Override
+			public void run() {
+				d.accept(value);
+			}
+		});
+	}
+
+	private void doTest(String name, Runnable notification) throws InterruptedException {
+		// warm up
+		for(int i = 0; i < events; i++) {
+			notification.run();
+		}
+
+		for(int run = 0; run < testRuns; run++) {
+			counter.set(0);
+			long allocatedBefore = allocatedBytes();
+			long collectionsBefore = collections();
+			long collectionTimeBefore = collectionTime();
+			long start = System.nanoTime();
+
+			// notify in slices of 1ms worth of events, pausing whenever we're ahead of the target rate
+			long slice = targetRate / 1000;
+			for(int i = 0; i < events; i++) {
+				notification.run();
+				if((i + 1) % slice == 0) {
+					long due = start + ((i + 1) * 1000000000L / targetRate);
+					long ahead = due - System.nanoTime();
+					if(ahead > 0) {
+						Thread.sleep(ahead / 1000000, (int)(ahead % 1000000));
+					}
+				}
+			}
+
+			long elapsed = System.nanoTime() - start;
+			long allocated = allocatedBytes() - allocatedBefore;
+			assertEquals(events, counter.get());
+
+			log.info("{} run {}: {}/sec, {} bytes/event, {} MB/sec allocated, {} collections ({}ms)",
+			         name,
+			         run,
+			         Math.round(events / (elapsed / 1000000000.0)),
+			         (allocated < 0 ? "n/a" : String.format("%.1f", allocated / (double)events)),
+			         (allocated < 0 ? "n/a" : Math.round((allocated / (1024.0 * 1024.0)) / (elapsed / 1000000000.0))),
+			         collections() - collectionsBefore,
+			         collectionTime() - collectionTimeBefore);
+		}
+	}
+
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean)threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	private static long collections() {
+		long count = 0;
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	private static long collectionTime() {
+		long time = 0;
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		return time;
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.event.registry.CachingRegistry;
+import reactor.event.registry.CopyOnWriteRegistry;
+import reactor.event.registry.Registry;
+import reactor.event.selector.Selectors;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures {@link Registry#select(Object)} throughput as the number of concurrent producer threads grows, on a warm
+ * cache and with many more distinct keys than the cache holds, so that most selections miss it.
+ *
+ * @author Jon Brisbin
+ */
+public class RegistryThroughputTests {
+
+	private final Logger   log          = LoggerFactory.getLogger(getClass());
+	private final int      selectors    = 1024;
+	private final int      testRuns     = 3;
+	private final long     testDuration = 1000;
+	private final int[]    threadCounts = {1, 2, 4, 8};
+	private final Object[] keys         = new Object[selectors];
+	private final int      distinctKeys = 100 * 1000;
+
+	@Test
+	public void cachingRegistrySelectThroughput() throws InterruptedException {
+		for (int threads : threadCounts) {
+			doTest(new CachingRegistry<Object>(), threads);
+		}
+	}
+
+	@Test
+	public void copyOnWriteRegistrySelectThroughput() throws InterruptedException {
+		for (int threads : threadCounts) {
+			doTest(new CopyOnWriteRegistry<Object>(), threads);
+		}
+	}
+
+	@Test
+	public void cachingRegistryDistinctKeysSelectThroughput() throws InterruptedException {
+		for (int threads : threadCounts) {
+			doDistinctKeysTest(new CachingRegistry<Object>(), threads);
+		}
+	}
+
+	@Test
+	public void copyOnWriteRegistryDistinctKeysSelectThroughput() throws InterruptedException {
+		for (int threads : threadCounts) {
+			doDistinctKeysTest(new CopyOnWriteRegistry<Object>(), threads);
+		}
+	}
+
+	private void doTest(Registry<Object> registry, int threads) throws InterruptedException {
+		for (int i = 0; i < selectors; i++) {
+			keys[i] = "test" + i;
+			registry.register(Selectors.$(keys[i]), i);
+		}
+		for (int i = 0; i < selectors; i++) {
+			// pre-select everything to ensure it's in the cache
+			registry.select(keys[i]);
+		}
+
+		doSelects(registry, threads, keys, "select");
+	}
+
+	private void doDistinctKeysTest(Registry<Object> registry, int threads) throws InterruptedException {
+		registry.register(Selectors.uri("/users/{id}"), "user");
+		for (int i = 0; i < selectors; i++) {
+			registry.register(Selectors.$("test" + i), i);
+		}
+		Object[] uris = new Object[distinctKeys];
+		for (int i = 0; i < distinctKeys; i++) {
+			uris[i] = "/users/" + i;
+		}
+
+		doSelects(registry, threads, uris, "distinct keys select");
+	}
+
+	private void doSelects(final Registry<Object> registry, int threads, final Object[] keys, String name)
+			throws InterruptedException {
+		for (int run = 0; run < testRuns; run++) {
+			final AtomicLong counter = new AtomicLong();
+			final CountDownLatch latch = new CountDownLatch(threads);
+			long start = System.currentTimeMillis();
+			for (int t = 0; t < threads; t++) {
+				final int offset = t;
+				new Thread() {
+					@Override
+					public void run() {
+						long start = System.currentTimeMillis();
+						long selects = 0;
+						int i = offset;
+						do {
+							registry.select(keys[i++ % keys.length]);
+							selects++;
+						} while (System.currentTimeMillis() - start < testDuration);
+						counter.addAndGet(selects);
+						latch.countDown();
+					}
+				}.start();
+			}
+			latch.await();
+
+			double elapsed = System.currentTimeMillis() - start;
+			long throughput = Math.round(counter.get() / (elapsed / 1000));
+			log.info(registry.getClass().getSimpleName() +
+					         " " +
+					         name +
+					         " throughput with " +
+					         threads +
+					         " thread(s) (" +
+					         ((long) elapsed) +
+					         "ms): " +
+					         throughput +
+					         "/sec");
+		}
+
+		registry.clear();
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.event.selector.UriPathTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures {@link UriPathTemplate} throughput when matching 100k distinct URIs, half of which don't match the
+ * template, from 8 concurrent threads.
+ *
+ * @author Jon Brisbin
+ */
+public class UriPathTemplateThroughputTests {
+
+	private final Logger   log          = LoggerFactory.getLogger(getClass());
+	private final int      uris         = 100 * 1000;
+	private final int      threads      = 8;
+	private final int      testRuns     = 3;
+	private final long     testDuration = 1000;
+	private final String[] keys         = new String[uris];
+
+	@Test
+	public void uriPathTemplateMatchesThroughput() throws InterruptedException {
+		doTest("matches", false);
+	}
+
+	@Test
+	public void uriPathTemplateMatchThroughput() throws InterruptedException {
+		doTest("match", true);
+	}
+
+	private void doTest(String name, final boolean extract) throws InterruptedException {
+		final UriPathTemplate tmpl = new UriPathTemplate("/users/{user}/posts/{post}.json");
+		for (int i = 0; i < uris; i++) {
+			keys[i] = (i % 2 == 0 ? "/users/" + i + "/posts/" + (i * 31) + ".json" : "/users/" + i + "/comments");
+		}
+
+		for (int run = 0; run < testRuns; run++) {
+			final AtomicLong counter = new AtomicLong();
+			final AtomicLong hits = new AtomicLong();
+			final CountDownLatch latch = new CountDownLatch(threads);
+			long start = System.currentTimeMillis();
+			for (int t = 0; t < threads; t++) {
+				final int offset = t * (uris / threads);
+				new Thread() {
+					@Override
+					public void run() {
+						long start = System.currentTimeMillis();
+						long matches = 0;
+						long matched = 0;
+						int i = offset;
+						do {
+							String key = keys[i++ % uris];
+							if (extract ? !tmpl.match(key).isEmpty() : tmpl.matches(key)) {
+								matched++;
+							}
+							matches++;
+						} while (System.currentTimeMillis() - start < testDuration);
+						counter.addAndGet(matches);
+						hits.addAndGet(matched);
+						latch.countDown();
+					}
+				}.start();
+			}
+			latch.await();
+
+			double elapsed = System.currentTimeMillis() - start;
+			long throughput = Math.round(counter.get() / (elapsed / 1000));
+			assertEquals((double) counter.get() / 2, (double) hits.get(), counter.get() * 0.01);
+			log.info("UriPathTemplate " +
+					         name +
+					         " throughput with " +
+					         threads +
+					         " thread(s) (" +
+					         ((long) elapsed) +
+					         "ms): " +
+					         throughput +
+					         "/sec");
+		}
+	}
+
+}
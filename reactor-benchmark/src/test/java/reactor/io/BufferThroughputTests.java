@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.io;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the throughput of building a 10MB payload by appending, or prepending, 1KB at a time to a dynamic {@link
+ * Buffer}, a {@link Buffer} whose storage is pooled and a {@link CompositeBuffer}.
+ *
+ * @author Jon Brisbin
+ */
+public class BufferThroughputTests {
+
+	private final Logger log          = LoggerFactory.getLogger(getClass());
+	private final int    payloadSize  = 10 * 1000 * 1000;
+	private final int    chunkSize    = 1000;
+	private final int    testRuns     = 3;
+	private final long   testDuration = 2000;
+	private final byte[] chunk        = new byte[chunkSize];
+
+	@Test
+	public void dynamicBufferAppendThroughput() {
+		doTest("Buffer append", new Builder() {
+			@Override
+			public int build() {
+				Buffer buffer = new Buffer();
+				for(int i = 0; i < payloadSize; i += chunkSize) {
+					buffer.append(chunk);
+				}
+				return buffer.position();
+			}
+		});
+	}
+
+	@Test
+	public void pooledBufferAppendThroughput() {
+		final SizeClassedBufferAllocator allocator = new SizeClassedBufferAllocator();
+		doTest("pooled Buffer append", new Builder() {
+			@Override
+			public int build() throws IOException {
+				Buffer buffer = new Buffer(allocator);
+				for(int i = 0; i < payloadSize; i += chunkSize) {
+					buffer.append(chunk);
+				}
+				int len = buffer.position();
+				buffer.close();
+				return len;
+			}
+		});
+	}
+
+	@Test
+	public void compositeBufferAppendThroughput() {
+		final BufferAllocator allocator = new BufferAllocator(1024, false, Buffer.SMALL_BUFFER_SIZE);
+		doTest("CompositeBuffer append", new Builder() {
+			@Override
+			public int build() {
+				CompositeBuffer buffer = new CompositeBuffer(allocator);
+				for(int i = 0; i < payloadSize; i += chunkSize) {
+					buffer.append(chunk);
+				}
+				int len = buffer.remaining();
+				buffer.close();
+				return len;
+			}
+		});
+	}
+
+	@Test
+	public void dynamicBufferPrependThroughput() {
+		doTest("Buffer prepend", new Builder() {
+			@Override
+			public int build() {
+				// prepending shifts the whole content: build a smaller payload
+				Buffer buffer = new Buffer().append(chunk).flip();
+				for(int i = chunkSize; i < payloadSize / 10; i += chunkSize) {
+					buffer.prepend(chunk);
+				}
+				return buffer.remaining() * 10;
+			}
+		});
+	}
+
+	@Test
+	public void compositeBufferPrependThroughput() {
+		final BufferAllocator allocator = new BufferAllocator(1024, false, Buffer.SMALL_BUFFER_SIZE);
+		doTest("CompositeBuffer prepend", new Builder() {
+			@Override
+			public int build() {
+				CompositeBuffer buffer = new CompositeBuffer(allocator);
+				for(int i = 0; i < payloadSize; i += chunkSize) {
+					buffer.prepend(chunk);
+				}
+				int len = buffer.remaining();
+				buffer.close();
+				return len;
+			}
+		});
+	}
+
+	private void doTest(String name, Builder builder) {
+		try {
+			for(int run = 0; run < testRuns; run++) {
+				long bytes = 0;
+				long start = System.currentTimeMillis();
+				do {
+					int len = builder.build();
+					assertEquals(payloadSize, len);
+					bytes += len;
+				} while(System.currentTimeMillis() - start < testDuration);
+
+				double elapsed = System.currentTimeMillis() - start;
+				long throughput = Math.round(bytes / (1024 * 1024) / (elapsed / 1000));
+				log.info(name + " throughput (" + ((long)elapsed) + "ms): " + throughput + "MB/sec");
+			}
+		} catch(IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	private interface Builder {
+		int build() throws IOException;
+	}
+
+}
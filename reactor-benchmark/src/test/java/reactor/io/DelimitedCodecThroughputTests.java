@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.io;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.function.Consumer;
+import reactor.function.Function;
+import reactor.io.encoding.DelimitedCodec;
+import reactor.io.encoding.StandardCodecs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the throughput of splitting 1MB of newline-delimited log lines, as read from a connection, with a {@link
+ * DelimitedCodec} and with {@link Buffer#split(Buffer, boolean)}.
+ *
+ * @author Jon Brisbin
+ */
+public class DelimitedCodecThroughputTests {
+
+	private final Logger log          = LoggerFactory.getLogger(getClass());
+	private final int    testRuns     = 3;
+	private final long   testDuration = 2000;
+
+	@Test
+	public void delimitedCodecThroughput() {
+		final Buffer buffer = logLines("\n");
+		final int lines = count(buffer, '\n');
+		final long[] decoded = new long[1];
+		final Function<Buffer, Buffer> decoder = new DelimitedCodec<Buffer, Buffer>(StandardCodecs.PASS_THROUGH_CODEC)
+				.decoder(new Consumer<Buffer>() {
+					@Override
+					public void accept(Buffer line) {
+						decoded[0]++;
+					}
+				});
+		doTest("DelimitedCodec", buffer, new Runnable() {
+			@Override
+			public void run() {
+				decoded[0] = 0;
+				buffer.position(0);
+				decoder.apply(buffer);
+				assertEquals(lines, decoded[0]);
+			}
+		});
+	}
+
+	@Test
+	public void multiByteSplitThroughput() {
+		final Buffer buffer = logLines("\r\n");
+		final int lines = count(buffer, '\n');
+		final Buffer delimiter = Buffer.wrap("\r\n");
+		final List<Buffer.View> views = new ArrayList<Buffer.View>(lines);
+		doTest("Buffer.split(\"\\r\\n\")", buffer, new Runnable() {
+			@Override
+			public void run() {
+				views.clear();
+				buffer.position(0);
+				buffer.split(views, delimiter, true);
+				assertEquals(lines, views.size());
+			}
+		});
+	}
+
+	private void doTest(String name, Buffer buffer, Runnable split) {
+		int len = buffer.limit();
+		for(int run = 0; run < testRuns; run++) {
+			long bytes = 0;
+			long start = System.currentTimeMillis();
+			do {
+				split.run();
+				bytes += len;
+			} while(System.currentTimeMillis() - start < testDuration);
+
+			double elapsed = System.currentTimeMillis() - start;
+			long throughput = Math.round(bytes / (1024 * 1024) / (elapsed / 1000));
+			log.info(name + " throughput (" + ((long)elapsed) + "ms): " + throughput + "MB/sec");
+		}
+	}
+
+	private static Buffer logLines(String delimiter) {
+		Random random = new Random(0);
+		StringBuilder lines = new StringBuilder();
+		while(lines.length() < 1024 * 1024) {
+			lines.append("<34>Oct 11 22:14:15 mymachine su: 'su root' failed for user")
+			     .append(random.nextInt(1000000))
+			     .append(" on /dev/pts/")
+			     .append(random.nextInt(64))
+			     .append(delimiter);
+		}
+		return Buffer.wrap(lines.toString());
+	}
+
+	private static int count(Buffer buffer, char c) {
+		int count = 0;
+		for(int i = 0; i < buffer.limit(); i++) {
+			if(buffer.byteBuffer().get(i) == c) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
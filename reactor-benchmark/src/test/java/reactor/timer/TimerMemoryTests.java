@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.timer;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.event.dispatch.ThreadPoolExecutorDispatcher;
+import reactor.function.Consumer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Measures the heap used by a {@link SimpleHashWheelTimer} running 10,000 periodic timers, which must stay stable for
+ * as long as the timers run. The test only runs when the number of minutes to watch the timers for is given, with {@code
+ * -Preactor.timer.memoryTestMinutes=1} on the Gradle command line, or {@code 1440} to watch them for 24 hours.
+ *
+ * @author Jon Brisbin
+ */
+public class TimerMemoryTests {
+
+	private final Logger log          = LoggerFactory.getLogger(getClass());
+	private final int    timers       = 10000;
+	private final Long   testMinutes  = Long.getLong("reactor.timer.memoryTestMinutes");
+	private final long   testDuration = TimeUnit.MINUTES.toMillis(null != testMinutes ? testMinutes : 0);
+	private final long   sampleEvery  = Math.max(1000, testDuration / 60);
+
+	@Test
+	public void periodicTimersUseStableMemory() throws InterruptedException {
+		assumeTrue(null != testMinutes);
+
+		ThreadPoolExecutorDispatcher dispatcher = new ThreadPoolExecutorDispatcher(2, 2048);
+		SimpleHashWheelTimer timer = new SimpleHashWheelTimer(10, dispatcher);
+		final AtomicLong runs = new AtomicLong();
+		Consumer<Long> task = new Consumer<Long>() {
+			@Override
+			public void accept(Long now) {
+				runs.incrementAndGet();
+			}
+		};
+		try {
+			for(int i = 0; i < timers; i++) {
+				timer.schedule(task, 100 + (i % 100) * 10, TimeUnit.MILLISECONDS);
+			}
+
+			Thread.sleep(sampleEvery);
+			long baseline = usedHeap();
+			long max = baseline;
+			long start = System.currentTimeMillis();
+			while(System.currentTimeMillis() - start < testDuration) {
+				Thread.sleep(sampleEvery);
+				long used = usedHeap();
+				max = Math.max(max, used);
+				log.info("Timer heap after " + (System.currentTimeMillis() - start) / 1000 + "s: " + used / 1024 + "KB, "
+						         + runs.get() + " runs");
+			}
+
+			log.info("Timer heap: " + baseline / 1024 + "KB baseline, " + max / 1024 + "KB max");
+			assertTrue("Timer heap grew from " + baseline + " to " + max + " bytes",
+			           max - baseline < 16 * 1024 * 1024);
+		} finally {
+			timer.cancel();
+			dispatcher.shutdown();
+		}
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for(int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
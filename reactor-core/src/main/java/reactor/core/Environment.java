@@ -48,11 +48,22 @@ public class Environment implements Iterable<Map.Entry<String, List<Dispatcher>>
 	 */
 	public static final String RING_BUFFER = "ringBuffer";
 
+	/**
+	 * The name of the sharded ring buffer dispatcher, which the default configuration only declares as a commented-out
+	 * example
+	 */
+	public static final String SHARDED_RING_BUFFER = "shardedRingBuffer";
+
 	/**
 	 * The name of the default thread pool dispatcher
 	 */
 	public static final String THREAD_POOL = "threadPoolExecutor";
 
+	/**
+	 * The name of the default virtual thread dispatcher
+	 */
+	public static final String VIRTUAL_THREAD = "virtualThread";
+
 	/**
 	 * The name of the default work queue dispatcher
 	 */
@@ -65,12 +76,24 @@ public class Environment implements Iterable<Map.Entry<String, List<Dispatcher>>
 	 */
 	public static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
 
+	/**
+	 * The name of the property holding the resolution of the root timer, in milliseconds
+	 */
+	public static final String TIMER_RESOLUTION = "reactor.timer.resolution";
+
+	/**
+	 * The name of the property holding the name of the dispatcher the root timer dispatches its tasks to. The tasks are
+	 * run by the timer thread if it isn't set.
+	 */
+	public static final String TIMER_DISPATCHER = "reactor.timer.dispatcher";
+
+	private static final int    DEFAULT_TIMER_RESOLUTION = 50;
 	private static final String DEFAULT_DISPATCHER_NAME = "__default-dispatcher";
 	private static final String SYNC_DISPATCHER_NAME    = "sync";
 
 	private final Properties env;
 
-	private final Timer                    timer            = new SimpleHashWheelTimer();
+	private final Timer                    timer;
 	private final AtomicReference<Reactor> rootReactor      = new AtomicReference<Reactor>();
 	private final Object                   monitor          = new Object();
 	private final Filter                   dispatcherFilter = new RoundRobinFilter();
@@ -120,18 +143,35 @@ public class Environment implements Iterable<Map.Entry<String, List<Dispatcher>>
 				for(int i = 0; i < size; i++) {
 					addDispatcher(dispatcherConfiguration.getName(), createBlockingQueueDispatcher(dispatcherConfiguration));
 				}
+			} else if(DispatcherType.FORK_JOIN == dispatcherConfiguration.getType()) {
+				addDispatcher(dispatcherConfiguration.getName(), createForkJoinDispatcher(dispatcherConfiguration));
 			} else if(DispatcherType.RING_BUFFER == dispatcherConfiguration.getType()) {
 				addDispatcher(dispatcherConfiguration.getName(), createRingBufferDispatcher(dispatcherConfiguration));
+			} else if(DispatcherType.SHARDED_RING_BUFFER == dispatcherConfiguration.getType()) {
+				addDispatcher(dispatcherConfiguration.getName(), createShardedRingBufferDispatcher(dispatcherConfiguration));
 			} else if(DispatcherType.SYNCHRONOUS == dispatcherConfiguration.getType()) {
 				addDispatcher(dispatcherConfiguration.getName(), new SynchronousDispatcher());
 			} else if(DispatcherType.THREAD_POOL_EXECUTOR == dispatcherConfiguration.getType()) {
 				addDispatcher(dispatcherConfiguration.getName(), createThreadPoolExecutorDispatcher(dispatcherConfiguration));
+			} else if(DispatcherType.VIRTUAL_THREAD == dispatcherConfiguration.getType()) {
+				addDispatcher(dispatcherConfiguration.getName(), createVirtualThreadDispatcher(dispatcherConfiguration));
 			} else if(DispatcherType.WORK_QUEUE == dispatcherConfiguration.getType()) {
 				addDispatcher(dispatcherConfiguration.getName(), createWorkQueueDispatcher(dispatcherConfiguration));
 			}
 		}
 
 		addDispatcher(SYNC_DISPATCHER_NAME, new SynchronousDispatcher());
+
+		timer = createTimer();
+	}
+
+	private Timer createTimer() {
+		int resolution = getProperty(TIMER_RESOLUTION, Integer.class, DEFAULT_TIMER_RESOLUTION);
+		String dispatcher = getProperty(TIMER_DISPATCHER, null);
+		if(null == dispatcher) {
+			return new SimpleHashWheelTimer(resolution);
+		}
+		return new SimpleHashWheelTimer(resolution, getDispatcher(dispatcher));
 	}
 
 	private ThreadPoolExecutorDispatcher createThreadPoolExecutorDispatcher(DispatcherConfiguration
@@ -144,6 +184,22 @@ public class Environment implements Iterable<Map.Entry<String, List<Dispatcher>>
 		                                        dispatcherConfiguration.getName());
 	}
 
+	private ForkJoinDispatcher createForkJoinDispatcher(DispatcherConfiguration dispatcherConfiguration) {
+		int size = getSize(dispatcherConfiguration, 0);
+		int backlog = getBacklog(dispatcherConfiguration, 128);
+
+		return new ForkJoinDispatcher(size,
+		                              backlog,
+		                              dispatcherConfiguration.getName(),
+		                              null);
+	}
+
+	private VirtualThreadDispatcher createVirtualThreadDispatcher(DispatcherConfiguration dispatcherConfiguration) {
+		int backlog = getBacklog(dispatcherConfiguration, 1024);
+
+		return new VirtualThreadDispatcher(dispatcherConfiguration.getName(), backlog);
+	}
+
 	private WorkQueueDispatcher createWorkQueueDispatcher(DispatcherConfiguration dispatcherConfiguration) {
 		int size = getSize(dispatcherConfiguration, 0);
 		int backlog = getBacklog(dispatcherConfiguration, 16384);
@@ -163,6 +219,17 @@ public class Environment implements Iterable<Map.Entry<String, List<Dispatcher>>
 		                                new BlockingWaitStrategy());
 	}
 
+	private ShardedRingBufferDispatcher createShardedRingBufferDispatcher(DispatcherConfiguration
+			                                                                      dispatcherConfiguration) {
+		int size = getSize(dispatcherConfiguration, 0);
+		int backlog = getBacklog(dispatcherConfiguration, 1024);
+		return new ShardedRingBufferDispatcher(dispatcherConfiguration.getName(),
+		                                       size,
+		                                       backlog,
+		                                       null,
+		                                       null);
+	}
+
 	private EventLoopDispatcher createBlockingQueueDispatcher(DispatcherConfiguration dispatcherConfiguration) {
 		int backlog = getBacklog(dispatcherConfiguration, 128);
 
@@ -312,7 +379,8 @@ public class Environment implements Iterable<Map.Entry<String, List<Dispatcher>>
 	}
 
 	/**
-	 * Get the {@code Environment}-wide {@link reactor.timer.SimpleHashWheelTimer}.
+	 * Get the {@code Environment}-wide {@link reactor.timer.SimpleHashWheelTimer}, whose resolution and dispatcher are
+	 * given by the {@link #TIMER_RESOLUTION} and {@link #TIMER_DISPATCHER} properties.
 	 *
 	 * @return the timer.
 	 */
@@ -295,8 +295,9 @@ public interface Observable {
 
 	/**
 	 * Notify the key with all any accepted iterable group of events by the returned {@link Consumer}. The
-	 * implementation will take care of reducing the consumer selection to one per batch. The candidate consumers are
-	 * selected with the key {@param key}, possibly on each batch to refresh the result list.
+	 * implementation will take care of handing each batch over to the {@link reactor.event.dispatch.Dispatcher} in one
+	 * operation. The candidate consumers are selected with the key {@param key} for each event of the batch. The events
+	 * are routed as they are: their own key isn't changed.
 	 *
 	 * @param key
 	 * 		The key to be matched by {@link Selector Selectors}
@@ -307,13 +308,14 @@ public interface Observable {
 
 	/**
 	 * Notify the key with all any accepted iterable group of events by the returned {@link Consumer}. The
-	 * implementation will take care of reducing the consumer selection to one per batch. The candidate consumers are
-	 * selected with the key {@param key}, possibly on each batch to refresh the result list.
+	 * implementation will take care of handing each batch over to the {@link reactor.event.dispatch.Dispatcher} in one
+	 * operation. The candidate consumers are selected with the key {@param key} for each event of the batch. The events
+	 * are routed as they are: their own key isn't changed.
 	 *
 	 * @param key
 	 * 		The key to be matched by {@link Selector Selectors}
 	 * @param consumer
-	 * 		The consumer to trigger after batch completion
+	 * 		The consumer to trigger once every event of the batch has been routed, even if routing some of them failed
 	 *
 	 * @return a {@link Consumer} to invoke with the {@link Event Events} to publish
 	 */
@@ -19,6 +19,8 @@ package reactor.core;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.event.Event;
+import reactor.event.alloc.PooledEvent;
+import reactor.event.alloc.PooledEventAllocator;
 import reactor.event.dispatch.Dispatcher;
 import reactor.event.dispatch.SynchronousDispatcher;
 import reactor.event.registry.CachingRegistry;
@@ -41,8 +43,10 @@ import reactor.util.UUIDUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A reactor is an event gateway that allows other components to register {@link Event} {@link Consumer}s that can
@@ -68,6 +72,7 @@ public class Reactor implements Observable {
 	private final Selector                               defaultSelector;
 	private final Object                                 defaultKey;
 	private final Consumer<Throwable>                    dispatchErrorHandler;
+	private final PooledEventAllocator                   eventAllocator;
 
 	private volatile UUID id;
 
@@ -129,12 +134,43 @@ public class Reactor implements Observable {
 	               @Nullable Selector defaultSelector,
 	               @Nullable Consumer<Throwable> dispatchErrorHandler,
 	               @Nullable final Consumer<Throwable> uncaughtErrorHandler) {
+		this(consumerRegistry, dispatcher, eventRouter, defaultSelector, dispatchErrorHandler, uncaughtErrorHandler, false);
+	}
+
+	/**
+	 * Create a new {@literal Reactor} that uses the given {@code dispatacher} and {@code eventRouter}, and optionally
+	 * pools the events it creates.
+	 * <p>
+	 * A pooling reactor obtains the events it {@link #wrap(Object) wraps} values in from the {@link
+	 * PooledEventAllocator} of its {@link Dispatcher}. A pooled event is returned to the pool once every dispatch of it
+	 * has been routed by a {@link ConsumerFilteringEventRouter}, or refused by a shut down {@link Dispatcher}, so
+	 * consumers must not keep it, nor use it from another thread, once they have returned.
+	 *
+	 * @param dispatcher           The {@link Dispatcher} to use. May be {@code null} in which case a new synchronous
+	 *                             dispatcher is used.
+	 * @param eventRouter          The {@link EventRouter} used to route events to {@link Consumer Consumers}. May be
+	 *                             {@code null} in which case the default event router will be used.
+	 * @param consumerRegistry     The {@link Registry} to be used to match {@link Selector} and dispatch to {@link
+	 *                             Consumer}.
+	 * @param defaultSelector      The {@link Selector} used when notifying without a key. May be {@code null}.
+	 * @param dispatchErrorHandler The handler of the errors thrown while dispatching. May be {@code null}.
+	 * @param uncaughtErrorHandler The handler of the errors not consumed otherwise. May be {@code null}.
+	 * @param pooledEvents         Whether the events created by this reactor are obtained from a pool.
+	 */
+	public Reactor(@Nonnull Registry<Consumer<? extends Event<?>>> consumerRegistry,
+	               @Nullable Dispatcher dispatcher,
+	               @Nullable EventRouter eventRouter,
+	               @Nullable Selector defaultSelector,
+	               @Nullable Consumer<Throwable> dispatchErrorHandler,
+	               @Nullable final Consumer<Throwable> uncaughtErrorHandler,
+	               boolean pooledEvents) {
 		Assert.notNull(consumerRegistry, "Consumer Registry cannot be null.");
 		this.consumerRegistry = consumerRegistry;
 		this.dispatcher = (null == dispatcher ? new SynchronousDispatcher() : dispatcher);
 		this.eventRouter = (null == eventRouter ? DEFAULT_EVENT_ROUTER : eventRouter);
 		this.defaultSelector = (null == defaultSelector ? Selectors.anonymous() : defaultSelector);
 		this.defaultKey = this.defaultSelector.getObject();
+		this.eventAllocator = (pooledEvents ? PooledEventAllocator.forDispatcher(this.dispatcher) : null);
 		if(null == dispatchErrorHandler) {
 			this.dispatchErrorHandler = new Consumer<Throwable>() {
 				@Override
@@ -226,6 +262,29 @@ public class Reactor implements Observable {
 		return eventRouter;
 	}
 
+	/**
+	 * Whether this {@literal Reactor} obtains the events it creates from a pool.
+	 *
+	 * @return {@literal true} if the events are pooled
+	 */
+	public boolean isPooledEvents() {
+		return null != eventAllocator;
+	}
+
+	/**
+	 * Wrap the given object with an {@link Event}, obtained from the pool of this {@literal Reactor}'s {@link
+	 * Dispatcher} if this {@literal Reactor} pools events. A pooled event must not be used once it has been routed; one
+	 * that's never notified isn't returned to the pool, and is garbage collected instead.
+	 *
+	 * @param obj The object to wrap.
+	 * @param <T> The type of the given object.
+	 *
+	 * @return The {@link Event}.
+	 */
+	public <T> Event<T> wrap(T obj) {
+		return (null != eventAllocator ? eventAllocator.allocate(obj) : Event.wrap(obj));
+	}
+
 
 	@Override
 	public boolean respondsToKey(Object key) {
@@ -261,6 +320,7 @@ public class Reactor implements Observable {
 		Assert.notNull(key, "Key cannot be null.");
 		Assert.notNull(ev, "Event cannot be null.");
 		ev.setKey(key);
+		retain(ev);
 		dispatcher.dispatch(key, ev, consumerRegistry, dispatchErrorHandler, eventRouter, onComplete);
 
 		return this;
@@ -288,7 +348,7 @@ public class Reactor implements Observable {
 
 	@Override
 	public Reactor notify(Object key) {
-		return notify(key, new Event<Void>(Void.class), null);
+		return notify(key, (null != eventAllocator ? eventAllocator.allocate((Void)null) : new Event<Void>(Void.class)), null);
 	}
 
 	@Override
@@ -336,6 +396,7 @@ public class Reactor implements Observable {
 			public void accept(Event<T> ev) {
 				for(int i = 0; i < size; i++) {
 					Registration<Consumer<Event<?>>> reg = (Registration<Consumer<Event<?>>>)regs.get(i);
+					retain(ev);
 					dispatcher.dispatch(ev.setKey(key), eventRouter, reg.getObject(), dispatchErrorHandler);
 				}
 			}
@@ -346,7 +407,7 @@ public class Reactor implements Observable {
 		return new Consumer<T>() {
 			@Override
 			public void accept(T obj) {
-				Reactor.this.notify(Event.wrap(obj));
+				Reactor.this.notify(wrap(obj));
 			}
 		};
 	}
@@ -359,28 +420,52 @@ public class Reactor implements Observable {
 	@Override
 	public <T> Consumer<Iterable<Event<T>>> batchNotify(final Object key, final Consumer<Void> completeConsumer) {
 		return new Consumer<Iterable<Event<T>>>() {
-			final Consumer<Event<Iterable<Event<T>>>> batchConsumer = new Consumer<Event<Iterable<Event<T>>>>() {
-				@Override
-				public void accept(Event<Iterable<Event<T>>> event) {
-					List<Registration<? extends Consumer<? extends Event<?>>>> regs = consumerRegistry.select(key);
-					for (Event<T> batchedEvent : event.getData()) {
-						for (Registration<? extends Consumer<? extends Event<?>>> registration : regs) {
-							eventRouter.route(null, batchedEvent, null, registration.getObject(), dispatchErrorHandler);
-						}
-					}
-					if(completeConsumer != null){
+			@Override
+			public void accept(Iterable<Event<T>> evs) {
+				List<Event<T>> batch = new ArrayList<Event<T>>();
+				for (Event<T> ev : evs) {
+					retain(ev);
+					batch.add(ev);
+				}
+
+				EventRouter batchRouter = eventRouter;
+				if (null != completeConsumer) {
+					if (batch.isEmpty()) {
 						completeConsumer.accept(null);
+						return;
 					}
+					final AtomicInteger remaining = new AtomicInteger(batch.size());
+					batchRouter = new EventRouter() {
+						@Override
+						public void route(Object key,
+						                  Event<?> event,
+						                  List<Registration<? extends Consumer<? extends Event<?>>>> consumers,
+						                  Consumer<?> completionConsumer,
+						                  Consumer<Throwable> errorConsumer) {
+							try {
+								eventRouter.route(key, event, consumers, completionConsumer, errorConsumer);
+							} finally {
+								// count the events whose routing failed too, so that the batch always completes
+								if (remaining.decrementAndGet() == 0) {
+									completeConsumer.accept(null);
+								}
+							}
+						}
+					};
 				}
-			};
 
-			@Override
-			public void accept(Iterable<Event<T>> evs) {
-				dispatcher.dispatch(null, Event.wrap(evs), null, dispatchErrorHandler, eventRouter, batchConsumer);
+				dispatcher.dispatchBatch(key, batch, consumerRegistry, dispatchErrorHandler, batchRouter, null);
 			}
 		};
 	}
 
+	private static void retain(Event<?> ev) {
+		if(ev instanceof PooledEvent) {
+			// released once this dispatch has been routed
+			((PooledEvent<?>)ev).retain();
+		}
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
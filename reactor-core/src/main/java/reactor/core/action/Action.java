@@ -36,6 +36,8 @@ public abstract class Action<T> implements Consumer<Event<T>> {
 	private final Object     successKey;
 	private final Object     failureKey;
 
+	private Consumer<Event<?>> successConsumer;
+
 	protected Action(Observable observable, Object successKey, Object failureKey) {
 		this.observable = observable;
 		this.successKey = successKey;
@@ -73,8 +75,27 @@ public abstract class Action<T> implements Consumer<Event<T>> {
 		return ""+System.identityHashCode(this);
 	}
 
+	/**
+	 * Fuse this action with the next step of its pipeline: its values will be passed to the given consumer by a direct
+	 * call, on the current thread, instead of being notified on the success key. Must be called before the action is
+	 * registered.
+	 *
+	 * @param successConsumer
+	 * 		the consumer of the values of this action
+	 *
+	 * @return {@literal this}
+	 */
+	public Action<T> fuse(Consumer<Event<?>> successConsumer) {
+		this.successConsumer = successConsumer;
+		return this;
+	}
+
 	protected void notifyValue(Event<?> value) {
-		observable.notify(successKey, value);
+		if(null != successConsumer) {
+			successConsumer.accept(value);
+		} else {
+			observable.notify(successKey, value);
+		}
 	}
 
 	/**
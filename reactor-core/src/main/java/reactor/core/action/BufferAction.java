@@ -17,6 +17,7 @@ package reactor.core.action;
 
 import reactor.core.Observable;
 import reactor.event.Event;
+import reactor.event.alloc.PooledEvent;
 import reactor.function.Consumer;
 
 import java.util.ArrayList;
@@ -44,6 +45,10 @@ public class BufferAction<T> extends BatchAction<T> implements Flushable<T>{
 
 	@Override
 	public void doNext(Event<T> value) {
+		if(value instanceof PooledEvent) {
+			// kept after it's been routed, until the buffer is flushed
+			((PooledEvent<?>)value).retain();
+		}
 		values.add(value);
 	}
 
@@ -54,6 +59,11 @@ public class BufferAction<T> extends BatchAction<T> implements Flushable<T>{
 			return;
 		}
 		batchConsumer.accept(new ArrayList<Event<T>>(values));
+		for(Event<T> ev : values) {
+			if(ev instanceof PooledEvent) {
+				((PooledEvent<?>)ev).release();
+			}
+		}
 		values.clear();
 	}
 
@@ -20,6 +20,7 @@ import reactor.core.Observable;
 import reactor.core.Reactor;
 import reactor.core.action.*;
 import reactor.event.Event;
+import reactor.event.alloc.PooledEvent;
 import reactor.event.selector.ObjectSelector;
 import reactor.event.selector.Selector;
 import reactor.event.selector.Selectors;
@@ -31,6 +32,8 @@ import reactor.util.Assert;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Abstract base class for components designed to provide a succinct API for working with future values. Provides base
@@ -54,6 +57,10 @@ public abstract class Composable<T> implements Pipeline<T> {
 	private final Observable    events;
 	private final Composable<?> parent;
 
+	private final boolean                fused;
+	private final List<Action<Object>>   fusedActions;
+	private final Consumer<Event<?>>     fusedConsumer;
+
 	protected <U> Composable(@Nullable Observable observable, @Nullable Composable<U> parent) {
 		this(observable, parent, null);
 	}
@@ -61,9 +68,57 @@ public abstract class Composable<T> implements Pipeline<T> {
 
 	protected <U> Composable(@Nullable Observable observable, @Nullable Composable<U> parent,
 	                         @Nullable Tuple2<Selector, Object> acceptSelectorTuple) {
+		this(observable, parent, acceptSelectorTuple, null != parent && parent.fused);
+	}
+
+	/**
+	 * Create a {@code Composable} that is optionally fused. The values of a fused {@code Composable} are passed to
+	 * the {@code Composable Composables} it creates with {@link #map(reactor.function.Function)}, {@link
+	 * #filter(reactor.function.Predicate)} and the like by calling their actions directly, rather than by notifying
+	 * them through the {@link Observable}. Errors and flushes still go through the {@link Observable}. Child {@code
+	 * Composables} are fused if their parent is.
+	 *
+	 * @param observable
+	 * 		the observable used to drive the actions, may be {@code null} if there's a parent
+	 * @param parent
+	 * 		the parent, may be {@code null}
+	 * @param acceptSelectorTuple
+	 * 		the selector/key to accept values on, may be {@code null}
+	 * @param fused
+	 * 		whether the values should be passed to children by direct calls
+	 */
+	protected <U> Composable(@Nullable Observable observable, @Nullable Composable<U> parent,
+	                         @Nullable Tuple2<Selector, Object> acceptSelectorTuple, boolean fused) {
 		Assert.state(observable != null || parent != null, "One of 'observable' or 'parent'  cannot be null.");
 		this.parent = parent;
 		this.events = parent == null ? observable : parent.events;
+		this.fused = fused;
+		if(fused) {
+			this.fusedActions = new CopyOnWriteArrayList<Action<Object>>();
+			this.fusedConsumer = new Consumer<Event<?>>() {
+				@SuppressWarnings("unchecked")
+				@Override
+				public void accept(Event<?> ev) {
+					((Event<Object>)ev).setKey(acceptKey);
+					if(ev instanceof PooledEvent) {
+						// the event isn't dispatched, so hold it while it's passed to the actions
+						((PooledEvent<?>)ev).retain();
+					}
+					try {
+						for(Action<Object> action : fusedActions) {
+							action.accept((Event<Object>)ev);
+						}
+					} finally {
+						if(ev instanceof PooledEvent) {
+							((PooledEvent<?>)ev).release();
+						}
+					}
+				}
+			};
+		} else {
+			this.fusedActions = null;
+			this.fusedConsumer = null;
+		}
 		if(null == acceptSelectorTuple) {
 			this.acceptSelector = Selectors.anonymous();
 			this.acceptKey = acceptSelector.getObject();
@@ -199,11 +254,11 @@ public abstract class Composable<T> implements Pipeline<T> {
 	public <V> Composable<V> map(@Nonnull final Function<T, V> fn) {
 		Assert.notNull(fn, "Map function cannot be null.");
 		final Deferred<V, ? extends Composable<V>> d = createDeferred();
-		add(new MapAction<T, V>(
+		add(fuse(new MapAction<T, V>(
 				fn,
 				d.compose().getObservable(),
 				d.compose().getAcceptKey(),
-				error.getObject()));
+				error.getObject()), d.compose()));
 		return d.compose();
 	}
 
@@ -275,9 +330,9 @@ public abstract class Composable<T> implements Pipeline<T> {
 	 */
 	public Composable<T> filter(@Nonnull final Predicate<T> p, final Composable<T> elseComposable) {
 		final Deferred<T, ? extends Composable<T>> d = createDeferred();
-		add(new FilterAction<T>(p, d.compose().getObservable(), d.compose().getAcceptKey(), error.getObject(),
-		                        elseComposable != null ? elseComposable.events : null,
-		                        elseComposable != null ? elseComposable.acceptKey : null));
+		add(fuse(new FilterAction<T>(p, d.compose().getObservable(), d.compose().getAcceptKey(), error.getObject(),
+		                             elseComposable != null ? elseComposable.events : null,
+		                             elseComposable != null ? elseComposable.acceptKey : null), d.compose()));
 		return d.compose();
 	}
 
@@ -316,13 +371,57 @@ public abstract class Composable<T> implements Pipeline<T> {
 	 */
 	@SuppressWarnings("unchecked")
 	public Composable<T> add(Action<T> action) {
-		this.events.on(acceptSelector, action);
+		attach(action);
 		if(null != action && Flushable.class.isAssignableFrom(action.getClass())) {
 			consumeFlush((Flushable<T>)action);
 		}
 		return this;
 	}
 
+	/**
+	 * Whether this {@code Composable} passes its values to its children by direct calls.
+	 *
+	 * @return {@literal true} if this {@code Composable} is fused
+	 */
+	public boolean isFused() {
+		return fused;
+	}
+
+	/**
+	 * Register the given {@code Action} to be invoked with the values accepted by this {@code Composable}, whether they
+	 * are notified on the accept key or, if this {@code Composable} is fused, passed by direct call from its parent.
+	 *
+	 * @param action
+	 * 		the action listening for values
+	 */
+	@SuppressWarnings("unchecked")
+	protected void attach(Action<?> action) {
+		this.events.on(acceptSelector, action);
+		if(fused) {
+			fusedActions.add((Action<Object>)action);
+		}
+	}
+
+	/**
+	 * Fuse the given {@code Action}, whose values are meant for the given child {@code Composable}, if both are fused:
+	 * the action will then call the child's actions directly instead of notifying the child's accept key.
+	 *
+	 * @param action
+	 * 		the action to fuse
+	 * @param child
+	 * 		the {@code Composable} the action passes its values to
+	 * @param <A>
+	 * 		the type of the action
+	 *
+	 * @return the action
+	 */
+	protected <A extends Action<?>> A fuse(A action, Composable<?> child) {
+		if(fused && child.fused && child.events == events) {
+			action.fuse(child.fusedConsumer);
+		}
+		return action;
+	}
+
 	/**
 	 * Consume flush with the passed {@code Action}
 	 *
@@ -347,6 +446,18 @@ public abstract class Composable<T> implements Pipeline<T> {
 		events.notify(acceptKey, value);
 	}
 
+	/**
+	 * Wrap the given value with an {@link Event}, obtained from the pool of the {@link Observable} if it pools events.
+	 *
+	 * @param value
+	 * 		the value to wrap
+	 *
+	 * @return the event
+	 */
+	Event<T> wrap(T value) {
+		return (events instanceof Reactor ? ((Reactor)events).wrap(value) : Event.wrap(value));
+	}
+
 	/**
 	 * Notify this {@code Composable} that an error is being propagated through this {@code Composable}.
 	 *
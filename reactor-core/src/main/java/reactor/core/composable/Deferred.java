@@ -80,7 +80,7 @@ public class Deferred<T, C extends Composable<T>> implements Consumer<T> {
 	 */
 	@Override
 	public void accept(T value) {
-		acceptEvent(Event.wrap(value));
+		acceptEvent(head.wrap(value));
 	}
 
 
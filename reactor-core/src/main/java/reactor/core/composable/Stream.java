@@ -113,6 +113,40 @@ public class Stream<T> extends Composable<T> {
 		this.environment = environment;
 	}
 
+	/**
+	 * Create a new Stream that will use the {@link Observable} to pass its values to registered
+	 * handlers.
+	 * <p>
+	 * The stream will batch values into batches of the given {@code batchSize}, affecting the values that are passed to
+	 * the {@link #first()} and {@link #last()} substreams. A size of {@code -1} indicates that the stream should not be
+	 * batched.
+	 * </p>
+	 * A fused stream passes its values through {@link #map(reactor.function.Function) map}, {@link
+	 * #filter(reactor.function.Predicate) filter}, {@link #scan(reactor.function.Function) scan}, {@link
+	 * #reduce(reactor.function.Function) reduce} and consumers by calling them directly, so only the values notified to
+	 * the head of the pipeline are dispatched. Errors and flushes are still notified through the {@link Observable}.
+	 *
+	 * @param observable
+	 * 		The observable used to drive event handlers
+	 * @param batchSize
+	 * 		The size of the batches, or {@code -1} for no batching
+	 * @param parent
+	 * 		The stream's parent. May be {@code null}
+	 * @param acceptSelector
+	 * 		The tuple Selector/Key to accept values on this observable. May be {@code null}
+	 * @param fused
+	 * 		Whether the values should be passed to the child streams by direct calls
+	 */
+	public Stream(@Nullable final Observable observable,
+	              int batchSize,
+	              @Nullable final Composable<?> parent, Tuple2<Selector, Object> acceptSelector,
+	              @Nullable final Environment environment,
+	              boolean fused) {
+		super(observable, parent, acceptSelector, fused);
+		this.batchSize = batchSize;
+		this.environment = environment;
+	}
+
 	@Override
 	public Stream<T> consume(@Nonnull Consumer<T> consumer) {
 		return (Stream<T>)super.consume(consumer);
@@ -310,10 +344,10 @@ public class Stream<T> extends Composable<T> {
 	 */
 	public Stream<T> split(int batchSize) {
 		final Deferred<T, Stream<T>> d = createDeferred(batchSize);
-		getObservable().on(getAcceptSelector(), new ForEachAction<T>(batchSize,
-		                                                             getObservable(),
-		                                                             d.compose().getAcceptKey(),
-		                                                             getError().getObject()));
+		attach(new ForEachAction<T>(batchSize,
+		                            getObservable(),
+		                            d.compose().getAcceptKey(),
+		                            getError().getObject()));
 		return d.compose();
 	}
 
@@ -680,12 +714,12 @@ public class Stream<T> extends Composable<T> {
 	) {
 		final Deferred<A, Stream<A>> d = createDeferred(1);
 		final Stream<A> stream = d.compose();
-		add(new ReduceAction<T, A>(batchSize,
-		                           accumulators,
-		                           fn,
-		                           stream.getObservable(),
-		                           stream.getAcceptKey(),
-		                           getError().getObject()));
+		add(fuse(new ReduceAction<T, A>(batchSize,
+		                                accumulators,
+		                                fn,
+		                                stream.getObservable(),
+		                                stream.getAcceptKey(),
+		                                getError().getObject()), stream));
 
 		return stream;
 	}
@@ -743,11 +777,11 @@ public class Stream<T> extends Composable<T> {
 	public <A> Stream<A> scan(@Nonnull final Function<Tuple2<T, A>, A> fn, @Nullable final Supplier<A> accumulators) {
 		final Deferred<A, Stream<A>> d = createDeferred(1);
 		final Stream<A> stream = d.compose();
-		add(new ScanAction<T, A>(accumulators,
-		                         fn,
-		                         stream.getObservable(),
-		                         stream.getAcceptKey(),
-		                         getError().getObject()));
+		add(fuse(new ScanAction<T, A>(accumulators,
+		                              fn,
+		                              stream.getObservable(),
+		                              stream.getAcceptKey(),
+		                              getError().getObject()), stream));
 
 		return stream;
 	}
@@ -19,8 +19,11 @@ import reactor.core.Environment;
 import reactor.core.Observable;
 import reactor.core.Reactor;
 import reactor.core.spec.support.DispatcherComponentSpec;
+import reactor.event.Event;
 import reactor.event.dispatch.Dispatcher;
+import reactor.event.registry.CachingRegistry;
 import reactor.event.selector.Selector;
+import reactor.function.Consumer;
 import reactor.tuple.Tuple2;
 
 /**
@@ -35,6 +38,7 @@ public abstract class ComposableSpec<SPEC extends ComposableSpec<SPEC, TARGET>,
 
 	private Observable               observable;
 	private Tuple2<Selector, Object> acceptSelector;
+	private boolean                  pooledEvents;
 
 
 	/**
@@ -62,10 +66,31 @@ public abstract class ComposableSpec<SPEC extends ComposableSpec<SPEC, TARGET>,
 	}
 
 
+	/**
+	 * Configures the Composable to obtain the events it creates from the pool of its dispatcher. A pooled event is
+	 * returned to the pool once it has been routed, so consumers must not keep the events they receive. Ignored if an
+	 * explicit observable is used.
+	 *
+	 * @return {@code this}
+	 */
+	@SuppressWarnings("unchecked")
+	public SPEC pooledEvents() {
+		this.pooledEvents = true;
+		return (SPEC) this;
+	}
+
 	@Override
 	protected TARGET configure(final Dispatcher dispatcher, Environment env) {
 		if (observable == null) {
-			observable = new Reactor(dispatcher);
+			observable = (pooledEvents ?
+			              new Reactor(new CachingRegistry<Consumer<? extends Event<?>>>(),
+			                          dispatcher,
+			                          null,
+			                          null,
+			                          null,
+			                          null,
+			                          true) :
+			              new Reactor(dispatcher));
 		}
 		return createComposable(env, observable, acceptSelector);
 	}
@@ -35,6 +35,7 @@ import reactor.tuple.Tuple2;
 public final class DeferredStreamSpec<T> extends ComposableSpec<DeferredStreamSpec<T>, Deferred<T, Stream<T>>> {
 
 	private int batchSize = -1;
+	private boolean fused = false;
 
 	/**
 	 * Configures the stream to have the given {@code batchSize}. A value of {@code -1}, which
@@ -48,11 +49,22 @@ public final class DeferredStreamSpec<T> extends ComposableSpec<DeferredStreamSp
 		return this;
 	}
 
+	/**
+	 * Configures the stream to be fused: values are passed through its map, filter, scan and reduce steps and to its
+	 * consumers by direct calls, so only the values accepted by the stream itself are dispatched.
+	 *
+	 * @return {@code this}
+	 */
+	public DeferredStreamSpec<T> fused() {
+		this.fused = true;
+		return this;
+	}
+
 	@Override
 	protected Deferred<T, Stream<T>> createComposable(Environment env, Observable observable,
 	                                                  Tuple2<Selector, Object> accept) {
 		Stream<T> stream =
-				new Stream<T>(observable, batchSize, null, accept, env);
+				new Stream<T>(observable, batchSize, null, accept, env, fused);
 		if (batchSize > 1) {
 			return new BatchStreamDeferred<T>(stream, batchSize);
 		} else {
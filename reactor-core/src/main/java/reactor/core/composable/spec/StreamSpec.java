@@ -35,6 +35,7 @@ import reactor.tuple.Tuple2;
 public final class StreamSpec<T> extends ComposableSpec<StreamSpec<T>, Stream<T>> {
 
 	private int batchSize = -1;
+	private boolean fused = false;
 	private Iterable<T> values;
 	private Supplier<T> valuesSupplier;
 
@@ -50,6 +51,17 @@ public final class StreamSpec<T> extends ComposableSpec<StreamSpec<T>, Stream<T>
 		return this;
 	}
 
+	/**
+	 * Configures the stream to be fused: values are passed through its map, filter, scan and reduce steps and to its
+	 * consumers by direct calls, so only the values accepted by the stream itself are dispatched.
+	 *
+	 * @return {@code this}
+	 */
+	public StreamSpec<T> fused() {
+		this.fused = true;
+		return this;
+	}
+
 	/**
 	 * Configures the stream to contain the given {@code values}.
 	 *
@@ -82,7 +94,7 @@ public final class StreamSpec<T> extends ComposableSpec<StreamSpec<T>, Stream<T>
 					DeferredStreamSpec.class.getSimpleName() + " to create a stream with no initial values or supplier");
 		}
 
-		Stream<T> stream = new Stream<T>(observable, batchSize, null, accept, env);
+		Stream<T> stream = new Stream<T>(observable, batchSize, null, accept, env, fused);
 		if(values == null){
 			return stream.propagate(valuesSupplier);
 		}else{
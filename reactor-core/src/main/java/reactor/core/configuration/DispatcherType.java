@@ -19,6 +19,7 @@ package reactor.core.configuration;
 import com.lmax.disruptor.RingBuffer;
 import reactor.core.dynamic.annotation.Dispatcher;
 
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
@@ -33,11 +34,21 @@ public enum DispatcherType {
 	 */
 	EVENT_LOOP,
 
+	/**
+	 * A {@link Dispatcher} which uses a work-stealing {@link ForkJoinPool} for dispatching
+	 */
+	FORK_JOIN,
+
 	/**
 	 * A {@link Dispatcher} which uses a {@link RingBuffer} for dispatching
 	 */
 	RING_BUFFER,
 
+	/**
+	 * A {@link Dispatcher} which uses one {@link RingBuffer} per shard of keys for dispatching
+	 */
+	SHARDED_RING_BUFFER,
+
 	/**
 	 * A {@link Dispatcher} which uses the current thread for dispatching
 	 */
@@ -48,6 +59,12 @@ public enum DispatcherType {
 	 */
 	THREAD_POOL_EXECUTOR,
 
+	/**
+	 * A {@link Dispatcher} which runs each task on a virtual thread, or a platform thread if virtual threads aren't
+	 * supported
+	 */
+	VIRTUAL_THREAD,
+
 	/**
 	 * A {@link Dispatcher} which uses a multi-threaded {@literal RingBuffer} for dispatching
 	 */
@@ -147,12 +147,18 @@ public class PropertiesConfigurationReader implements ConfigurationReader {
 		String type = configuration.getProperty(String.format(FORMAT_DISPATCHER_TYPE, dispatcherName));
 		if("eventLoop".equals(type)) {
 			return DispatcherType.EVENT_LOOP;
+		} else if("forkJoin".equals(type)) {
+			return DispatcherType.FORK_JOIN;
 		} else if("ringBuffer".equals(type)) {
 			return DispatcherType.RING_BUFFER;
+		} else if("shardedRingBuffer".equals(type)) {
+			return DispatcherType.SHARDED_RING_BUFFER;
 		} else if("synchronous".equals(type)) {
 			return DispatcherType.SYNCHRONOUS;
 		} else if("threadPoolExecutor".equals(type)) {
 			return DispatcherType.THREAD_POOL_EXECUTOR;
+		} else if("virtualThread".equals(type)) {
+			return DispatcherType.VIRTUAL_THREAD;
 		} else if("workQueue".equals(type)) {
 			return DispatcherType.WORK_QUEUE;
 		} else {
@@ -19,8 +19,11 @@ import reactor.convert.Converter;
 import reactor.convert.DelegatingConverter;
 import reactor.core.Environment;
 import reactor.core.Reactor;
+import reactor.event.Event;
 import reactor.event.dispatch.Dispatcher;
 import reactor.event.dispatch.TraceableDelegatingDispatcher;
+import reactor.event.registry.CachingRegistry;
+import reactor.event.registry.Registry;
 import reactor.event.routing.*;
 import reactor.event.selector.Selector;
 import reactor.filter.*;
@@ -53,7 +56,9 @@ public abstract class EventRoutingComponentSpec<SPEC extends EventRoutingCompone
 	private Consumer<Throwable>  dispatchErrorHandler;
 	private Consumer<Throwable>  uncaughtErrorHandler;
 	private Selector             defaultSelector;
+	private Registry<Consumer<? extends Event<?>>> consumerRegistry;
 	private boolean traceEventPath = false;
+	private boolean pooledEvents   = false;
 
 	/**
 	 * Configures the component's EventRouter to use the given {code converters}.
@@ -203,6 +208,19 @@ public abstract class EventRoutingComponentSpec<SPEC extends EventRoutingCompone
 		return (SPEC)this;
 	}
 
+	/**
+	 * Configures the component's consumer {@code Registry}. Defaults to a {@link reactor.event.registry.CachingRegistry}.
+	 *
+	 * @param consumerRegistry
+	 * 		the {@code Registry} used to select the consumers of a notification
+	 *
+	 * @return {@code this}
+	 */
+	public SPEC consumerRegistry(Registry<Consumer<? extends Event<?>>> consumerRegistry) {
+		this.consumerRegistry = consumerRegistry;
+		return (SPEC)this;
+	}
+
 	/**
 	 * Configures this component to provide event tracing when dispatching and routing an event.
 	 *
@@ -225,6 +243,17 @@ public abstract class EventRoutingComponentSpec<SPEC extends EventRoutingCompone
 		return (SPEC)this;
 	}
 
+	/**
+	 * Configures the component to obtain the events it creates from the pool of its dispatcher. A pooled event is
+	 * returned to the pool once it has been routed, so consumers must not keep the events they receive.
+	 *
+	 * @return {@code this}
+	 */
+	public final SPEC pooledEvents() {
+		this.pooledEvents = true;
+		return (SPEC)this;
+	}
+
 	protected abstract TARGET configure(Reactor reactor, Environment environment);
 
 	@Override
@@ -236,8 +265,28 @@ public abstract class EventRoutingComponentSpec<SPEC extends EventRoutingCompone
 		if(traceEventPath) {
 			dispatcher = new TraceableDelegatingDispatcher(dispatcher);
 		}
+		EventRouter router = (eventRouter != null ? eventRouter : createEventRouter());
+		if(pooledEvents) {
+			return new Reactor(null != consumerRegistry ?
+			                   consumerRegistry :
+			                   new CachingRegistry<Consumer<? extends Event<?>>>(),
+			                   dispatcher,
+			                   router,
+			                   defaultSelector,
+			                   dispatchErrorHandler,
+			                   uncaughtErrorHandler,
+			                   true);
+		}
+		if(null != consumerRegistry) {
+			return new Reactor(consumerRegistry,
+			                   dispatcher,
+			                   router,
+			                   defaultSelector,
+			                   dispatchErrorHandler,
+			                   uncaughtErrorHandler);
+		}
 		return new Reactor(dispatcher,
-		                   (eventRouter != null ? eventRouter : createEventRouter()),
+		                   router,
 		                   defaultSelector,
 		                   dispatchErrorHandler,
 		                   uncaughtErrorHandler);
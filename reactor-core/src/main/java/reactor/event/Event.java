@@ -253,6 +253,20 @@ public class Event<T> implements Serializable, Recyclable {
 		}
 	}
 
+	/**
+	 * Make the given event reuse the same headers and replyTo as this event.
+	 *
+	 * @param ev
+	 * 		The event to update
+	 *
+	 * @return {@literal ev}
+	 */
+	protected <E> Event<E> copyTo(Event<E> ev) {
+		ev.headers = headers;
+		ev.replyTo = replyTo;
+		return ev;
+	}
+
 	/**
 	 * Consumes error, using a producer defined callback
 	 *
@@ -268,9 +282,8 @@ public class Event<T> implements Serializable, Recyclable {
 	@Override
 	public void recycle() {
 		this.id = null;
-		if(null != this.headers) {
-			this.headers.headers.clear();
-		}
+		// copies of this event may share its headers, so drop them rather than clearing them
+		this.headers = null;
 		this.replyTo = null;
 		this.key = null;
 		this.data = null;
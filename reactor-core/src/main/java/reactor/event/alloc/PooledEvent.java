@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event.alloc;
+
+import reactor.event.Event;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * An {@link Event} obtained from a {@link PooledEventAllocator}. A pooled event counts the dispatches it's part of:
+ * every dispatch by a {@link reactor.core.Reactor} {@link #retain() retains} it, every routing by a {@link
+ * reactor.event.routing.ConsumerFilteringEventRouter} {@link #release() releases} it, and once the last dispatch has
+ * been routed the event is recycled and returned to its pool. A dispatch refused by a shut down {@link
+ * reactor.event.dispatch.Dispatcher} releases the event too. Components that keep a pooled event after it has been
+ * routed must retain it themselves and release it once they're done with it.
+ * <p>
+ * Copies of a pooled event are obtained from the same pool.
+ *
+ * @param <T>
+ * 		The type of the wrapped object
+ *
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ * @since 1.1
+ */
+public class PooledEvent<T> extends Event<T> {
+
+	private static final long serialVersionUID = 5212813254398329124L;
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<PooledEvent> REF_CNT = AtomicIntegerFieldUpdater
+			.newUpdater(PooledEvent.class, "refCnt");
+
+	private final transient PooledEventAllocator allocator;
+
+	private transient volatile int refCnt;
+
+	PooledEvent(PooledEventAllocator allocator) {
+		super((Class<T>)null);
+		this.allocator = allocator;
+	}
+
+	/**
+	 * Increase the number of pending uses of this event by {@literal 1}.
+	 */
+	public void retain() {
+		REF_CNT.incrementAndGet(this);
+	}
+
+	/**
+	 * Decrease the number of pending uses of this event by {@literal 1}, returning it to its pool if there are none
+	 * left. Releasing an event that has no pending uses does nothing.
+	 */
+	public void release() {
+		for(;;) {
+			int cnt = refCnt;
+			if(cnt < 1) {
+				return;
+			}
+			if(REF_CNT.compareAndSet(this, cnt, cnt - 1)) {
+				if(cnt == 1) {
+					allocator.recycle(this);
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Get the number of pending uses of this event.
+	 *
+	 * @return the reference count
+	 */
+	public int getReferenceCount() {
+		return refCnt;
+	}
+
+	@Override
+	public <E> Event<E> copy(E data) {
+		return copyTo(allocator.allocate(data));
+	}
+
+}
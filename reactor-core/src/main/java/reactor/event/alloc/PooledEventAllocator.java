@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event.alloc;
+
+import reactor.event.dispatch.Dispatcher;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An allocator that hands out {@link PooledEvent PooledEvents}, which are returned to the pool once they have been
+ * routed. Events of any data type share the same pool.
+ * <p>
+ * The pool keeps a free list per thread, so allocating and recycling events never contends: an event is returned to
+ * the free list of the thread that releases it, and an allocation on a thread whose free list is empty creates a new
+ * event. The pool only holds free events, so an event that's never released is simply garbage collected. Pooling
+ * pays off when events are allocated on the thread that routes them, as with a synchronous {@link Dispatcher} or the
+ * copies made by the actions of a {@link reactor.core.composable.Composable}.
+ * <p>
+ * The events dispatched by a {@link Dispatcher} are released by its threads, so the components using the same {@link
+ * Dispatcher} share the same allocator, obtained with {@link #forDispatcher(Dispatcher)}.
+ *
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ * @since 1.1
+ */
+public class PooledEventAllocator {
+
+	private static final int DEFAULT_MAX_FREE = 1024;
+
+	private static final Map<Dispatcher, PooledEventAllocator> ALLOCATORS =
+			new WeakHashMap<Dispatcher, PooledEventAllocator>();
+
+	private final int                                maxFree;
+	private final ThreadLocal<Deque<PooledEvent<?>>> freeEvents = new ThreadLocal<Deque<PooledEvent<?>>>() {
+		@Override
+		protected Deque<PooledEvent<?>> initialValue() {
+			return new ArrayDeque<PooledEvent<?>>();
+		}
+	};
+
+	public PooledEventAllocator() {
+		this(DEFAULT_MAX_FREE);
+	}
+
+	/**
+	 * Create a new {@literal PooledEventAllocator} that keeps at most {@code maxFree} free events per thread.
+	 *
+	 * @param maxFree
+	 * 		the maximum number of free events kept by each thread
+	 */
+	public PooledEventAllocator(int maxFree) {
+		this.maxFree = maxFree;
+	}
+
+	/**
+	 * Get the allocator shared by the components using the given {@link Dispatcher}, creating it if necessary.
+	 *
+	 * @param dispatcher
+	 * 		the dispatcher
+	 *
+	 * @return the allocator of the dispatcher
+	 */
+	public static PooledEventAllocator forDispatcher(Dispatcher dispatcher) {
+		synchronized(ALLOCATORS) {
+			PooledEventAllocator allocator = ALLOCATORS.get(dispatcher);
+			if(null == allocator) {
+				allocator = new PooledEventAllocator();
+				ALLOCATORS.put(dispatcher, allocator);
+			}
+			return allocator;
+		}
+	}
+
+	/**
+	 * Obtain an event wrapping the given object from the pool. The event is returned to the pool once every dispatch
+	 * of it has been routed or refused, and it must not be used once it has been routed.
+	 *
+	 * @param data
+	 * 		the object to wrap
+	 * @param <T>
+	 * 		the type of the object
+	 *
+	 * @return a pooled event
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> PooledEvent<T> allocate(T data) {
+		PooledEvent<T> ev = (PooledEvent<T>)freeEvents.get().poll();
+		if(null == ev) {
+			ev = new PooledEvent<T>(this);
+		}
+		ev.setData(data);
+		return ev;
+	}
+
+	void recycle(PooledEvent<?> ev) {
+		ev.recycle();
+		Deque<PooledEvent<?>> free = freeEvents.get();
+		if(free.size() < maxFree) {
+			free.push(ev);
+		}
+	}
+
+}
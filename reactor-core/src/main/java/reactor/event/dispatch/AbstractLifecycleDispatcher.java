@@ -18,11 +18,14 @@ package reactor.event.dispatch;
 
 import reactor.alloc.Recyclable;
 import reactor.event.Event;
+import reactor.event.alloc.PooledEvent;
 import reactor.event.registry.Registry;
 import reactor.event.routing.EventRouter;
 import reactor.function.Consumer;
 import reactor.util.Assert;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -91,7 +94,11 @@ public abstract class AbstractLifecycleDispatcher implements Dispatcher {
 	                                          Consumer<Throwable> errorConsumer,
 	                                          EventRouter eventRouter,
 	                                          Consumer<E> completionConsumer) {
-		Assert.isTrue(alive(), "This Dispatcher has been shut down.");
+		boolean alive = alive();
+		if (!alive) {
+			release(event);
+		}
+		Assert.isTrue(alive, "This Dispatcher has been shut down.");
 
 		try {
 			Task task;
@@ -120,9 +127,81 @@ public abstract class AbstractLifecycleDispatcher implements Dispatcher {
 		}
 	}
 
+	@Override
+	public <E extends Event<?>> void dispatchBatch(Object key,
+	                                               Iterable<E> events,
+	                                               Registry<Consumer<? extends Event<?>>> consumerRegistry,
+	                                               Consumer<Throwable> errorConsumer,
+	                                               EventRouter eventRouter,
+	                                               Consumer<E> completionConsumer) {
+		boolean alive = alive();
+		if (!alive) {
+			for (E event : events) {
+				release(event);
+			}
+		}
+		Assert.isTrue(alive, "This Dispatcher has been shut down.");
+
+		if (isInContext()) {
+			// recursive dispatches go to the tail recursion pile one by one
+			for (E event : events) {
+				dispatch(key, event, consumerRegistry, errorConsumer, eventRouter, completionConsumer);
+			}
+			return;
+		}
+
+		List<E> batch;
+		if (events instanceof List) {
+			batch = (List<E>) events;
+		} else {
+			batch = new ArrayList<E>();
+			for (E event : events) {
+				batch.add(event);
+			}
+		}
+
+		int size = batch.size();
+		int offset = 0;
+		while (offset < size) {
+			Task[] tasks = allocateTasks(size - offset);
+			for (Task task : tasks) {
+				task.setKey(key)
+				    .setEvent(batch.get(offset++))
+				    .setConsumerRegistry(consumerRegistry)
+				    .setErrorConsumer(errorConsumer)
+				    .setEventRouter(eventRouter)
+				    .setCompletionConsumer(completionConsumer);
+			}
+			execute(tasks);
+		}
+	}
+
 	protected void addToTailRecursionPile(Task task) {
 	}
 
+	/**
+	 * Allocate the tasks for a batch of {@code size} events. Implementations may allocate fewer tasks than requested, in
+	 * which case the rest of the batch is allocated by subsequent calls.
+	 *
+	 * @param size the number of events left in the batch
+	 * @return the allocated tasks, at least one
+	 */
+	protected Task[] allocateTasks(int size) {
+		// pooled tasks may be recycled once allocated, so only hand out one at a time by default
+		return new Task[]{allocateTask()};
+	}
+
+	/**
+	 * Execute the tasks of a batch allocated by {@link #allocateTasks(int)}.
+	 *
+	 * @param tasks the tasks to execute
+	 */
+	protected void execute(Task[] tasks) {
+		for (Task task : tasks) {
+			execute(task);
+		}
+	}
+
 	protected abstract Task allocateRecursiveTask();
 
 	protected abstract Task allocateTask();
@@ -146,6 +225,18 @@ public abstract class AbstractLifecycleDispatcher implements Dispatcher {
 		}
 	}
 
+	/**
+	 * Release a {@link PooledEvent} whose dispatch won't be routed, because it has been refused.
+	 *
+	 * @param event
+	 * 		the event whose dispatch is refused
+	 */
+	protected static void release(Event<?> event) {
+		if (event instanceof PooledEvent) {
+			((PooledEvent<?>) event).release();
+		}
+	}
+
 	public abstract class Task implements Runnable, Recyclable {
 
 		protected volatile Object                                 key;
@@ -4,9 +4,7 @@ import reactor.alloc.factory.BatchFactorySupplier;
 import reactor.function.Supplier;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -25,8 +23,8 @@ public abstract class AbstractMultiThreadDispatcher extends AbstractLifecycleDis
 	private final List<List<Task>>                      tailRecursionPileList;
 	private final BatchFactorySupplier<MultiThreadTask> taskFactory;
 
-	private final Map<Integer, Integer> tailsThreadIndexLookup = new HashMap<Integer, Integer>();
-	private final AtomicInteger         indexAssignPile        = new AtomicInteger();
+	private final ThreadLocal<Integer> tailsThreadIndex = new ThreadLocal<Integer>();
+	private final AtomicInteger        indexAssignPile  = new AtomicInteger();
 
 	protected AbstractMultiThreadDispatcher(int numberThreads, int backlog) {
 		this.backlog = backlog;
@@ -48,7 +46,6 @@ public abstract class AbstractMultiThreadDispatcher extends AbstractLifecycleDis
 			tailRecursionPileSizeArray[i] = 0;
 			tailRecurseSeqArray[i] = -1;
 			tailRecursionPileList.add(new ArrayList<Task>(backlog));
-			tailsThreadIndexLookup.put(System.identityHashCode(Thread.currentThread()), null);
 			expandTailRecursionPile(i, backlog);
 		}
 	}
@@ -67,10 +64,10 @@ public abstract class AbstractMultiThreadDispatcher extends AbstractLifecycleDis
 
 	@Override
 	protected Task allocateRecursiveTask() {
-		Integer index = tailsThreadIndexLookup.get(System.identityHashCode(Thread.currentThread()));
+		Integer index = tailsThreadIndex.get();
 		if(null == index) {
 			index = indexAssignPile.getAndIncrement() % numberThreads;
-			tailsThreadIndexLookup.put(Thread.currentThread().hashCode(), index);
+			tailsThreadIndex.set(index);
 		}
 		int next = ++tailRecurseSeqArray[index];
 		if(next == tailRecursionPileSizeArray[index]) {
@@ -88,7 +85,7 @@ public abstract class AbstractMultiThreadDispatcher extends AbstractLifecycleDis
 		public void run() {
 			route(this);
 
-			Integer index = tailsThreadIndexLookup.get(System.identityHashCode(Thread.currentThread()));
+			Integer index = tailsThreadIndex.get();
 			if(null == index || tailRecurseSeqArray[index] < 0) {
 				return;
 			}
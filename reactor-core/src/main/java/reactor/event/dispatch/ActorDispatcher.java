@@ -7,33 +7,68 @@ import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.util.Assert;
 
-import java.util.HashSet;
-import java.util.Map;
+import java.util.Collections;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * An implementation of {@link Dispatcher} that maps a key to a delegate dispatcher and caches the mapping within
  * its internal {@link Registry<Dispatcher>}. Thus making similar key-based dispatching reusing the same dispatcher,
  * a pattern also dubbed as "Actor".
+ * <p>
+ * Keys are compared by equality, and a key keeps the delegate it was first given, so that its events are dispatched
+ * in order. The first {@code maxKeys} keys each get their own delegate from the mapping function. Once there are that
+ * many, a new key shares the delegate of one of {@code maxKeys} slots picked by its hash code, which the mapping
+ * function is asked for the first time the slot is used. Plain {@link Runnable Runnables} given to {@link
+ * #execute(Runnable)} aren't keys: they're all run by the delegate of the {@code null} key.
  *
  * @author Stephane Maldini
  */
 public final class ActorDispatcher implements Dispatcher {
 
-	private final Function<Object, Dispatcher> delegateMapper;
-	private final Map<Integer, Dispatcher> dispatcherCache = new ConcurrentHashMap<Integer, Dispatcher>();
-	private final int                      emptyHashcode   = this.hashCode();
+	/**
+	 * The default maximum number of keys that get their own delegate.
+	 */
+	public static final int DEFAULT_MAX_KEYS = 8192;
+
+	private static final Object NULL_KEY = new Object();
+
+	private final Function<Object, Dispatcher>      delegateMapper;
+	private final int                               maxKeys;
+	private final ConcurrentMap<Object, Dispatcher> dispatcherCache;
+	// the delegates shared by the keys that came once dispatcherCache was full
+	private final AtomicReferenceArray<Dispatcher>  overflow;
+	private final Set<Dispatcher>                   delegates;
 
 	public ActorDispatcher(Function<Object, Dispatcher> delegate) {
+		this(delegate, DEFAULT_MAX_KEYS);
+	}
+
+	/**
+	 * Create an {@code ActorDispatcher} giving at most {@code maxKeys} keys their own delegate.
+	 *
+	 * @param delegate
+	 * 		the function mapping a key to its delegate dispatcher
+	 * @param maxKeys
+	 * 		the maximum number of keys that get their own delegate, and the number of delegates shared by the others
+	 */
+	public ActorDispatcher(Function<Object, Dispatcher> delegate, int maxKeys) {
 		Assert.notNull(delegate, "Delegate Dispatcher Supplier cannot be null.");
+		Assert.isTrue(maxKeys > 0, "Maximum number of keys must be greater than 0.");
 		this.delegateMapper = delegate;
+		this.maxKeys = maxKeys;
+		this.dispatcherCache = new ConcurrentHashMap<Object, Dispatcher>();
+		this.overflow = new AtomicReferenceArray<Dispatcher>(maxKeys);
+		this.delegates = Collections.newSetFromMap(new ConcurrentHashMap<Dispatcher, Boolean>());
 	}
 
 	@Override
 	public boolean alive() {
 		boolean alive = true;
-		for(Dispatcher dispatcher : new HashSet<Dispatcher>(dispatcherCache.values())) {
+		for(Dispatcher dispatcher : delegates) {
 			alive &= dispatcher.alive();
 			if(!alive) break;
 		}
@@ -48,7 +83,7 @@ public final class ActorDispatcher implements Dispatcher {
 	@Override
 	public boolean awaitAndShutdown(long timeout, TimeUnit timeUnit) {
 		boolean alive = true;
-		for(Dispatcher dispatcher : new HashSet<Dispatcher>(dispatcherCache.values())) {
+		for(Dispatcher dispatcher : delegates) {
 			if(dispatcher.alive()) {
 				alive &= dispatcher.awaitAndShutdown(timeout, timeUnit);
 			}
@@ -59,14 +94,14 @@ public final class ActorDispatcher implements Dispatcher {
 
 	@Override
 	public void shutdown() {
-		for(Dispatcher dispatcher : new HashSet<Dispatcher>(dispatcherCache.values())) {
+		for(Dispatcher dispatcher : delegates) {
 			dispatcher.shutdown();
 		}
 	}
 
 	@Override
 	public void halt() {
-		for(Dispatcher dispatcher : new HashSet<Dispatcher>(dispatcherCache.values())) {
+		for(Dispatcher dispatcher : delegates) {
 			dispatcher.halt();
 		}
 	}
@@ -79,14 +114,7 @@ public final class ActorDispatcher implements Dispatcher {
 	                                          EventRouter eventRouter,
 	                                          Consumer<E> completionConsumer) {
 
-		int hashCode = key == null ? emptyHashcode : key.hashCode();
-		Dispatcher delegate = dispatcherCache.get(hashCode);
-		if(delegate == null) {
-			delegate = delegateMapper.apply(key);
-			dispatcherCache.put(hashCode, delegate);
-		}
-
-		delegate.dispatch(
+		delegate(key).dispatch(
 				key,
 				event,
 				consumerRegistry,
@@ -95,6 +123,16 @@ public final class ActorDispatcher implements Dispatcher {
 				completionConsumer);
 	}
 
+	@Override
+	public <E extends Event<?>> void dispatchBatch(Object key,
+	                                               Iterable<E> events,
+	                                               Registry<Consumer<? extends Event<?>>> consumerRegistry,
+	                                               Consumer<Throwable> errorConsumer,
+	                                               EventRouter eventRouter,
+	                                               Consumer<E> completionConsumer) {
+		delegate(key).dispatchBatch(key, events, consumerRegistry, errorConsumer, eventRouter, completionConsumer);
+	}
+
 	@Override
 	public <E extends Event<?>> void dispatch(E event,
 	                                          EventRouter eventRouter,
@@ -105,14 +143,41 @@ public final class ActorDispatcher implements Dispatcher {
 
 	@Override
 	public void execute(Runnable command) {
-		int hashCode = command.hashCode();
-		Dispatcher delegate = dispatcherCache.get(hashCode);
-		if(delegate == null) {
-			delegate = delegateMapper.apply(command);
-			dispatcherCache.put(hashCode, delegate);
+		delegate(null).execute(command);
+	}
+
+	private Dispatcher delegate(Object key) {
+		Object cacheKey = (null == key ? NULL_KEY : key);
+		Dispatcher delegate = dispatcherCache.get(cacheKey);
+		if(null != delegate) {
+			return delegate;
 		}
 
-		delegate.execute(command);
+		if(dispatcherCache.size() < maxKeys) {
+			delegate = delegateMapper.apply(key);
+			Dispatcher existing = dispatcherCache.putIfAbsent(cacheKey, delegate);
+			if(null != existing) {
+				return existing;
+			}
+			delegates.add(delegate);
+			return delegate;
+		}
+
+		// keys are never evicted, so once the cache is full a new key always uses the same slot
+		int h = cacheKey.hashCode();
+		int slot = ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % maxKeys;
+		delegate = overflow.get(slot);
+		if(null == delegate) {
+			delegate = delegateMapper.apply(key);
+			if(overflow.compareAndSet(slot, null, delegate)) {
+				delegates.add(delegate);
+			} else {
+				delegate = overflow.get(slot);
+			}
+		}
+		// the key may just have been cached by another thread
+		Dispatcher cached = dispatcherCache.get(cacheKey);
+		return (null != cached ? cached : delegate);
 	}
 
 }
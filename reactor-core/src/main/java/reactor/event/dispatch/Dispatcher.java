@@ -85,6 +85,29 @@ public interface Dispatcher extends Executor {
 																		 EventRouter eventRouter,
 																		 Consumer<E> completionConsumer);
 
+	/**
+	 * Instruct the {@code Dispatcher} to dispatch each of the given {@code events}, which all have the given {@code
+	 * key}. The effect is the same as calling {@link #dispatch(Object, Event, Registry, Consumer, EventRouter, Consumer)}
+	 * for each event in turn, but implementations can hand the whole batch over at once, e.g. claiming a contiguous range
+	 * of slots in a ring buffer and publishing them together.
+	 *
+	 * @param key                The key associated with the events
+	 * @param events             The events
+	 * @param consumerRegistry   The registry from which consumer's are selected
+	 * @param errorConsumer      The consumer that is invoked if dispatch fails. May be {@code null}
+	 * @param eventRouter        Used to route the events to the selected consumers
+	 * @param completionConsumer The consumer that is driven for each event that is dispatched successfully. May be
+	 *                           {@code null}
+	 * @param <E>                type of the events
+	 * @throws IllegalStateException If the {@code Dispatcher} is not {@link Dispatcher#alive() alive}
+	 */
+	<E extends Event<?>> void dispatchBatch(Object key,
+	                                        Iterable<E> events,
+	                                        Registry<Consumer<? extends Event<?>>> consumerRegistry,
+	                                        Consumer<Throwable> errorConsumer,
+	                                        EventRouter eventRouter,
+	                                        Consumer<E> completionConsumer);
+
 	/**
 	 * Instruct the {@code Dispatcher} to dispatch the given {@code Event} using the given {@link Consumer}. This optimized
 	 * route bypasses all selection and routing so provides a significant throughput boost. If an error occurs, the given
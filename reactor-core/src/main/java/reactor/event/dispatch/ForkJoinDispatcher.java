@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.function.Consumer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@code Dispatcher} that uses a work-stealing {@link ForkJoinPool} in async mode to dispatch events. Events
+ * dispatched from outside of the pool are submitted to its shared queue, while events dispatched by a consumer running
+ * on one of the pool's workers are pushed onto that worker's own deque, from which they are run in FIFO order unless
+ * an idle worker steals them.
+ * <p>
+ * Tasks are pooled per thread: a task is taken from the pool of the thread that dispatches it and, once run, returned
+ * to the pool of the worker that ran it, so recursive dispatching reuses the same tasks without any contention.
+ * <p>
+ * This dispatcher requires Java 7 or later.
+ *
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ * @since 1.1
+ */
+public class ForkJoinDispatcher extends AbstractLifecycleDispatcher {
+
+	private static final AtomicInteger COUNTER = new AtomicInteger();
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final int                                    backlog;
+	private final Consumer<Throwable>                    uncaughtExceptionHandler;
+	private final ForkJoinPool                           pool;
+	private final ThreadLocal<Deque<ForkJoinTaskHolder>> taskPool;
+
+	/**
+	 * Creates a new {@literal ForkJoinDispatcher} with the given {@literal poolSize} and {@literal backlog}.
+	 *
+	 * @param poolSize
+	 * 		the number of workers
+	 * @param backlog
+	 * 		the maximum number of tasks pooled by each thread
+	 */
+	public ForkJoinDispatcher(int poolSize, int backlog) {
+		this(poolSize, backlog, "forkJoinDispatcher", null);
+	}
+
+	/**
+	 * Creates a new {@literal ForkJoinDispatcher} with the given {@literal poolSize}, {@literal backlog} and name.
+	 *
+	 * @param poolSize
+	 * 		the number of workers
+	 * @param backlog
+	 * 		the maximum number of tasks pooled by each thread
+	 * @param threadName
+	 * 		the name prefix to use when creating threads
+	 * @param uncaughtExceptionHandler
+	 * 		the handler of the exceptions thrown while running the tasks, may be {@code null}
+	 */
+	public ForkJoinDispatcher(int poolSize,
+	                          final int backlog,
+	                          final String threadName,
+	                          final Consumer<Throwable> uncaughtExceptionHandler) {
+		this.backlog = backlog;
+		this.uncaughtExceptionHandler = uncaughtExceptionHandler;
+		this.taskPool = new ThreadLocal<Deque<ForkJoinTaskHolder>>() {
+			@Override
+			protected Deque<ForkJoinTaskHolder> initialValue() {
+				return new ArrayDeque<ForkJoinTaskHolder>(backlog);
+			}
+		};
+		this.pool = new ForkJoinPool(
+				poolSize,
+				new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+					@Override
+					public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+						ForkJoinWorkerThread t = new ForkJoinWorkerThread(pool) {
+						};
+						t.setName(threadName + "-" + COUNTER.incrementAndGet());
+						t.setDaemon(true);
+						t.setContextClassLoader(getContext());
+						return t;
+					}
+				},
+				null,
+				true
+		);
+	}
+
+	public int getBacklog() {
+		return backlog;
+	}
+
+	@Override
+	public boolean awaitAndShutdown(long timeout, TimeUnit timeUnit) {
+		shutdown();
+		try {
+			if(!pool.awaitTermination(timeout, timeUnit)) {
+				return false;
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void shutdown() {
+		pool.shutdown();
+		super.shutdown();
+	}
+
+	@Override
+	public void halt() {
+		pool.shutdownNow();
+		super.halt();
+	}
+
+	@Override
+	protected Task allocateTask() {
+		ForkJoinTaskHolder task = taskPool.get().poll();
+		if(null == task) {
+			return new ForkJoinTaskHolder();
+		}
+		task.forkJoinTask.reinitialize();
+		return task;
+	}
+
+	@Override
+	protected Task allocateRecursiveTask() {
+		return allocateTask();
+	}
+
+	@Override
+	protected void addToTailRecursionPile(Task task) {
+		// we're on one of the pool's workers: push the task onto its local deque
+		((ForkJoinTaskHolder)task).forkJoinTask.fork();
+	}
+
+	@Override
+	protected void execute(Task task) {
+		pool.execute(((ForkJoinTaskHolder)task).forkJoinTask);
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		pool.execute(command);
+	}
+
+	private class ForkJoinTaskHolder extends Task {
+		private final ForkJoinTask<Void> forkJoinTask = new HolderTask(this);
+
+		@Override
+		public void run() {
+			route(this);
+		}
+
+		private void runAndRecycle() {
+			try {
+				run();
+			} catch(Throwable t) {
+				// a failed ForkJoinTask would only record its exception, so report it here
+				if(null != uncaughtExceptionHandler) {
+					uncaughtExceptionHandler.accept(t);
+				} else {
+					log.error(t.getMessage(), t);
+				}
+			}
+			// nothing else runs on this thread before the task completes, so it can be reused from now on
+			Deque<ForkJoinTaskHolder> tasks = taskPool.get();
+			if(tasks.size() < backlog) {
+				tasks.push(this);
+			}
+		}
+	}
+
+	private static class HolderTask extends ForkJoinTask<Void> {
+		private static final long serialVersionUID = -3871204395262468126L;
+
+		private final transient ForkJoinTaskHolder holder;
+
+		private HolderTask(ForkJoinTaskHolder holder) {
+			this.holder = holder;
+		}
+
+		@Override
+		public Void getRawResult() {
+			return null;
+		}
+
+		@Override
+		protected void setRawResult(Void value) {
+		}
+
+		@Override
+		protected boolean exec() {
+			holder.runAndRecycle();
+			return true;
+		}
+	}
+
+}
@@ -146,6 +146,15 @@ public class RingBufferDispatcher extends AbstractSingleThreadDispatcher {
 		super.halt();
 	}
 
+	/**
+	 * Get the number of slots of the ring buffer that are not claimed by a pending task.
+	 *
+	 * @return The number of free slots
+	 */
+	public long remainingSlots() {
+		return ringBuffer.remainingCapacity();
+	}
+
 	@Override
 	protected Task allocateTask() {
 		long seqId = ringBuffer.next();
@@ -156,6 +165,23 @@ public class RingBufferDispatcher extends AbstractSingleThreadDispatcher {
 		ringBuffer.publish(((RingBufferTask)task).getSequenceId());
 	}
 
+	@Override
+	protected Task[] allocateTasks(int size) {
+		int n = Math.min(size, ringBuffer.getBufferSize());
+		long hi = ringBuffer.next(n);
+		long lo = hi - n + 1;
+		Task[] tasks = new Task[n];
+		for (int i = 0; i < n; i++) {
+			tasks[i] = ringBuffer.get(lo + i).setSequenceId(lo + i);
+		}
+		return tasks;
+	}
+
+	@Override
+	protected void execute(Task[] tasks) {
+		ringBuffer.publish(((RingBufferTask)tasks[0]).getSequenceId(), ((RingBufferTask)tasks[tasks.length - 1]).getSequenceId());
+	}
+
 	@Override
 	public void execute(final Runnable command) {
 		ringBuffer.publishEvent(new EventTranslator<RingBufferTask>() {
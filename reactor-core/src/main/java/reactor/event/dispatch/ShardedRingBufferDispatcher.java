@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event.dispatch;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import reactor.event.Event;
+import reactor.event.registry.Registration;
+import reactor.event.registry.Registry;
+import reactor.event.routing.EventRouter;
+import reactor.function.Consumer;
+import reactor.util.Assert;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of a {@link Dispatcher} that spreads its tasks over a fixed number of shards, each of them being a
+ * {@link RingBufferDispatcher} with its own ring buffer and its own consumer thread. The shard of a task is chosen by
+ * hashing its key, so tasks for equal keys are always run by the same thread, in the order they were dispatched, while
+ * tasks for different keys run in parallel without the shards' threads competing for a shared sequence.
+ * <p>
+ * Each shard's thread can be prepared before it runs any task, e.g. to pin it to a CPU using an affinity library, by
+ * passing a {@code shardInitializer} that is invoked on that thread with the index of the shard.
+ *
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+public class ShardedRingBufferDispatcher implements Dispatcher {
+
+	private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+	private static final EventRouter INITIALIZING_ROUTER = new EventRouter() {
+		@SuppressWarnings("unchecked")
+		@Override
+		public void route(Object key,
+		                  Event<?> event,
+		                  List<Registration<? extends Consumer<? extends Event<?>>>> consumers,
+		                  Consumer<?> completionConsumer,
+		                  Consumer<Throwable> errorConsumer) {
+			((Consumer<Event<?>>)completionConsumer).accept(event);
+		}
+	};
+
+	private final RingBufferDispatcher[] shards;
+	private final int                    backlog;
+
+	/**
+	 * Creates a new {@code ShardedRingBufferDispatcher} with the given {@code name} and number of {@code shards}. Each
+	 * shard will use a ring buffer with 1024 slots, configured with a producer type of {@link ProducerType#MULTI MULTI}
+	 * and a {@link BlockingWaitStrategy blocking wait strategy}.
+	 *
+	 * @param name
+	 * 		The name of the dispatcher
+	 * @param shards
+	 * 		The number of shards
+	 */
+	public ShardedRingBufferDispatcher(String name, int shards) {
+		this(name, shards, DEFAULT_BUFFER_SIZE, null, null);
+	}
+
+	/**
+	 * Creates a new {@code ShardedRingBufferDispatcher} with the given {@code name} and number of {@code shards}. Each
+	 * shard will use a ring buffer with {@code backlog} slots, configured with a producer type of {@link
+	 * ProducerType#MULTI MULTI} and a {@link BlockingWaitStrategy blocking wait strategy}.
+	 *
+	 * @param name
+	 * 		The name of the dispatcher
+	 * @param shards
+	 * 		The number of shards
+	 * @param backlog
+	 * 		The number of slots of each shard's ring buffer
+	 * @param uncaughtExceptionHandler
+	 * 		The handler of the exceptions thrown by the shards' threads, may be {@code null}
+	 * @param shardInitializer
+	 * 		Invoked on each shard's thread with the index of the shard before it runs any task, may be {@code null}
+	 */
+	public ShardedRingBufferDispatcher(String name,
+	                                   int shards,
+	                                   int backlog,
+	                                   Consumer<Throwable> uncaughtExceptionHandler,
+	                                   final Consumer<Integer> shardInitializer) {
+		Assert.isTrue(shards > 0, "The number of shards must be greater than 0.");
+		this.backlog = backlog;
+		this.shards = new RingBufferDispatcher[shards];
+		for(int i = 0; i < shards; i++) {
+			this.shards[i] = new RingBufferDispatcher(name + "-" + i,
+			                                          backlog,
+			                                          uncaughtExceptionHandler,
+			                                          ProducerType.MULTI,
+			                                          new BlockingWaitStrategy());
+			if(null != shardInitializer) {
+				// dispatched as a task, rather than executed, so that it runs on the shard's thread
+				this.shards[i].dispatch(Event.wrap(i), INITIALIZING_ROUTER, new Consumer<Event<Integer>>() {
+					@Override
+					public void accept(Event<Integer> ev) {
+						shardInitializer.accept(ev.getData());
+					}
+				}, null);
+			}
+		}
+	}
+
+	/**
+	 * Get the number of shards of this dispatcher.
+	 *
+	 * @return The number of shards
+	 */
+	public int getShards() {
+		return shards.length;
+	}
+
+	/**
+	 * Get the number of slots of each shard's ring buffer.
+	 *
+	 * @return The backlog of each shard
+	 */
+	public int getBacklog() {
+		return backlog;
+	}
+
+	/**
+	 * Get the number of tasks that have been dispatched to the given {@code shard} but not run yet.
+	 *
+	 * @param shard
+	 * 		The index of the shard
+	 *
+	 * @return The number of pending tasks of the shard
+	 */
+	public long getPendingTasks(int shard) {
+		return backlog - shards[shard].remainingSlots();
+	}
+
+	/**
+	 * Get the index of the shard that runs the tasks for the given {@code key}.
+	 *
+	 * @param key
+	 * 		The key, may be {@code null}
+	 *
+	 * @return The index of the shard
+	 */
+	public int shardOf(Object key) {
+		if(null == key) {
+			return 0;
+		}
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		return (h & Integer.MAX_VALUE) % shards.length;
+	}
+
+	@Override
+	public boolean alive() {
+		for(RingBufferDispatcher shard : shards) {
+			if(!shard.alive()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean awaitAndShutdown() {
+		return awaitAndShutdown(Integer.MAX_VALUE, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public boolean awaitAndShutdown(long timeout, TimeUnit timeUnit) {
+		boolean terminated = true;
+		for(RingBufferDispatcher shard : shards) {
+			terminated &= shard.awaitAndShutdown(timeout, timeUnit);
+		}
+		return terminated;
+	}
+
+	@Override
+	public void shutdown() {
+		for(RingBufferDispatcher shard : shards) {
+			shard.shutdown();
+		}
+	}
+
+	@Override
+	public void halt() {
+		for(RingBufferDispatcher shard : shards) {
+			shard.halt();
+		}
+	}
+
+	@Override
+	public <E extends Event<?>> void dispatch(Object key,
+	                                          E event,
+	                                          Registry<Consumer<? extends Event<?>>> consumerRegistry,
+	                                          Consumer<Throwable> errorConsumer,
+	                                          EventRouter eventRouter,
+	                                          Consumer<E> completionConsumer) {
+		shards[shardOf(key)].dispatch(key, event, consumerRegistry, errorConsumer, eventRouter, completionConsumer);
+	}
+
+	@Override
+	public <E extends Event<?>> void dispatchBatch(Object key,
+	                                               Iterable<E> events,
+	                                               Registry<Consumer<? extends Event<?>>> consumerRegistry,
+	                                               Consumer<Throwable> errorConsumer,
+	                                               EventRouter eventRouter,
+	                                               Consumer<E> completionConsumer) {
+		shards[shardOf(key)].dispatchBatch(key,
+		                                   events,
+		                                   consumerRegistry,
+		                                   errorConsumer,
+		                                   eventRouter,
+		                                   completionConsumer);
+	}
+
+	@Override
+	public <E extends Event<?>> void dispatch(E event,
+	                                          EventRouter eventRouter,
+	                                          Consumer<E> consumer,
+	                                          Consumer<Throwable> errorConsumer) {
+		dispatch(null, event, null, errorConsumer, eventRouter, consumer);
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		shards[shardOf(command)].execute(command);
+	}
+
+}
@@ -79,6 +79,18 @@ public final class SynchronousDispatcher implements Dispatcher {
 		                  errorConsumer);
 	}
 
+	@Override
+	public <E extends Event<?>> void dispatchBatch(Object key,
+	                                               Iterable<E> events,
+	                                               Registry<Consumer<? extends Event<?>>> consumerRegistry,
+	                                               Consumer<Throwable> errorConsumer,
+	                                               EventRouter eventRouter,
+	                                               Consumer<E> completionConsumer) {
+		for (E event : events) {
+			dispatch(key, event, consumerRegistry, errorConsumer, eventRouter, completionConsumer);
+		}
+	}
+
 	@Override
 	public void execute(Runnable command) {
 		command.run();
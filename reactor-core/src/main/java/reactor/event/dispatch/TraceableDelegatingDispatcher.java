@@ -82,6 +82,25 @@ public class TraceableDelegatingDispatcher implements Dispatcher {
 		delegate.dispatch(key, event, consumerRegistry, errorConsumer, eventRouter, completionConsumer);
 	}
 
+	@Override
+	public <E extends Event<?>> void dispatchBatch(Object key,
+	                                               Iterable<E> events,
+	                                               Registry<Consumer<? extends Event<?>>> consumerRegistry,
+	                                               Consumer<Throwable> errorConsumer,
+	                                               EventRouter eventRouter,
+	                                               Consumer<E> completionConsumer) {
+		if(log.isTraceEnabled()) {
+			log.trace("dispatchBatch({}, {}, {}, {}, {}, {})",
+			          key,
+			          events,
+			          consumerRegistry,
+			          errorConsumer,
+			          eventRouter,
+			          completionConsumer);
+		}
+		delegate.dispatchBatch(key, events, consumerRegistry, errorConsumer, eventRouter, completionConsumer);
+	}
+
 	@Override
 	public <E extends Event<?>> void dispatch(E event,
 	                                          EventRouter eventRouter,
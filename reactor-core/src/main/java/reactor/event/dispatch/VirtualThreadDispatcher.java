@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.function.Consumer;
+import reactor.support.NamedDaemonThreadFactory;
+import reactor.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * A {@code Dispatcher} that runs each task on its own thread, so that consumers doing blocking I/O don't hold up the
+ * other tasks. On a JVM that supports virtual threads, the tasks are run on virtual threads; otherwise they are run on
+ * daemon platform threads, which are reused while they're idle.
+ * <p>
+ * The number of tasks dispatched but not yet completed is bounded by the {@code backlog}: once it is reached,
+ * dispatching blocks until a task completes. Tasks dispatched by a task that is running on this dispatcher aren't
+ * bounded, so that they can't deadlock waiting for their own completion. Optionally, the tasks for equal keys can be
+ * run one after the other, in the order they were dispatched.
+ * <p>
+ * A task that can't be run, because this dispatcher has been shut down or because the dispatching thread was
+ * interrupted while waiting for room in the backlog, is rejected: a {@link RejectedExecutionException} is passed to its
+ * error consumer, or to the uncaught exception handler if it has none.
+ *
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ * @since 1.1
+ */
+public class VirtualThreadDispatcher extends AbstractLifecycleDispatcher {
+
+	private static final Object NULL_KEY = new Object();
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final int                               backlog;
+	private final boolean                           orderedByKey;
+	private final boolean                           virtual;
+	private final Semaphore                         permits;
+	private final ThreadPoolExecutor                executor;
+	private final ConcurrentMap<Object, KeyedTasks> keyedTasks;
+	private final Consumer<Throwable>               uncaughtExceptionHandler;
+
+	/**
+	 * Creates a new {@literal VirtualThreadDispatcher} with the given {@literal name} and {@literal backlog}. Tasks are
+	 * run concurrently, whatever their key.
+	 *
+	 * @param name
+	 * 		the name prefix to use when creating threads
+	 * @param backlog
+	 * 		the maximum number of tasks dispatched but not yet completed
+	 */
+	public VirtualThreadDispatcher(String name, int backlog) {
+		this(name, backlog, false, null);
+	}
+
+	/**
+	 * Creates a new {@literal VirtualThreadDispatcher} with the given {@literal name} and {@literal backlog}.
+	 *
+	 * @param name
+	 * 		the name prefix to use when creating threads
+	 * @param backlog
+	 * 		the maximum number of tasks dispatched but not yet completed
+	 * @param orderedByKey
+	 * 		whether the tasks for equal keys should be run one after the other, in the order they were dispatched
+	 * @param uncaughtExceptionHandler
+	 * 		the handler of the exceptions thrown while running the tasks, may be {@code null}
+	 */
+	public VirtualThreadDispatcher(String name,
+	                               int backlog,
+	                               boolean orderedByKey,
+	                               Consumer<Throwable> uncaughtExceptionHandler) {
+		Assert.isTrue(backlog > 0, "The backlog must be greater than 0.");
+		this.backlog = backlog;
+		this.orderedByKey = orderedByKey;
+		this.uncaughtExceptionHandler = uncaughtExceptionHandler;
+		this.permits = new Semaphore(backlog);
+		this.keyedTasks = (orderedByKey ? new ConcurrentHashMap<Object, KeyedTasks>() : null);
+
+		ThreadFactory virtualThreadFactory = virtualThreadFactory(name);
+		this.virtual = (null != virtualThreadFactory);
+		final ThreadFactory threadFactory = (virtual ?
+		                                     virtualThreadFactory :
+		                                     new NamedDaemonThreadFactory(name, getContext()));
+		this.executor = new ThreadPoolExecutor(
+				0,
+				Integer.MAX_VALUE,
+				(virtual ? 0L : 60L),
+				TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = threadFactory.newThread(r);
+						t.setContextClassLoader(getContext());
+						return t;
+					}
+				}
+		);
+	}
+
+	public int getBacklog() {
+		return backlog;
+	}
+
+	/**
+	 * Whether the tasks for equal keys are run one after the other, in the order they were dispatched.
+	 *
+	 * @return {@code true} if the tasks are ordered by key
+	 */
+	public boolean isOrderedByKey() {
+		return orderedByKey;
+	}
+
+	/**
+	 * Whether the tasks are run on virtual threads, which depends on the JVM.
+	 *
+	 * @return {@code true} if the tasks are run on virtual threads, {@code false} if they're run on platform threads
+	 */
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	@Override
+	public boolean awaitAndShutdown(long timeout, TimeUnit timeUnit) {
+		shutdown();
+		try {
+			if(!executor.awaitTermination(timeout, timeUnit)) {
+				return false;
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void shutdown() {
+		executor.shutdown();
+		super.shutdown();
+	}
+
+	@Override
+	public void halt() {
+		executor.shutdownNow();
+		super.halt();
+	}
+
+	@Override
+	protected Task allocateTask() {
+		try {
+			permits.acquire();
+		} catch(InterruptedException e) {
+			// leave the interrupt to the caller and reject the task once it's executed
+			Thread.currentThread().interrupt();
+			return new VirtualThreadTask(false, e);
+		}
+		return new VirtualThreadTask(true, null);
+	}
+
+	@Override
+	protected Task allocateRecursiveTask() {
+		return new VirtualThreadTask(false, null);
+	}
+
+	@Override
+	protected void addToTailRecursionPile(Task task) {
+		execute(task);
+	}
+
+	@Override
+	protected void execute(Task task) {
+		VirtualThreadTask vtask = (VirtualThreadTask)task;
+		if(null != vtask.interrupted) {
+			reject(vtask, vtask.interrupted);
+			return;
+		}
+		try {
+			if(!orderedByKey) {
+				executor.execute(task);
+				return;
+			}
+
+			Object key = (null == task.key ? NULL_KEY : task.key);
+			for(; ; ) {
+				KeyedTasks tasks = keyedTasks.get(key);
+				if(null == tasks) {
+					tasks = new KeyedTasks(key);
+					KeyedTasks existing = keyedTasks.putIfAbsent(key, tasks);
+					if(null != existing) {
+						tasks = existing;
+					}
+				}
+				if(tasks.offer(task)) {
+					return;
+				}
+				// the tasks of this key have just been drained and removed, look them up again
+			}
+		} catch(RejectedExecutionException e) {
+			reject(vtask, e);
+		}
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		executor.execute(command);
+	}
+
+	/*
+	 * Give back the permit of a task that won't be run and tell its error consumer why.
+	 */
+	private void reject(VirtualThreadTask task, Throwable cause) {
+		Consumer<Throwable> errorConsumer = task.errorConsumer;
+		release(task.event);
+		task.releasePermit();
+		task.recycle();
+		RejectedExecutionException rejection;
+		if(cause instanceof RejectedExecutionException) {
+			rejection = (RejectedExecutionException)cause;
+		} else {
+			rejection = new RejectedExecutionException("Interrupted while waiting for room in the backlog.", cause);
+		}
+		if(null != errorConsumer) {
+			errorConsumer.accept(rejection);
+		} else {
+			handleException(rejection);
+		}
+	}
+
+	private void handleException(Throwable t) {
+		if(null != uncaughtExceptionHandler) {
+			uncaughtExceptionHandler.accept(t);
+		} else {
+			log.error(t.getMessage(), t);
+		}
+	}
+
+	private static ThreadFactory virtualThreadFactory(String name) {
+		try {
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+			return (ThreadFactory)builderType.getMethod("factory").invoke(builder);
+		} catch(Exception e) {
+			// virtual threads aren't supported by this JVM
+			return null;
+		}
+	}
+
+	private class VirtualThreadTask extends Task {
+		private final boolean              permit;
+		private final InterruptedException interrupted;
+
+		private VirtualThreadTask(boolean permit, InterruptedException interrupted) {
+			this.permit = permit;
+			this.interrupted = interrupted;
+		}
+
+		@Override
+		public void run() {
+			try {
+				route(this);
+			} catch(Throwable t) {
+				handleException(t);
+			} finally {
+				releasePermit();
+			}
+		}
+
+		private void releasePermit() {
+			if(permit) {
+				permits.release();
+			}
+		}
+	}
+
+	/**
+	 * The pending tasks of a key, which are run one after the other by a single thread at a time. Once drained, they
+	 * are removed from the map of keys and closed, so that a new instance is created for the next task of that key.
+	 */
+	private class KeyedTasks implements Runnable {
+		private final Object      key;
+		private final Deque<Task> tasks   = new ArrayDeque<Task>();
+		private       boolean     running = false;
+		private       boolean     closed  = false;
+
+		private KeyedTasks(Object key) {
+			this.key = key;
+		}
+
+		private boolean offer(Task task) {
+			synchronized(this) {
+				if(closed) {
+					return false;
+				}
+				tasks.add(task);
+				if(running) {
+					return true;
+				}
+				running = true;
+			}
+			try {
+				executor.execute(this);
+			} catch(RejectedExecutionException e) {
+				// no thread will run the tasks of this key: reject those offered meanwhile, the caller rejects its own
+				List<Task> pending;
+				synchronized(this) {
+					pending = new ArrayList<Task>(tasks);
+					tasks.clear();
+					running = false;
+					closed = true;
+					keyedTasks.remove(key, this);
+				}
+				for(Task t : pending) {
+					if(t != task) {
+						reject((VirtualThreadTask)t, e);
+					}
+				}
+				throw e;
+			}
+			return true;
+		}
+
+		@Override
+		public void run() {
+			for(; ; ) {
+				Task task;
+				synchronized(this) {
+					task = tasks.poll();
+					if(null == task) {
+						running = false;
+						closed = true;
+						keyedTasks.remove(key, this);
+						return;
+					}
+				}
+				task.run();
+			}
+		}
+	}
+
+}
@@ -131,6 +131,23 @@ public class WorkQueueDispatcher extends AbstractMultiThreadDispatcher {
 		ringBuffer.publish(((WorkQueueTask)task).getSequenceId());
 	}
 
+	@Override
+	protected Task[] allocateTasks(int size) {
+		int n = Math.min(size, ringBuffer.getBufferSize());
+		long hi = ringBuffer.next(n);
+		long lo = hi - n + 1;
+		Task[] tasks = new Task[n];
+		for (int i = 0; i < n; i++) {
+			tasks[i] = ringBuffer.get(lo + i).setSequenceId(lo + i);
+		}
+		return tasks;
+	}
+
+	@Override
+	protected void execute(Task[] tasks) {
+		ringBuffer.publish(((WorkQueueTask)tasks[0]).getSequenceId(), ((WorkQueueTask)tasks[tasks.length - 1]).getSequenceId());
+	}
+
 	@Override
 	public void execute(final Runnable command) {
 		ringBuffer.publishEvent(new EventTranslator<WorkQueueTask>() {
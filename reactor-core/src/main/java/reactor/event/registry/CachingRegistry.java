@@ -20,8 +20,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.event.lifecycle.Pausable;
 import reactor.event.selector.ObjectSelector;
+import reactor.event.selector.SelectionMemo;
 import reactor.event.selector.Selector;
 import reactor.event.selector.Selectors;
+import reactor.util.OpenHashMap;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
@@ -33,11 +35,12 @@ import java.util.concurrent.locks.ReentrantLock;
  * - prime cache : if the selected key or registered selector object is exactly of type Object or {@link
  * Selectors.AnonymousKey},
  * this is eagerly updated on registration/unregistration without needing to reset its complete state,
- * thanks to the direct mapping between an Object.hashcode and the map key. This greatly optimizes composables which
+ * thanks to the direct mapping between the Object and the map key. This greatly optimizes composables which
  * make use of anonymous selector.
- * - cache : classic cache, filled after a first select miss using the key hashcode,
- * totally cleared on new registration
- * - full collection : where the registrations always live, acting like a pool. Iterated completely when cache miss.
+ * - cache : classic cache, filled after a first select miss using the key, bounded to a maximum number of selections
+ * evicted using the CLOCK algorithm. A new registration only invalidates the cached selections its selector matches
+ * - full collection : where the registrations always live, acting like a pool. A {@link SelectorIndex} of the
+ * registrations is consulted when cache miss so only the registrations which can match the key are checked.
  * Registration array grows for 75% of its current size when there is not enough pre-allocated memory
  *
  * @param <T> the type of Registration held by this registry
@@ -61,16 +64,18 @@ public class CachingRegistry<T> implements Registry<T> {
 	private static final AtomicIntegerFieldUpdater<CachingRegistry> nextAvailUpdater    = AtomicIntegerFieldUpdater
 			.newUpdater(CachingRegistry.class, "nextAvail");
 
+	private static final int DEFAULT_MAX_CACHE_SIZE = 4096;
+
 	@SuppressWarnings("unchecked")
 	private final Registration<? extends T>[] empty = new Registration[0];
 
-	private final ReentrantLock                             cacheLock      = new ReentrantLock();
-	private final ReentrantLock                             primeCacheLock = new ReentrantLock();
-	private final ReentrantLock                             regLock        = new ReentrantLock();
-	private final Map<Integer, Registration<? extends T>[]> cache          = new HashMap<Integer,
-			Registration<? extends T>[]>();
-	private final Map<Integer, Registration<? extends T>[]> primeCache     = new HashMap<Integer,
+	private final ReentrantLock cacheLock      = new ReentrantLock();
+	private final ReentrantLock primeCacheLock = new ReentrantLock();
+	private final ReentrantLock regLock        = new ReentrantLock();
+	private final OpenHashMap<Object, Registration<? extends T>[]> primeCache = new OpenHashMap<Object,
 			Registration<? extends T>[]>();
+	private final SelectorIndex<T>                                 index      = new SelectorIndex<T>();
+	private final SelectionCache<T>                                cache;
 
 	@SuppressWarnings("unused")
 	private volatile int sizeExp = 5;
@@ -79,8 +84,22 @@ public class CachingRegistry<T> implements Registry<T> {
 
 	private volatile Registration<? extends T>[] registrations;
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Create a new {@code CachingRegistry} that caches up to 4096 selections.
+	 */
 	public CachingRegistry() {
+		this(DEFAULT_MAX_CACHE_SIZE);
+	}
+
+	/**
+	 * Create a new {@code CachingRegistry} that caches up to {@code maxCacheSize} selections, choosing the
+	 * selections to evict with the CLOCK algorithm once full.
+	 *
+	 * @param maxCacheSize the maximum number of selections to cache
+	 */
+	@SuppressWarnings("unchecked")
+	public CachingRegistry(int maxCacheSize) {
+		this.cache = new SelectionCache<T>(maxCacheSize);
 		this.registrations = new Registration[32];
 	}
 
@@ -92,23 +111,33 @@ public class CachingRegistry<T> implements Registry<T> {
 
 		// prime cache for anonymous Objects, Strings, etc...in an ObjectSelector
 		if (Object.class.equals(sel.getObject().getClass()) || Selectors.AnonymousKey.class.equals(sel.getObject().getClass())) {
-			int hashCode = sel.getObject().hashCode();
 			primeCacheLock.lock();
 			try {
-				Registration<? extends T>[] regs = primeCache.get(hashCode);
+				Registration<? extends T>[] regs = primeCache.get(sel.getObject());
 				if (null == regs) {
 					regs = new Registration[]{reg};
 				} else {
 					regs = addToArray(reg, regs);
 				}
-				primeCache.put(hashCode, regs);
+				primeCache.put(sel.getObject(), regs);
 			} finally {
 				primeCacheLock.unlock();
 			}
+			// an ObjectSelector only matches its own key, which is always selected from the prime cache, so indexing it
+			// would only keep it in the index after it's cancelled
+			if (ObjectSelector.class != sel.getClass()) {
+				cacheLock.lock();
+				try {
+					index.add(reg);
+				} finally {
+					cacheLock.unlock();
+				}
+			}
 		} else {
 			cacheLock.lock();
 			try {
-				cache.clear();
+				index.add(reg);
+				cache.invalidate(sel);
 			} finally {
 				cacheLock.unlock();
 			}
@@ -131,14 +160,17 @@ public class CachingRegistry<T> implements Registry<T> {
 	public boolean unregister(Object key) {
 		regLock.lock();
 		try {
-			if (key.getClass().equals(Object.class)) {
+			if (key.getClass().equals(Object.class) || key.getClass().equals(Selectors.AnonymousKey.class)) {
 				primeCacheLock.lock();
 				try {
-					Registration<? extends T>[] registrations = primeCache.remove(key.hashCode());
+					Registration<? extends T>[] registrations = primeCache.remove(key);
+					if (null == registrations) {
+						return false;
+					}
 					for (Registration<? extends T> reg : registrations) {
 						reg.cancel();
 					}
-					return registrations != null;
+					return true;
 				} finally {
 					primeCacheLock.unlock();
 				}
@@ -147,10 +179,11 @@ public class CachingRegistry<T> implements Registry<T> {
 				cacheLock.lock();
 				try {
 					for (Registration<? extends T> reg : select(key)) {
+						Selector sel = reg.getSelector();
 						reg.cancel();
+						cache.invalidate(sel);
 						updated = true;
 					}
-					cache.remove(key.hashCode());
 					return updated;
 				} finally {
 					cacheLock.unlock();
@@ -167,73 +200,56 @@ public class CachingRegistry<T> implements Registry<T> {
 		if (null == key) {
 			return Collections.emptyList();
 		}
-		int hashCode = key.hashCode();
 		Registration<? extends T>[] regs;
 		//Todo do we need to match generic Objects too ?
 		if (key.getClass().equals(Selectors.AnonymousKey.class) || key.getClass().equals(Object.class)) {
 			primeCacheLock.lock();
 			try {
-				regs = primeCache.get(hashCode);
+				regs = primeCache.get(key);
 			} finally {
 				primeCacheLock.unlock();
 			}
 			if (null != regs) {
-				if (regs == empty) {
-					return Collections.emptyList();
-				} else {
-					return Arrays.asList(regs);
-				}
+				return Arrays.asList(regs);
 			} else {
-				primeCache.put(hashCode, empty);
+				// no need to remember misses, they are as cheap as hits
 				return Collections.emptyList();
 			}
 		}
 
 		cacheLock.lock();
 		try {
-			regs = cache.get(hashCode);
-			if (null != regs) {
-				if (regs == empty) {
-					return Collections.emptyList();
-				} else {
-					return Arrays.asList(regs);
-				}
-			}
-
-			// cache miss
-			cacheMiss(key);
-			regs = new Registration[1];
-			int found = 0;
-			for (int i = 0; i < nextAvail; i++) {
-				Registration<? extends T> reg = registrations[i];
-				if (null == reg) {
-					break;
+			regs = cache.get(key);
+			if (null == regs) {
+				// cache miss
+				cacheMiss(key);
+				regs = new Registration[1];
+				int found = 0;
+				SelectionMemo enclosing = SelectionMemo.open(key);
+				try {
+					for (Registration<? extends T> reg : index.candidates(key)) {
+						if (!reg.isCancelled() && !reg.isPaused() && reg.getSelector().matches(key)) {
+							regs = addToArray(reg, regs);
+							found++;
+						}
+					}
+				} finally {
+					SelectionMemo.close(enclosing);
 				}
-				if (!reg.isCancelled() && !reg.isPaused() && reg.getSelector().matches(key)) {
-					regs = addToArray(reg, regs);
-					found++;
+				if (found == 0) {
+					// none found
+					if (LOG.isTraceEnabled()) {
+						LOG.trace("No Registrations found that match " + key);
+					}
+					regs = empty;
 				}
-			}
-			if (found > 0) {
-				cache.put(hashCode, regs);
+				cache.put(key, regs);
 			}
 		} finally {
 			cacheLock.unlock();
 		}
 
-		regs = cache.get(hashCode);
-		if (null == regs) {
-			// none found
-			if (LOG.isTraceEnabled()) {
-				LOG.trace("No Registrations found that match " + key);
-			}
-			regs = empty;
-			cacheLock.lock();
-			try {
-				cache.put(hashCode, regs);
-			} finally {
-				cacheLock.unlock();
-			}
+		if (regs == empty) {
 			return Collections.emptyList();
 		}
 		return Arrays.asList(regs);
@@ -251,6 +267,7 @@ public class CachingRegistry<T> implements Registry<T> {
 					}
 				}
 				cache.clear();
+				index.clear();
 			} finally {
 				cacheLock.unlock();
 			}
@@ -265,6 +282,42 @@ public class CachingRegistry<T> implements Registry<T> {
 		return Arrays.asList(registrations).iterator();
 	}
 
+	/**
+	 * Get the number of selections served from the cache.
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getCacheHits() {
+		return cache.getHits();
+	}
+
+	/**
+	 * Get the number of selections that had to be computed because they weren't cached.
+	 *
+	 * @return the number of cache misses
+	 */
+	public long getCacheMisses() {
+		return cache.getMisses();
+	}
+
+	/**
+	 * Get the number of cached selections evicted to make room for new ones.
+	 *
+	 * @return the number of cache evictions
+	 */
+	public long getCacheEvictions() {
+		return cache.getEvictions();
+	}
+
+	/**
+	 * Get the maximum number of selections this registry caches.
+	 *
+	 * @return the maximum cache size
+	 */
+	public int getMaxCacheSize() {
+		return cache.getMaxSize();
+	}
+
 	protected void cacheMiss(Object key) {
 	}
 
@@ -0,0 +1,477 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event.registry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.event.lifecycle.Pausable;
+import reactor.event.selector.ObjectSelector;
+import reactor.event.selector.SelectionMemo;
+import reactor.event.selector.Selector;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A {@link Registry} that never locks when selecting. All of its state, the registrations as well as the selection
+ * cache, lives in an immutable snapshot which is read with a single volatile read. Cached selections are stored as
+ * precomputed, unmodifiable {@link List Lists} so a cache hit returns without copying or allocating.
+ * <p>
+ * Any change to the registry (registering, cancelling, pausing or resuming a {@link Registration}) builds a new
+ * snapshot and publishes it with a CAS. Only the cached selections whose key is matched by the changed {@link
+ * Selector} are dropped, the rest of the cache survives the change. A cache miss computes the selection against the
+ * snapshot it started from and adds it to the snapshot's concurrent map of recent misses, which is searched after the
+ * cache. Once a snapshot holds {@code maxCacheSize / 16} misses, they are folded into its cache with a single copy and
+ * a best-effort CAS, so a miss costs a map insertion plus a small share of a copy. Misses added while the registry
+ * changes may not be carried over to the new snapshot, they are then simply computed again.
+ * <p>
+ * This trades write cost (every change copies the registrations and the cache) for read scalability and is best
+ * suited to registries that are read far more often than they are written to. Once the cache holds {@code
+ * maxCacheSize} selections, the oldest ones are evicted to make room for new misses, so that high-cardinality keys
+ * cannot make it grow without bounds.
+ *
+ * @param <T> the type of Registration held by this registry
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+public class CopyOnWriteRegistry<T> implements Registry<T> {
+
+	private static final Logger   LOG      = LoggerFactory.getLogger(CopyOnWriteRegistry.class);
+	private static final Selector NO_MATCH = new ObjectSelector<Void>(null) {
+		@Override
+		public boolean matches(Object key) {
+			return false;
+		}
+	};
+
+	private static final int DEFAULT_MAX_CACHE_SIZE = 4096;
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<CopyOnWriteRegistry, Snapshot> SNAPSHOT =
+			AtomicReferenceFieldUpdater.newUpdater(CopyOnWriteRegistry.class, Snapshot.class, "snapshot");
+
+	private final int maxCacheSize;
+	private final int missBatchSize;
+
+	private volatile Snapshot<T> snapshot;
+
+	/**
+	 * Create a new {@code CopyOnWriteRegistry} that caches up to 4096 selections.
+	 */
+	public CopyOnWriteRegistry() {
+		this(DEFAULT_MAX_CACHE_SIZE);
+	}
+
+	/**
+	 * Create a new {@code CopyOnWriteRegistry} that caches up to {@code maxCacheSize} selections.
+	 *
+	 * @param maxCacheSize the number of selections to cache before the oldest ones are evicted
+	 */
+	@SuppressWarnings("unchecked")
+	public CopyOnWriteRegistry(int maxCacheSize) {
+		if (maxCacheSize < 1) {
+			throw new IllegalArgumentException("maxCacheSize must be greater than 0");
+		}
+		this.maxCacheSize = maxCacheSize;
+		this.missBatchSize = Math.max(1, maxCacheSize / 16);
+		this.snapshot = new Snapshot<T>(new Registration[0], SelectionTable.<T>empty());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <V extends T> Registration<V> register(Selector sel, V obj) {
+		CopyOnWriteRegistration<V> reg = new CopyOnWriteRegistration<V>(this, sel, obj);
+		Snapshot<T> current;
+		do {
+			current = snapshot;
+		} while (!SNAPSHOT.compareAndSet(this, current, current.add(reg, maxCacheSize)));
+		return reg;
+	}
+
+	@Override
+	public boolean unregister(Object key) {
+		Snapshot<T> current;
+		Snapshot<T> next;
+		List<Registration<? extends T>> removed;
+		do {
+			current = snapshot;
+			removed = new ArrayList<Registration<? extends T>>();
+			for (Registration<? extends T> reg : current.registrations) {
+				if (((CopyOnWriteRegistration<?>) reg).selector.matches(key)) {
+					removed.add(reg);
+				}
+			}
+			if (removed.isEmpty()) {
+				return false;
+			}
+			next = current.remove(removed, maxCacheSize);
+		} while (!SNAPSHOT.compareAndSet(this, current, next));
+
+		for (Registration<? extends T> reg : removed) {
+			reg.cancel();
+		}
+		return true;
+	}
+
+	@Override
+	public List<Registration<? extends T>> select(Object key) {
+		if (null == key) {
+			return Collections.emptyList();
+		}
+		Snapshot<T> current = snapshot;
+		List<Registration<? extends T>> regs = current.get(key);
+		if (null != regs) {
+			return regs;
+		}
+
+		// cache miss
+		cacheMiss(key);
+		SelectionMemo enclosing = SelectionMemo.open(key);
+		try {
+			regs = current.select(key);
+		} finally {
+			SelectionMemo.close(enclosing);
+		}
+		if (regs.isEmpty() && LOG.isTraceEnabled()) {
+			LOG.trace("No Registrations found that match " + key);
+		}
+		if (current.miss(key, regs, missBatchSize)) {
+			// if the registry changed in the meantime, the change carried the misses over already
+			SNAPSHOT.compareAndSet(this, current, current.fold(maxCacheSize));
+		}
+		return regs;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void clear() {
+		Snapshot<T> old = SNAPSHOT.getAndSet(this, new Snapshot<T>(new Registration[0], SelectionTable.<T>empty()));
+		for (Registration<? extends T> reg : old.registrations) {
+			reg.cancel();
+		}
+	}
+
+	@Override
+	public Iterator<Registration<? extends T>> iterator() {
+		return Collections.unmodifiableList(Arrays.asList(snapshot.registrations)).iterator();
+	}
+
+	protected void cacheMiss(Object key) {
+	}
+
+	private void remove(CopyOnWriteRegistration<?> reg) {
+		Snapshot<T> current;
+		Snapshot<T> next;
+		do {
+			current = snapshot;
+			next = current.remove(Collections.<Registration<?>>singletonList(reg), maxCacheSize);
+			if (next == current) {
+				return;
+			}
+		} while (!SNAPSHOT.compareAndSet(this, current, next));
+	}
+
+	private void invalidate(CopyOnWriteRegistration<?> reg) {
+		Snapshot<T> current;
+		do {
+			current = snapshot;
+		} while (!SNAPSHOT.compareAndSet(this, current, current.invalidate(reg.selector, maxCacheSize)));
+	}
+
+	/**
+	 * An immutable view of the registry: the registrations in insertion order and the selections cached against them,
+	 * plus the selections computed against them since the snapshot was built.
+	 */
+	private static final class Snapshot<T> {
+		final Registration<? extends T>[]                            registrations;
+		final SelectionTable<T>                                      cache;
+		final ConcurrentMap<Object, List<Registration<? extends T>>> misses;
+		final AtomicInteger                                          missCount;
+
+		Snapshot(Registration<? extends T>[] registrations, SelectionTable<T> cache) {
+			this.registrations = registrations;
+			this.cache = cache;
+			this.misses = new ConcurrentHashMap<Object, List<Registration<? extends T>>>();
+			this.missCount = new AtomicInteger();
+		}
+
+		List<Registration<? extends T>> get(Object key) {
+			List<Registration<? extends T>> regs = cache.get(key);
+			return (null != regs ? regs : misses.get(key));
+		}
+
+		/**
+		 * Remember the selection of a key that missed the cache, returning {@code true} if the misses should now be
+		 * folded into the cache.
+		 */
+		boolean miss(Object key, List<Registration<? extends T>> regs, int batchSize) {
+			int count = missCount.incrementAndGet();
+			if (count > batchSize) {
+				// the misses are being folded already
+				return false;
+			}
+			misses.putIfAbsent(key, regs);
+			return count == batchSize;
+		}
+
+		Snapshot<T> fold(int maxCacheSize) {
+			return new Snapshot<T>(registrations, table(maxCacheSize));
+		}
+
+		Snapshot<T> add(CopyOnWriteRegistration<? extends T> reg, int maxCacheSize) {
+			Registration<? extends T>[] regs = Arrays.copyOf(registrations, registrations.length + 1);
+			regs[registrations.length] = reg;
+			return new Snapshot<T>(regs, table(maxCacheSize).without(reg.selector));
+		}
+
+		@SuppressWarnings("unchecked")
+		Snapshot<T> remove(Collection<? extends Registration<?>> removed, int maxCacheSize) {
+			List<Registration<? extends T>> regs = new ArrayList<Registration<? extends T>>(registrations.length);
+			SelectionTable<T> table = table(maxCacheSize);
+			for (Registration<? extends T> reg : registrations) {
+				if (removed.contains(reg)) {
+					table = table.without(((CopyOnWriteRegistration<?>) reg).selector);
+				} else {
+					regs.add(reg);
+				}
+			}
+			if (regs.size() == registrations.length) {
+				return this;
+			}
+			return new Snapshot<T>(regs.toArray(new Registration[regs.size()]), table);
+		}
+
+		Snapshot<T> invalidate(Selector selector, int maxCacheSize) {
+			return new Snapshot<T>(registrations, table(maxCacheSize).without(selector));
+		}
+
+		private SelectionTable<T> table(int maxCacheSize) {
+			return (misses.isEmpty() ? cache : cache.with(misses, maxCacheSize));
+		}
+
+		@SuppressWarnings("unchecked")
+		List<Registration<? extends T>> select(Object key) {
+			Registration<? extends T>[] regs = null;
+			int found = 0;
+			for (Registration<? extends T> reg : registrations) {
+				if (!reg.isCancelled() && !reg.isPaused() && reg.getSelector().matches(key)) {
+					if (null == regs) {
+						regs = new Registration[registrations.length];
+					}
+					regs[found++] = reg;
+				}
+			}
+			if (found == 0) {
+				return Collections.emptyList();
+			}
+			return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(regs, found)));
+		}
+	}
+
+	/**
+	 * An immutable, open-addressed hash table mapping keys, compared by equality, to their cached selection. The keys
+	 * are also kept in insertion order, oldest first, so that the oldest selections can be evicted. Every modification
+	 * returns a new table and leaves this one untouched.
+	 */
+	private static final class SelectionTable<T> {
+		@SuppressWarnings("rawtypes")
+		private static final SelectionTable EMPTY = new SelectionTable(new Object[8], new List[8], new Object[0]);
+
+		private final Object[]                          keys;
+		private final List<Registration<? extends T>>[] values;
+		private final Object[]                          order;
+		private final int                               size;
+
+		private SelectionTable(Object[] keys, List<Registration<? extends T>>[] values, Object[] order) {
+			this.keys = keys;
+			this.values = values;
+			this.order = order;
+			this.size = order.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		static <T> SelectionTable<T> empty() {
+			return (SelectionTable<T>) EMPTY;
+		}
+
+		List<Registration<? extends T>> get(Object key) {
+			int mask = keys.length - 1;
+			int i = spread(key.hashCode()) & mask;
+			Object k;
+			while (null != (k = keys[i])) {
+				if (k == key || k.equals(key)) {
+					return values[i];
+				}
+				i = (i + 1) & mask;
+			}
+			return null;
+		}
+
+		/**
+		 * Add the given selections, evicting the oldest ones if there are more than {@code maxSize} in all.
+		 */
+		@SuppressWarnings("unchecked")
+		SelectionTable<T> with(Map<Object, List<Registration<? extends T>>> added, int maxSize) {
+			int evicted = Math.max(0, size + added.size() - maxSize);
+			int capacity = 8;
+			while ((size - evicted + added.size()) * 2 > capacity) {
+				capacity <<= 1;
+			}
+			Object[] newKeys = new Object[capacity];
+			List<Registration<? extends T>>[] newValues = new List[capacity];
+			List<Object> newOrder = new ArrayList<Object>(size - evicted + added.size());
+			for (int i = evicted; i < size; i++) {
+				Object key = order[i];
+				if (!added.containsKey(key)) {
+					insert(newKeys, newValues, key, get(key));
+					newOrder.add(key);
+				}
+			}
+			// the misses may still be added to while they're folded, so don't take more than was made room for
+			int room = Math.min(maxSize, capacity / 2);
+			for (Map.Entry<Object, List<Registration<? extends T>>> entry : added.entrySet()) {
+				if (newOrder.size() >= room) {
+					break;
+				}
+				insert(newKeys, newValues, entry.getKey(), entry.getValue());
+				newOrder.add(entry.getKey());
+			}
+			return new SelectionTable<T>(newKeys, newValues, newOrder.toArray());
+		}
+
+		@SuppressWarnings("unchecked")
+		SelectionTable<T> without(Selector selector) {
+			if (size == 0) {
+				return this;
+			}
+			Object[] newKeys = new Object[keys.length];
+			List<Registration<? extends T>>[] newValues = new List[keys.length];
+			List<Object> newOrder = new ArrayList<Object>(size);
+			for (Object key : order) {
+				if (!selector.matches(key)) {
+					insert(newKeys, newValues, key, get(key));
+					newOrder.add(key);
+				}
+			}
+			if (newOrder.size() == size) {
+				return this;
+			}
+			return new SelectionTable<T>(newKeys, newValues, newOrder.toArray());
+		}
+
+		private static <T> void insert(Object[] keys, List<Registration<? extends T>>[] values,
+		                               Object key, List<Registration<? extends T>> regs) {
+			int mask = keys.length - 1;
+			int i = spread(key.hashCode()) & mask;
+			while (null != keys[i]) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = regs;
+		}
+
+		private static int spread(int h) {
+			h ^= (h >>> 16);
+			return h * 0x85ebca6b;
+		}
+	}
+
+	private static final class CopyOnWriteRegistration<V> implements Registration<V> {
+		private final CopyOnWriteRegistry<?> registry;
+		private final Selector               selector;
+		private final V                      object;
+		private final boolean                lifecycle;
+
+		private volatile boolean cancelled      = false;
+		private volatile boolean cancelAfterUse = false;
+		private volatile boolean paused         = false;
+
+		private CopyOnWriteRegistration(CopyOnWriteRegistry<?> registry, Selector selector, V object) {
+			this.registry = registry;
+			this.selector = selector;
+			this.object = object;
+			this.lifecycle = Pausable.class.isAssignableFrom(object.getClass());
+		}
+
+		@Override
+		public Selector getSelector() {
+			return (!cancelled ? selector : NO_MATCH);
+		}
+
+		@Override
+		public V getObject() {
+			return (!cancelled && !paused ? object : null);
+		}
+
+		@Override
+		public Registration<V> cancelAfterUse() {
+			this.cancelAfterUse = true;
+			return this;
+		}
+
+		@Override
+		public boolean isCancelAfterUse() {
+			return cancelAfterUse;
+		}
+
+		@Override
+		public Registration<V> cancel() {
+			if (!cancelled) {
+				if (lifecycle) {
+					((Pausable) object).cancel();
+				}
+				this.cancelled = true;
+				registry.remove(this);
+			}
+			return this;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public Registration<V> pause() {
+			this.paused = true;
+			if (lifecycle) {
+				((Pausable) object).pause();
+			}
+			registry.invalidate(this);
+			return this;
+		}
+
+		@Override
+		public boolean isPaused() {
+			return paused;
+		}
+
+		@Override
+		public Registration<V> resume() {
+			paused = false;
+			if (lifecycle) {
+				((Pausable) object).resume();
+			}
+			registry.invalidate(this);
+			return this;
+		}
+	}
+
+}
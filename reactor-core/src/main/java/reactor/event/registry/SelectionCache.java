@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event.registry;
+
+import reactor.event.selector.Selector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A size-bounded cache of {@link Registry#select(Object) selections}, keyed by the equality of the selected key. When
+ * the cache is full, the entry to evict is chosen with the CLOCK algorithm: every hit marks its entry as referenced and
+ * the clock hand sweeps the entries, evicting the first one that hasn't been referenced since the hand last passed it.
+ * <p>
+ * Entries live in an open-addressed table sized to twice the maximum number of entries, so lookups don't allocate.
+ * Hit, miss and eviction counts are kept for monitoring. This class is not thread-safe and should be guarded by the
+ * owning {@link Registry}, but its counters can be read from any thread.
+ *
+ * @param <T> the type of Registration held by this cache
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+public class SelectionCache<T> {
+
+	private final int                           maxSize;
+	private final int                           mask;
+	private final Object[]                      keys;
+	private final int[]                         hashes;
+	private final Registration<? extends T>[][] values;
+	private final boolean[]                     referenced;
+
+	private int size = 0;
+	private int hand = 0;
+
+	private volatile long hits      = 0;
+	private volatile long misses    = 0;
+	private volatile long evictions = 0;
+
+	/**
+	 * Create a new {@code SelectionCache} holding at most {@code maxSize} selections.
+	 *
+	 * @param maxSize The maximum number of selections to cache
+	 */
+	@SuppressWarnings("unchecked")
+	public SelectionCache(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be greater than 0");
+		}
+		int capacity = 2;
+		while (capacity < maxSize * 2) {
+			capacity <<= 1;
+		}
+		this.maxSize = maxSize;
+		this.mask = capacity - 1;
+		this.keys = new Object[capacity];
+		this.hashes = new int[capacity];
+		this.values = new Registration[capacity][];
+		this.referenced = new boolean[capacity];
+	}
+
+	/**
+	 * Get the cached selection for the given {@code key}.
+	 *
+	 * @param key The selected key
+	 * @return The cached selection or {@code null} if the key isn't cached
+	 */
+	public Registration<? extends T>[] get(Object key) {
+		int i = indexOf(key, spread(key.hashCode()));
+		if (i < 0) {
+			misses++;
+			return null;
+		}
+		hits++;
+		referenced[i] = true;
+		return values[i];
+	}
+
+	/**
+	 * Cache the selection for the given {@code key}, evicting another selection if the cache is full.
+	 *
+	 * @param key  The selected key
+	 * @param regs The selection
+	 */
+	public void put(Object key, Registration<? extends T>[] regs) {
+		int hash = spread(key.hashCode());
+		int i = indexOf(key, hash);
+		if (i >= 0) {
+			values[i] = regs;
+			return;
+		}
+		if (size >= maxSize) {
+			evict();
+		}
+		i = hash & mask;
+		while (null != keys[i]) {
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		hashes[i] = hash;
+		values[i] = regs;
+		referenced[i] = false;
+		size++;
+	}
+
+	/**
+	 * Remove the cached selection for the given {@code key}.
+	 *
+	 * @param key The selected key
+	 */
+	public void remove(Object key) {
+		int i = indexOf(key, spread(key.hashCode()));
+		if (i >= 0) {
+			removeAt(i);
+		}
+	}
+
+	/**
+	 * Remove every cached selection whose key is matched by the given {@link Selector}.
+	 *
+	 * @param selector The selector to match the cached keys against
+	 */
+	public void invalidate(Selector selector) {
+		if (size == 0) {
+			return;
+		}
+		List<Object> matched = null;
+		for (Object key : keys) {
+			if (null != key && selector.matches(key)) {
+				if (null == matched) {
+					matched = new ArrayList<Object>();
+				}
+				matched.add(key);
+			}
+		}
+		if (null != matched) {
+			for (Object key : matched) {
+				remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Remove every cached selection.
+	 */
+	public void clear() {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = null;
+			values[i] = null;
+			referenced[i] = false;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Get the number of cached selections.
+	 *
+	 * @return The number of cached selections
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the maximum number of cached selections.
+	 *
+	 * @return The maximum number of cached selections
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Get the number of lookups that found a cached selection.
+	 *
+	 * @return The number of cache hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get the number of lookups that didn't find a cached selection.
+	 *
+	 * @return The number of cache misses
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get the number of selections that have been evicted to make room for new ones.
+	 *
+	 * @return The number of evictions
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	private int indexOf(Object key, int hash) {
+		int i = hash & mask;
+		Object k;
+		while (null != (k = keys[i])) {
+			if (hashes[i] == hash && (k == key || k.equals(key))) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void evict() {
+		for (; ; ) {
+			int i = hand;
+			hand = (hand + 1) & mask;
+			if (null == keys[i]) {
+				continue;
+			}
+			if (referenced[i]) {
+				referenced[i] = false;
+				continue;
+			}
+			removeAt(i);
+			evictions++;
+			return;
+		}
+	}
+
+	private void removeAt(int i) {
+		// shift the following entries of the probe sequence back so that lookups don't stop at the freed slot
+		int j = i;
+		for (; ; ) {
+			j = (j + 1) & mask;
+			if (null == keys[j]) {
+				break;
+			}
+			int home = hashes[j] & mask;
+			if ((j > i && (home <= i || home > j)) || (j < i && home <= i && home > j)) {
+				keys[i] = keys[j];
+				hashes[i] = hashes[j];
+				values[i] = values[j];
+				referenced[i] = referenced[j];
+				i = j;
+			}
+		}
+		keys[i] = null;
+		values[i] = null;
+		referenced[i] = false;
+		size--;
+	}
+
+	private static int spread(int h) {
+		h ^= (h >>> 16);
+		return h * 0x85ebca6b;
+	}
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event.registry;
+
+import reactor.event.selector.ClassSelector;
+import reactor.event.selector.ObjectSelector;
+import reactor.event.selector.RegexSelector;
+import reactor.event.selector.Selector;
+import reactor.event.selector.UriPathSelector;
+
+import java.util.*;
+
+/**
+ * An index of {@link Registration Registrations} bucketed by the type of their {@link Selector} so that the candidates
+ * for a key can be found without calling {@link Selector#matches(Object)} on every registration:
+ * <ul>
+ * <li>{@link ObjectSelector ObjectSelectors} are kept in a hash map keyed by their object,</li>
+ * <li>{@link ClassSelector ClassSelectors} are kept in a hash map keyed by their type, which is looked up for every
+ * super type of a {@link Class} key,</li>
+ * <li>{@link UriPathSelector UriPathSelectors} are kept in a trie of the literal path segments their template starts
+ * with,</li>
+ * <li>{@link RegexSelector RegexSelectors} are kept in a hash map keyed by the literal prefix of their pattern,</li>
+ * <li>any other {@link Selector} is checked against every key.</li>
+ * </ul>
+ * Selectors are only bucketed when their class is exactly one of the above, since a subclass may override {@link
+ * Selector#matches(Object)}. The index only narrows the registrations down to candidates: callers must still check
+ * that the candidates' selectors match the key. Candidates are returned in the order they were added to the index.
+ * <p>
+ * Cancelled registrations are purged from the index as they are encountered. This class is not thread-safe and should
+ * be guarded by the owning {@link Registry}.
+ *
+ * @param <T> the type of Registration held by this index
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+public class SelectorIndex<T> {
+
+	private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+
+	private final Map<Object, List<Entry<T>>>   objects        = new HashMap<Object, List<Entry<T>>>();
+	private final Map<Class<?>, List<Entry<T>>> types          = new HashMap<Class<?>, List<Entry<T>>>();
+	private final Map<String, List<Entry<T>>>   regexes        = new HashMap<String, List<Entry<T>>>();
+	private final SortedMap<Integer, Integer>   regexPrefixes  = new TreeMap<Integer, Integer>();
+	private final PathNode<T>                   paths          = new PathNode<T>();
+	private final List<Entry<T>>                others         = new ArrayList<Entry<T>>();
+
+	private long nextSequence = 0;
+
+	/**
+	 * Add the given {@link Registration} to the index.
+	 *
+	 * @param reg The registration to index
+	 */
+	public void add(Registration<? extends T> reg) {
+		Entry<T> entry = new Entry<T>(nextSequence++, reg);
+		Selector sel = reg.getSelector();
+		Class<?> type = sel.getClass();
+		Object obj = sel.getObject();
+
+		if (null == obj) {
+			others.add(entry);
+		} else if (ObjectSelector.class == type) {
+			bucket(objects, obj).add(entry);
+		} else if (ClassSelector.class == type) {
+			bucket(types, (Class<?>) obj).add(entry);
+		} else if (UriPathSelector.class == type) {
+			addPath(entry, sel.getObject().toString());
+		} else if (RegexSelector.class == type) {
+			String prefix = literalPrefix(obj.toString());
+			bucket(regexes, prefix).add(entry);
+			Integer count = regexPrefixes.get(prefix.length());
+			regexPrefixes.put(prefix.length(), null == count ? 1 : count + 1);
+		} else {
+			others.add(entry);
+		}
+	}
+
+	/**
+	 * Find the {@link Registration Registrations} whose {@link Selector} might match the given {@code key}, in the
+	 * order they were added.
+	 *
+	 * @param key The key to find candidates for
+	 * @return The candidate registrations, never {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Registration<? extends T>> candidates(Object key) {
+		List<Entry<T>> found = new ArrayList<Entry<T>>();
+		int buckets = 0;
+
+		buckets += collect(objects.get(key), found);
+		if (key instanceof Class) {
+			buckets += collectTypes((Class<?>) key, found);
+		}
+		if (key instanceof String) {
+			buckets += collectPaths((String) key, found);
+			buckets += collectRegexes((String) key, found);
+		}
+		buckets += collect(others, found);
+
+		if (buckets > 1) {
+			Collections.sort(found);
+		}
+		List<Registration<? extends T>> regs = new ArrayList<Registration<? extends T>>(found.size());
+		for (Entry<T> entry : found) {
+			regs.add(entry.registration);
+		}
+		return regs;
+	}
+
+	/**
+	 * Remove every {@link Registration} from the index.
+	 */
+	public void clear() {
+		objects.clear();
+		types.clear();
+		regexes.clear();
+		regexPrefixes.clear();
+		paths.children.clear();
+		paths.entries.clear();
+		others.clear();
+	}
+
+	private void addPath(Entry<T> entry, String template) {
+		PathNode<T> node = paths;
+		for (String segment : template.split("/", -1)) {
+			if (!isLiteral(segment)) {
+				break;
+			}
+			PathNode<T> child = node.children.get(segment);
+			if (null == child) {
+				child = new PathNode<T>();
+				node.children.put(segment, child);
+			}
+			node = child;
+		}
+		node.entries.add(entry);
+	}
+
+	private int collectTypes(Class<?> key, List<Entry<T>> found) {
+		if (types.isEmpty()) {
+			return 0;
+		}
+		int buckets = 0;
+		Set<Class<?>> visited = new HashSet<Class<?>>();
+		Deque<Class<?>> supertypes = new ArrayDeque<Class<?>>();
+		supertypes.add(key);
+		if (key.isInterface()) {
+			supertypes.add(Object.class);
+		}
+		while (!supertypes.isEmpty()) {
+			Class<?> type = supertypes.poll();
+			if (!visited.add(type)) {
+				continue;
+			}
+			buckets += collect(types.get(type), found);
+			if (null != type.getSuperclass()) {
+				supertypes.add(type.getSuperclass());
+			}
+			Collections.addAll(supertypes, type.getInterfaces());
+		}
+		return buckets;
+	}
+
+	private int collectPaths(String key, List<Entry<T>> found) {
+		int buckets = 0;
+		PathNode<T> node = paths;
+		int start = 0;
+		while (null != node) {
+			buckets += collect(node.entries, found);
+			if (start > key.length()) {
+				break;
+			}
+			int end = key.indexOf('/', start);
+			if (end < 0) {
+				end = key.length();
+			}
+			node = node.children.get(key.substring(start, end));
+			start = end + 1;
+		}
+		return buckets;
+	}
+
+	private int collectRegexes(String key, List<Entry<T>> found) {
+		int buckets = 0;
+		for (Integer length : regexPrefixes.keySet()) {
+			if (length > key.length()) {
+				break;
+			}
+			buckets += collect(regexes.get(key.substring(0, length)), found);
+		}
+		return buckets;
+	}
+
+	private int collect(List<Entry<T>> entries, List<Entry<T>> found) {
+		if (null == entries || entries.isEmpty()) {
+			return 0;
+		}
+		int size = found.size();
+		for (Iterator<Entry<T>> it = entries.iterator(); it.hasNext(); ) {
+			Entry<T> entry = it.next();
+			if (entry.registration.isCancelled()) {
+				it.remove();
+				purged(entry);
+			} else {
+				found.add(entry);
+			}
+		}
+		return (found.size() > size ? 1 : 0);
+	}
+
+	private void purged(Entry<T> entry) {
+		// drop the now empty buckets of exact keys so that the maps don't grow without bounds
+		Selector sel = entry.selector;
+		Class<?> type = sel.getClass();
+		Object obj = sel.getObject();
+		if (ObjectSelector.class == type) {
+			removeIfEmpty(objects, obj);
+		} else if (ClassSelector.class == type) {
+			removeIfEmpty(types, obj);
+		} else if (RegexSelector.class == type) {
+			String prefix = literalPrefix(obj.toString());
+			removeIfEmpty(regexes, prefix);
+			Integer count = regexPrefixes.get(prefix.length());
+			if (null != count && count > 1) {
+				regexPrefixes.put(prefix.length(), count - 1);
+			} else {
+				regexPrefixes.remove(prefix.length());
+			}
+		}
+	}
+
+	private static <K, T> List<Entry<T>> bucket(Map<K, List<Entry<T>>> map, K key) {
+		List<Entry<T>> entries = map.get(key);
+		if (null == entries) {
+			entries = new ArrayList<Entry<T>>(1);
+			map.put(key, entries);
+		}
+		return entries;
+	}
+
+	private static <K, T> void removeIfEmpty(Map<K, List<Entry<T>>> map, Object key) {
+		List<Entry<T>> entries = map.get(key);
+		if (null != entries && entries.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	private static boolean isLiteral(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			if (REGEX_META_CHARS.indexOf(segment.charAt(i)) >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Find the literal text every string matching the given regex must start with. The prefix is computed
+	 * conservatively: anything that isn't a plain character ends it.
+	 *
+	 * @param regex the regular expression
+	 * @return the literal prefix, possibly empty
+	 */
+	static String literalPrefix(String regex) {
+		if (regex.indexOf('|') >= 0) {
+			return "";
+		}
+		int start = (regex.startsWith("^") ? 1 : 0);
+		int end = start;
+		while (end < regex.length() && REGEX_META_CHARS.indexOf(regex.charAt(end)) < 0) {
+			end++;
+		}
+		if (end < regex.length() && end > start) {
+			char next = regex.charAt(end);
+			if (next == '?' || next == '*' || next == '{') {
+				// the last character is optional
+				end--;
+			}
+		}
+		return regex.substring(start, end);
+	}
+
+	private static final class Entry<T> implements Comparable<Entry<T>> {
+		final long                      sequence;
+		final Registration<? extends T> registration;
+		final Selector                  selector;
+
+		Entry(long sequence, Registration<? extends T> registration) {
+			this.sequence = sequence;
+			this.registration = registration;
+			this.selector = registration.getSelector();
+		}
+
+		@Override
+		public int compareTo(Entry<T> other) {
+			return (sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1));
+		}
+	}
+
+	private static final class PathNode<T> {
+		final Map<String, PathNode<T>> children = new HashMap<String, PathNode<T>>();
+		final List<Entry<T>>           entries  = new ArrayList<Entry<T>>(1);
+	}
+
+}
@@ -19,6 +19,7 @@ package reactor.event.routing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.event.Event;
+import reactor.event.alloc.PooledEvent;
 import reactor.event.registry.Registration;
 import reactor.filter.Filter;
 import reactor.function.Consumer;
@@ -64,36 +65,43 @@ public class ConsumerFilteringEventRouter implements EventRouter {
 	                  List<Registration<? extends Consumer<? extends Event<?>>>> consumers,
 	                  Consumer<?> completionConsumer,
 	                  Consumer<Throwable> errorConsumer) {
-		if(null != consumers) {
-			for(Registration<? extends Consumer<? extends Event<?>>> consumer : filter.filter(consumers, key)) {
-				try {
-					invokeConsumer(key, event, consumer);
-				} catch(Throwable t) {
-					if(null != event.getErrorConsumer()) {
-						event.consumeError(t);
-					} else if(null != errorConsumer) {
-						errorConsumer.accept(t);
-					} else {
-						logger.error("Event routing failed for {}: {}", consumer.getObject(), t.getMessage(), t);
-						if(RuntimeException.class.isInstance(t)) {
-							throw (RuntimeException)t;
+		try {
+			if(null != consumers) {
+				for(Registration<? extends Consumer<? extends Event<?>>> consumer : filter.filter(consumers, key)) {
+					try {
+						invokeConsumer(key, event, consumer);
+					} catch(Throwable t) {
+						if(null != event.getErrorConsumer()) {
+							event.consumeError(t);
+						} else if(null != errorConsumer) {
+							errorConsumer.accept(t);
 						} else {
-							throw new IllegalStateException(t);
+							logger.error("Event routing failed for {}: {}", consumer.getObject(), t.getMessage(), t);
+							if(RuntimeException.class.isInstance(t)) {
+								throw (RuntimeException)t;
+							} else {
+								throw new IllegalStateException(t);
+							}
 						}
 					}
 				}
 			}
-		}
-		if(null != completionConsumer) {
-			try {
-				consumerInvoker.invoke(completionConsumer, Void.TYPE, event);
-			} catch(Exception e) {
-				if(null != errorConsumer) {
-					errorConsumer.accept(e);
-				} else {
-					logger.error("Completion Consumer {} failed: {}", completionConsumer, e.getMessage(), e);
+			if(null != completionConsumer) {
+				try {
+					consumerInvoker.invoke(completionConsumer, Void.TYPE, event);
+				} catch(Exception e) {
+					if(null != errorConsumer) {
+						errorConsumer.accept(e);
+					} else {
+						logger.error("Completion Consumer {} failed: {}", completionConsumer, e.getMessage(), e);
+					}
 				}
 			}
+		} finally {
+			if(event instanceof PooledEvent) {
+				// this dispatch of the event is over, return it to its pool if it was the last one
+				((PooledEvent<?>)event).release();
+			}
 		}
 	}
 
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event.selector;
+
+/**
+ * A marker for keys whose state, as well as their {@code equals} and {@code hashCode}, never change once they have
+ * been created. A {@link Selector} can remember whether it matches such a key and skip evaluating it again for an equal
+ * key.
+ *
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+public interface ImmutableKey {
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event.selector;
+
+/**
+ * Values derived from the key being selected by the current thread, such as its parsed form, that are costly to
+ * compute and can be shared by every {@link Selector} the key is matched against. A {@link
+ * reactor.event.registry.Registry} {@link #open(Object) opens} the memo before matching a key against its selectors and
+ * {@link #close(SelectionMemo) closes} it afterwards, so that a memoized value never outlives the selection of its key.
+ * Values are looked up by the identity of the key and of their owner, e.g. the parser that computed them.
+ * <p>
+ * Outside of a selection, {@link #get(Object, Object)} always returns {@code null} and {@link #put(Object, Object,
+ * Object)} does nothing.
+ *
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+public final class SelectionMemo {
+
+	private static final ThreadLocal<SelectionMemo> CURRENT = new ThreadLocal<SelectionMemo>() {
+		@Override
+		protected SelectionMemo initialValue() {
+			return new SelectionMemo();
+		}
+	};
+
+	private Object   key;
+	private Object[] owners = new Object[2];
+	private Object[] values = new Object[2];
+	private int      size   = 0;
+
+	private SelectionMemo() {
+	}
+
+	/**
+	 * Start memoizing the values derived from the given {@code key} on the current thread.
+	 *
+	 * @param key The key being selected
+	 * @return The memo of an enclosing selection, to be passed to {@link #close(SelectionMemo)}, or {@code null}
+	 */
+	public static SelectionMemo open(Object key) {
+		SelectionMemo memo = CURRENT.get();
+		if (null == memo.key) {
+			memo.key = key;
+			return null;
+		}
+		// a selector is itself selecting a key: keep the enclosing memo aside until this selection is done
+		SelectionMemo nested = new SelectionMemo();
+		nested.key = key;
+		CURRENT.set(nested);
+		return memo;
+	}
+
+	/**
+	 * Forget the values memoized since the matching call to {@link #open(Object)}.
+	 *
+	 * @param enclosing The memo returned by {@link #open(Object)}
+	 */
+	public static void close(SelectionMemo enclosing) {
+		if (null != enclosing) {
+			CURRENT.set(enclosing);
+			return;
+		}
+		SelectionMemo memo = CURRENT.get();
+		for (int i = 0; i < memo.size; i++) {
+			memo.owners[i] = null;
+			memo.values[i] = null;
+		}
+		memo.size = 0;
+		memo.key = null;
+	}
+
+	/**
+	 * Get the value derived from the given {@code key} by the given {@code owner}.
+	 *
+	 * @param key   The key being matched
+	 * @param owner The owner of the value
+	 * @return The memoized value or {@code null} if it hasn't been memoized or {@code key} isn't being selected
+	 */
+	public static Object get(Object key, Object owner) {
+		SelectionMemo memo = CURRENT.get();
+		if (memo.key != key) {
+			return null;
+		}
+		for (int i = 0; i < memo.size; i++) {
+			if (memo.owners[i] == owner) {
+				return memo.values[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Memoize the value derived from the given {@code key} by the given {@code owner}, until the selection of the key is
+	 * done.
+	 *
+	 * @param key   The key being matched
+	 * @param owner The owner of the value
+	 * @param value The value
+	 */
+	public static void put(Object key, Object owner, Object value) {
+		SelectionMemo memo = CURRENT.get();
+		if (memo.key != key) {
+			return;
+		}
+		if (memo.size == memo.owners.length) {
+			Object[] owners = new Object[memo.size << 1];
+			Object[] values = new Object[memo.size << 1];
+			System.arraycopy(memo.owners, 0, owners, 0, memo.size);
+			System.arraycopy(memo.values, 0, values, 0, memo.size);
+			memo.owners = owners;
+			memo.values = values;
+		}
+		memo.owners[memo.size] = owner;
+		memo.values[memo.size] = value;
+		memo.size++;
+	}
+
+}
@@ -17,7 +17,9 @@
 package reactor.event.selector;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -26,6 +28,13 @@ import java.util.regex.Pattern;
 /**
  * Represents a URI template. A URI template is a URI-like String that contains variables enclosed by braces
  * (<code>{</code>, <code>}</code>), which can be expanded to produce an actual URI.
+ * <p>
+ * A variable matches any characters but {@code /} and {@code .}, a variable followed by {@code **} and a bare {@code
+ * **} match any characters. Templates made of such variables and literal text are compiled into a sequence of segments
+ * that are matched without regular expressions, so that matching is thread-safe and doesn't allocate unless variables
+ * are extracted from a matching URI. Templates containing other regular expression constructs are matched with a
+ * {@link Pattern}, in which a {@code .} still matches a literal {@code .}. The variables extracted from the most
+ * recently matched URIs are cached.
  *
  * @author Arjen Poutsma
  * @author Juergen Hoeller
@@ -34,6 +43,11 @@ import java.util.regex.Pattern;
  */
 public class UriPathTemplate {
 
+	/**
+	 * The default maximum number of URIs whose variables are cached.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+
 	private static final Pattern FULL_SPLAT_PATTERN     = Pattern.compile("[\\*][\\*]");
 	private static final String  FULL_SPLAT_REPLACEMENT = ".*";
 
@@ -47,47 +61,78 @@ public class UriPathTemplate {
 	//private static final String  NAME_REPLACEMENT = "(?<%NAME%>[^\\/.]*)";
 	private static final String  NAME_REPLACEMENT = "([^\\/.]*)";
 
-	private final List<String>                         pathVariables = new ArrayList<String>();
-	private final HashMap<String, Matcher>             matchers      = new HashMap<String, Matcher>();
-	private final HashMap<String, Map<String, String>> vars          = new HashMap<String, Map<String, String>>();
+	private static final String REGEX_CHARS = "\\[](){}?+*|^$";
+
+	private static final byte LITERAL = 0;
+	private static final byte VAR     = 1;
+	private static final byte SPLAT   = 2;
 
+	private final List<String>                     pathVariables = new ArrayList<String>();
+	private final Map<String, Map<String, String>> vars;
+
+	private final String  template;
 	private final Pattern uriPattern;
 
+	private final byte[]   segmentTypes;
+	private final String[] segmentLiterals;
+	private final int[]    segmentVariables;
+	private final int      minLength;
+
 	/**
 	 * Creates a new {@code UriPathTemplate} from the given {@code uriPattern}.
 	 *
 	 * @param uriPattern The pattern to be used by the template
 	 */
 	public UriPathTemplate(String uriPattern) {
-		String s = "^" + uriPattern;
+		this(uriPattern, DEFAULT_CACHE_SIZE);
+	}
 
-		Matcher m = NAME_SPLAT_PATTERN.matcher(s);
-		while (m.find()) {
-			for (int i = 1; i <= m.groupCount(); i++) {
-				String name = m.group(i);
-				pathVariables.add(name);
-				s = m.replaceFirst(NAME_SPLAT_REPLACEMENT.replaceAll("%NAME%", name));
-				m.reset(s);
-			}
-		}
+	/**
+	 * Creates a new {@code UriPathTemplate} from the given {@code uriPattern}, caching the variables of at most {@code
+	 * cacheSize} URIs.
+	 *
+	 * @param uriPattern The pattern to be used by the template
+	 * @param cacheSize  The maximum number of URIs whose variables are cached
+	 */
+	public UriPathTemplate(String uriPattern, final int cacheSize) {
+		this.template = uriPattern;
+		this.vars = new LinkedHashMap<String, Map<String, String>>(16, 0.75f, true) {
+			private static final long serialVersionUID = -2541935372396453516L;
 
-		m = NAME_PATTERN.matcher(s);
-		while (m.find()) {
-			for (int i = 1; i <= m.groupCount(); i++) {
-				String name = m.group(i);
-				pathVariables.add(name);
-				s = m.replaceFirst(NAME_REPLACEMENT.replaceAll("%NAME%", name));
-				m.reset(s);
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Map<String, String>> eldest) {
+				return size() > cacheSize;
 			}
-		}
+		};
 
-		m = FULL_SPLAT_PATTERN.matcher(s);
-		while (m.find()) {
-			s = m.replaceAll(FULL_SPLAT_REPLACEMENT);
-			m.reset(s);
+		List<Byte> types = new ArrayList<Byte>();
+		List<String> literals = new ArrayList<String>();
+		List<Integer> variables = new ArrayList<Integer>();
+		if (compileSegments(uriPattern, types, literals, variables)) {
+			int len = types.size();
+			this.segmentTypes = new byte[len];
+			this.segmentLiterals = new String[len];
+			this.segmentVariables = new int[len];
+			int min = 0;
+			for (int i = 0; i < len; i++) {
+				segmentTypes[i] = types.get(i);
+				segmentLiterals[i] = literals.get(i);
+				segmentVariables[i] = variables.get(i);
+				if (LITERAL == segmentTypes[i]) {
+					min += segmentLiterals[i].length();
+				}
+			}
+			this.minLength = min;
+			this.uriPattern = null;
+		} else {
+			this.segmentTypes = null;
+			this.segmentLiterals = null;
+			this.segmentVariables = null;
+			this.minLength = 0;
+			// the variables found before the regular expression constructs are found again
+			pathVariables.clear();
+			this.uriPattern = compilePattern(uriPattern);
 		}
-
-		this.uriPattern = Pattern.compile(s + "$");
 	}
 
 	/**
@@ -99,7 +144,10 @@ public class UriPathTemplate {
 	 * @return {@code true} if there's a match, {@code false} otherwise
 	 */
 	public boolean matches(String uri) {
-		return matcher(uri).matches();
+		if (null == uriPattern) {
+			return uri.length() >= minLength && matchSegments(uri, 0, 0, null);
+		}
+		return uriPattern.matcher(uri).matches();
 	}
 
 	/**
@@ -112,36 +160,237 @@ public class UriPathTemplate {
 	 * @return the path parameters from the uri. Never {@code null}.
 	 */
 	public Map<String, String> match(String uri) {
-		Map<String, String> pathParameters = vars.get(uri);
+		Map<String, String> pathParameters;
+		synchronized (vars) {
+			pathParameters = vars.get(uri);
+		}
 		if (null != pathParameters) {
 			return pathParameters;
 		}
 
-		pathParameters = new HashMap<String, String>();
-		Matcher m = matcher(uri);
-		if (m.matches()) {
+		if (null == uriPattern) {
+			if (uri.length() < minLength || !matchSegments(uri, 0, 0, null)) {
+				return Collections.emptyMap();
+			}
+			int[] captures = new int[pathVariables.size() * 2];
+			matchSegments(uri, 0, 0, captures);
+			pathParameters = new HashMap<String, String>();
+			for (int i = 0; i < pathVariables.size(); i++) {
+				pathParameters.put(pathVariables.get(i), uri.substring(captures[i * 2], captures[i * 2 + 1]));
+			}
+		} else {
+			Matcher m = uriPattern.matcher(uri);
+			if (!m.matches()) {
+				return Collections.emptyMap();
+			}
+			pathParameters = new HashMap<String, String>();
 			int i = 1;
 			for (String name : pathVariables) {
 				String val = m.group(i++);
 				pathParameters.put(name, val);
 			}
 		}
+
+		pathParameters = Collections.unmodifiableMap(pathParameters);
 		synchronized (vars) {
 			vars.put(uri, pathParameters);
 		}
-
 		return pathParameters;
 	}
 
-	private Matcher matcher(String uri) {
-		Matcher m = matchers.get(uri);
-		if (null == m) {
-			m = uriPattern.matcher(uri);
-			synchronized (matchers) {
-				matchers.put(uri, m);
+	/**
+	 * Match the segments from {@code segment} on against {@code uri} from {@code pos} on, trying the longest possible
+	 * match of each variable first, like a greedy regular expression would. If {@code captures} isn't {@code null},
+	 * it's filled with the start and end of each variable of the match.
+	 */
+	private boolean matchSegments(String uri, int segment, int pos, int[] captures) {
+		if (segment == segmentTypes.length) {
+			return pos == uri.length();
+		}
+		int next = segment + 1;
+		switch (segmentTypes[segment]) {
+			case LITERAL:
+				String literal = segmentLiterals[segment];
+				return uri.startsWith(literal, pos) && matchSegments(uri, next, pos + literal.length(), captures);
+			case VAR:
+				int end = pos;
+				for (int len = uri.length(); end < len; end++) {
+					char c = uri.charAt(end);
+					if (c == '/' || c == '.') {
+						break;
+					}
+				}
+				for (int e = end; e >= pos; e--) {
+					if (matchSegments(uri, next, e, captures)) {
+						capture(segment, pos, e, captures);
+						return true;
+					}
+				}
+				return false;
+			default:
+				if (next < segmentTypes.length && LITERAL == segmentTypes[next]) {
+					// only try the positions the following literal can be found at
+					String following = segmentLiterals[next];
+					for (int e = uri.lastIndexOf(following); e >= pos; e = uri.lastIndexOf(following, e - 1)) {
+						if (matchSegments(uri, next, e, captures)) {
+							capture(segment, pos, e, captures);
+							return true;
+						}
+					}
+					return false;
+				}
+				for (int e = uri.length(); e >= pos; e--) {
+					if (matchSegments(uri, next, e, captures)) {
+						capture(segment, pos, e, captures);
+						return true;
+					}
+				}
+				return false;
+		}
+	}
+
+	private void capture(int segment, int start, int end, int[] captures) {
+		int var = segmentVariables[segment];
+		if (null != captures && var >= 0) {
+			captures[var * 2] = start;
+			captures[var * 2 + 1] = end;
+		}
+	}
+
+	/**
+	 * Split the template into literal, variable and splat segments, returning {@code false} if it contains regular
+	 * expression constructs that can't be matched that way.
+	 */
+	private boolean compileSegments(String tmpl,
+	                                List<Byte> types,
+	                                List<String> literals,
+	                                List<Integer> variables) {
+		StringBuilder literal = new StringBuilder();
+		int len = tmpl.length();
+		for (int i = 0; i < len; ) {
+			char c = tmpl.charAt(i);
+			byte type;
+			String name = null;
+			if (c == '{') {
+				int close = tmpl.indexOf('}', i + 1);
+				if (close < 0) {
+					return false;
+				}
+				name = tmpl.substring(i + 1, close);
+				if (name.isEmpty() || name.indexOf('/') >= 0) {
+					return false;
+				}
+				i = close + 1;
+				if (tmpl.startsWith("**", i)) {
+					type = SPLAT;
+					i += 2;
+				} else {
+					type = VAR;
+				}
+			} else if (tmpl.startsWith("**", i)) {
+				type = SPLAT;
+				i += 2;
+			} else if (REGEX_CHARS.indexOf(c) >= 0) {
+				return false;
+			} else {
+				literal.append(c);
+				i++;
+				continue;
 			}
+
+			if (literal.length() > 0) {
+				types.add(LITERAL);
+				literals.add(literal.toString());
+				variables.add(-1);
+				literal.setLength(0);
+			}
+			types.add(type);
+			literals.add(null);
+			if (null != name) {
+				variables.add(pathVariables.size());
+				pathVariables.add(name);
+			} else {
+				variables.add(-1);
+			}
+		}
+		if (literal.length() > 0) {
+			types.add(LITERAL);
+			literals.add(literal.toString());
+			variables.add(-1);
 		}
-		return m;
+		return true;
+	}
+
+	private Pattern compilePattern(String uriPattern) {
+		String s = "^" + escapeDots(uriPattern);
+
+		Matcher m = NAME_SPLAT_PATTERN.matcher(s);
+		while (m.find()) {
+			for (int i = 1; i <= m.groupCount(); i++) {
+				String name = m.group(i);
+				pathVariables.add(name);
+				s = m.replaceFirst(NAME_SPLAT_REPLACEMENT.replaceAll("%NAME%", name));
+				m.reset(s);
+			}
+		}
+
+		m = NAME_PATTERN.matcher(s);
+		while (m.find()) {
+			for (int i = 1; i <= m.groupCount(); i++) {
+				String name = m.group(i);
+				pathVariables.add(name);
+				s = m.replaceFirst(NAME_REPLACEMENT.replaceAll("%NAME%", name));
+				m.reset(s);
+			}
+		}
+
+		m = FULL_SPLAT_PATTERN.matcher(s);
+		while (m.find()) {
+			s = m.replaceAll(FULL_SPLAT_REPLACEMENT);
+			m.reset(s);
+		}
+
+		return Pattern.compile(s + "$");
+	}
+
+	/**
+	 * Escape the {@code .} of the template, except in variable names, so that it matches a literal {@code .} like it
+	 * does when the template is compiled into segments. A {@code .} followed by a quantifier, as in {@code .*} or
+	 * {@code .+}, is left to match any character.
+	 */
+	private static String escapeDots(String tmpl) {
+		StringBuilder s = new StringBuilder(tmpl.length() + 8);
+		int len = tmpl.length();
+		for (int i = 0; i < len; i++) {
+			char c = tmpl.charAt(i);
+			if (c == '\\' && i + 1 < len) {
+				s.append(c).append(tmpl.charAt(++i));
+			} else if (c == '{') {
+				int close = tmpl.indexOf('}', i + 1);
+				int end = (close < 0 ? len : close + 1);
+				s.append(tmpl, i, end);
+				i = end - 1;
+			} else if (c == '.' && !isQuantified(tmpl, i + 1)) {
+				s.append("\\.");
+			} else {
+				s.append(c);
+			}
+		}
+		return s.toString();
+	}
+
+	private static boolean isQuantified(String tmpl, int i) {
+		if (i >= tmpl.length()) {
+			return false;
+		}
+		// a '{' always starts a variable here, never a quantifier
+		char c = tmpl.charAt(i);
+		return c == '*' || c == '+' || c == '?';
+	}
+
+	@Override
+	public String toString() {
+		return template;
 	}
 
 }
@@ -18,11 +18,13 @@ package reactor.io;
 
 import reactor.function.Supplier;
 import reactor.alloc.Recyclable;
+import reactor.alloc.Reference;
 import reactor.util.Assert;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
@@ -42,6 +44,12 @@ import java.util.List;
  * dynamic expansion of the buffer to accommodate additional content. It also provides convenience methods for
  * operating
  * on buffers.
+ * <p>
+ * A dynamic {@literal Buffer} doubles its capacity whenever it runs out of room, up to {@link #MAX_BUFFER_SIZE}, so
+ * that appending a large amount of data copies each byte a constant number of times on average. Its backing storage
+ * can be taken from the pools of a {@link SizeClassedBufferAllocator}, and given back when the {@literal Buffer} is
+ * {@link #close() closed}. To append data without ever copying what has been appended already, use a {@link
+ * CompositeBuffer} instead.
  *
  * @author Jon Brisbin
  */
@@ -69,12 +77,14 @@ public class Buffer implements Recyclable,
 	);
 
 	private static final Charset UTF8 = Charset.forName("UTF-8");
-	private final boolean        dynamic;
-	private       ByteBuffer     buffer;
-	private       CharsetDecoder decoder;
-	private       CharBuffer     chars;
-	private       int            position;
-	private       int            limit;
+	private final boolean                    dynamic;
+	private       ByteBuffer                 buffer;
+	private       CharsetDecoder             decoder;
+	private       CharBuffer                 chars;
+	private       int                        position;
+	private       int                        limit;
+	private       SizeClassedBufferAllocator allocator;
+	private       Reference<Buffer>          storage;
 
 	/**
 	 * Create an empty {@literal Buffer} that is dynamic.
@@ -128,6 +138,20 @@ public class Buffer implements Recyclable,
 		this.buffer = bufferToStartWith;
 	}
 
+	/**
+	 * Create an empty {@literal Buffer} that is dynamic and takes its backing storage from the given {@code allocator}.
+	 * The storage is given back to the allocator when this {@literal Buffer} grows or is {@link #close() closed}, after
+	 * which copies of this {@literal Buffer} and {@link ByteBuffer ByteBuffers} obtained from it must not be used anymore.
+	 *
+	 * @param allocator
+	 * 		The allocator of the backing storage.
+	 */
+	public Buffer(SizeClassedBufferAllocator allocator) {
+		Assert.notNull(allocator, "SizeClassedBufferAllocator cannot be null.");
+		this.dynamic = true;
+		this.allocator = allocator;
+	}
+
 	/**
 	 * Convenience method to create a new, fixed-length {@literal Buffer} and putting the given byte array into the
 	 * buffer.
@@ -659,7 +683,7 @@ public class Buffer implements Recyclable,
 	 */
 	public Buffer append(short s) {
 		ensureCapacity(2);
-		buffer.putInt(s);
+		buffer.putShort(s);
 		return this;
 	}
 
@@ -783,7 +807,7 @@ public class Buffer implements Recyclable,
 	 * @return {@literal this}
 	 */
 	public Buffer append(byte[] b, int start, int len) {
-		ensureCapacity(b.length);
+		ensureCapacity(len);
 		buffer.put(b, start, len);
 		return this;
 	}
@@ -979,8 +1003,20 @@ public class Buffer implements Recyclable,
 		return isDynamic();
 	}
 
+	/**
+	 * Clear this {@literal Buffer}. If its backing storage has been taken from a {@link SizeClassedBufferAllocator}, give
+	 * it back, leaving this {@literal Buffer} empty.
+	 *
+	 * @throws IOException
+	 */
 	@Override
 	public void close() throws IOException {
+		if(null != storage) {
+			storage.release();
+			storage = null;
+			buffer = null;
+			return;
+		}
 		clear();
 	}
 
@@ -1044,6 +1080,16 @@ public class Buffer implements Recyclable,
 		return new BufferInputStream();
 	}
 
+	/**
+	 * Create an {@link OutputStream} that appends the bytes written to it to this {@literal Buffer}, growing it as
+	 * needed if it is dynamic.
+	 *
+	 * @return A new {@link OutputStream}.
+	 */
+	public OutputStream outputStream() {
+		return new BufferOutputStream();
+	}
+
 	/**
 	 * Create a copy of the given range.
 	 *
@@ -1121,18 +1167,14 @@ public class Buffer implements Recyclable,
 		snapshot();
 
 		int start = this.position;
-		for(byte b : this) {
-			if(b == delimiter) {
-				int end = stripDelimiter ? buffer.position() - 1 : buffer.position();
-				views.add(createView(start, end));
-				start = end + (stripDelimiter ? 1 : 0);
-			}
+		int end;
+		while((end = ByteScanner.indexOf(buffer, (byte)delimiter, start, this.limit)) >= 0) {
+			views.add(new View(start, stripDelimiter ? end : end + 1));
+			start = end + 1;
 		}
-		if(start != buffer.position()) {
-			buffer.position(start);
-		}
-
-		reset();
+		// leave the buffer positioned after the last delimiter
+		buffer.position(start);
+		snapshot();
 
 		return views;
 	}
@@ -1187,29 +1229,14 @@ public class Buffer implements Recyclable,
 		}
 
 		int start = this.position;
-		for(byte b : this) {
-			if(b != delimBytes[0]) {
-				continue;
-			}
-			int end = -1;
-			for(int i = 1; i < delimBytes.length; i++) {
-				if(read() == delimBytes[i]) {
-					end = stripDelimiter ? buffer.position() - delimBytes.length : buffer.position();
-				} else {
-					end = -1;
-					break;
-				}
-			}
-			if(end > 0) {
-				views.add(createView(start, end));
-				start = end + (stripDelimiter ? delimBytes.length : 0);
-			}
-		}
-		if(start != buffer.position()) {
-			buffer.position(start);
+		int end;
+		while((end = ByteScanner.indexOf(buffer, delimBytes, start, this.limit)) >= 0) {
+			views.add(new View(start, stripDelimiter ? end : end + delimBytes.length));
+			start = end + delimBytes.length;
 		}
-
-		reset();
+		// leave the buffer positioned after the last delimiter
+		buffer.position(start);
+		snapshot();
 
 		return views;
 	}
@@ -1223,7 +1250,7 @@ public class Buffer implements Recyclable,
 	 * @return the position of the char in the buffer or {@code -1} if not found
 	 */
 	public int indexOf(byte b) {
-		return indexOf(b, buffer.position(), buffer.remaining());
+		return indexOf(b, buffer.position(), buffer.limit());
 	}
 
 	/**
@@ -1240,19 +1267,9 @@ public class Buffer implements Recyclable,
 	 * @return the position of the char in the buffer or {@code -1} if not found
 	 */
 	public int indexOf(byte b, int start, int end) {
-		snapshot();
-		if(buffer.position() != start) {
-			buffer.position(start);
-		}
-		int pos = -1;
-		while(buffer.hasRemaining() && buffer.position() < end) {
-			if(buffer.get() == b) {
-				pos = buffer.position();
-				break;
-			}
-		}
-		reset();
-		return pos;
+		int pos = ByteScanner.indexOf(buffer, b, start, Math.min(end, buffer.limit()));
+		// the position following the byte, as if it had just been read
+		return (pos < 0 ? -1 : pos + 1);
 	}
 
 	/**
@@ -1331,38 +1348,67 @@ public class Buffer implements Recyclable,
 		return (null != buffer ? this.buffer.compareTo(buffer.buffer) : -1);
 	}
 
-	private synchronized void ensureCapacity(int atLeast) {
+	private void ensureCapacity(int atLeast) {
 		if(null == buffer) {
-			buffer = ByteBuffer.allocate(SMALL_BUFFER_SIZE);
+			buffer = allocate(atLeast);
 			return;
 		}
 		int pos = buffer.position();
 		int cap = buffer.capacity();
 		if(dynamic && buffer.remaining() < atLeast) {
+			int required = pos + atLeast;
 			if(buffer.limit() < cap) {
 				// there's remaining capacity that hasn't been used yet
-				if(pos + atLeast > cap) {
-					expand();
+				if(required > cap) {
+					expand(required);
 					cap = buffer.capacity();
 				}
-				buffer.limit(Math.min(pos + atLeast, cap));
+				buffer.limit(Math.min(required, cap));
 			} else {
-				expand();
+				expand(required);
 			}
 		} else if(pos + SMALL_BUFFER_SIZE > MAX_BUFFER_SIZE) {
 			throw new BufferOverflowException();
 		}
 	}
 
-	private void expand() {
-		snapshot();
-		ByteBuffer newBuff = (buffer.isDirect()
-		                      ? ByteBuffer.allocateDirect(buffer.limit() + SMALL_BUFFER_SIZE)
-		                      : ByteBuffer.allocate(buffer.limit() + SMALL_BUFFER_SIZE));
-		buffer.flip();
+	private void expand(int required) {
+		if(required > MAX_BUFFER_SIZE || required < 0) {
+			throw new BufferOverflowException();
+		}
+		// double the capacity rather than adding to it, or appending n bytes would copy O(n^2) bytes
+		long newCap = Math.max(buffer.capacity(), 1);
+		while(newCap < required) {
+			newCap <<= 1;
+		}
+		boolean full = (buffer.limit() == buffer.capacity());
+		int pos = buffer.position();
+		int lim = buffer.limit();
+		Reference<Buffer> oldStorage = storage;
+		ByteBuffer newBuff = allocate((int)Math.min(newCap, MAX_BUFFER_SIZE));
+		buffer.position(0);
 		newBuff.put(buffer);
+		newBuff.limit(full ? newBuff.capacity() : Math.max(lim, required));
+		newBuff.position(pos);
 		buffer = newBuff;
-		reset();
+		if(null != oldStorage) {
+			oldStorage.release();
+		}
+	}
+
+	private ByteBuffer allocate(int atLeast) {
+		if(null != allocator) {
+			storage = allocator.allocate(Math.min(atLeast, MAX_BUFFER_SIZE));
+			ByteBuffer bb = storage.get().byteBuffer();
+			bb.clear();
+			return bb;
+		}
+		int cap = SMALL_BUFFER_SIZE;
+		while(cap < atLeast && cap < MAX_BUFFER_SIZE) {
+			cap = (int)Math.min((long)cap << 1, MAX_BUFFER_SIZE);
+		}
+		boolean direct = (null != buffer && buffer.isDirect());
+		return (direct ? ByteBuffer.allocateDirect(cap) : ByteBuffer.allocate(cap));
 	}
 
 	private String decode() {
@@ -1409,6 +1455,18 @@ public class Buffer implements Recyclable,
 		snapshot();
 	}
 
+	private class BufferOutputStream extends OutputStream {
+		@Override
+		public void write(int b) throws IOException {
+			append((byte)b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			append(b, off, len);
+		}
+	}
+
 	private class BufferInputStream extends InputStream {
 		ByteBuffer buffer = Buffer.this.buffer.slice();
 
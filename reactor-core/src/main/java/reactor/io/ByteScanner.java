@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Searches the bytes of a {@link ByteBuffer}, using absolute reads so that its position and limit are left untouched.
+ * A single byte is searched for eight bytes at a time, by testing every byte of a {@code long} at once. A sequence of
+ * bytes is searched for using Boyer-Moore-Horspool, unless it's so short, or the range searched so small, that
+ * searching for its first byte and comparing the rest is faster.
+ *
+ * @author Jon Brisbin
+ */
+final class ByteScanner {
+
+	private static final long ONES  = 0x0101010101010101L;
+	private static final long HIGHS = 0x7f7f7f7f7f7f7f7fL;
+
+	/**
+	 * Whether reading a {@code long} from a heap {@link ByteBuffer} is a single load. Before Java 9 it's assembled from
+	 * eight byte reads, which makes searching the backing array one byte at a time faster.
+	 */
+	private static final boolean HEAP_WORD_READS = !System.getProperty("java.specification.version", "1.").startsWith("1.");
+
+	/**
+	 * The shortest pattern searched for using Boyer-Moore-Horspool, which can't skip more bytes than the length of the
+	 * pattern.
+	 */
+	private static final int HORSPOOL_MIN_LENGTH = 4;
+
+	/**
+	 * The smallest range searched using Boyer-Moore-Horspool, which needs to fill a table of skips first.
+	 */
+	private static final int HORSPOOL_MIN_RANGE = 256;
+
+	private ByteScanner() {
+	}
+
+	/**
+	 * Find the first occurrence of the given byte in the given range.
+	 *
+	 * @param bb
+	 * 		The bytes to search.
+	 * @param b
+	 * 		The byte to search for.
+	 * @param from
+	 * 		The index to start searching from, inclusive.
+	 * @param to
+	 * 		The index to stop searching at, exclusive.
+	 *
+	 * @return The index of the byte or {@code -1} if not found
+	 */
+	static int indexOf(ByteBuffer bb, byte b, int from, int to) {
+		if(!HEAP_WORD_READS && bb.hasArray()) {
+			byte[] bytes = bb.array();
+			int offset = bb.arrayOffset();
+			for(int i = from + offset, end = to + offset; i < end; i++) {
+				if(bytes[i] == b) {
+					return i - offset;
+				}
+			}
+			return -1;
+		}
+		int i = from;
+		if(to - i >= 8) {
+			boolean bigEndian = (bb.order() == ByteOrder.BIG_ENDIAN);
+			long pattern = (b & 0xffL) * ONES;
+			for(; i <= to - 8; i += 8) {
+				long word = bb.getLong(i) ^ pattern;
+				// the high bit of each byte that was equal to b is set, without carries from one byte to the next
+				long found = ~(((word & HIGHS) + HIGHS) | word | HIGHS);
+				if(found != 0) {
+					return i + ((bigEndian ? Long.numberOfLeadingZeros(found) : Long.numberOfTrailingZeros(found)) >>> 3);
+				}
+			}
+		}
+		for(; i < to; i++) {
+			if(bb.get(i) == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Find the first occurrence of the given sequence of bytes in the given range.
+	 *
+	 * @param bb
+	 * 		The bytes to search.
+	 * @param pattern
+	 * 		The bytes to search for.
+	 * @param from
+	 * 		The index to start searching from, inclusive.
+	 * @param to
+	 * 		The index to stop searching at, exclusive.
+	 *
+	 * @return The index of the first byte of the sequence or {@code -1} if not found
+	 */
+	static int indexOf(ByteBuffer bb, byte[] pattern, int from, int to) {
+		int len = pattern.length;
+		if(len == 0) {
+			return (from <= to ? from : -1);
+		}
+		if(len == 1) {
+			return indexOf(bb, pattern[0], from, to);
+		}
+
+		int last = to - len;
+		if(len < HORSPOOL_MIN_LENGTH || to - from < HORSPOOL_MIN_RANGE) {
+			for(int i = from; i <= last; i++) {
+				i = indexOf(bb, pattern[0], i, last + 1);
+				if(i < 0) {
+					return -1;
+				}
+				if(matches(bb, i, pattern)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		int[] skips = new int[256];
+		Arrays.fill(skips, len);
+		for(int k = 0; k < len - 1; k++) {
+			skips[pattern[k] & 0xff] = len - 1 - k;
+		}
+		byte lastByte = pattern[len - 1];
+		for(int i = from; i <= last; ) {
+			byte b = bb.get(i + len - 1);
+			if(b == lastByte && matches(bb, i, pattern)) {
+				return i;
+			}
+			i += skips[b & 0xff];
+		}
+		return -1;
+	}
+
+	private static boolean matches(ByteBuffer bb, int index, byte[] pattern) {
+		for(int k = pattern.length - 1; k >= 0; k--) {
+			if(bb.get(index + k) != pattern[k]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.io;
+
+import reactor.alloc.Reference;
+import reactor.util.Assert;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A growable sequence of bytes held in a chain of fixed-size chunks allocated by a {@link BufferAllocator}. Unlike a
+ * dynamic {@link Buffer}, which copies its content into a larger {@link ByteBuffer} when it runs out of room, a {@code
+ * CompositeBuffer} only ever copies the bytes being appended or prepended: appending allocates a new chunk once the
+ * last one is full, and prepending fills the first chunk from its end towards its start, inserting a new chunk in front
+ * of it once it is full.
+ * <p>
+ * The chunks can be written to a channel as they are, using a gathering write, or {@link #flatten() flattened} into a
+ * single {@link Buffer}. They are given back to their allocator when the {@code CompositeBuffer} is {@link #close()
+ * closed}.
+ *
+ * @author Jon Brisbin
+ */
+@NotThreadSafe
+public class CompositeBuffer implements Closeable {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final BufferAllocator         allocator;
+	private final List<Reference<Buffer>> refs    = new ArrayList<Reference<Buffer>>();
+	// the content of each chunk is between its position and its limit
+	private final List<ByteBuffer>        chunks  = new ArrayList<ByteBuffer>();
+	private final byte[]                  scratch = new byte[8];
+	private       int                     length;
+
+	/**
+	 * Create an empty {@code CompositeBuffer} whose chunks are allocated by a shared {@link BufferAllocator} of {@link
+	 * Buffer#SMALL_BUFFER_SIZE} buffers.
+	 */
+	public CompositeBuffer() {
+		this(DefaultAllocator.INSTANCE);
+	}
+
+	/**
+	 * Create an empty {@code CompositeBuffer} whose chunks are allocated by the given {@code allocator}.
+	 *
+	 * @param allocator
+	 * 		The allocator of the chunks.
+	 */
+	public CompositeBuffer(BufferAllocator allocator) {
+		Assert.notNull(allocator, "BufferAllocator cannot be null.");
+		this.allocator = allocator;
+	}
+
+	/**
+	 * Get the number of bytes held by this {@code CompositeBuffer}.
+	 *
+	 * @return The number of bytes
+	 */
+	public int remaining() {
+		return length;
+	}
+
+	/**
+	 * Append the given {@code byte} to this {@code CompositeBuffer}.
+	 *
+	 * @param b
+	 * 		The {@code byte} to append.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer append(byte b) {
+		ByteBuffer chunk = lastChunk();
+		int lim = chunk.limit();
+		chunk.limit(lim + 1);
+		chunk.put(lim, b);
+		length++;
+		return this;
+	}
+
+	/**
+	 * Append the given {@code int} to this {@code CompositeBuffer}.
+	 *
+	 * @param i
+	 * 		The {@code int} to append.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer append(int i) {
+		for(int n = 0; n < 4; n++) {
+			scratch[n] = (byte)(i >>> (24 - 8 * n));
+		}
+		return append(scratch, 0, 4);
+	}
+
+	/**
+	 * Append the given {@code long} to this {@code CompositeBuffer}.
+	 *
+	 * @param l
+	 * 		The {@code long} to append.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer append(long l) {
+		for(int n = 0; n < 8; n++) {
+			scratch[n] = (byte)(l >>> (56 - 8 * n));
+		}
+		return append(scratch, 0, 8);
+	}
+
+	/**
+	 * Append the given String, encoded in UTF-8, to this {@code CompositeBuffer}.
+	 *
+	 * @param s
+	 * 		The String to append.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer append(String s) {
+		if(null == s) {
+			return this;
+		}
+		return append(s.getBytes(UTF8));
+	}
+
+	/**
+	 * Append the given {@code byte[]} to this {@code CompositeBuffer}.
+	 *
+	 * @param b
+	 * 		The {@code byte[]} to append.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer append(byte[] b) {
+		return append(b, 0, b.length);
+	}
+
+	/**
+	 * Append the given {@code byte[]} to this {@code CompositeBuffer}, starting at the given index and continuing for
+	 * the given length.
+	 *
+	 * @param b
+	 * 		the bytes to append
+	 * @param start
+	 * 		the index of where to start copying bytes
+	 * @param len
+	 * 		the len of the bytes to copy
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer append(byte[] b, int start, int len) {
+		return append(ByteBuffer.wrap(b, start, len));
+	}
+
+	/**
+	 * Append the remaining bytes of the given {@link ByteBuffer} to this {@code CompositeBuffer}, leaving its position
+	 * unchanged.
+	 *
+	 * @param bb
+	 * 		The {@link ByteBuffer} to append.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer append(ByteBuffer bb) {
+		if(null == bb) {
+			return this;
+		}
+		ByteBuffer src = bb.duplicate();
+		int len = src.remaining();
+		while(src.hasRemaining()) {
+			ByteBuffer chunk = lastChunk();
+			int start = chunk.limit();
+			int n = Math.min(chunk.capacity() - start, src.remaining());
+			src.limit(src.position() + n);
+			copy(src, chunk, start);
+			src.limit(bb.limit());
+		}
+		length += len;
+		return this;
+	}
+
+	/**
+	 * Append the remaining bytes of the given {@link Buffer} to this {@code CompositeBuffer}, leaving its position
+	 * unchanged.
+	 *
+	 * @param b
+	 * 		The {@link Buffer} to append.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer append(Buffer b) {
+		if(null == b) {
+			return this;
+		}
+		return append(b.byteBuffer());
+	}
+
+	/**
+	 * Prepend the given {@code byte[]} to this {@code CompositeBuffer}.
+	 *
+	 * @param b
+	 * 		The {@code byte[]} to prepend.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer prepend(byte[] b) {
+		return prepend(ByteBuffer.wrap(b));
+	}
+
+	/**
+	 * Prepend the given String, encoded in UTF-8, to this {@code CompositeBuffer}.
+	 *
+	 * @param s
+	 * 		The String to prepend.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer prepend(String s) {
+		if(null == s) {
+			return this;
+		}
+		return prepend(s.getBytes(UTF8));
+	}
+
+	/**
+	 * Prepend the remaining bytes of the given {@link Buffer} to this {@code CompositeBuffer}, leaving its position
+	 * unchanged.
+	 *
+	 * @param b
+	 * 		The {@link Buffer} to prepend.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer prepend(Buffer b) {
+		if(null == b) {
+			return this;
+		}
+		return prepend(b.byteBuffer());
+	}
+
+	/**
+	 * Prepend the remaining bytes of the given {@link ByteBuffer} to this {@code CompositeBuffer}, leaving its position
+	 * unchanged.
+	 *
+	 * @param bb
+	 * 		The {@link ByteBuffer} to prepend.
+	 *
+	 * @return {@literal this}
+	 */
+	public CompositeBuffer prepend(ByteBuffer bb) {
+		if(null == bb || !bb.hasRemaining()) {
+			return this;
+		}
+		ByteBuffer src = bb.duplicate();
+		int len = src.remaining();
+		// fill the room in front of the first chunk with the last bytes first
+		while(src.hasRemaining()) {
+			ByteBuffer chunk = firstChunk();
+			int n = Math.min(chunk.position(), src.remaining());
+			int end = src.limit();
+			src.position(end - n);
+			copy(src, chunk, chunk.position() - n);
+			src.position(bb.position());
+			src.limit(end - n);
+		}
+		length += len;
+		return this;
+	}
+
+	/**
+	 * Get the bytes of this {@code CompositeBuffer}, one {@link ByteBuffer} per chunk, ready to be read or written to a
+	 * {@link GatheringByteChannel}. The {@link ByteBuffer ByteBuffers} share the chunks of this {@code CompositeBuffer}
+	 * and must not be used once it's closed.
+	 *
+	 * @return The bytes of each chunk
+	 */
+	public ByteBuffer[] byteBuffers() {
+		ByteBuffer[] bbs = new ByteBuffer[chunks.size()];
+		for(int i = 0; i < bbs.length; i++) {
+			bbs[i] = chunks.get(i).duplicate();
+		}
+		return bbs;
+	}
+
+	/**
+	 * Write all the bytes of this {@code CompositeBuffer} to the given channel, using gathering writes.
+	 *
+	 * @param channel
+	 * 		The channel to write to.
+	 *
+	 * @return The number of bytes written
+	 *
+	 * @throws IOException
+	 */
+	public long writeTo(GatheringByteChannel channel) throws IOException {
+		ByteBuffer[] bbs = byteBuffers();
+		long written = 0;
+		while(written < length) {
+			written += channel.write(bbs);
+		}
+		return written;
+	}
+
+	/**
+	 * Copy the bytes of this {@code CompositeBuffer} into a single {@link Buffer}.
+	 *
+	 * @return A new {@link Buffer}, ready to be read
+	 */
+	public Buffer flatten() {
+		ByteBuffer bb = ByteBuffer.allocate(length);
+		for(ByteBuffer chunk : byteBuffers()) {
+			bb.put(chunk);
+		}
+		bb.flip();
+		return new Buffer(bb);
+	}
+
+	/**
+	 * Give the chunks back to their allocator, leaving this {@code CompositeBuffer} empty.
+	 */
+	@Override
+	public void close() {
+		for(Reference<Buffer> ref : refs) {
+			ref.release();
+		}
+		refs.clear();
+		chunks.clear();
+		length = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "CompositeBuffer{" +
+				"chunks=" + chunks.size() +
+				", remaining=" + length +
+				'}';
+	}
+
+	private ByteBuffer lastChunk() {
+		int last = chunks.size() - 1;
+		if(last >= 0 && chunks.get(last).limit() < chunks.get(last).capacity()) {
+			return chunks.get(last);
+		}
+		ByteBuffer chunk = newChunk(last + 1);
+		chunk.limit(0);
+		return chunk;
+	}
+
+	private ByteBuffer firstChunk() {
+		if(!chunks.isEmpty() && chunks.get(0).position() > 0) {
+			return chunks.get(0);
+		}
+		ByteBuffer chunk = newChunk(0);
+		chunk.position(chunk.capacity());
+		return chunk;
+	}
+
+	private ByteBuffer newChunk(int index) {
+		Reference<Buffer> ref = allocator.allocate();
+		ByteBuffer chunk = ref.get().byteBuffer();
+		chunk.clear();
+		refs.add(index, ref);
+		chunks.add(index, chunk);
+		return chunk;
+	}
+
+	/**
+	 * Copy the remaining bytes of {@code src} into {@code chunk} from {@code start}, extending its content to them.
+	 */
+	private static void copy(ByteBuffer src, ByteBuffer chunk, int start) {
+		int pos = chunk.position();
+		int lim = chunk.limit();
+		int end = start + src.remaining();
+		chunk.limit(Math.max(lim, end));
+		chunk.position(start);
+		chunk.put(src);
+		chunk.position(Math.min(pos, start));
+	}
+
+	private static class DefaultAllocator {
+		private static final BufferAllocator INSTANCE = new BufferAllocator(16, false, Buffer.SMALL_BUFFER_SIZE);
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.io;
+
+import reactor.alloc.Allocator;
+import reactor.alloc.Reference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An {@link reactor.alloc.Allocator} of {@link Buffer Buffers} whose sizes are powers of two times a minimum size, up to
+ * a maximum size. Each size class is pooled by its own {@link BufferAllocator}, created the first time a {@link Buffer}
+ * of that size is needed. A dynamic {@link Buffer} {@link Buffer#Buffer(SizeClassedBufferAllocator) created} with such
+ * an allocator takes its backing storage from it as it grows.
+ *
+ * @author Jon Brisbin
+ */
+public class SizeClassedBufferAllocator implements Allocator<Buffer> {
+
+	private final int                                   poolSize;
+	private final boolean                               direct;
+	private final int                                   minSize;
+	private final int                                   maxSize;
+	private final AtomicReferenceArray<BufferAllocator> classes;
+
+	/**
+	 * Create a {@code SizeClassedBufferAllocator} of poolSize=2, direct=false, minSize=Buffer.SMALL_BUFFER_SIZE and
+	 * maxSize=Buffer.MAX_BUFFER_SIZE.
+	 */
+	public SizeClassedBufferAllocator() {
+		this(2, false, Buffer.SMALL_BUFFER_SIZE, Buffer.MAX_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a {@code SizeClassedBufferAllocator}.
+	 *
+	 * @param poolSize
+	 * 		The number of Buffers of each size to keep on hand.
+	 * @param direct
+	 * 		Whether or not to use direct buffers.
+	 * @param minSize
+	 * 		The size of the smallest buffers.
+	 * @param maxSize
+	 * 		The size of the largest buffers.
+	 */
+	public SizeClassedBufferAllocator(int poolSize, boolean direct, int minSize, int maxSize) {
+		if(minSize < 1 || maxSize < minSize) {
+			throw new IllegalArgumentException("Invalid buffer sizes: " + minSize + " to " + maxSize);
+		}
+		this.poolSize = poolSize;
+		this.direct = direct;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		int count = 1;
+		for(long size = minSize; size < maxSize; size <<= 1) {
+			count++;
+		}
+		this.classes = new AtomicReferenceArray<BufferAllocator>(count);
+	}
+
+	/**
+	 * Get the size of the smallest {@link Buffer} that holds at least the given number of bytes.
+	 *
+	 * @param atLeast
+	 * 		The number of bytes.
+	 *
+	 * @return The size of the {@link Buffer} {@link #allocate(int)} would allocate
+	 */
+	public int sizeFor(int atLeast) {
+		return sizeOf(classOf(atLeast));
+	}
+
+	/**
+	 * Allocate a {@link Buffer} of the smallest size.
+	 *
+	 * @return A reference to the {@link Buffer}
+	 */
+	@Override
+	public Reference<Buffer> allocate() {
+		return allocate(minSize);
+	}
+
+	/**
+	 * Allocate the smallest {@link Buffer} that holds at least the given number of bytes.
+	 *
+	 * @param atLeast
+	 * 		The number of bytes.
+	 *
+	 * @return A reference to the {@link Buffer}, whose {@link Buffer#capacity()} may be larger than requested
+	 */
+	public Reference<Buffer> allocate(int atLeast) {
+		int cls = classOf(atLeast);
+		BufferAllocator allocator = classes.get(cls);
+		if(null == allocator) {
+			classes.compareAndSet(cls, null, new BufferAllocator(poolSize, direct, sizeOf(cls)));
+			allocator = classes.get(cls);
+		}
+		return allocator.allocate();
+	}
+
+	@Override
+	public List<Reference<Buffer>> allocateBatch(int size) {
+		List<Reference<Buffer>> refs = new ArrayList<Reference<Buffer>>(size);
+		for(int i = 0; i < size; i++) {
+			refs.add(allocate());
+		}
+		return refs;
+	}
+
+	@Override
+	public void release(List<Reference<Buffer>> batch) {
+		if(null != batch && !batch.isEmpty()) {
+			for(Reference<Buffer> ref : batch) {
+				ref.release();
+			}
+		}
+	}
+
+	private int classOf(int atLeast) {
+		if(atLeast > maxSize) {
+			throw new IllegalArgumentException("Requested buffer size exceeds maximum allowed (" + maxSize + ")");
+		}
+		int cls = 0;
+		for(long size = minSize; size < atLeast; size <<= 1) {
+			cls++;
+		}
+		return cls;
+	}
+
+	private int sizeOf(int cls) {
+		return (int)Math.min((long)minSize << cls, maxSize);
+	}
+
+}
@@ -19,7 +19,6 @@ package reactor.io.encoding;
 import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.io.Buffer;
-import reactor.io.Buffer.View;
 import reactor.io.encoding.Codec;
 
 /**
@@ -99,18 +98,20 @@ public class DelimitedCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 				return null;
 			}
 
-			Iterable<View> views = bytes.split(delimiter, stripDelimiter);
-
+			// scan for each delimiter in turn rather than splitting into Views, so that no object is created per segment
 			int limit = bytes.limit();
-			int position = bytes.position();
-
-			for (Buffer.View view : views) {
-				Buffer b = view.get();
-				decoder.apply(b);
+			int start = bytes.position();
+			int end;
+			while ((end = bytes.indexOf(delimiter, start, limit)) > 0) {
+				bytes.limit(stripDelimiter ? end - 1 : end);
+				bytes.position(start);
+				decoder.apply(bytes);
+				bytes.limit(limit);
+				start = end;
 			}
 
-			bytes.limit(limit);
-			bytes.position(position);
+			// leave the bytes following the last delimiter to be read
+			bytes.position(start);
 
 			return null;
 		}
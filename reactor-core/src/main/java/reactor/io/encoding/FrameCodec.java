@@ -3,9 +3,16 @@ package reactor.io.encoding;
 import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.io.Buffer;
+import reactor.util.Assert;
+
+import java.nio.ByteBuffer;
 
 /**
  * {@code Codec} for decoding data into length-field-based {@link reactor.io.encoding.Frame Frames}.
+ * <p>
+ * A decoder is stateful: once the prefix and the length field of a frame have come in, its data is accumulated as it
+ * comes in, in a single array sized for the frame, whose prefix and data are then handed out without being copied
+ * again. A length greater than the maximum frame length is rejected before anything is allocated.
  *
  * @author Jon Brisbin
  */
@@ -20,11 +27,28 @@ public class FrameCodec implements Codec<Buffer, Frame, Frame> {
 	private final LengthField lengthField;
 	private final int         prefixLength;
 	private final int         minRequiredLen;
+	private final int         maxFrameLength;
 
 	public FrameCodec(int prefixLength, LengthField lengthField) {
+		this(prefixLength, lengthField, Buffer.MAX_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a {@code FrameCodec} that rejects frames whose data is longer than {@code maxFrameLength}.
+	 *
+	 * @param prefixLength
+	 * 		The length of the prefix of each frame.
+	 * @param lengthField
+	 * 		The type of the length field following the prefix.
+	 * @param maxFrameLength
+	 * 		The maximum length of the data of a frame, larger lengths are rejected as corrupt.
+	 */
+	public FrameCodec(int prefixLength, LengthField lengthField, int maxFrameLength) {
+		Assert.state(maxFrameLength >= 0, "maxFrameLength cannot be negative.");
 		this.prefixLength = prefixLength;
 		this.lengthField = lengthField;
 		this.minRequiredLen = lengthFieldLength(lengthField) + prefixLength;
+		this.maxFrameLength = maxFrameLength;
 	}
 
 	@Override
@@ -39,6 +63,8 @@ public class FrameCodec implements Codec<Buffer, Frame, Frame> {
 
 	private class FrameDecoder implements Function<Buffer, Frame> {
 		private final Consumer<Frame> next;
+		// the prefix followed by the data of the frame being accumulated, filled up to its position
+		private       ByteBuffer      frame;
 
 		private FrameDecoder(Consumer<Frame> next) {
 			this.next = next;
@@ -46,30 +72,43 @@ public class FrameCodec implements Codec<Buffer, Frame, Frame> {
 
 		@Override
 		public Frame apply(Buffer buffer) {
-			while(buffer.remaining() > minRequiredLen) {
-				int pos = buffer.position();
-				int limit = buffer.limit();
-
-				Buffer.View prefix = readPrefix(buffer);
-				if(null == prefix) {
-					// insufficient data
-					buffer.limit(limit);
-					buffer.position(pos);
-					return null;
+			ByteBuffer bb = buffer.byteBuffer();
+			if(null == bb) {
+				return null;
+			}
+			while(true) {
+				if(null == frame) {
+					if(buffer.remaining() < minRequiredLen) {
+						// leave a partial prefix or length field to be read again with the bytes that follow
+						return null;
+					}
+					int pos = bb.position();
+					bb.position(pos + prefixLength);
+					int len = readLen(buffer);
+
+					frame = ByteBuffer.allocate(prefixLength + len);
+					int limit = bb.limit();
+					bb.limit(pos + prefixLength).position(pos);
+					frame.put(bb);
+					bb.limit(limit).position(pos + minRequiredLen);
 				}
 
-				Buffer.View data = readData(buffer);
-				if(null == data) {
-					// insufficient data
-					buffer.limit(limit);
-					buffer.position(pos);
+				// copy as much of the data as this Buffer holds
+				int limit = bb.limit();
+				if(bb.remaining() > frame.remaining()) {
+					bb.limit(bb.position() + frame.remaining());
+				}
+				frame.put(bb);
+				bb.limit(limit);
+				if(frame.hasRemaining()) {
 					return null;
 				}
 
-				Buffer prefixBuff = new Buffer(prefixLength, true).append(prefix.get()).flip();
-				Buffer dataBuff = new Buffer(data.getEnd() - data.getStart(), true).append(data.get()).flip();
-
-				buffer.limit(limit);
+				frame.position(0).limit(prefixLength);
+				Buffer prefixBuff = new Buffer(frame.slice());
+				frame.limit(frame.capacity()).position(prefixLength);
+				Buffer dataBuff = new Buffer(frame.slice());
+				frame = null;
 
 				Frame f = new Frame(prefixBuff, dataBuff);
 				if(null != next) {
@@ -78,59 +117,25 @@ public class FrameCodec implements Codec<Buffer, Frame, Frame> {
 					return f;
 				}
 			}
-			return null;
-		}
-
-		private Buffer.View readPrefix(Buffer buffer) {
-			if(buffer.remaining() < prefixLength) {
-				return null;
-			}
-
-			int pos = buffer.position();
-			Buffer.View prefix = buffer.createView(pos, pos + prefixLength);
-			buffer.position(pos + prefixLength);
-
-			return prefix;
 		}
 
 		private int readLen(Buffer buffer) {
+			long len;
 			switch(lengthField) {
 				case SHORT:
-					if(buffer.remaining() > 2) {
-						return buffer.readShort();
-					}
+					len = buffer.readShort() & 0xffff;
 					break;
 				case INT:
-					if(buffer.remaining() > 4) {
-						return buffer.readInt();
-					}
+					len = buffer.readInt();
 					break;
-				case LONG:
-					if(buffer.remaining() > 8) {
-						return (int)buffer.readLong();
-					}
+				default:
+					len = buffer.readLong();
 					break;
 			}
-
-			return -1;
-		}
-
-		private Buffer.View readData(Buffer buffer) {
-			int pos = buffer.position();
-			int limit = buffer.limit();
-
-			int len = readLen(buffer);
-			if(len == -1 || buffer.remaining() < len) {
-				buffer.limit(limit);
-				buffer.position(pos);
-				return null;
+			if(len < 0 || len > maxFrameLength) {
+				throw new IllegalStateException("Frame length " + len + " exceeds the maximum of " + maxFrameLength);
 			}
-
-			pos = buffer.position();
-			Buffer.View data = buffer.createView(pos, pos + len);
-			buffer.position(pos + len);
-
-			return data;
+			return (int)len;
 		}
 	}
 
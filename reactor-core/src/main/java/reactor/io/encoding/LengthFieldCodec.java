@@ -16,9 +16,11 @@
 
 package reactor.io.encoding;
 
+import reactor.alloc.Reference;
 import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.io.Buffer;
+import reactor.io.SizeClassedBufferAllocator;
 import reactor.util.Assert;
 
 import java.nio.ByteBuffer;
@@ -28,6 +30,12 @@ import java.nio.ByteBuffer;
  * During decoding the delegate is used to process each chunk. During encoding the delegate
  * is used to encode each piece of output into a buffer. The buffer is then output, with its
  * length prepended.
+ * <p>
+ * A decoder is stateful: a chunk that is wholly contained in the incoming {@link Buffer} is
+ * passed to the delegate as a view of it, while the bytes of a chunk split across several
+ * {@link Buffer Buffers} are consumed as they come in and accumulated into a {@link Buffer}
+ * sized for the chunk, which is passed to the delegate once complete. A length greater than
+ * the maximum chunk length is rejected before anything is allocated.
  *
  * @param <IN>
  * 		The type that will be produced by decoding
@@ -38,8 +46,10 @@ import java.nio.ByteBuffer;
  */
 public class LengthFieldCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 
-	private final int                    lengthFieldLength;
-	private final Codec<Buffer, IN, OUT> delegate;
+	private final int                        lengthFieldLength;
+	private final int                        maxFrameLength;
+	private final Codec<Buffer, IN, OUT>     delegate;
+	private final SizeClassedBufferAllocator allocator;
 
 	/**
 	 * Create a length-field codec that reads the first integer as the length of the
@@ -62,10 +72,38 @@ public class LengthFieldCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 	 * 		The delegate {@link Codec}.
 	 */
 	public LengthFieldCodec(int lengthFieldLength, Codec<Buffer, IN, OUT> delegate) {
+		this(lengthFieldLength, Buffer.MAX_BUFFER_SIZE, delegate, null);
+	}
+
+	/**
+	 * Create a length-field codec that reads the first short, integer, or long as the
+	 * length of the remaining message, and prepends a short, integer, long to its output.
+	 * Chunks split across several {@link Buffer Buffers} are accumulated into {@link Buffer
+	 * Buffers} taken from the given {@code allocator}, which are given back to it as soon as
+	 * the delegate has decoded them: the delegate must not hold on to the {@link Buffer} it
+	 * is given.
+	 *
+	 * @param lengthFieldLength
+	 * 		The size of the length field. Valid values are 2 (short), 4 (int) or 8 (long).
+	 * @param maxFrameLength
+	 * 		The maximum length of a chunk, larger lengths are rejected as corrupt.
+	 * @param delegate
+	 * 		The delegate {@link Codec}.
+	 * @param allocator
+	 * 		The allocator of the {@link Buffer Buffers} accumulating split chunks, may be
+	 * 		{@code null} to allocate a new {@link Buffer} for each of them.
+	 */
+	public LengthFieldCodec(int lengthFieldLength,
+	                        int maxFrameLength,
+	                        Codec<Buffer, IN, OUT> delegate,
+	                        SizeClassedBufferAllocator allocator) {
 		Assert.state(lengthFieldLength == 2 || lengthFieldLength == 4 || lengthFieldLength == 8,
 		             "lengthFieldLength should be 2 (short), 4 (int), or 8 (long).");
+		Assert.state(maxFrameLength >= 0, "maxFrameLength cannot be negative.");
 		this.lengthFieldLength = lengthFieldLength;
+		this.maxFrameLength = maxFrameLength;
 		this.delegate = delegate;
+		this.allocator = allocator;
 	}
 
 	@Override
@@ -80,6 +118,9 @@ public class LengthFieldCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 
 	private class LengthFieldDecoder implements Function<Buffer, IN> {
 		private final Function<Buffer, IN> decoder;
+		// the chunk being accumulated, filled up to its position
+		private       ByteBuffer           frame;
+		private       Reference<Buffer>    pooled;
 
 		private LengthFieldDecoder(Consumer<IN> next) {
 			this.decoder = delegate.decoder(next);
@@ -87,47 +128,100 @@ public class LengthFieldCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 
 		@Override
 		public IN apply(Buffer buffer) {
-			while(buffer.remaining() > lengthFieldLength) {
-				int expectedLen = readLen(buffer);
-				if(expectedLen > buffer.remaining()) {
-					// This Buffer doesn't contain a full frame of data
-					// reset to the start and bail out
-					buffer.rewind(lengthFieldLength);
+			ByteBuffer bb = buffer.byteBuffer();
+			if(null == bb) {
+				return null;
+			}
+			while(true) {
+				if(null == frame) {
+					if(buffer.remaining() < lengthFieldLength) {
+						// leave a partial length field to be read again with the bytes that follow
+						return null;
+					}
+					int expectedLen = readLen(buffer);
+					if(expectedLen <= buffer.remaining()) {
+						// We have at least a full frame of data
+						IN in = decodeView(buffer, expectedLen);
+						if(null != in) {
+							// no Consumer was invoked, return this data
+							return in;
+						}
+						continue;
+					}
+					allocate(expectedLen);
+				}
+
+				// copy as much of the frame as this Buffer holds
+				int limit = bb.limit();
+				if(bb.remaining() > frame.remaining()) {
+					bb.limit(bb.position() + frame.remaining());
+				}
+				frame.put(bb);
+				bb.limit(limit);
+				if(frame.hasRemaining()) {
 					return null;
 				}
-				// We have at least a full frame of data
-
-				// save the position and limit so we can reset it later
-				int pos = buffer.position();
-				int limit = buffer.limit();
-
-				// create a view of the frame
-				Buffer.View v = buffer.createView(pos, pos + expectedLen);
-				// call the delegate decoder with the full frame
-				IN in = decoder.apply(v.get());
-				// reset the limit
-				buffer.byteBuffer().limit(limit);
-				if(buffer.position() == pos) {
-					// the pointer hasn't advanced, advance it
-					buffer.skip(expectedLen);
+
+				frame.flip();
+				Buffer b = new Buffer(frame);
+				frame = null;
+				IN in;
+				try {
+					in = decoder.apply(b);
+				} finally {
+					if(null != pooled) {
+						pooled.release();
+						pooled = null;
+					}
 				}
 				if(null != in) {
-					// no Consumer was invoked, return this data
 					return in;
 				}
 			}
+		}
+
+		private IN decodeView(Buffer buffer, int expectedLen) {
+			// save the position and limit so we can reset it later
+			int pos = buffer.position();
+			int limit = buffer.limit();
+
+			// create a view of the frame
+			Buffer.View v = buffer.createView(pos, pos + expectedLen);
+			// call the delegate decoder with the full frame
+			IN in = decoder.apply(v.get());
+			// reset the limit
+			buffer.byteBuffer().limit(limit);
+			if(buffer.position() == pos) {
+				// the pointer hasn't advanced, advance it
+				buffer.skip(expectedLen);
+			}
+			return in;
+		}
 
-			return null;
+		private void allocate(int len) {
+			if(null != allocator) {
+				pooled = allocator.allocate(len);
+				frame = pooled.get().byteBuffer();
+				frame.clear();
+				frame.limit(len);
+			} else {
+				frame = ByteBuffer.allocate(len);
+			}
 		}
 
 		private int readLen(Buffer buffer) {
+			long len;
 			if(lengthFieldLength == 4) {
-				return buffer.readInt();
+				len = buffer.readInt();
 			} else if(lengthFieldLength == 2) {
-				return buffer.readShort();
+				len = buffer.readShort() & 0xffff;
 			} else {
-				return (int)buffer.readLong();
+				len = buffer.readLong();
+			}
+			if(len < 0 || len > maxFrameLength) {
+				throw new IllegalStateException("Frame length " + len + " exceeds the maximum of " + maxFrameLength);
 			}
+			return (int)len;
 		}
 	}
 
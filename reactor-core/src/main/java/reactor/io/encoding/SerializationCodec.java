@@ -7,6 +7,8 @@ import reactor.function.Function;
 import reactor.io.Buffer;
 import reactor.util.Assert;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -18,10 +20,16 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public abstract class SerializationCodec<E, IN, OUT> implements Codec<Buffer, IN, OUT> {
 
-	private final Logger                 log   = LoggerFactory.getLogger(getClass());
-	private final Map<String, Class<IN>> types = new ConcurrentHashMap<String, Class<IN>>();
-	private final E       engine;
-	private final boolean lengthFieldFraming;
+	private static final Charset UTF8                = Charset.forName("UTF-8");
+	private static final int     LENGTH_FIELD_LENGTH = 4;
+
+	private final    Logger                 log       = LoggerFactory.getLogger(getClass());
+	private final    Map<String, Class<IN>> types     = new ConcurrentHashMap<String, Class<IN>>();
+	private final    Map<Class<?>, byte[]>  typeNames = new ConcurrentHashMap<Class<?>, byte[]>();
+	private final    E                      engine;
+	private final    boolean                lengthFieldFraming;
+	// the type read last, recognized without decoding its name again
+	private volatile TypeName<IN>           lastType;
 
 	/**
 	 * Create a {@code SerializationCodec} using the given engine and specifying whether or not to prepend a length field
@@ -48,11 +56,8 @@ public abstract class SerializationCodec<E, IN, OUT> implements Codec<Buffer, IN
 
 	@Override
 	public Function<OUT, Buffer> encoder() {
-		if(lengthFieldFraming) {
-			return new LengthFieldCodec<IN, OUT>(new DelegateCodec()).encoder();
-		} else {
-			return new DelegateCodec().encoder();
-		}
+		// the length field is written in front of the serialized object rather than by copying it
+		return new DelegateCodec().encoder();
 	}
 
 	protected E getEngine() {
@@ -63,30 +68,101 @@ public abstract class SerializationCodec<E, IN, OUT> implements Codec<Buffer, IN
 
 	protected abstract Function<OUT, byte[]> serializer(E engine);
 
-	private String readTypeName(Buffer buffer) {
+	/**
+	 * Create a function that decodes the object in a {@link Buffer}, from its type header on. The default implementation
+	 * reads the type name and hands the remaining bytes to the {@link #deserializer(Object, Class, Consumer)
+	 * deserializer} of that type. Implementations can read the {@link Buffer} in place instead.
+	 *
+	 * @param engine
+	 * 		the engine which will perform the serialization
+	 * @param next
+	 * 		the {@link Consumer} of the decoded objects, if any
+	 *
+	 * @return A function returning the decoded object, or {@code null} if it was handed to {@code next}
+	 */
+	protected Function<Buffer, IN> bufferDeserializer(final E engine, final Consumer<IN> next) {
+		return new Function<Buffer, IN>() {
+			@Override
+			public IN apply(Buffer buffer) {
+				return deserializer(engine, readType(buffer), next).apply(buffer.asBytes());
+			}
+		};
+	}
+
+	/**
+	 * Create a function that encodes an object, with its type header, into a {@link Buffer}. The default implementation
+	 * writes the type name followed by the bytes of the {@link #serializer(Object) serializer}. Implementations can
+	 * serialize into the {@link Buffer} in place instead.
+	 *
+	 * @param engine
+	 * 		the engine which will perform the serialization
+	 * @param offset
+	 * 		the number of bytes to leave free at the start of each {@link Buffer}, for a length field
+	 *
+	 * @return A function returning a {@link Buffer} positioned at its first byte, including the free bytes
+	 */
+	protected Function<OUT, Buffer> bufferSerializer(final E engine, final int offset) {
+		final Function<OUT, byte[]> fn = serializer(engine);
+		return new Function<OUT, Buffer>() {
+			@Override
+			public Buffer apply(OUT o) {
+				byte[] bytes = fn.apply(o);
+				Buffer buffer = new Buffer(offset + typeHeaderLength(o.getClass()) + bytes.length, true).skip(offset);
+				writeType(o.getClass(), buffer);
+				return buffer.append(bytes).flip();
+			}
+		};
+	}
+
+	/**
+	 * Get the length of the header written by {@link #writeType(Class, Buffer)} for the given type.
+	 *
+	 * @param type
+	 * 		the type of the serialized object
+	 *
+	 * @return The number of bytes of the header
+	 */
+	protected int typeHeaderLength(Class<?> type) {
+		return 4 + typeName(type).length;
+	}
+
+	/**
+	 * Write a header holding the name of the given type at the position of the given {@link Buffer}.
+	 *
+	 * @param type
+	 * 		the type of the serialized object
+	 * @param buffer
+	 * 		the {@link Buffer} to write to
+	 */
+	protected void writeType(Class<?> type, Buffer buffer) {
+		byte[] name = typeName(type);
+		buffer.append(name.length).append(name);
+	}
+
+	public Class<IN> readType(Buffer buffer) {
 		int len = buffer.readInt();
 		Assert.isTrue(buffer.remaining() > len,
 		              "Incomplete buffer. Must contain " + len + " bytes, "
 				              + "but only " + buffer.remaining() + " were found.");
+		TypeName<IN> last = lastType;
+		if(null != last && last.matches(buffer.byteBuffer(), len)) {
+			buffer.skip(len);
+			return last.type;
+		}
 		byte[] bytes = new byte[len];
 		buffer.read(bytes);
-		return new String(bytes);
-	}
-
-	private Buffer writeTypeName(Class<?> type, byte[] bytes) {
-		String typeName = type.getName();
-		int len = typeName.length();
-		Buffer buffer = new Buffer(4 + len + bytes.length, true);
-		return buffer.append(len)
-		             .append(typeName)
-		             .append(bytes)
-		             .flip();
-
+		Class<IN> type = getType(new String(bytes, UTF8));
+		lastType = new TypeName<IN>(type, bytes);
+		return type;
 	}
 
-	public Class<IN> readType(Buffer buffer) {
-		String typeName = readTypeName(buffer);
-		return getType(typeName);
+	private byte[] typeName(Class<?> type) {
+		byte[] name = typeNames.get(type);
+		if(null == name) {
+			name = type.getName().getBytes(UTF8);
+			typeNames.put(type, name);
+		}
+		return name;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -103,14 +179,38 @@ public abstract class SerializationCodec<E, IN, OUT> implements Codec<Buffer, IN
 		return type;
 	}
 
+	private static class TypeName<IN> {
+		private final Class<IN> type;
+		private final byte[]    name;
+
+		private TypeName(Class<IN> type, byte[] name) {
+			this.type = type;
+			this.name = name;
+		}
+
+		private boolean matches(ByteBuffer bb, int len) {
+			if(len != name.length) {
+				return false;
+			}
+			int pos = bb.position();
+			for(int i = len - 1; i >= 0; i--) {
+				if(bb.get(pos + i) != name[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	private class DelegateCodec implements Codec<Buffer, IN, OUT> {
 		@Override
 		public Function<Buffer, IN> decoder(final Consumer<IN> next) {
+			final Function<Buffer, IN> fn = bufferDeserializer(engine, next);
 			return new Function<Buffer, IN>() {
 				@Override
 				public IN apply(Buffer buffer) {
 					try {
-						return deserializer(engine, readType(buffer), next).apply(buffer.asBytes());
+						return fn.apply(buffer);
 					} catch(RuntimeException e) {
 						if(log.isErrorEnabled()) {
 							log.error("Could not decode " + buffer, e);
@@ -123,12 +223,21 @@ public abstract class SerializationCodec<E, IN, OUT> implements Codec<Buffer, IN
 
 		@Override
 		public Function<OUT, Buffer> encoder() {
-			final Function<OUT, byte[]> fn = serializer(engine);
+			final int offset = (lengthFieldFraming ? LENGTH_FIELD_LENGTH : 0);
+			final Function<OUT, Buffer> fn = bufferSerializer(engine, offset);
 			return new Function<OUT, Buffer>() {
 				@Override
 				public Buffer apply(OUT o) {
+					if(null == o) {
+						return null;
+					}
 					try {
-						return writeTypeName(o.getClass(), fn.apply(o));
+						Buffer buffer = fn.apply(o);
+						if(lengthFieldFraming) {
+							ByteBuffer bb = buffer.byteBuffer();
+							bb.putInt(bb.position(), bb.remaining() - offset);
+						}
+						return buffer;
 					} catch(RuntimeException e) {
 						if(log.isErrorEnabled()) {
 							log.error("Could not encode " + o, e);
@@ -1,48 +1,60 @@
 package reactor.io.encoding.compress;
 
+import reactor.alloc.Reference;
 import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.io.Buffer;
+import reactor.io.BufferAllocator;
 import reactor.io.encoding.Codec;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 /**
+ * A {@link Codec} that compresses the {@link Buffer Buffers} encoded by its delegate and decompresses the {@link
+ * Buffer Buffers} its delegate decodes.
+ * <p>
+ * Compressed data is decompressed in bulk into a {@link Buffer} that grows as needed. A decoder is stateful: frames
+ * split across several {@link Buffer Buffers}, as they are read from a connection, are decompressed as their bytes
+ * come in and passed to the delegate once complete, and several frames read at once are decoded one after the other.
+ * The bytes of a frame that can't be decompressed yet are kept in a {@link Buffer} pooled by a {@link BufferAllocator}
+ * until the rest of the frame comes in.
+ * <p>
+ * Implementations provide a {@link Decompressor} to decompress their frames incrementally, otherwise each {@link
+ * Buffer} given to the decoder is expected to hold exactly one frame, which is decompressed by the {@link
+ * #createInputStream(InputStream) stream} they provide.
+ *
  * @author Jon Brisbin
  */
 public abstract class CompressionCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 
+	private static final int MIN_CHUNK_SIZE = 4096;
+
 	private final Codec<Buffer, IN, OUT> delegate;
+	private final BufferAllocator        allocator;
 
 	protected CompressionCodec(Codec<Buffer, IN, OUT> delegate) {
+		this(delegate, null);
+	}
+
+	/**
+	 * Create a {@code CompressionCodec} that keeps the bytes of incomplete frames in {@link Buffer Buffers} allocated by
+	 * the given {@code allocator}.
+	 *
+	 * @param delegate
+	 * 		The delegate {@link Codec}.
+	 * @param allocator
+	 * 		The allocator of the {@link Buffer Buffers} holding incomplete frames, may be {@code null} to share a default
+	 * 		one.
+	 */
+	protected CompressionCodec(Codec<Buffer, IN, OUT> delegate, BufferAllocator allocator) {
 		this.delegate = delegate;
+		this.allocator = allocator;
 	}
 
 	@Override
 	public Function<Buffer, IN> decoder(final Consumer<IN> next) {
-		return new Function<Buffer, IN>() {
-			@Override
-			public IN apply(Buffer buffer) {
-				try {
-					ByteArrayInputStream bin = new ByteArrayInputStream(buffer.asBytes());
-					InputStream zin = createInputStream(bin);
-					Buffer newBuff = new Buffer();
-					while(zin.available() > 0) {
-						newBuff.append((byte)zin.read());
-					}
-					zin.close();
-					IN in = delegate.decoder(null).apply(newBuff.flip());
-					if(null != next) {
-						next.accept(in);
-						return null;
-					} else {
-						return in;
-					}
-				} catch(IOException e) {
-					throw new IllegalStateException(e.getMessage(), e);
-				}
-			}
-		};
+		return new CompressionDecoder(next);
 	}
 
 	@Override
@@ -52,13 +64,9 @@ public abstract class CompressionCodec<IN, OUT> implements Codec<Buffer, IN, OUT
 			public Buffer apply(OUT out) {
 				Buffer buff = delegate.encoder().apply(out);
 				try {
-					ByteArrayOutputStream bout = new ByteArrayOutputStream();
-					OutputStream zout = createOutputStream(bout);
-					zout.write(buff.asBytes());
-					zout.flush();
-					bout.flush();
-					zout.close();
-					return Buffer.wrap(bout.toByteArray());
+					Output compressed = new Output(buff.remaining() / 2 + MIN_CHUNK_SIZE);
+					compress(buff, compressed);
+					return compressed.toBuffer();
 				} catch(IOException e) {
 					throw new IllegalStateException(e.getMessage(), e);
 				}
@@ -66,9 +74,298 @@ public abstract class CompressionCodec<IN, OUT> implements Codec<Buffer, IN, OUT
 		};
 	}
 
+	/**
+	 * Create a {@link Decompressor} for a new decoder. The default implementation decompresses a whole frame at once
+	 * using {@link #createInputStream(InputStream)}.
+	 *
+	 * @return A new {@link Decompressor}
+	 */
+	protected Decompressor createDecompressor() {
+		return new StreamDecompressor();
+	}
+
+	/**
+	 * Compress the remaining bytes of the given {@code buffer}, appending them to {@code out}. The default
+	 * implementation uses {@link #createOutputStream(OutputStream)}.
+	 *
+	 * @param buffer
+	 * 		The bytes to compress.
+	 * @param out
+	 * 		The compressed bytes.
+	 *
+	 * @throws IOException
+	 */
+	protected void compress(Buffer buffer, Output out) throws IOException {
+		OutputStream zout = createOutputStream(out);
+		ByteBuffer bb = buffer.byteBuffer();
+		if(null != bb) {
+			if(bb.hasArray()) {
+				zout.write(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining());
+			} else {
+				zout.write(buffer.asBytes());
+			}
+		}
+		zout.flush();
+		zout.close();
+	}
+
 	protected abstract InputStream createInputStream(InputStream parent) throws IOException;
 
 	protected abstract OutputStream createOutputStream(OutputStream parent) throws IOException;
 
-}
+	/**
+	 * Decompresses frames incrementally. A {@code Decompressor} is used by a single decoder, so it doesn't need to be
+	 * thread-safe.
+	 */
+	protected static abstract class Decompressor {
+		/**
+		 * Decompress as many bytes of the current frame as possible from {@code in} into {@code out}. The bytes of
+		 * {@code in} that are consumed must be skipped, the others are given again, followed by the bytes read next, on
+		 * the next call.
+		 *
+		 * @param in
+		 * 		The compressed bytes.
+		 * @param out
+		 * 		The decompressed bytes of the current frame.
+		 *
+		 * @return {@code true} if the current frame is complete, {@code false} if more bytes are needed
+		 *
+		 * @throws IOException
+		 * 		if the compressed bytes are corrupt
+		 */
+		protected abstract boolean decompress(ByteBuffer in, Output out) throws IOException;
+
+		/**
+		 * Prepare to decompress the next frame.
+		 */
+		protected abstract void reset();
+	}
+
+	/**
+	 * The bytes written by a compressor or a decompressor, held in an array that grows geometrically. Bytes can be
+	 * written with the {@link OutputStream} methods, or in bulk by getting the {@link #array(int) array} and {@link
+	 * #advance(int) advancing} the length by the number of bytes written to it.
+	 */
+	protected static class Output extends OutputStream {
+		private byte[] bytes;
+		private int    length;
+
+		public Output(int capacity) {
+			this.bytes = new byte[Math.max(capacity, 16)];
+		}
+
+		/**
+		 * Get the array to write to, with room for at least {@code atLeast} bytes after the current length.
+		 *
+		 * @param atLeast
+		 * 		The number of bytes to be written.
+		 *
+		 * @return The array, to be written from {@link #length()}
+		 */
+		public byte[] array(int atLeast) {
+			if(bytes.length - length < atLeast) {
+				int capacity = bytes.length;
+				while(capacity - length < atLeast) {
+					capacity <<= 1;
+				}
+				byte[] grown = new byte[capacity];
+				System.arraycopy(bytes, 0, grown, 0, length);
+				bytes = grown;
+			}
+			return bytes;
+		}
 
+		/**
+		 * Get the number of bytes of free room before the array has to grow.
+		 *
+		 * @return The number of bytes free
+		 */
+		public int free() {
+			return bytes.length - length;
+		}
+
+		public int length() {
+			return length;
+		}
+
+		/**
+		 * Add to the length the given number of bytes, written directly to the {@link #array(int) array}.
+		 *
+		 * @param len
+		 * 		The number of bytes written.
+		 */
+		public void advance(int len) {
+			length += len;
+		}
+
+		@Override
+		public void write(int b) {
+			array(1)[length++] = (byte)b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			System.arraycopy(b, off, array(len), length, len);
+			length += len;
+		}
+
+		/**
+		 * Get a {@link Buffer} holding the bytes written so far, without copying them.
+		 *
+		 * @return A new {@link Buffer} positioned at the first byte
+		 */
+		public Buffer toBuffer() {
+			return new Buffer(ByteBuffer.wrap(bytes, 0, length));
+		}
+	}
+
+	/**
+	 * Wraps a frame in the stream of {@link #createInputStream(InputStream)} and reads it in chunks.
+	 */
+	private class StreamDecompressor extends Decompressor {
+		@Override
+		protected boolean decompress(ByteBuffer in, Output out) throws IOException {
+			InputStream bin;
+			if(in.hasArray()) {
+				bin = new ByteArrayInputStream(in.array(), in.arrayOffset() + in.position(), in.remaining());
+			} else {
+				byte[] bytes = new byte[in.remaining()];
+				in.duplicate().get(bytes);
+				bin = new ByteArrayInputStream(bytes);
+			}
+			in.position(in.limit());
+
+			InputStream zin = createInputStream(bin);
+			try {
+				int read;
+				while((read = zin.read(out.array(MIN_CHUNK_SIZE), out.length(), out.free())) > 0) {
+					out.advance(read);
+				}
+			} finally {
+				zin.close();
+			}
+			return true;
+		}
+
+		@Override
+		protected void reset() {
+		}
+	}
+
+	private class CompressionDecoder implements Function<Buffer, IN> {
+		private final Consumer<IN>         next;
+		private final Function<Buffer, IN> decoder;
+		private final Decompressor         decompressor;
+		private       Output               out;
+		private       ByteBuffer           pending;
+		private       Reference<Buffer>    pooled;
+
+		private CompressionDecoder(Consumer<IN> next) {
+			this.next = next;
+			this.decoder = delegate.decoder(null);
+			this.decompressor = createDecompressor();
+		}
+
+		@Override
+		public IN apply(Buffer buffer) {
+			ByteBuffer bytes = buffer.byteBuffer();
+			if(null == bytes) {
+				return null;
+			}
+			ByteBuffer in = bytes.slice();
+			// every byte is either decoded or kept in the pending buffer, so it mustn't be passed in again
+			bytes.position(bytes.limit());
+			if(null != pending) {
+				// the previous bytes didn't make up a whole frame: carry on from where they left off
+				stash(pending, in);
+				in = pending;
+			}
+
+			IN last = null;
+			try {
+				while(in.hasRemaining()) {
+					if(null == out) {
+						out = new Output(Math.max(in.remaining() * 2, MIN_CHUNK_SIZE));
+					}
+					if(!decompressor.decompress(in, out)) {
+						break;
+					}
+					Buffer frame = out.toBuffer();
+					out = null;
+					decompressor.reset();
+
+					IN decoded = decoder.apply(frame);
+					if(null != next) {
+						next.accept(decoded);
+					} else {
+						last = decoded;
+					}
+				}
+			} catch(IOException e) {
+				// start afresh from the next frame
+				out = null;
+				decompressor.reset();
+				release();
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+
+			if(in.hasRemaining()) {
+				stash(in, null);
+			} else {
+				release();
+			}
+			return last;
+		}
+
+		/**
+		 * Keep the remaining bytes of {@code in}, followed by those of {@code more} if any, in the pending buffer.
+		 */
+		private void stash(ByteBuffer in, ByteBuffer more) {
+			int len = in.remaining() + (null != more ? more.remaining() : 0);
+			if(null == pending || pending.capacity() < len) {
+				Reference<Buffer> ref = (null != allocator ? allocator : DefaultAllocator.INSTANCE).allocate();
+				ByteBuffer bb = ref.get().byteBuffer();
+				if(bb.capacity() < len) {
+					ref.release();
+					ref = null;
+					bb = ByteBuffer.allocate(len);
+				}
+				bb.clear();
+				bb.put(in);
+				if(null != more) {
+					bb.put(more);
+				}
+				bb.flip();
+				release();
+				pending = bb;
+				pooled = ref;
+				return;
+			}
+			if(in == pending) {
+				// the remaining bytes are somewhere in the pending buffer already: move them to the front
+				pending.compact();
+			} else {
+				pending.clear();
+				pending.put(in);
+			}
+			pending.limit(pending.capacity());
+			if(null != more) {
+				pending.put(more);
+			}
+			pending.flip();
+		}
+
+		private void release() {
+			pending = null;
+			if(null != pooled) {
+				pooled.release();
+				pooled = null;
+			}
+		}
+	}
+
+	private static class DefaultAllocator {
+		private static final BufferAllocator INSTANCE = new BufferAllocator(16, false, Buffer.SMALL_BUFFER_SIZE);
+	}
+
+}
@@ -1,23 +1,49 @@
 package reactor.io.encoding.compress;
 
 import reactor.io.Buffer;
+import reactor.io.BufferAllocator;
 import reactor.io.encoding.Codec;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.*;
 
 /**
+ * A {@link CompressionCodec} using the GZIP format. Frames are inflated and deflated in bulk, straight from and into
+ * the bytes of {@link Buffer Buffers}, and frames split across several {@link Buffer Buffers} are inflated as their
+ * bytes come in.
+ *
  * @author Jon Brisbin
  */
 public class GzipCodec<IN, OUT> extends CompressionCodec<IN, OUT> {
 
+	private static final int    CHUNK_SIZE = 8192;
+	private static final byte[] HEADER     = {0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+	private static final int FHCRC    = 2;
+	private static final int FEXTRA   = 4;
+	private static final int FNAME    = 8;
+	private static final int FCOMMENT = 16;
+
 	public GzipCodec(Codec<Buffer, IN, OUT> delegate) {
 		super(delegate);
 	}
 
+	/**
+	 * Create a {@code GzipCodec} that keeps the bytes of incomplete frames in {@link Buffer Buffers} allocated by the
+	 * given {@code allocator}.
+	 *
+	 * @param delegate
+	 * 		The delegate {@link Codec}.
+	 * @param allocator
+	 * 		The allocator of the {@link Buffer Buffers} holding incomplete frames.
+	 */
+	public GzipCodec(Codec<Buffer, IN, OUT> delegate, BufferAllocator allocator) {
+		super(delegate, allocator);
+	}
+
 	@Override
 	protected InputStream createInputStream(InputStream parent) throws IOException {
 		return new GZIPInputStream(parent);
@@ -28,4 +54,183 @@ public class GzipCodec<IN, OUT> extends CompressionCodec<IN, OUT> {
 		return new GZIPOutputStream(parent);
 	}
 
+	@Override
+	protected Decompressor createDecompressor() {
+		return new GzipDecompressor();
+	}
+
+	@Override
+	protected void compress(Buffer buffer, Output out) throws IOException {
+		byte[] bytes;
+		int off;
+		int len;
+		ByteBuffer bb = buffer.byteBuffer();
+		if(null == bb) {
+			bytes = new byte[0];
+			off = len = 0;
+		} else if(bb.hasArray()) {
+			bytes = bb.array();
+			off = bb.arrayOffset() + bb.position();
+			len = bb.remaining();
+		} else {
+			bytes = buffer.asBytes();
+			off = 0;
+			len = bytes.length;
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(bytes, off, len);
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			out.write(HEADER, 0, HEADER.length);
+			deflater.setInput(bytes, off, len);
+			deflater.finish();
+			while(!deflater.finished()) {
+				int deflated = deflater.deflate(out.array(CHUNK_SIZE), out.length(), out.free());
+				out.advance(deflated);
+			}
+		} finally {
+			deflater.end();
+		}
+		writeInt(out, (int)crc.getValue());
+		writeInt(out, len);
+	}
+
+	private static void writeInt(Output out, int i) {
+		out.write(i & 0xff);
+		out.write((i >> 8) & 0xff);
+		out.write((i >> 16) & 0xff);
+		out.write((i >> 24) & 0xff);
+	}
+
+	private static int readInt(ByteBuffer in) {
+		return (in.get() & 0xff) | (in.get() & 0xff) << 8 | (in.get() & 0xff) << 16 | (in.get() & 0xff) << 24;
+	}
+
+	/**
+	 * Get the length of the GZIP header at the position of the given buffer.
+	 *
+	 * @return The length of the header or {@code -1} if the whole header hasn't been read yet
+	 */
+	private static int headerLength(ByteBuffer in) throws ZipException {
+		int start = in.position();
+		int end = in.limit();
+		if(end - start < 10) {
+			return -1;
+		}
+		if(in.get(start) != HEADER[0] || in.get(start + 1) != HEADER[1]) {
+			throw new ZipException("Not in GZIP format");
+		}
+		if(in.get(start + 2) != Deflater.DEFLATED) {
+			throw new ZipException("Unsupported compression method");
+		}
+		int flags = in.get(start + 3) & 0xff;
+		int pos = start + 10;
+		if((flags & FEXTRA) != 0) {
+			if(end - pos < 2) {
+				return -1;
+			}
+			pos += 2 + ((in.get(pos) & 0xff) | (in.get(pos + 1) & 0xff) << 8);
+		}
+		for(int flag : new int[]{FNAME, FCOMMENT}) {
+			if((flags & flag) != 0) {
+				// skip the zero-terminated string
+				do {
+					if(pos >= end) {
+						return -1;
+					}
+				} while(in.get(pos++) != 0);
+			}
+		}
+		if((flags & FHCRC) != 0) {
+			pos += 2;
+		}
+		return (pos <= end ? pos - start : -1);
+	}
+
+	private static class GzipDecompressor extends Decompressor {
+		private static final int HEADER  = 0;
+		private static final int BODY    = 1;
+		private static final int TRAILER = 2;
+
+		private final Inflater inflater = new Inflater(true);
+		private final CRC32    crc      = new CRC32();
+		private       int      state    = HEADER;
+		private       byte[]   scratch;
+
+		@Override
+		protected boolean decompress(ByteBuffer in, Output out) throws IOException {
+			if(state == HEADER) {
+				int len = headerLength(in);
+				if(len < 0) {
+					return false;
+				}
+				in.position(in.position() + len);
+				state = BODY;
+			}
+
+			if(state == BODY) {
+				try {
+					for(; ; ) {
+						if(inflater.needsInput()) {
+							if(!in.hasRemaining()) {
+								return false;
+							}
+							feed(in);
+						}
+						byte[] bytes = out.array(CHUNK_SIZE);
+						int off = out.length();
+						int inflated = inflater.inflate(bytes, off, out.free());
+						crc.update(bytes, off, inflated);
+						out.advance(inflated);
+						if(inflater.finished()) {
+							// give back the bytes following the compressed data
+							in.position(in.position() - inflater.getRemaining());
+							state = TRAILER;
+							break;
+						}
+						if(inflater.needsDictionary()) {
+							throw new ZipException("Preset dictionaries aren't supported");
+						}
+					}
+				} catch(DataFormatException e) {
+					throw new ZipException(e.getMessage());
+				}
+			}
+
+			if(in.remaining() < 8) {
+				return false;
+			}
+			if(readInt(in) != (int)crc.getValue()) {
+				throw new ZipException("Corrupt GZIP trailer");
+			}
+			if(readInt(in) != (int)inflater.getBytesWritten()) {
+				throw new ZipException("Corrupt GZIP trailer");
+			}
+			return true;
+		}
+
+		private void feed(ByteBuffer in) {
+			// the inflater holds on to its input until it needs more, by which time it has been consumed
+			if(in.hasArray()) {
+				inflater.setInput(in.array(), in.arrayOffset() + in.position(), in.remaining());
+				in.position(in.limit());
+			} else {
+				if(null == scratch) {
+					scratch = new byte[CHUNK_SIZE];
+				}
+				int len = Math.min(in.remaining(), scratch.length);
+				in.get(scratch, 0, len);
+				inflater.setInput(scratch, 0, len);
+			}
+		}
+
+		@Override
+		protected void reset() {
+			inflater.reset();
+			crc.reset();
+			state = HEADER;
+		}
+	}
+
 }
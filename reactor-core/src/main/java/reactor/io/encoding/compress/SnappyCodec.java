@@ -1,23 +1,53 @@
 package reactor.io.encoding.compress;
 
+import org.xerial.snappy.Snappy;
 import org.xerial.snappy.SnappyInputStream;
 import org.xerial.snappy.SnappyOutputStream;
 import reactor.io.Buffer;
+import reactor.io.BufferAllocator;
 import reactor.io.encoding.Codec;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
+ * A {@link CompressionCodec} whose frames are streams in the format of {@link SnappyOutputStream}, each prefixed by its
+ * length as a 4-byte big-endian int: a header followed by blocks of at most {@code 32KB} of uncompressed data, each
+ * prefixed by its compressed length. Blocks are compressed and uncompressed straight from and into the bytes of {@link
+ * Buffer Buffers}, and uncompressed as soon as they have been read.
+ * <p>
+ * A frame ends once the number of bytes given by its length prefix has been read, whatever the length of its blocks,
+ * so a stream written by a {@link SnappyOutputStream} that was flushed part way through, or that ends with a full
+ * block, can be decoded once prefixed by its length. Removing the prefix of an encoded frame leaves a stream that can
+ * be read by a {@link SnappyInputStream}.
+ *
  * @author Jon Brisbin
  */
 public class SnappyCodec<IN, OUT> extends CompressionCodec<IN, OUT> {
 
+	private static final int    BLOCK_SIZE   = 32 * 1024;
+	private static final byte[] MAGIC_HEADER = org.xerial.snappy.SnappyCodec.MAGIC_HEADER;
+	private static final int    HEADER_SIZE  = org.xerial.snappy.SnappyCodec.headerSize();
+
 	public SnappyCodec(Codec<Buffer, IN, OUT> delegate) {
 		super(delegate);
 	}
 
+	/**
+	 * Create a {@code SnappyCodec} that keeps the bytes of incomplete frames in {@link Buffer Buffers} allocated by the
+	 * given {@code allocator}.
+	 *
+	 * @param delegate
+	 * 		The delegate {@link Codec}.
+	 * @param allocator
+	 * 		The allocator of the {@link Buffer Buffers} holding incomplete frames.
+	 */
+	public SnappyCodec(Codec<Buffer, IN, OUT> delegate, BufferAllocator allocator) {
+		super(delegate, allocator);
+	}
+
 	@Override
 	protected InputStream createInputStream(InputStream parent) throws IOException {
 		return new SnappyInputStream(parent);
@@ -28,4 +58,139 @@ public class SnappyCodec<IN, OUT> extends CompressionCodec<IN, OUT> {
 		return new SnappyOutputStream(parent);
 	}
 
+	@Override
+	protected Decompressor createDecompressor() {
+		return new SnappyDecompressor();
+	}
+
+	@Override
+	protected void compress(Buffer buffer, Output out) throws IOException {
+		byte[] bytes;
+		int off;
+		int len;
+		ByteBuffer bb = buffer.byteBuffer();
+		if(null == bb) {
+			bytes = new byte[0];
+			off = len = 0;
+		} else if(bb.hasArray()) {
+			bytes = bb.array();
+			off = bb.arrayOffset() + bb.position();
+			len = bb.remaining();
+		} else {
+			bytes = buffer.asBytes();
+			off = 0;
+			len = bytes.length;
+		}
+
+		// the length prefix is filled in once the stream has been written
+		int start = out.length();
+		out.array(4);
+		out.advance(4);
+		org.xerial.snappy.SnappyCodec.currentHeader().writeHeader(out);
+		int end = off + len;
+		while(off < end) {
+			int blockLen = Math.min(BLOCK_SIZE, end - off);
+			byte[] dest = out.array(4 + Snappy.maxCompressedLength(blockLen));
+			int pos = out.length();
+			int compressed = Snappy.compress(bytes, off, blockLen, dest, pos + 4);
+			writeInt(dest, pos, compressed);
+			out.advance(4 + compressed);
+			off += blockLen;
+		}
+		writeInt(out.array(0), start, out.length() - start - 4);
+	}
+
+	private static void writeInt(byte[] dest, int pos, int i) {
+		dest[pos] = (byte)(i >>> 24);
+		dest[pos + 1] = (byte)(i >>> 16);
+		dest[pos + 2] = (byte)(i >>> 8);
+		dest[pos + 3] = (byte)i;
+	}
+
+	private static class SnappyDecompressor extends Decompressor {
+		private int     remaining = -1;
+		private boolean header;
+		private byte[]  scratch;
+
+		@Override
+		protected boolean decompress(ByteBuffer in, Output out) throws IOException {
+			if(remaining < 0) {
+				if(in.remaining() < 4) {
+					return false;
+				}
+				int len = in.getInt();
+				if(len < HEADER_SIZE) {
+					throw new IOException("Corrupt Snappy frame length: " + len);
+				}
+				remaining = len;
+				header = true;
+			}
+
+			while(remaining > 0) {
+				if(!in.hasRemaining()) {
+					return false;
+				}
+				int pos = in.position();
+				if(header || in.get(pos) == MAGIC_HEADER[0]) {
+					// the stream starts with a header, and concatenated streams start again with one, the first byte of
+					// which can't start a block length
+					int available = Math.min(in.remaining(), MAGIC_HEADER.length);
+					for(int i = 0; i < available; i++) {
+						if(in.get(pos + i) != MAGIC_HEADER[i]) {
+							throw new IOException("Not in Snappy format");
+						}
+					}
+					if(in.remaining() < HEADER_SIZE) {
+						return false;
+					}
+					if(remaining < HEADER_SIZE) {
+						throw new IOException("Corrupt Snappy frame");
+					}
+					in.position(pos + HEADER_SIZE);
+					remaining -= HEADER_SIZE;
+					header = false;
+					continue;
+				}
+
+				if(in.remaining() < 4) {
+					return false;
+				}
+				int len = in.getInt(pos);
+				if(len < 0 || 4 + len > remaining) {
+					throw new IOException("Corrupt Snappy block length: " + len);
+				}
+				if(in.remaining() < 4 + len) {
+					return false;
+				}
+
+				byte[] bytes;
+				int off;
+				if(in.hasArray()) {
+					bytes = in.array();
+					off = in.arrayOffset() + pos + 4;
+				} else {
+					if(null == scratch || scratch.length < len) {
+						scratch = new byte[Math.max(len, BLOCK_SIZE)];
+					}
+					bytes = scratch;
+					off = 0;
+					ByteBuffer block = in.duplicate();
+					block.position(pos + 4);
+					block.get(scratch, 0, len);
+				}
+				int uncompressed = Snappy.uncompressedLength(bytes, off, len);
+				Snappy.uncompress(bytes, off, len, out.array(uncompressed), out.length());
+				out.advance(uncompressed);
+				in.position(pos + 4 + len);
+				remaining -= 4 + len;
+			}
+			return true;
+		}
+
+		@Override
+		protected void reset() {
+			remaining = -1;
+		}
+	}
+
 }
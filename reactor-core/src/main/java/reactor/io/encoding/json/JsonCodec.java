@@ -16,10 +16,11 @@
 
 package reactor.io.encoding.json;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import reactor.function.Consumer;
 import reactor.function.Function;
 import reactor.io.Buffer;
@@ -27,9 +28,15 @@ import reactor.io.encoding.Codec;
 import reactor.util.Assert;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * A codec for decoding JSON into Java objects and encoding Java objects into JSON.
+ * <p>
+ * A decoder is stateful: it finds where each JSON document ends as bytes come in, so a {@link Buffer} may hold several
+ * documents, or part of one whose bytes are kept until the rest of it comes in. Each complete document is parsed
+ * straight from the bytes that hold it. A top-level number, {@code true}, {@code false} or {@code null} ends at the
+ * first whitespace or structural character following it, or else at the end of the {@link Buffer}.
  *
  * @param <IN>
  * 		The type to decode JSON into
@@ -40,8 +47,12 @@ import java.io.IOException;
  */
 public class JsonCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 
+	private static final int MIN_BUFFER_SIZE = 256;
+
 	private final Class<IN>    inputType;
 	private final ObjectMapper mapper;
+	private final ObjectReader reader;
+	private final ObjectWriter writer;
 
 	/**
 	 * Creates a new {@code JsonCodec} that will create instances of {@code inputType}  when
@@ -73,6 +84,8 @@ public class JsonCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 		if(null != customModule) {
 			this.mapper.registerModule(customModule);
 		}
+		this.reader = mapper.reader(this.inputType);
+		this.writer = mapper.writer();
 	}
 
 	@Override
@@ -88,41 +101,187 @@ public class JsonCodec<IN, OUT> implements Codec<Buffer, IN, OUT> {
 	private class JsonDecoder implements Function<Buffer, IN> {
 		private final Consumer<IN> next;
 
+		// the bytes of a document that didn't end in the previous Buffers
+		private byte[]  pending;
+		private int     pendingLen;
+		// where the scanner is in the current document
+		private boolean started;
+		private int     depth;
+		private boolean inString;
+		private boolean escaped;
+		private boolean inScalar;
+
 		private JsonDecoder(Consumer<IN> next) {
 			this.next = next;
 		}
 
-		@SuppressWarnings("unchecked")
 		@Override
 		public IN apply(Buffer buffer) {
-			IN in;
+			ByteBuffer bb = buffer.byteBuffer();
+			if(null == bb) {
+				return null;
+			}
 			try {
-				if(JsonNode.class.isAssignableFrom(inputType)) {
-					in = (IN)mapper.readTree(buffer.inputStream());
-				} else {
-					in = mapper.readValue(buffer.inputStream(), inputType);
-				}
-				if(null != next) {
-					next.accept(in);
-					return null;
-				} else {
-					return in;
+				while(bb.hasRemaining()) {
+					int limit = bb.limit();
+					int start = skipWhitespace(bb, bb.position(), limit);
+					int end = scan(bb, start, limit);
+					if(end < 0) {
+						if(started) {
+							stash(bb, start, limit);
+						}
+						bb.position(limit);
+						return null;
+					}
+
+					IN in;
+					if(pendingLen > 0) {
+						stash(bb, start, end);
+						in = reader.readValue(pending, 0, pendingLen);
+						pendingLen = 0;
+					} else if(bb.hasArray()) {
+						in = reader.readValue(bb.array(), bb.arrayOffset() + start, end - start);
+					} else {
+						byte[] bytes = new byte[end - start];
+						bb.position(start);
+						bb.get(bytes);
+						in = reader.readValue(bytes);
+					}
+					bb.position(end);
+
+					if(null != next) {
+						next.accept(in);
+					} else {
+						return in;
+					}
 				}
 			} catch(IOException e) {
+				reset();
 				throw new IllegalStateException(e);
 			}
+			return null;
+		}
+
+		private int skipWhitespace(ByteBuffer bb, int from, int to) {
+			if(started) {
+				return from;
+			}
+			while(from < to && isWhitespace(bb.get(from))) {
+				from++;
+			}
+			return from;
+		}
+
+		/**
+		 * Scan the given range for the end of the current document.
+		 *
+		 * @return the index following the last byte of the document, or {@code -1} if it doesn't end in the range
+		 */
+		private int scan(ByteBuffer bb, int from, int to) {
+			for(int i = from; i < to; i++) {
+				byte b = bb.get(i);
+				if(inString) {
+					if(escaped) {
+						escaped = false;
+					} else if(b == '\\') {
+						escaped = true;
+					} else if(b == '"') {
+						inString = false;
+						if(depth == 0) {
+							return end(i + 1);
+						}
+					}
+					continue;
+				}
+				if(inScalar) {
+					if(isWhitespace(b) || isStructural(b)) {
+						return end(i);
+					}
+					continue;
+				}
+				switch(b) {
+					case '{':
+					case '[':
+						depth++;
+						break;
+					case '}':
+					case ']':
+						if(--depth <= 0) {
+							// a stray closing bracket ends the document as well, for the parser to report
+							return end(i + 1);
+						}
+						break;
+					case '"':
+						inString = true;
+						break;
+					default:
+						if(depth == 0 && !isWhitespace(b)) {
+							inScalar = true;
+						}
+						break;
+				}
+				started = true;
+			}
+			if(inScalar && pendingLen == 0) {
+				return end(to);
+			}
+			return -1;
+		}
+
+		private int end(int index) {
+			started = false;
+			depth = 0;
+			inString = false;
+			escaped = false;
+			inScalar = false;
+			return index;
+		}
+
+		private void stash(ByteBuffer bb, int from, int to) {
+			int len = to - from;
+			if(null == pending || pending.length - pendingLen < len) {
+				byte[] grown = new byte[Math.max(Math.max(pendingLen + len, MIN_BUFFER_SIZE), pendingLen * 2)];
+				if(pendingLen > 0) {
+					System.arraycopy(pending, 0, grown, 0, pendingLen);
+				}
+				pending = grown;
+			}
+			ByteBuffer src = bb.duplicate();
+			src.limit(to).position(from);
+			src.get(pending, pendingLen, len);
+			pendingLen += len;
+		}
+
+		private void reset() {
+			end(0);
+			pending = null;
+			pendingLen = 0;
 		}
 	}
 
 	private class JsonEncoder implements Function<OUT, Buffer> {
+		// the size of the last document, to allocate the next one's Buffer at once
+		private int sizeHint = MIN_BUFFER_SIZE;
+
 		@Override
 		public Buffer apply(OUT out) {
 			try {
-				return Buffer.wrap(mapper.writeValueAsBytes(out));
-			} catch(JsonProcessingException e) {
+				Buffer buffer = new Buffer(sizeHint, false);
+				writer.writeValue(buffer.outputStream(), out);
+				sizeHint = Math.max(buffer.position(), MIN_BUFFER_SIZE);
+				return buffer.flip();
+			} catch(IOException e) {
 				throw new IllegalStateException(e);
 			}
 		}
 	}
 
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+
+	private static boolean isStructural(byte b) {
+		return b == '{' || b == '[' || b == '}' || b == ']' || b == ',' || b == '"';
+	}
+
 }
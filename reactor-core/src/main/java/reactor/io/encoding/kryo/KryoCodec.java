@@ -1,24 +1,72 @@
 package reactor.io.encoding.kryo;
 
 import com.esotericsoftware.kryo.Kryo;
-import com.esotericsoftware.kryo.io.UnsafeMemoryInput;
-import com.esotericsoftware.kryo.io.UnsafeMemoryOutput;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import reactor.function.Consumer;
 import reactor.function.Function;
+import reactor.function.Supplier;
 import reactor.io.Buffer;
 import reactor.io.encoding.SerializationCodec;
 
+import java.nio.ByteBuffer;
+
 /**
+ * A {@link SerializationCodec} that uses Kryo. Objects are read from and written to the arrays backing {@link Buffer
+ * Buffers} in place, and their type is written by Kryo itself: as the ID of its registration if it's registered, or
+ * as its name otherwise.
+ * <p>
+ * A {@link Kryo} instance can't be used by several threads at once. Each thread gets its own instance from the
+ * {@link Supplier} given at creation, which should register the classes to be serialized up front, so that they are
+ * identified by the same IDs on both ends.
+ *
  * @author Jon Brisbin
  */
 public class KryoCodec<IN, OUT> extends SerializationCodec<Kryo, IN, OUT> {
 
+	private static final int MIN_BUFFER_SIZE = 64;
+
+	private final ThreadLocal<Kryo> kryos;
+
 	public KryoCodec() {
-		super(new Kryo(), true);
+		this(new Supplier<Kryo>() {
+			@Override
+			public Kryo get() {
+				return new Kryo();
+			}
+		}, true);
 	}
 
+	/**
+	 * Create a {@code KryoCodec} that uses the given {@link Kryo} instance, which must not be used by several threads at
+	 * once.
+	 *
+	 * @param engine
+	 * 		the {@link Kryo} instance to use
+	 * @param lengthFieldFraming
+	 * 		{@code true} to prepend a length field, or {@code false} to skip
+	 */
 	public KryoCodec(Kryo engine, boolean lengthFieldFraming) {
 		super(engine, lengthFieldFraming);
+		this.kryos = null;
+	}
+
+	/**
+	 * Create a {@code KryoCodec} that uses a {@link Kryo} instance per thread, created by the given {@link Supplier}.
+	 *
+	 * @param kryoFactory
+	 * 		creates and configures the {@link Kryo} instance of a thread
+	 * @param lengthFieldFraming
+	 * 		{@code true} to prepend a length field, or {@code false} to skip
+	 */
+	public KryoCodec(final Supplier<Kryo> kryoFactory, boolean lengthFieldFraming) {
+		super(null, lengthFieldFraming);
+		this.kryos = new ThreadLocal<Kryo>() {
+			@Override
+			protected Kryo initialValue() {
+				return kryoFactory.get();
+			}
+		};
 	}
 
 	@Override
@@ -28,7 +76,7 @@ public class KryoCodec<IN, OUT> extends SerializationCodec<Kryo, IN, OUT> {
 		return new Function<byte[], IN>() {
 			@Override
 			public IN apply(byte[] bytes) {
-				IN obj = engine.readObject(new UnsafeMemoryInput(bytes), type);
+				IN obj = kryo(engine).readObject(new Input(bytes), type);
 				if(null != next) {
 					next.accept(obj);
 					return null;
@@ -44,12 +92,71 @@ public class KryoCodec<IN, OUT> extends SerializationCodec<Kryo, IN, OUT> {
 		return new Function<OUT, byte[]>() {
 			@Override
 			public byte[] apply(OUT o) {
-				UnsafeMemoryOutput out = new UnsafeMemoryOutput(Buffer.SMALL_BUFFER_SIZE, Buffer.MAX_BUFFER_SIZE);
-				engine.writeObject(out, o);
-				out.flush();
+				Output out = new Output(MIN_BUFFER_SIZE, Buffer.MAX_BUFFER_SIZE);
+				kryo(engine).writeObject(out, o);
 				return out.toBytes();
 			}
 		};
 	}
 
+	@Override
+	protected Function<Buffer, IN> bufferDeserializer(final Kryo engine, final Consumer<IN> next) {
+		return new Function<Buffer, IN>() {
+			// the bytes of a direct Buffer are copied here for Kryo to read them
+			private byte[] scratch;
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public IN apply(Buffer buffer) {
+				ByteBuffer bb = buffer.byteBuffer();
+				int pos = bb.position();
+				int len = bb.remaining();
+				Input in;
+				int offset;
+				if(bb.hasArray()) {
+					offset = bb.arrayOffset() + pos;
+					in = new Input(bb.array(), offset, len);
+				} else {
+					if(null == scratch || scratch.length < len) {
+						scratch = new byte[Math.max(len, MIN_BUFFER_SIZE)];
+					}
+					bb.duplicate().get(scratch, 0, len);
+					offset = 0;
+					in = new Input(scratch, 0, len);
+				}
+				IN obj = (IN)kryo(engine).readClassAndObject(in);
+				bb.position(pos + in.position() - offset);
+
+				if(null != next) {
+					next.accept(obj);
+					return null;
+				} else {
+					return obj;
+				}
+			}
+		};
+	}
+
+	@Override
+	protected Function<OUT, Buffer> bufferSerializer(final Kryo engine, final int offset) {
+		return new Function<OUT, Buffer>() {
+			// the size of the last object, to allocate the next one's array at once
+			private int sizeHint = MIN_BUFFER_SIZE;
+
+			@Override
+			public Buffer apply(OUT o) {
+				Output out = new Output(new byte[sizeHint], Buffer.MAX_BUFFER_SIZE);
+				out.setPosition(offset);
+				kryo(engine).writeClassAndObject(out, o);
+				int len = out.position();
+				sizeHint = Math.max(len, MIN_BUFFER_SIZE);
+				return new Buffer(ByteBuffer.wrap(out.getBuffer(), 0, len));
+			}
+		};
+	}
+
+	private Kryo kryo(Kryo engine) {
+		return (null != kryos ? kryos.get() : engine);
+	}
+
 }
@@ -1,15 +1,23 @@
 package reactor.io.encoding.protobuf;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.Message;
 import reactor.function.Consumer;
 import reactor.function.Function;
+import reactor.io.Buffer;
 import reactor.io.encoding.SerializationCodec;
 import reactor.util.Assert;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * A {@link SerializationCodec} for Protobuf messages, which are parsed from and written to the arrays backing {@link
+ * Buffer Buffers} in place.
+ *
  * @author Jon Brisbin
  */
 public class ProtobufCodec<IN, OUT> extends SerializationCodec<Map<Class<?>, Message>, IN, OUT> {
@@ -37,12 +45,7 @@ public class ProtobufCodec<IN, OUT> extends SerializationCodec<Map<Class<?>, Mes
 			@Override
 			public IN apply(byte[] bytes) {
 				try {
-					Message msg = messages.get(type);
-					if(null == msg) {
-						msg = (Message)type.getMethod("getDefaultInstance").invoke(null);
-						messages.put(type, msg);
-					}
-					IN obj = (IN)msg.newBuilderForType().mergeFrom(bytes).build();
+					IN obj = (IN)defaultInstance(messages, type).newBuilderForType().mergeFrom(bytes).build();
 					if(null != next) {
 						next.accept(obj);
 						return null;
@@ -72,4 +75,90 @@ public class ProtobufCodec<IN, OUT> extends SerializationCodec<Map<Class<?>, Mes
 		};
 	}
 
+	@Override
+	protected Function<Buffer, IN> bufferDeserializer(final Map<Class<?>, Message> messages, final Consumer<IN> next) {
+		return new Function<Buffer, IN>() {
+			// the bytes of a direct Buffer are copied here for Protobuf to read them
+			private byte[] scratch;
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public IN apply(Buffer buffer) {
+				Class<IN> type = readType(buffer);
+				ByteBuffer bb = buffer.byteBuffer();
+				int len = bb.remaining();
+				CodedInputStream in;
+				if(bb.hasArray()) {
+					in = CodedInputStream.newInstance(bb.array(), bb.arrayOffset() + bb.position(), len);
+				} else {
+					if(null == scratch || scratch.length < len) {
+						scratch = new byte[len];
+					}
+					bb.duplicate().get(scratch, 0, len);
+					in = CodedInputStream.newInstance(scratch, 0, len);
+				}
+				try {
+					IN obj = (IN)defaultInstance(messages, type).getParserForType().parseFrom(in);
+					bb.position(bb.limit());
+					if(null != next) {
+						next.accept(obj);
+						return null;
+					} else {
+						return obj;
+					}
+				} catch(IOException e) {
+					throw new IllegalStateException(e.getMessage(), e);
+				}
+			}
+		};
+	}
+
+	@Override
+	protected Function<OUT, Buffer> bufferSerializer(Map<Class<?>, Message> messages, final int offset) {
+		return new Function<OUT, Buffer>() {
+			@Override
+			public Buffer apply(OUT o) {
+				Assert.isInstanceOf(Message.class,
+				                    o,
+				                    "Can only serialize Protobuf messages. " +
+						                    o.getClass().getName() +
+						                    " is not an instance of " +
+						                    Message.class.getName());
+				Message msg = (Message)o;
+				int len = msg.getSerializedSize();
+				Buffer buffer = new Buffer(offset + typeHeaderLength(o.getClass()) + len, true).skip(offset);
+				writeType(o.getClass(), buffer);
+
+				ByteBuffer bb = buffer.byteBuffer();
+				CodedOutputStream out = CodedOutputStream.newInstance(bb.array(), bb.arrayOffset() + bb.position(), len);
+				try {
+					msg.writeTo(out);
+				} catch(IOException e) {
+					throw new IllegalStateException(e.getMessage(), e);
+				}
+				out.checkNoSpaceLeft();
+				return buffer.skip(len).flip();
+			}
+		};
+	}
+
+	private static Message defaultInstance(Map<Class<?>, Message> messages, Class<?> type) {
+		Message msg = messages.get(type);
+		if(null == msg) {
+			Assert.isAssignable(Message.class,
+			                    type,
+			                    "Can only deserialize Protobuf messages. " +
+					                    type.getName() +
+					                    " is not an instance of " +
+					                    Message.class.getName());
+			try {
+				msg = (Message)type.getMethod("getDefaultInstance").invoke(null);
+			} catch(Exception e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+			messages.put(type, msg);
+		}
+		return msg;
+	}
+
 }
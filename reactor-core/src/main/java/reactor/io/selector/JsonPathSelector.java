@@ -1,6 +1,8 @@
 package reactor.io.selector;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -15,6 +17,7 @@ import com.jayway.jsonpath.spi.JsonProvider;
 import com.jayway.jsonpath.spi.MappingProvider;
 import com.jayway.jsonpath.spi.Mode;
 import reactor.event.selector.ObjectSelector;
+import reactor.event.selector.SelectionMemo;
 import reactor.event.selector.Selector;
 import reactor.io.Buffer;
 
@@ -22,23 +25,40 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
+ * A {@link Selector} that matches keys holding JSON, or objects that can be converted to JSON, for which a {@link
+ * JsonPath} yields a non-empty result.
+ * <p>
+ * The parsed form of a key is memoized for the duration of a {@link reactor.event.registry.Registry#select(Object)
+ * selection} and shared by every {@code JsonPathSelector} using the same {@link ObjectMapper}, so a key matched against
+ * many of them is parsed only once. Keys holding JSON text ({@code String}, {@code byte[]} or {@link Buffer}) are
+ * matched against a path made of field names only, such as {@code $.user.name}, by streaming through the JSON until the
+ * field is found, without building a tree of the key at all.
+ *
  * @author Jon Brisbin
  */
 public class JsonPathSelector extends ObjectSelector<JsonPath> {
 
+	private static final Pattern SIMPLE_PATH = Pattern.compile("\\$(\\.[A-Za-z_][A-Za-z0-9_]*)+");
+
 	// Only need one of these
 	private static ObjectMapper MAPPER = new ObjectMapper();
 
 	private final ObjectMapper  mapper;
 	private final Configuration jsonPathConfig;
+	private final String[]      fields;
 
 	public JsonPathSelector(ObjectMapper mapper, String jsonPath, Filter... filters) {
 		super(JsonPath.compile(jsonPath, filters));
 		this.mapper = mapper;
 		this.jsonPathConfig = Configuration.builder().jsonProvider(new Jackson2JsonProvider(mapper)).build();
+		this.fields = (filters.length == 0 && SIMPLE_PATH.matcher(jsonPath).matches() ?
+		               jsonPath.substring(2).split("\\.") :
+		               null);
 	}
 
 	public JsonPathSelector(String jsonPath, Filter... filters) {
@@ -59,7 +79,29 @@ public class JsonPathSelector extends ObjectSelector<JsonPath> {
 			return false;
 		}
 
-		Object result = read(key);
+		Class<?> type = key.getClass();
+		if(null != fields && (type == String.class || type == byte[].class || type == Buffer.class)) {
+			return stream(key);
+		}
+		if(JsonNode.class.isAssignableFrom(type)) {
+			return isMatch(getObject().read(key, jsonPathConfig));
+		}
+
+		Object tree = SelectionMemo.get(key, mapper);
+		if(null == tree) {
+			tree = parse(key);
+			if(null == tree) {
+				return false;
+			}
+			SelectionMemo.put(key, mapper, tree);
+		}
+		if(null != fields) {
+			return isMatch(walk(tree));
+		}
+		return isMatch(getObject().read(tree, jsonPathConfig));
+	}
+
+	private static boolean isMatch(Object result) {
 		if(null == result) {
 			return false;
 		}
@@ -75,18 +117,105 @@ public class JsonPathSelector extends ObjectSelector<JsonPath> {
 		}
 	}
 
-	private Object read(Object key) {
-		Class<?> type = key.getClass();
-		if(type == String.class) {
-			return getObject().read((String)key, jsonPathConfig);
-		} else if(type == byte[].class) {
-			return getObject().read(Buffer.wrap((byte[])key).asString(), jsonPathConfig);
-		} else if(type == Buffer.class) {
-			return getObject().read(((Buffer)key).asString(), jsonPathConfig);
-		} else if(JsonNode.class.isAssignableFrom(type)) {
-			return getObject().read(key, jsonPathConfig);
+	private Object parse(Object key) {
+		try {
+			Class<?> type = key.getClass();
+			if(type == String.class) {
+				return mapper.readValue((String)key, Object.class);
+			} else if(type == byte[].class) {
+				return mapper.readValue((byte[])key, Object.class);
+			} else if(type == Buffer.class) {
+				ByteBuffer bb = ((Buffer)key).byteBuffer();
+				if(null == bb) {
+					return null;
+				}
+				if(bb.hasArray()) {
+					return mapper.readValue(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining(), Object.class);
+				}
+				byte[] bytes = new byte[bb.remaining()];
+				bb.duplicate().get(bytes);
+				return mapper.readValue(bytes, Object.class);
+			} else {
+				return mapper.convertValue(key, Object.class);
+			}
+		} catch(IOException e) {
+			throw new InvalidJsonException(e.getMessage(), e);
+		}
+	}
+
+	private Object walk(Object tree) {
+		Object node = tree;
+		for(String field : fields) {
+			if(!(node instanceof Map)) {
+				return null;
+			}
+			node = ((Map)node).get(field);
+		}
+		return node;
+	}
+
+	private boolean stream(Object key) {
+		JsonParser parser = null;
+		try {
+			Class<?> type = key.getClass();
+			if(type == String.class) {
+				parser = mapper.getFactory().createParser((String)key);
+			} else if(type == byte[].class) {
+				parser = mapper.getFactory().createParser((byte[])key);
+			} else {
+				ByteBuffer bb = ((Buffer)key).byteBuffer();
+				if(null == bb) {
+					return false;
+				}
+				if(bb.hasArray()) {
+					parser = mapper.getFactory().createParser(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining());
+				} else {
+					byte[] bytes = new byte[bb.remaining()];
+					bb.duplicate().get(bytes);
+					parser = mapper.getFactory().createParser(bytes);
+				}
+			}
+			return stream(parser);
+		} catch(IOException e) {
+			throw new InvalidJsonException(e.getMessage(), e);
+		} finally {
+			if(null != parser) {
+				try {
+					parser.close();
+				} catch(IOException ignored) {
+				}
+			}
+		}
+	}
+
+	private boolean stream(JsonParser parser) throws IOException {
+		JsonToken token = parser.nextToken();
+		for(String field : fields) {
+			if(token != JsonToken.START_OBJECT) {
+				return false;
+			}
+			// skip over the other fields of this object until the one on the path is found
+			for(; ; ) {
+				if(parser.nextToken() != JsonToken.FIELD_NAME) {
+					return false;
+				}
+				String name = parser.getCurrentName();
+				token = parser.nextToken();
+				if(field.equals(name)) {
+					break;
+				}
+				parser.skipChildren();
+			}
+		}
+		// the rest of the JSON doesn't need to be read once the value is found
+		if(token == JsonToken.VALUE_NULL) {
+			return false;
+		} else if(token == JsonToken.START_OBJECT) {
+			return parser.nextToken() != JsonToken.END_OBJECT;
+		} else if(token == JsonToken.START_ARRAY) {
+			return parser.nextToken() != JsonToken.END_ARRAY;
 		} else {
-			return getObject().read(mapper.convertValue(key, Object.class), jsonPathConfig);
+			return true;
 		}
 	}
 
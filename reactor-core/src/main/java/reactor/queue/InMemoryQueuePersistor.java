@@ -46,6 +46,11 @@ public class InMemoryQueuePersistor<T> implements QueuePersistor<T> {
 		this.removeFun = new MapRemoveFunction();
 	}
 
+	@Override
+	public long firstId() {
+		return currentId.get();
+	}
+
 	@Override
 	public long lastId() {
 		return currentId.get();
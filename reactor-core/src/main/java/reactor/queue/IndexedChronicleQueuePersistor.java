@@ -119,6 +119,13 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 		}
 	}
 
+	@Override
+	public long firstId() {
+		synchronized(monitor) {
+			return (removeFun.hasNext() ? removeFun.ex.index() : lastId() + 1);
+		}
+	}
+
 	@Override
 	public long lastId() {
 		return lastId.get();
@@ -241,6 +248,8 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 
 	private class ChronicleRemoveFunction implements Supplier<T> {
 		private final ExcerptTailer ex;
+		// whether the tailer has been moved to the next item and that item hasn't been read yet
+		private boolean positioned;
 
 		private ChronicleRemoveFunction(ExcerptTailer ex) throws IOException {
 			this.ex = ex;
@@ -250,6 +259,10 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 		@Override
 		public T get() {
 			synchronized(monitor) {
+				if(!hasNext()) {
+					return null;
+				}
+				positioned = false;
 				T obj = read(ex);
 				size.decrementAndGet();
 				return obj;
@@ -257,7 +270,10 @@ public class IndexedChronicleQueuePersistor<T> implements QueuePersistor<T> {
 		}
 
 		public boolean hasNext() {
-			return ex.nextIndex();
+			if(!positioned) {
+				positioned = ex.nextIndex();
+			}
+			return positioned;
 		}
 	}
 
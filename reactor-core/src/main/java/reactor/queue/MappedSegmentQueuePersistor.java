@@ -0,0 +1,950 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.composable.Deferred;
+import reactor.core.composable.Promise;
+import reactor.core.composable.spec.Promises;
+import reactor.event.registry.Registration;
+import reactor.function.Consumer;
+import reactor.function.Function;
+import reactor.function.Supplier;
+import reactor.io.Buffer;
+import reactor.io.encoding.Codec;
+import reactor.io.encoding.JavaSerializationCodec;
+import reactor.timer.SimpleHashWheelTimer;
+import reactor.timer.Timer;
+import reactor.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link QueuePersistor} implementation that appends items to a log of memory-mapped segment files in a directory.
+ * <p>
+ * Items are identified by their position in the log, counting from {@code 0}. Producers claim room for an item in the
+ * current segment by a compare-and-set of its write position, without taking a lock, and copy the item into it
+ * concurrently. Items are made visible to consumers in the order they were claimed. A segment is rolled over to a new
+ * file when an item doesn't fit in it anymore, and is deleted once all its items have been removed. Each segment keeps
+ * the position of every {@value #INDEX_INTERVAL}th item in a sparse index, so that any item can be found without
+ * reading more than {@value #INDEX_INTERVAL} item headers. Items are decoded straight from the mapped memory.
+ * <p>
+ * The ids of the first item not yet removed and of the next item to be written are kept in a small memory-mapped
+ * file, so that a restart doesn't need to read the items. When the items are forced out to disk is decided by a {@link
+ * SyncPolicy}. A sync covers every item made visible before it starts, so that producers waiting on {@link
+ * #offerDurably()} while a sync is running share the next one. Between syncs, writes are only as durable as the
+ * operating system makes dirty mapped pages: an item that has been removed just before a crash may be removed again
+ * after it. A directory must be used by a single {@code MappedSegmentQueuePersistor} at a time.
+ * <p>
+ * Besides being removed, the items can be read by any number of named {@link QueueCursor cursors}, whose committed
+ * positions are kept in another small memory-mapped file. A segment is only deleted once the items in it have been
+ * removed and every cursor has committed a position past them.
+ *
+ * @author Jon Brisbin
+ */
+public class MappedSegmentQueuePersistor<T> implements QueuePersistor<T> {
+
+	/**
+	 * The default size of a segment file, in bytes.
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * The number of items between two entries of the index of a segment.
+	 */
+	public static final int INDEX_INTERVAL = 64;
+
+	private static final Logger LOG = LoggerFactory.getLogger(MappedSegmentQueuePersistor.class);
+
+	private static final String  SEGMENT_SUFFIX = ".log";
+	private static final String  META_FILE      = "queue.meta";
+	private static final int     MAGIC          = 0x52515347;
+	// the header of a segment holds the magic number and the id of its first item
+	private static final int     SEGMENT_HEADER = 16;
+	// the header of an item holds its length, with the high bit set once it has been written
+	private static final int     ITEM_HEADER    = 4;
+	private static final int     WRITTEN        = 0x80000000;
+	private static final int     HEAD_OFFSET    = 0;
+	private static final int     TAIL_OFFSET    = 8;
+	private static final int     META_SIZE      = 16;
+	private static final String  CURSORS_FILE   = "cursors.meta";
+	// a cursor slot holds the length of the name of the cursor, the name and the committed position
+	private static final int     CURSOR_SLOT    = 64;
+	private static final int     CURSOR_NAME    = CURSOR_SLOT - 10;
+	private static final int     MAX_CURSORS    = 64;
+	private static final Charset UTF8           = Charset.forName("UTF-8");
+
+	private final Object                                rollMonitor   = new Object();
+	private final Object                                cursorMonitor = new Object();
+	private final Map<String, QueueCursor<T>>           cursors       = new ConcurrentHashMap<String, QueueCursor<T>>();
+	private final ConcurrentNavigableMap<Long, Segment> segments      = new ConcurrentSkipListMap<Long, Segment>();
+	// the id of the first item not yet removed
+	private final AtomicLong                            head          = new AtomicLong();
+	// the id of the next item to be made visible
+	private final AtomicLong                            tail          = new AtomicLong();
+	// the id of the first item not yet forced out to disk
+	private final AtomicLong                            synced        = new AtomicLong();
+	private final AtomicBoolean                         syncing       = new AtomicBoolean();
+	private final AtomicBoolean                         syncWanted    = new AtomicBoolean();
+	// the acknowledgements of the items waiting for a sync, by id
+	private final ConcurrentNavigableMap<Long, Deferred<Long, Promise<Long>>> pendingSyncs
+			= new ConcurrentSkipListMap<Long, Deferred<Long, Promise<Long>>>();
+
+	private final File                  dir;
+	private final Codec<Buffer, T, T>   codec;
+	private final int                   segmentSize;
+	private final boolean               deleteOnExit;
+	private final RandomAccessFile      metaFile;
+	private final MappedByteBuffer      meta;
+	private final RandomAccessFile      cursorsFile;
+	private final MappedByteBuffer      cursorSlots;
+	private final SegmentOfferFunction  offerFun;
+	private final SegmentGetFunction    getFun;
+	private final SegmentRemoveFunction removeFun;
+	private final SyncPolicy            syncPolicy;
+	private final Timer                 timer;
+	private final boolean               ownTimer;
+	private final Registration<? extends Consumer<Long>> syncTask;
+	private volatile Segment current;
+
+	/**
+	 * Create a {@link MappedSegmentQueuePersistor} in the given directory, which serializes items with Java
+	 * serialization.
+	 *
+	 * @param basePath
+	 * 		Directory in which to create the segment files.
+	 *
+	 * @throws IOException
+	 */
+	public MappedSegmentQueuePersistor(@Nonnull String basePath) throws IOException {
+		this(basePath, new JavaSerializationCodec<T>(), false, false, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Create a {@link MappedSegmentQueuePersistor} in the given directory. Passing {@literal false} to {@code
+	 * clearOnStart} appends to the items already in the directory.
+	 *
+	 * @param basePath
+	 * 		Directory in which to create the segment files.
+	 * @param codec
+	 * 		Codec to turn objects into {@link reactor.io.Buffer Buffers} and visa-versa.
+	 * @param clearOnStart
+	 * 		Whether or not to delete the items already in the directory.
+	 * @param deleteOnExit
+	 * 		Whether or not to delete the files when the program exits.
+	 * @param segmentSize
+	 * 		The size of a segment file, in bytes, which bounds the size of an item.
+	 *
+	 * @throws IOException
+	 */
+	public MappedSegmentQueuePersistor(@Nonnull String basePath,
+	                                   @Nonnull Codec<Buffer, T, T> codec,
+	                                   boolean clearOnStart,
+	                                   boolean deleteOnExit,
+	                                   int segmentSize) throws IOException {
+		this(basePath, codec, clearOnStart, deleteOnExit, segmentSize, SyncPolicy.NEVER, null);
+	}
+
+	/**
+	 * Create a {@link MappedSegmentQueuePersistor} in the given directory, which forces items out to disk according to
+	 * the given {@link SyncPolicy}.
+	 *
+	 * @param basePath
+	 * 		Directory in which to create the segment files.
+	 * @param codec
+	 * 		Codec to turn objects into {@link reactor.io.Buffer Buffers} and visa-versa.
+	 * @param clearOnStart
+	 * 		Whether or not to delete the items already in the directory.
+	 * @param deleteOnExit
+	 * 		Whether or not to delete the files when the program exits.
+	 * @param segmentSize
+	 * 		The size of a segment file, in bytes, which bounds the size of an item.
+	 * @param syncPolicy
+	 * 		When to force items out to disk.
+	 * @param timer
+	 * 		The {@link Timer} to run periodic syncs on, or {@code null} to create one that is cancelled on {@link
+	 * 		#close()}.
+	 *
+	 * @throws IOException
+	 */
+	public MappedSegmentQueuePersistor(@Nonnull String basePath,
+	                                   @Nonnull Codec<Buffer, T, T> codec,
+	                                   boolean clearOnStart,
+	                                   boolean deleteOnExit,
+	                                   int segmentSize,
+	                                   @Nonnull SyncPolicy syncPolicy,
+	                                   @Nullable Timer timer) throws IOException {
+		Assert.notNull(basePath, "Base path cannot be null.");
+		Assert.notNull(codec, "Codec cannot be null.");
+		Assert.notNull(syncPolicy, "SyncPolicy cannot be null.");
+		Assert.isTrue(segmentSize >= 1024 && segmentSize <= 1024 * 1024 * 1024,
+		              "Segment size must be between 1KB and 1GB.");
+		this.dir = new File(basePath);
+		this.codec = codec;
+		this.segmentSize = segmentSize;
+		this.deleteOnExit = deleteOnExit;
+
+		if(!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Could not create directory " + dir);
+		}
+		deleteOnExit(dir);
+		File[] files = segmentFiles();
+		if(clearOnStart) {
+			for(File file : files) {
+				file.delete();
+			}
+			files = new File[0];
+			new File(dir, META_FILE).delete();
+			new File(dir, CURSORS_FILE).delete();
+		}
+
+		File metaPath = new File(dir, META_FILE);
+		deleteOnExit(metaPath);
+		this.metaFile = new RandomAccessFile(metaPath, "rw");
+		this.meta = metaFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, META_SIZE);
+
+		for(File file : files) {
+			Segment seg = new Segment(file, baseOf(file), segmentSize, false);
+			segments.put(seg.base, seg);
+		}
+		if(segments.isEmpty()) {
+			Segment seg = newSegment(0);
+			segments.put(seg.base, seg);
+		}
+		current = segments.lastEntry().getValue();
+		recover();
+
+		File cursorsPath = new File(dir, CURSORS_FILE);
+		deleteOnExit(cursorsPath);
+		this.cursorsFile = new RandomAccessFile(cursorsPath, "rw");
+		this.cursorSlots = cursorsFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, CURSOR_SLOT * MAX_CURSORS);
+		loadCursors();
+
+		offerFun = new SegmentOfferFunction();
+		getFun = new SegmentGetFunction();
+		removeFun = new SegmentRemoveFunction();
+
+		this.syncPolicy = syncPolicy;
+		if(syncPolicy.getPeriodMillis() > 0) {
+			this.ownTimer = (null == timer);
+			this.timer = (ownTimer ? new SimpleHashWheelTimer() : timer);
+			this.syncTask = this.timer.schedule(new Consumer<Long>() {
+				@Override
+				public void accept(Long now) {
+					sync();
+				}
+			}, syncPolicy.getPeriodMillis(), TimeUnit.MILLISECONDS, syncPolicy.getPeriodMillis());
+		} else {
+			this.ownTimer = false;
+			this.timer = null;
+			this.syncTask = null;
+		}
+	}
+
+	@Override
+	public long firstId() {
+		return head.get();
+	}
+
+	@Override
+	public long lastId() {
+		return tail.get() - 1;
+	}
+
+	@Override
+	public long size() {
+		return Math.max(tail.get() - head.get(), 0);
+	}
+
+	@Override
+	public boolean hasNext() {
+		return head.get() < tail.get();
+	}
+
+	@Nonnull
+	@Override
+	public Function<T, Long> offer() {
+		return offerFun;
+	}
+
+	/**
+	 * Get a {@link Function} that persists items like {@link #offer()} does and returns an acknowledgement that is
+	 * completed with the id of the item once it has been forced out to disk according to the {@link SyncPolicy}. With
+	 * {@link SyncPolicy#NEVER}, the acknowledgement is completed as soon as the item has been written.
+	 *
+	 * @return The {@link Function} that persists items
+	 */
+	@Nonnull
+	public Function<T, Promise<Long>> offerDurably() {
+		return new Function<T, Promise<Long>>() {
+			@Override
+			public Promise<Long> apply(T t) {
+				long id = append(t);
+				if(!syncPolicy.isSyncing()) {
+					return Promises.success(id).get();
+				}
+				Deferred<Long, Promise<Long>> ack = Promises.<Long>defer().get();
+				pendingSyncs.put(id, ack);
+				if(isSyncDue(id)) {
+					sync();
+				} else if(id < synced.get()) {
+					// the sync that covered the item finished before the acknowledgement was registered
+					completeSynced();
+				}
+				return ack.compose();
+			}
+		};
+	}
+
+	/**
+	 * Force the items made visible so far out to disk, along with the ids of the first and next items, and complete
+	 * their acknowledgements. If a sync is already running, the thread running it runs another one once it's done, which
+	 * covers these items and those of every other producer that asked for a sync in the meantime.
+	 */
+	public void sync() {
+		syncWanted.set(true);
+		for(; ; ) {
+			if(!syncing.compareAndSet(false, true)) {
+				return;
+			}
+			syncWanted.set(false);
+			try {
+				long upTo = tail.get();
+				if(upTo > synced.get()) {
+					Long from = segments.floorKey(synced.get());
+					for(Segment seg : (null != from ? segments.tailMap(from) : segments).values()) {
+						seg.map.force();
+					}
+					persistHead();
+					persistTail();
+					meta.force();
+					cursorSlots.force();
+					synced.set(upTo);
+				}
+			} finally {
+				syncing.set(false);
+			}
+			completeSynced();
+			if(!syncWanted.get()) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Get the cursor with the given name, creating it if there's none. A new cursor starts from the first item still in
+	 * the segments, whether it has been removed or not.
+	 *
+	 * @param name
+	 * 		The name of the cursor.
+	 *
+	 * @return The cursor
+	 */
+	@Nonnull
+	public QueueCursor<T> cursor(@Nonnull String name) {
+		Assert.notNull(name, "Cursor name cannot be null.");
+		QueueCursor<T> cursor = cursors.get(name);
+		if(null != cursor) {
+			return cursor;
+		}
+		byte[] bytes = name.getBytes(UTF8);
+		Assert.isTrue(bytes.length > 0 && bytes.length <= CURSOR_NAME,
+		              "Cursor name must be between 1 and " + CURSOR_NAME + " bytes long.");
+		synchronized(cursorMonitor) {
+			cursor = cursors.get(name);
+			if(null != cursor) {
+				return cursor;
+			}
+			for(int slot = 0; slot < MAX_CURSORS; slot++) {
+				int offset = slot * CURSOR_SLOT;
+				if(cursorSlots.getShort(offset) == 0) {
+					long committed = segments.firstKey();
+					cursorSlots.putLong(offset + CURSOR_SLOT - 8, committed);
+					ByteBuffer slotName = cursorSlots.duplicate();
+					slotName.position(offset + 2);
+					slotName.put(bytes);
+					cursorSlots.putShort(offset, (short)bytes.length);
+					cursor = new QueueCursor<T>(this, name, slot, committed);
+					cursors.put(name, cursor);
+					return cursor;
+				}
+			}
+		}
+		throw new IllegalStateException("There can't be more than " + MAX_CURSORS + " cursors.");
+	}
+
+	/**
+	 * Delete the cursor with the given name, letting the segments it hadn't committed a position past yet be deleted.
+	 *
+	 * @param name
+	 * 		The name of the cursor.
+	 */
+	public void removeCursor(@Nonnull String name) {
+		synchronized(cursorMonitor) {
+			QueueCursor<T> cursor = cursors.remove(name);
+			if(null == cursor) {
+				return;
+			}
+			cursorSlots.putShort(cursor.getSlot() * CURSOR_SLOT, (short)0);
+		}
+		deleteConsumedSegments();
+	}
+
+	@Nonnull
+	@Override
+	public Function<Long, T> get() {
+		return getFun;
+	}
+
+	@Nonnull
+	@Override
+	public Supplier<T> remove() {
+		return removeFun;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			long next = head.get();
+
+			@Override
+			public boolean hasNext() {
+				return next < tail.get();
+			}
+
+			@Override
+			public T next() {
+				if(!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				T obj = decode(read(next));
+				next++;
+				return obj;
+			}
+
+			@Override
+			public void remove() {
+				throw new IllegalStateException("This Iterator is read-only.");
+			}
+		};
+	}
+
+	/**
+	 * Release the mapped files. They stay on disk unless they are to be deleted on exit.
+	 */
+	@Override
+	public void close() {
+		if(null != syncTask) {
+			syncTask.cancel();
+		}
+		if(ownTimer) {
+			timer.cancel();
+		}
+		if(syncPolicy.isSyncing()) {
+			sync();
+		}
+		synchronized(rollMonitor) {
+			try {
+				persistHead();
+				persistTail();
+				metaFile.close();
+				cursorsFile.close();
+				for(Segment seg : segments.values()) {
+					seg.close();
+				}
+			} catch(IOException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Get a view of the bytes of the item with the given id, without copying them. The view shares the mapped memory
+	 * of the segment, so it must be used before the item is removed.
+	 *
+	 * @param id
+	 * 		The id of the item.
+	 *
+	 * @return A {@link Buffer} holding the bytes of the item, or {@code null} if there is no such item
+	 */
+	@Nullable
+	protected Buffer read(long id) {
+		if(id < 0 || id >= tail.get()) {
+			return null;
+		}
+		Map.Entry<Long, Segment> entry = segments.floorEntry(id);
+		if(null == entry) {
+			return null;
+		}
+		return entry.getValue().read(id);
+	}
+
+	/**
+	 * Get views of the bytes of up to {@code max} items, starting with the item with the given id, without copying
+	 * them.
+	 *
+	 * @param id
+	 * 		The id of the first item.
+	 * @param max
+	 * 		The maximum number of items.
+	 * @param views
+	 * 		The list to add a {@link Buffer} holding the bytes of each item to.
+	 *
+	 * @return The number of items added to the list
+	 */
+	protected int read(long id, int max, List<Buffer> views) {
+		long end = tail.get();
+		int n = 0;
+		while(n < max && id + n < end) {
+			Map.Entry<Long, Segment> entry = segments.floorEntry(id + n);
+			if(null == entry) {
+				break;
+			}
+			int read = entry.getValue().read(id + n, (int)Math.min(max - n, end - id - n), views);
+			if(read == 0) {
+				break;
+			}
+			n += read;
+		}
+		return n;
+	}
+
+	/**
+	 * Save the committed position of the given cursor and delete the segments that are no longer needed.
+	 */
+	void commit(QueueCursor<T> cursor) {
+		cursorSlots.putLong(cursor.getSlot() * CURSOR_SLOT + CURSOR_SLOT - 8, cursor.committed());
+		deleteConsumedSegments();
+	}
+
+	private void loadCursors() {
+		long first = segments.firstKey();
+		for(int slot = 0; slot < MAX_CURSORS; slot++) {
+			int offset = slot * CURSOR_SLOT;
+			int len = cursorSlots.getShort(offset);
+			if(len <= 0) {
+				continue;
+			}
+			byte[] bytes = new byte[len];
+			ByteBuffer slotName = cursorSlots.duplicate();
+			slotName.position(offset + 2);
+			slotName.get(bytes);
+			long committed = Math.min(Math.max(cursorSlots.getLong(offset + CURSOR_SLOT - 8), first), tail.get());
+			String name = new String(bytes, UTF8);
+			cursors.put(name, new QueueCursor<T>(this, name, slot, committed));
+		}
+	}
+
+	private T decode(Buffer buffer) {
+		return (null != buffer ? codec.decoder(null).apply(buffer) : null);
+	}
+
+	/**
+	 * Find the end of the log: from the tail last persisted, or from the start of the last segment, skip the items that
+	 * have been written.
+	 */
+	private void recover() throws IOException {
+		Segment last = current;
+		long persistedTail = meta.getLong(TAIL_OFFSET);
+		long from = (persistedTail > last.base ? persistedTail : last.base);
+		int pos = last.positionOf(from);
+		if(pos < 0) {
+			from = last.base;
+			pos = last.dataStart;
+		}
+		int len;
+		while(pos + ITEM_HEADER <= last.size && ((len = last.map.getInt(pos)) & WRITTEN) != 0) {
+			if(from - last.base >= last.indexSlots * (long)INDEX_INTERVAL) {
+				break;
+			}
+			last.index(from, pos);
+			pos += ITEM_HEADER + (len & ~WRITTEN);
+			from++;
+		}
+		last.claim.set(pack(from - last.base, pos));
+		for(Segment seg : segments.headMap(last.base).values()) {
+			seg.claim.set(pack(0, Segment.CLOSED));
+		}
+		tail.set(from);
+		synced.set(from);
+
+		long persistedHead = meta.getLong(HEAD_OFFSET);
+		long first = segments.firstKey();
+		head.set(Math.min(Math.max(persistedHead, first), from));
+		persistHead();
+		persistTail();
+
+		if(LOG.isDebugEnabled()) {
+			LOG.debug("Opened {} with items {} to {} in {} segment(s)", dir, head.get(), tail.get(), segments.size());
+		}
+	}
+
+	private Segment newSegment(long base) throws IOException {
+		File file = new File(dir, String.format("%020d%s", base, SEGMENT_SUFFIX));
+		deleteOnExit(file);
+		return new Segment(file, base, segmentSize, true);
+	}
+
+	/**
+	 * Close the given segment to new items and start a new one after it, unless that's been done already.
+	 */
+	private void roll(Segment seg) {
+		synchronized(rollMonitor) {
+			if(current != seg) {
+				return;
+			}
+			long c;
+			do {
+				c = seg.claim.get();
+			} while(!seg.claim.compareAndSet(c, pack(claimedCount(c), Segment.CLOSED)));
+			try {
+				Segment next = newSegment(seg.base + claimedCount(c));
+				segments.put(next.base, next);
+				current = next;
+			} catch(IOException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Write the given item to the current segment, rolling it over if the item doesn't fit, and make it visible.
+	 */
+	private long append(T t) {
+		Buffer buff = codec.encoder().apply(t);
+		ByteBuffer bytes = buff.byteBuffer();
+		int len = bytes.remaining();
+		Assert.isTrue(ITEM_HEADER + len <= segmentSize - current.dataStart,
+		              "Item of " + len + " bytes doesn't fit in a segment of " + segmentSize + " bytes.");
+
+		Segment seg;
+		long c;
+		for(; ; ) {
+			seg = current;
+			if((c = seg.claim(len)) >= 0) {
+				break;
+			}
+			roll(seg);
+		}
+		seg.write(c, bytes);
+
+		long id = seg.base + claimedCount(c);
+		publish(id);
+
+		if(LOG.isTraceEnabled()) {
+			LOG.trace("Offered {} to {} at index {}, size {}", t, seg.file, id, size());
+		}
+		return id;
+	}
+
+	/**
+	 * Make the item with the given id visible once all the items before it are.
+	 */
+	private void publish(long id) {
+		while(tail.get() != id) {
+			Thread.yield();
+		}
+		tail.set(id + 1);
+		persistTail();
+	}
+
+	private boolean isSyncDue(long id) {
+		int every = syncPolicy.getMessages();
+		return every > 0 && (id + 1) % every == 0;
+	}
+
+	private void completeSynced() {
+		for(Long id : pendingSyncs.headMap(synced.get()).keySet()) {
+			Deferred<Long, Promise<Long>> ack = pendingSyncs.remove(id);
+			if(null != ack) {
+				ack.accept(id);
+			}
+		}
+	}
+
+	private void persistHead() {
+		meta.putLong(HEAD_OFFSET, head.get());
+	}
+
+	private void persistTail() {
+		meta.putLong(TAIL_OFFSET, tail.get());
+	}
+
+	/**
+	 * Delete the segments whose items have all been removed and read by every cursor.
+	 */
+	private void deleteConsumedSegments() {
+		long consumed = head.get();
+		for(QueueCursor<T> cursor : cursors.values()) {
+			consumed = Math.min(consumed, cursor.committed());
+		}
+		Map.Entry<Long, Segment> first;
+		Long next;
+		while(null != (first = segments.firstEntry())
+				&& null != (next = segments.higherKey(first.getKey()))
+				&& next <= consumed) {
+			if(segments.remove(first.getKey(), first.getValue())) {
+				first.getValue().delete();
+			}
+		}
+	}
+
+	private File[] segmentFiles() {
+		File[] files = dir.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(SEGMENT_SUFFIX);
+			}
+		});
+		if(null == files) {
+			return new File[0];
+		}
+		Arrays.sort(files);
+		return files;
+	}
+
+	private void deleteOnExit(File file) {
+		if(deleteOnExit) {
+			file.deleteOnExit();
+		}
+	}
+
+	private static long baseOf(File file) {
+		String name = file.getName();
+		return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	private static long pack(long count, int pos) {
+		return (count << 32) | (pos & 0xffffffffL);
+	}
+
+	private static long claimedCount(long claim) {
+		return claim >>> 32;
+	}
+
+	private static int claimedPosition(long claim) {
+		return (int)claim;
+	}
+
+	/**
+	 * A memory-mapped segment file: a header, the sparse index and the items, each preceded by its length.
+	 */
+	private static class Segment {
+		static final int CLOSED = Integer.MAX_VALUE;
+
+		final File             file;
+		final long             base;
+		final int              size;
+		final int              indexSlots;
+		final int              dataStart;
+		final RandomAccessFile raf;
+		final MappedByteBuffer map;
+		// the number of items claimed in the high 32 bits, the position of the next one in the low 32 bits
+		final AtomicLong       claim = new AtomicLong();
+
+		Segment(File file, long base, int size, boolean create) throws IOException {
+			this.file = file;
+			this.base = base;
+			this.raf = new RandomAccessFile(file, "rw");
+			this.size = (create ? size : (int)raf.length());
+			this.indexSlots = this.size / (ITEM_HEADER * INDEX_INTERVAL) + 1;
+			this.dataStart = (SEGMENT_HEADER + indexSlots * 4 + 7) & ~7;
+			this.map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, this.size);
+			if(create) {
+				map.putInt(0, MAGIC);
+				map.putLong(8, base);
+			} else if(map.getInt(0) != MAGIC || map.getLong(8) != base) {
+				throw new IOException(file + " is not a segment of item " + base);
+			}
+			claim.set(pack(0, dataStart));
+		}
+
+		/**
+		 * Claim room for an item of the given length.
+		 *
+		 * @return the claim made, or {@code -1} if the item doesn't fit
+		 */
+		long claim(int len) {
+			for(; ; ) {
+				long c = claim.get();
+				int pos = claimedPosition(c);
+				long count = claimedCount(c);
+				if(pos == CLOSED
+						|| (long)pos + ITEM_HEADER + len > size
+						|| count >= indexSlots * (long)INDEX_INTERVAL) {
+					return -1;
+				}
+				if(claim.compareAndSet(c, pack(count + 1, pos + ITEM_HEADER + len))) {
+					return c;
+				}
+			}
+		}
+
+		void write(long c, ByteBuffer bytes) {
+			int pos = claimedPosition(c);
+			int len = bytes.remaining();
+			ByteBuffer dst = map.duplicate();
+			dst.position(pos + ITEM_HEADER);
+			dst.put(bytes);
+			index(base + claimedCount(c), pos);
+			map.putInt(pos, len | WRITTEN);
+		}
+
+		void index(long id, int pos) {
+			long n = id - base;
+			if(n % INDEX_INTERVAL == 0) {
+				map.putInt(SEGMENT_HEADER + (int)(n / INDEX_INTERVAL) * 4, pos);
+			}
+		}
+
+		/**
+		 * Find the position of the item with the given id, from the closest index entry before it.
+		 *
+		 * @return the position, or {@code -1} if it isn't in this segment
+		 */
+		int positionOf(long id) {
+			long n = id - base;
+			if(n < 0 || n >= indexSlots * (long)INDEX_INTERVAL) {
+				return -1;
+			}
+			int pos = map.getInt(SEGMENT_HEADER + (int)(n / INDEX_INTERVAL) * 4);
+			if(pos < dataStart) {
+				return -1;
+			}
+			for(long i = n % INDEX_INTERVAL; i > 0; i--) {
+				int len = map.getInt(pos);
+				if((len & WRITTEN) == 0) {
+					return -1;
+				}
+				pos += ITEM_HEADER + (len & ~WRITTEN);
+			}
+			return pos;
+		}
+
+		Buffer read(long id) {
+			int pos = positionOf(id);
+			if(pos < 0) {
+				return null;
+			}
+			int len = map.getInt(pos);
+			if((len & WRITTEN) == 0) {
+				return null;
+			}
+			return view(pos, len & ~WRITTEN);
+		}
+
+		/**
+		 * Read up to {@code max} items from the item with the given id, stopping at the end of this segment.
+		 */
+		int read(long id, int max, List<Buffer> views) {
+			int pos = positionOf(id);
+			if(pos < 0) {
+				return 0;
+			}
+			int n = 0;
+			int len;
+			while(n < max && pos + ITEM_HEADER <= size && ((len = map.getInt(pos)) & WRITTEN) != 0) {
+				len &= ~WRITTEN;
+				views.add(view(pos, len));
+				pos += ITEM_HEADER + len;
+				n++;
+			}
+			return n;
+		}
+
+		Buffer view(int pos, int len) {
+			ByteBuffer bb = map.duplicate();
+			bb.limit(pos + ITEM_HEADER + len).position(pos + ITEM_HEADER);
+			return new Buffer(bb.slice());
+		}
+
+		void close() throws IOException {
+			raf.close();
+		}
+
+		void delete() {
+			try {
+				close();
+			} catch(IOException e) {
+				LOG.warn("Could not close " + file, e);
+			}
+			if(!file.delete() && LOG.isWarnEnabled()) {
+				LOG.warn("Could not delete {}", file);
+			}
+		}
+	}
+
+	private class SegmentOfferFunction implements Function<T, Long> {
+		@Override
+		public Long apply(T t) {
+			long id = append(t);
+			if(isSyncDue(id)) {
+				sync();
+			}
+			return id;
+		}
+	}
+
+	private class SegmentGetFunction implements Function<Long, T> {
+		@Override
+		public T apply(Long id) {
+			return decode(read(id));
+		}
+	}
+
+	private class SegmentRemoveFunction implements Supplier<T> {
+		@Override
+		public T get() {
+			for(; ; ) {
+				long id = head.get();
+				if(id >= tail.get()) {
+					return null;
+				}
+				// the item is decoded before it's removed: once the head has moved past it, its segment may be dropped,
+				// though a view taken before then stays readable
+				T obj = decode(read(id));
+				if(head.compareAndSet(id, id + 1)) {
+					persistHead();
+					deleteConsumedSegments();
+					return obj;
+				}
+			}
+		}
+	}
+
+}
@@ -16,6 +16,9 @@
 
 package reactor.queue;
 
+import reactor.core.composable.Promise;
+import reactor.core.composable.spec.Promises;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.AbstractQueue;
@@ -62,6 +65,23 @@ public class PersistentQueue<T> extends AbstractQueue<T> {
 		return (null != persistor.offer().apply(obj));
 	}
 
+	/**
+	 * Insert the given element into this queue and get an acknowledgement that is completed with its id once it has
+	 * been made durable. Only a {@link MappedSegmentQueuePersistor} tells when that is, according to its {@link
+	 * SyncPolicy}. The acknowledgement of other persistors is completed once the element has been persisted.
+	 *
+	 * @param obj
+	 * 		The element to insert.
+	 *
+	 * @return The acknowledgement of the element
+	 */
+	public Promise<Long> offerDurably(T obj) {
+		if(persistor instanceof MappedSegmentQueuePersistor) {
+			return ((MappedSegmentQueuePersistor<T>)persistor).offerDurably().apply(obj);
+		}
+		return Promises.success(persistor.offer().apply(obj)).get();
+	}
+
 	@Override
 	public T poll() {
 		if(size() == 0 || !persistor.hasNext()) {
@@ -75,8 +95,26 @@ public class PersistentQueue<T> extends AbstractQueue<T> {
 		if(size() == 0 || !persistor.hasNext()) {
 			return null;
 		}
-		Long lastId = persistor.lastId();
-		return persistor.get().apply(lastId);
+		return persistor.get().apply(persistor.firstId());
+	}
+
+	/**
+	 * Get the named cursor with which to read the elements of this queue without removing them, independently of other
+	 * readers. Only a queue persisted by a {@link MappedSegmentQueuePersistor} has cursors.
+	 *
+	 * @param name
+	 * 		The name of the cursor.
+	 *
+	 * @return The cursor, which is created if it doesn't exist yet
+	 *
+	 * @throws IllegalStateException
+	 * 		if the persistor of this queue has no cursors
+	 */
+	public QueueCursor<T> cursor(String name) {
+		if(!(persistor instanceof MappedSegmentQueuePersistor)) {
+			throw new IllegalStateException("A " + persistor.getClass().getSimpleName() + " has no cursors.");
+		}
+		return ((MappedSegmentQueuePersistor<T>)persistor).cursor(name);
 	}
 
 }
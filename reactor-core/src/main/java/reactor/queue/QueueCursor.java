@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.queue;
+
+import reactor.io.Buffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A named reader of the items of a {@link MappedSegmentQueuePersistor}, which reads them at its own pace without
+ * removing them, independently of the other cursors and of {@link MappedSegmentQueuePersistor#remove()}.
+ * <p>
+ * A cursor reads from its position, which is moved forward by every read. Its committed position is saved in a
+ * memory-mapped file, so that the cursor starts from it again after a restart or a {@link #reset()}. Segments are only
+ * deleted once every cursor has committed a position past their items, so the {@link Buffer Buffers} returned by {@link
+ * #pollBatch(int)}, which share the memory of the segments, must be used before the position they were read from is
+ * committed.
+ *
+ * @author Jon Brisbin
+ */
+@NotThreadSafe
+public class QueueCursor<T> {
+
+	private final MappedSegmentQueuePersistor<T> persistor;
+	private final String                         name;
+	private final int                            slot;
+	private volatile long committed;
+	private          long position;
+
+	QueueCursor(MappedSegmentQueuePersistor<T> persistor, String name, int slot, long committed) {
+		this.persistor = persistor;
+		this.name = name;
+		this.slot = slot;
+		this.committed = committed;
+		this.position = committed;
+	}
+
+	/**
+	 * Get the name of this cursor.
+	 *
+	 * @return The name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the id of the next item this cursor reads.
+	 *
+	 * @return The id of the next item
+	 */
+	public long position() {
+		return position;
+	}
+
+	/**
+	 * Get the id of the next item this cursor reads after a restart or a {@link #reset()}.
+	 *
+	 * @return The committed position
+	 */
+	public long committed() {
+		return committed;
+	}
+
+	/**
+	 * Are there items this cursor hasn't read yet?
+	 *
+	 * @return {@code true} if there are items to read, {@code false} otherwise
+	 */
+	public boolean hasNext() {
+		return position <= persistor.lastId();
+	}
+
+	/**
+	 * Read the next item.
+	 *
+	 * @return The next item, or {@code null} if this cursor has read them all
+	 */
+	public T poll() {
+		if(!hasNext()) {
+			return null;
+		}
+		T obj = persistor.get().apply(position);
+		position++;
+		return obj;
+	}
+
+	/**
+	 * Read the bytes of up to {@code max} items, without copying them.
+	 *
+	 * @param max
+	 * 		The maximum number of items to read.
+	 *
+	 * @return The bytes of each item read, which is empty if this cursor has read them all
+	 */
+	public List<Buffer> pollBatch(int max) {
+		List<Buffer> views = new ArrayList<Buffer>(Math.max(0, (int)Math.min(max, persistor.lastId() + 1 - position)));
+		position += persistor.read(position, max, views);
+		return views;
+	}
+
+	/**
+	 * Save the position of this cursor, so that it starts from it again after a restart.
+	 */
+	public void commit() {
+		committed = position;
+		persistor.commit(this);
+	}
+
+	/**
+	 * Move this cursor back to its committed position.
+	 */
+	public void reset() {
+		position = committed;
+	}
+
+	int getSlot() {
+		return slot;
+	}
+
+	@Override
+	public String toString() {
+		return "QueueCursor{" +
+				"name='" + name + '\'' +
+				", position=" + position +
+				", committed=" + committed +
+				'}';
+	}
+
+}
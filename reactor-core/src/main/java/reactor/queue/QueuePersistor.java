@@ -30,6 +30,13 @@ import javax.annotation.Nonnull;
  */
 public interface QueuePersistor<T> extends Iterable<T> {
 
+	/**
+	 * Get the id of the oldest item that hasn't been removed yet.
+	 *
+	 * @return id of the oldest item
+	 */
+	long firstId();
+
 	/**
 	 * Get the value of the last item to have been persisted.
 	 *
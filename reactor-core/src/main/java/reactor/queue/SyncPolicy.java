@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.queue;
+
+import reactor.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When a {@link MappedSegmentQueuePersistor} forces the items written to it out to disk: never, leaving it to the
+ * operating system, after every item, after every N items, every T milliseconds, or after N items but at least every T
+ * milliseconds. Whatever the policy, the items not synced yet are forced out to disk, and acknowledged, when the
+ * persistor is closed.
+ *
+ * @author Jon Brisbin
+ */
+public final class SyncPolicy {
+
+	/**
+	 * Never force items out to disk.
+	 */
+	public static final SyncPolicy NEVER = new SyncPolicy(0, 0);
+
+	/**
+	 * Force every item out to disk before acknowledging it.
+	 */
+	public static final SyncPolicy EVERY_WRITE = new SyncPolicy(1, 0);
+
+	private final int  messages;
+	private final long periodMillis;
+
+	private SyncPolicy(int messages, long periodMillis) {
+		this.messages = messages;
+		this.periodMillis = periodMillis;
+	}
+
+	/**
+	 * Force the items out to disk after every {@code messages} items. The last items written aren't synced, nor
+	 * acknowledged, until enough other items follow them or the persistor is closed: use {@link #everyMessages(int, long,
+	 * TimeUnit)} to bound how long they may wait.
+	 *
+	 * @param messages
+	 * 		The number of items between two syncs.
+	 *
+	 * @return The {@code SyncPolicy}
+	 */
+	public static SyncPolicy everyMessages(int messages) {
+		Assert.isTrue(messages > 0, "Number of messages must be greater than 0.");
+		return (messages == 1 ? EVERY_WRITE : new SyncPolicy(messages, 0));
+	}
+
+	/**
+	 * Force the items out to disk after every {@code messages} items, and periodically so that an item waits at most
+	 * about {@code maxDelay} to be synced when fewer items follow it.
+	 *
+	 * @param messages
+	 * 		The number of items between two syncs.
+	 * @param maxDelay
+	 * 		The time between two periodic syncs.
+	 * @param timeUnit
+	 * 		The unit of the {@code maxDelay}.
+	 *
+	 * @return The {@code SyncPolicy}
+	 */
+	public static SyncPolicy everyMessages(int messages, long maxDelay, TimeUnit timeUnit) {
+		Assert.isTrue(messages > 0, "Number of messages must be greater than 0.");
+		long periodMillis = timeUnit.toMillis(maxDelay);
+		Assert.isTrue(periodMillis > 0, "Maximum delay must be at least a millisecond.");
+		return new SyncPolicy(messages, periodMillis);
+	}
+
+	/**
+	 * Force the items out to disk periodically.
+	 *
+	 * @param period
+	 * 		The time between two syncs.
+	 * @param timeUnit
+	 * 		The unit of the {@code period}.
+	 *
+	 * @return The {@code SyncPolicy}
+	 */
+	public static SyncPolicy every(long period, TimeUnit timeUnit) {
+		long periodMillis = timeUnit.toMillis(period);
+		Assert.isTrue(periodMillis > 0, "Period must be at least a millisecond.");
+		return new SyncPolicy(0, periodMillis);
+	}
+
+	/**
+	 * Get the number of items after which to sync.
+	 *
+	 * @return The number of items, or {@code 0} if syncs aren't triggered by writes
+	 */
+	public int getMessages() {
+		return messages;
+	}
+
+	/**
+	 * Get the time between two syncs.
+	 *
+	 * @return The period in milliseconds, or {@code 0} if syncs aren't periodic
+	 */
+	public long getPeriodMillis() {
+		return periodMillis;
+	}
+
+	/**
+	 * Whether this policy ever forces items out to disk.
+	 *
+	 * @return {@literal true} unless this is {@link #NEVER}
+	 */
+	public boolean isSyncing() {
+		return messages > 0 || periodMillis > 0;
+	}
+
+	@Override
+	public String toString() {
+		return "SyncPolicy{" +
+				"messages=" + messages +
+				", periodMillis=" + periodMillis +
+				'}';
+	}
+
+}
@@ -5,12 +5,17 @@ import reactor.function.Supplier;
 import reactor.io.Buffer;
 import reactor.io.encoding.Codec;
 import reactor.queue.IndexedChronicleQueuePersistor;
+import reactor.queue.MappedSegmentQueuePersistor;
 import reactor.queue.PersistentQueue;
+import reactor.queue.SyncPolicy;
+import reactor.timer.Timer;
 
 import java.io.IOException;
 
 /**
- * Helper spec to create a {@link PersistentQueue} instance.
+ * Helper spec to create a {@link PersistentQueue} instance. The queue is persisted by an {@link
+ * IndexedChronicleQueuePersistor}, unless a {@link SyncPolicy} or a segment size is given, in which case it's persisted
+ * by a {@link MappedSegmentQueuePersistor}.
  *
  * @author Jon Brisbin
  */
@@ -21,6 +26,10 @@ public class PersistentQueueSpec<T> implements Supplier<PersistentQueue<T>> {
 	private boolean deleteOnExit = false;
 	private Codec<Buffer, T, T> codec;
 	private ChronicleConfig config = ChronicleConfig.DEFAULT.clone();
+	private boolean    mappedSegments = false;
+	private int        segmentSize    = MappedSegmentQueuePersistor.DEFAULT_SEGMENT_SIZE;
+	private SyncPolicy syncPolicy     = SyncPolicy.NEVER;
+	private Timer      timer;
 
 	public PersistentQueueSpec<T> codec(Codec<Buffer, T, T> codec) {
 		this.codec = codec;
@@ -72,9 +81,60 @@ public class PersistentQueueSpec<T> implements Supplier<PersistentQueue<T>> {
 		return this;
 	}
 
+	/**
+	 * Persist the queue in memory-mapped segment files of the given size.
+	 *
+	 * @param segmentSize
+	 * 		The size of a segment file, in bytes.
+	 *
+	 * @return {@literal this}
+	 */
+	public PersistentQueueSpec<T> segmentSize(int segmentSize) {
+		this.mappedSegments = true;
+		this.segmentSize = segmentSize;
+		return this;
+	}
+
+	/**
+	 * Persist the queue in memory-mapped segment files, forced out to disk according to the given {@link SyncPolicy}.
+	 *
+	 * @param syncPolicy
+	 * 		When to force the elements out to disk.
+	 *
+	 * @return {@literal this}
+	 */
+	public PersistentQueueSpec<T> syncPolicy(SyncPolicy syncPolicy) {
+		this.mappedSegments = true;
+		this.syncPolicy = syncPolicy;
+		return this;
+	}
+
+	/**
+	 * Run the periodic syncs of a {@link SyncPolicy#every(long, java.util.concurrent.TimeUnit)} policy on the given
+	 * {@link Timer} rather than on a timer of the queue's own.
+	 *
+	 * @param timer
+	 * 		The {@link Timer} to use.
+	 *
+	 * @return {@literal this}
+	 */
+	public PersistentQueueSpec<T> timer(Timer timer) {
+		this.timer = timer;
+		return this;
+	}
+
 	@Override
 	public PersistentQueue<T> get() {
 		try {
+			if(mappedSegments) {
+				return new PersistentQueue<T>(new MappedSegmentQueuePersistor<T>(basePath,
+				                                                                 codec,
+				                                                                 clearOnStart,
+				                                                                 deleteOnExit,
+				                                                                 segmentSize,
+				                                                                 syncPolicy,
+				                                                                 timer));
+			}
 			return new PersistentQueue<T>(new IndexedChronicleQueuePersistor<T>(basePath,
 																																					codec,
 																																					clearOnStart,
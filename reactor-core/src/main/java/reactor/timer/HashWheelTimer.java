@@ -1,16 +1,21 @@
 package reactor.timer;
 
-import com.lmax.disruptor.EventFactory;
-import com.lmax.disruptor.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import reactor.event.lifecycle.Pausable;
 import reactor.event.registry.Registration;
 import reactor.event.selector.Selector;
 import reactor.function.Consumer;
+import reactor.function.support.CancelConsumerException;
 import reactor.support.NamedDaemonThreadFactory;
 import reactor.util.Assert;
 
-import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -30,18 +35,45 @@ import java.util.concurrent.atomic.AtomicLong;
  * Hash Wheel timer is an approximated timer that allows performant execution of
  * larger amount of tasks with better performance compared to traditional scheduling.
  *
+ * This implementation uses hierarchical wheels: a task due further away than a wheel
+ * covers goes to an overflow wheel whose ticks are as long as the whole wheel below it,
+ * and moves down to the lower wheel once its bucket expires. Buckets are doubly-linked
+ * lists threaded through the registrations themselves, so that scheduling and cancelling
+ * a task are O(1), and a cancelled task is unlinked right away. Only the buckets holding
+ * tasks are kept in a queue ordered by expiration, so a tick never visits a task that
+ * isn't due, and a late tick expires every bucket that has become due in one go. The
+ * tasks found due are handed to the executor as one batch, which may be a
+ * {@link reactor.event.dispatch.Dispatcher}.
+ *
  * @author Oleksandr Petrov
  */
 public class HashWheelTimer implements Timer {
 
 	public static final  int    DEFAULT_WHEEL_SIZE = 512;
 	private static final String DEFAULT_TIMER_NAME = "hash-wheel-timer";
+	private static final Logger LOG                = LoggerFactory.getLogger(HashWheelTimer.class);
 
-	private final RingBuffer<Set<TimerRegistration>> wheel;
-	private final int                                resolution;
-	private final Thread                             loop;
-	private final Executor                           executor;
-	private final WaitStrategy                       waitStrategy;
+	// registrations waiting to be placed in the wheels by the timer thread
+	private final Queue<TimerRegistration> pending = new ConcurrentLinkedQueue<TimerRegistration>();
+	// the buckets holding registrations, by expiration; only used by the timer thread
+	private final PriorityQueue<Bucket>    buckets = new PriorityQueue<Bucket>(64, new Comparator<Bucket>() {
+		@Override
+		public int compare(Bucket b1, Bucket b2) {
+			long e1 = b1.getExpiration();
+			long e2 = b2.getExpiration();
+			return (e1 < e2 ? -1 : (e1 == e2 ? 0 : 1));
+		}
+	});
+
+	private final Wheel        wheel;
+	private final int          wheelSize;
+	private final int          resolution;
+	private final Thread       loop;
+	private final Executor     executor;
+	private final WaitStrategy waitStrategy;
+	// reused by the timer thread
+	private final List<TimerRegistration> expired = new ArrayList<TimerRegistration>();
+	private List<TimerRegistration> due = new ArrayList<TimerRegistration>();
 
 	/**
 	 * Create a new {@code HashWheelTimer} using the given with default resolution of 100 milliseconds and
@@ -69,8 +101,8 @@ public class HashWheelTimer implements Timer {
 	 * @param res
 	 * 		resolution of this timer in milliseconds
 	 * @param wheelSize
-	 * 		size of the Ring Buffer supporting the Timer, the larger the wheel, the less the lookup time is
-	 * 		for sparse timeouts. Sane default is 512.
+	 * 		number of buckets of each wheel, the larger the wheel, the less often tasks due
+	 * 		later move down from an overflow wheel. Sane default is 512.
 	 * @param waitStrategy
 	 * 		strategy for waiting for the next tick
 	 */
@@ -87,58 +119,38 @@ public class HashWheelTimer implements Timer {
 	 * @param res
 	 * 		resolution of this timer in milliseconds
 	 * @param wheelSize
-	 * 		size of the Ring Buffer supporting the Timer, the larger the wheel, the less the lookup time is
-	 * 		for sparse timeouts. Sane default is 512.
+	 * 		number of buckets of each wheel, the larger the wheel, the less often tasks due
+	 * 		later move down from an overflow wheel. Sane default is 512.
 	 * @param strategy
 	 * 		strategy for waiting for the next tick
 	 * @param exec
 	 * 		Executor instance to submit tasks to
 	 */
 	public HashWheelTimer(String name, int res, int wheelSize, WaitStrategy strategy, Executor exec) {
+		Assert.isTrue(res > 0, "Resolution must be greater than 0.");
+		Assert.isTrue(wheelSize > 1, "Wheel size must be greater than 1.");
 		this.waitStrategy = strategy;
-
-		this.wheel = RingBuffer.createSingleProducer(new EventFactory<Set<TimerRegistration>>() {
-			@Override
-			public Set<TimerRegistration> newInstance() {
-				return new ConcurrentSkipListSet<TimerRegistration>();
-			}
-		}, wheelSize);
-
 		this.resolution = res;
+		this.wheelSize = wheelSize;
+		this.wheel = new Wheel(res, wheelSize, System.currentTimeMillis());
+
 		this.loop = new NamedDaemonThreadFactory(name).newThread(new Runnable() {
 			@Override
 			public void run() {
 				long deadline = System.currentTimeMillis();
 
 				while(true) {
-					Set<TimerRegistration> registrations = wheel.get(wheel.getCursor());
+					long now = System.currentTimeMillis();
+					advance(now);
 
-					for(TimerRegistration r : registrations) {
-						if(r.isCancelled()) {
-							registrations.remove(r);
-						} else if(r.ready()) {
-							executor.execute(r);
-							registrations.remove(r);
-
-							if(!r.isCancelAfterUse()) {
-								reschedule(r);
-							}
-						} else if(r.isPaused()) {
-							reschedule(r);
-						} else {
-							r.decrement();
-						}
-					}
-
-					deadline += resolution;
+					// when the timer is late, the ticks it missed have all been expired at once
+					deadline = Math.max(deadline, now - resolution) + resolution;
 
 					try {
 						waitStrategy.waitUntil(deadline);
 					} catch(InterruptedException e) {
 						return;
 					}
-
-					wheel.publish(wheel.next());
 				}
 			}
 		});
@@ -159,7 +171,7 @@ public class HashWheelTimer implements Timer {
 	                                                            TimeUnit timeUnit,
 	                                                            long delayInMilliseconds) {
 		Assert.isTrue(!loop.isInterrupted(), "Cannot submit tasks to this timer as it has been cancelled.");
-		return schedule(TimeUnit.MILLISECONDS.convert(period, timeUnit), delayInMilliseconds, consumer);
+		return schedule(TimeUnit.MILLISECONDS.convert(period, timeUnit), delayInMilliseconds, consumer, false);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -169,7 +181,7 @@ public class HashWheelTimer implements Timer {
 	                                                          TimeUnit timeUnit) {
 		Assert.isTrue(!loop.isInterrupted(), "Cannot submit tasks to this timer as it has been cancelled.");
 		long ms = TimeUnit.MILLISECONDS.convert(period, timeUnit);
-		return schedule(ms, ms, consumer).cancelAfterUse();
+		return schedule(ms, ms, consumer, true);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -183,43 +195,32 @@ public class HashWheelTimer implements Timer {
 	public TimerRegistration<? extends Consumer<Long>> schedule(Consumer<Long> consumer,
 	                                                            long period,
 	                                                            TimeUnit timeUnit) {
-		return schedule(TimeUnit.MILLISECONDS.convert(period, timeUnit), 0, consumer);
+		return schedule(TimeUnit.MILLISECONDS.convert(period, timeUnit), 0, consumer, false);
 	}
 
 	@SuppressWarnings("unchecked")
 	private TimerRegistration<? extends Consumer<Long>> schedule(long recurringTimeout,
 	                                                             long firstDelay,
-	                                                             Consumer<Long> consumer) {
-		Assert.isTrue(recurringTimeout >= resolution,
+	                                                             Consumer<Long> consumer,
+	                                                             boolean once) {
+		Assert.isTrue(once || recurringTimeout >= resolution,
 		              "Cannot schedule tasks for amount of time less than timer precision.");
 
-		long offset = recurringTimeout / resolution;
-		long rounds = offset / wheel.getBufferSize();
-
-		long firstFireOffset = firstDelay / resolution;
-		long firstFireRounds = firstFireOffset / wheel.getBufferSize();
-
-		TimerRegistration r = new TimerRegistration(firstFireRounds, offset, consumer, rounds);
-		wheel.get(wheel.getCursor() + firstFireOffset + 1).add(r);
+		TimerRegistration r = new TimerRegistration(roundUp(System.currentTimeMillis() + firstDelay),
+		                                            recurringTimeout,
+		                                            consumer);
+		if(once) {
+			r.cancelAfterUse();
+		}
+		pending.add(r);
 		return r;
 	}
 
-	/**
-	 * Reschedule a {@link TimerRegistration}  for the next fire
-	 *
-	 * @param registration
-	 */
-	private void reschedule(TimerRegistration registration) {
-		registration.reset();
-		wheel.get(wheel.getCursor() + registration.getOffset()).add(registration);
-	}
-
 	/**
 	 * Start the Timer
 	 */
 	public void start() {
 		this.loop.start();
-		wheel.publish(0);
 	}
 
 	/**
@@ -229,6 +230,202 @@ public class HashWheelTimer implements Timer {
 		this.loop.interrupt();
 	}
 
+	/**
+	 * Place the new registrations, expire the buckets that are due and run the registrations found due. Only called by
+	 * the timer thread.
+	 */
+	private void advance(long now) {
+		TimerRegistration r;
+		while(null != (r = pending.poll())) {
+			place(r, now);
+		}
+
+		Bucket b;
+		while(null != (b = buckets.peek()) && b.getExpiration() <= now) {
+			buckets.poll();
+			wheel.advanceClock(b.getExpiration());
+			b.flush(expired);
+			for(TimerRegistration e : expired) {
+				place(e, now);
+			}
+			expired.clear();
+		}
+		wheel.advanceClock(now);
+
+		if(!due.isEmpty()) {
+			final List<TimerRegistration> batch = due;
+			due = new ArrayList<TimerRegistration>();
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					for(TimerRegistration r : batch) {
+						if(r.isCancelled()) {
+							continue;
+						}
+						try {
+							r.run();
+						} catch(CancelConsumerException cce) {
+							r.cancel();
+						} catch(Throwable t) {
+							LOG.error(t.getMessage(), t);
+						} finally {
+							if(r.isCancelAfterUse()) {
+								r.cancel();
+							}
+						}
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Put the given registration in the bucket of the wheel that covers its deadline, or add it to the batch to run if
+	 * it's due.
+	 */
+	private void place(TimerRegistration r, long now) {
+		if(r.isCancelled() || wheel.add(r)) {
+			return;
+		}
+		if(!r.isPaused() && r.batch != due) {
+			r.batch = due;
+			due.add(r);
+			if(r.isCancelAfterUse()) {
+				return;
+			}
+		}
+		// the next deadline is after now, even when the timer is late, so that a registration isn't expired again by
+		// the same advance and run several times in a row
+		r.deadline = roundUp(Math.max(r.deadline + r.period, now - (now % resolution) + resolution));
+		wheel.add(r);
+	}
+
+	private long roundUp(long time) {
+		long rem = time % resolution;
+		return (rem == 0 ? time : time + resolution - rem);
+	}
+
+	/**
+	 * A wheel of buckets each covering a tick, which passes the registrations due after the whole wheel on to an
+	 * overflow wheel whose tick is as long as this wheel.
+	 */
+	private class Wheel {
+		private final long     tick;
+		private final long     interval;
+		private final Bucket[] wheelBuckets;
+		// the start of the current tick
+		private long  currentTime;
+		private Wheel overflow;
+
+		Wheel(long tick, int size, long startTime) {
+			this.tick = tick;
+			this.interval = tick * size;
+			this.wheelBuckets = new Bucket[size];
+			for(int i = 0; i < size; i++) {
+				wheelBuckets[i] = new Bucket();
+			}
+			this.currentTime = startTime - (startTime % tick);
+		}
+
+		/**
+		 * Add the given registration to the bucket covering its deadline.
+		 *
+		 * @return {@literal false} if the registration is due
+		 */
+		boolean add(TimerRegistration r) {
+			long deadline = r.deadline;
+			if(deadline < currentTime + tick) {
+				return false;
+			}
+			if(deadline < currentTime + interval) {
+				long virtualId = deadline / tick;
+				Bucket b = wheelBuckets[(int)(virtualId % wheelBuckets.length)];
+				b.add(r);
+				if(b.setExpiration(virtualId * tick)) {
+					buckets.add(b);
+				}
+				return true;
+			}
+			if(null == overflow) {
+				overflow = new Wheel(interval, wheelBuckets.length, currentTime);
+			}
+			return overflow.add(r);
+		}
+
+		void advanceClock(long time) {
+			if(time >= currentTime + tick) {
+				currentTime = time - (time % tick);
+				if(null != overflow) {
+					overflow.advanceClock(currentTime);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A circular doubly-linked list of the registrations due in the same tick, threaded through the registrations. The
+	 * timer thread adds and flushes registrations, and any thread can unlink a registration it cancels.
+	 */
+	private static class Bucket {
+		private final TimerRegistration root       = new TimerRegistration(0, 0, null);
+		private final AtomicLong        expiration = new AtomicLong(-1);
+
+		Bucket() {
+			root.prev = root;
+			root.next = root;
+		}
+
+		long getExpiration() {
+			return expiration.get();
+		}
+
+		/**
+		 * Set the expiration of this bucket.
+		 *
+		 * @return {@literal true} if it changed, which means this bucket has to be queued again
+		 */
+		boolean setExpiration(long exp) {
+			return expiration.getAndSet(exp) != exp;
+		}
+
+		synchronized void add(TimerRegistration r) {
+			r.next = root;
+			r.prev = root.prev;
+			root.prev.next = r;
+			root.prev = r;
+			r.bucket = this;
+		}
+
+		synchronized boolean remove(TimerRegistration r) {
+			if(r.bucket != this) {
+				return false;
+			}
+			r.prev.next = r.next;
+			r.next.prev = r.prev;
+			r.next = null;
+			r.prev = null;
+			r.bucket = null;
+			return true;
+		}
+
+		/**
+		 * Move all the registrations of this bucket to the given list and empty it.
+		 */
+		synchronized void flush(List<TimerRegistration> into) {
+			TimerRegistration r = root.next;
+			while(r != root) {
+				TimerRegistration next = r.next;
+				r.next = null;
+				r.prev = null;
+				r.bucket = null;
+				into.add(r);
+				r = next;
+			}
+			root.next = root;
+			root.prev = root;
+			expiration.set(-1);
+		}
+	}
 
 	/**
 	 * Timer Registration
@@ -237,7 +434,6 @@ public class HashWheelTimer implements Timer {
 	 * 		type of the Timer Registration Consumer
 	 */
 	public static class TimerRegistration<T extends Consumer<Long>> implements Runnable,
-	                                                                           Comparable,
 	                                                                           Pausable,
 	                                                                           Registration {
 
@@ -246,47 +442,37 @@ public class HashWheelTimer implements Timer {
 		public static int STATUS_READY     = 0;
 
 		private final T             delegate;
-		private final long          rescheduleRounds;
-		private final long          scheduleOffset;
-		private final AtomicLong    rounds;
+		private final long          period;
 		private final AtomicInteger status;
 		private final AtomicBoolean cancelAfterUse;
 
+		// the time the registration is next due, only used by the timer thread
+		private          long              deadline;
+		// the last batch the registration was added to, only used by the timer thread
+		private          List              batch;
+		// the links of the bucket the registration is in, guarded by the bucket
+		private volatile Bucket            bucket;
+		private          TimerRegistration prev;
+		private          TimerRegistration next;
+
 		/**
-		 * Creates a new Timer Registration with given {@data rounds}, {@data offset} and {@data delegate}.
+		 * Creates a new Timer Registration with given {@data deadline}, {@data period} and {@data delegate}.
 		 *
-		 * @param rounds
-		 * 		amount of rounds the Registration should go through until it's elapsed
-		 * @param offset
-		 * 		offset of in the Ring Buffer for rescheduling
+		 * @param deadline
+		 * 		time in milliseconds at which the Registration is first due
+		 * @param period
+		 * 		time in milliseconds between two runs of the Registration
 		 * @param delegate
 		 * 		delegate that will be ran whenever the timer is elapsed
 		 */
-		public TimerRegistration(long rounds, long offset, T delegate, long rescheduleRounds) {
-			this.rescheduleRounds = rescheduleRounds;
-			this.scheduleOffset = offset;
+		public TimerRegistration(long deadline, long period, T delegate) {
+			this.deadline = deadline;
+			this.period = period;
 			this.delegate = delegate;
-			this.rounds = new AtomicLong(rounds);
 			this.status = new AtomicInteger(STATUS_READY);
 			this.cancelAfterUse = new AtomicBoolean(false);
 		}
 
-		/**
-		 * Decrement an amount of runs Registration has to run until it's elapsed
-		 */
-		public void decrement() {
-			rounds.decrementAndGet();
-		}
-
-		/**
-		 * Check whether the current Registration is ready for execution
-		 *
-		 * @return whether or not the current Registration is ready for execution
-		 */
-		public boolean ready() {
-			return status.get() == STATUS_READY && rounds.get() == 0;
-		}
-
 		/**
 		 * Run the delegate of the current Registration
 		 */
@@ -296,20 +482,17 @@ public class HashWheelTimer implements Timer {
 		}
 
 		/**
-		 * Reset the Registration
-		 */
-		public void reset() {
-			this.status.set(STATUS_READY);
-			this.rounds.set(rescheduleRounds);
-		}
-
-		/**
-		 * Cancel the registration
+		 * Cancel the registration, removing it from the timer right away
 		 *
 		 * @return current Registration
 		 */
 		public Registration cancel() {
 			this.status.set(STATUS_CANCELLED);
+			Bucket b;
+			// the timer thread may be moving the registration to another bucket
+			while(null != (b = bucket) && !b.remove(this)) {
+				Thread.yield();
+			}
 			return this;
 		}
 
@@ -355,16 +538,6 @@ public class HashWheelTimer implements Timer {
 			return this;
 		}
 
-		/**
-		 * Get the offset of the Registration relative to the current Ring Buffer position
-		 * to make it fire timely.
-		 *
-		 * @return the offset of current Registration
-		 */
-		private long getOffset() {
-			return this.scheduleOffset;
-		}
-
 		@Override
 		public Selector getSelector() {
 			return null;
@@ -372,7 +545,7 @@ public class HashWheelTimer implements Timer {
 
 		@Override
 		public Object getObject() {
-			return null;
+			return delegate;
 		}
 
 		/**
@@ -383,7 +556,7 @@ public class HashWheelTimer implements Timer {
 		 * @return {@literal this}
 		 */
 		public TimerRegistration<T> cancelAfterUse() {
-			cancelAfterUse.set(false);
+			cancelAfterUse.set(true);
 			return this;
 		}
 
@@ -392,26 +565,16 @@ public class HashWheelTimer implements Timer {
 			return this.cancelAfterUse.get();
 		}
 
-		@Override
-		public int compareTo(Object o) {
-			TimerRegistration other = (TimerRegistration)o;
-			if(rounds.get() == other.rounds.get()) {
-				return other == this ? 0 : -1;
-			} else {
-				return Long.compare(rounds.get(), other.rounds.get());
-			}
-		}
-
 		@Override
 		public String toString() {
-			return String.format("HashWheelTimer { Rounds left: %d, Status: %d }", rounds.get(), status.get());
+			return String.format("HashWheelTimer { Period: %d, Status: %d }", period, status.get());
 		}
 	}
 
 	@Override
 	public String toString() {
 		return String.format("HashWheelTimer { Buffer Size: %d, Resolution: %d }",
-		                     wheel.getBufferSize(),
+		                     wheelSize,
 		                     resolution);
 	}
 
@@ -1,23 +1,17 @@
 package reactor.timer;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import reactor.event.registry.CachingRegistry;
+import reactor.event.dispatch.Dispatcher;
+import reactor.event.dispatch.SynchronousDispatcher;
 import reactor.event.registry.Registration;
-import reactor.event.registry.Registry;
-import reactor.event.selector.HeaderResolver;
-import reactor.event.selector.Selector;
 import reactor.function.Consumer;
-import reactor.function.support.CancelConsumerException;
-import reactor.function.support.SingleUseConsumer;
-import reactor.support.NamedDaemonThreadFactory;
 import reactor.util.Assert;
 
 import java.util.concurrent.TimeUnit;
 
 /**
- * A hashed wheel timer implementation that uses a {@link reactor.event.registry.Registry} and custom {@link
- * reactor.event.selector.Selector Selectors} to determine when tasks should be executed.
+ * A hashed wheel timer implementation that keeps its tasks in the hierarchical wheels of a {@link HashWheelTimer}, and
+ * hands the tasks due at each tick to a {@link Dispatcher} as one batch. The memory it uses is bounded by the number of
+ * tasks scheduled, however long it runs.
  * <p>
  * A {@code SimpleHashWheelTimer} has two variations for scheduling tasks: {@link #schedule(reactor.function.Consumer,
  * long,
@@ -52,11 +46,7 @@ import java.util.concurrent.TimeUnit;
  */
 public class SimpleHashWheelTimer implements Timer {
 
-	private static final Logger LOG = LoggerFactory.getLogger(SimpleHashWheelTimer.class);
-
-	private final Registry<Consumer<Long>> tasks = new CachingRegistry<Consumer<Long>>();
-	private final int    resolution;
-	private final Thread loop;
+	private final HashWheelTimer wheel;
 
 	/**
 	 * Create a new {@code SimpleHashWheelTimer} using the default resolution of 50ms.
@@ -68,51 +58,36 @@ public class SimpleHashWheelTimer implements Timer {
 	/**
 	 * Create a new {@code SimpleHashWheelTimer} using the given timer resolution. All times will rounded up to the
 	 * closest
-	 * multiple of this resolution.
+	 * multiple of this resolution. Tasks are run by the timer thread.
 	 *
 	 * @param resolution
 	 * 		the resolution of this timer, in milliseconds
 	 */
-	public SimpleHashWheelTimer(final int resolution) {
-		this.resolution = resolution;
+	public SimpleHashWheelTimer(int resolution) {
+		this(resolution, new SynchronousDispatcher());
+	}
 
-		this.loop = new NamedDaemonThreadFactory("hash-wheel-timer").newThread(
-				new Runnable() {
-					@Override
-					public void run() {
-						while(!Thread.currentThread().isInterrupted()) {
-							long now = now(resolution);
-							for(Registration<? extends Consumer<Long>> reg : tasks.select(now)) {
-								try {
-									if(reg.isCancelled() || reg.isPaused()) {
-										continue;
-									}
-									reg.getObject().accept(now);
-								} catch(CancelConsumerException cce) {
-									reg.cancel();
-								} catch(Throwable t) {
-									LOG.error(t.getMessage(), t);
-								} finally {
-									if(reg.isCancelAfterUse()) {
-										reg.cancel();
-									}
-								}
-							}
-							try {
-								Thread.sleep(resolution);
-							} catch(InterruptedException e) {
-								Thread.currentThread().interrupt();
-							}
-						}
-					}
-				}
-		);
-		this.loop.start();
+	/**
+	 * Create a new {@code SimpleHashWheelTimer} using the given timer resolution, which dispatches the tasks due at each
+	 * tick to the given {@link Dispatcher}.
+	 *
+	 * @param resolution
+	 * 		the resolution of this timer, in milliseconds
+	 * @param dispatcher
+	 * 		the {@link Dispatcher} to run the tasks on
+	 */
+	public SimpleHashWheelTimer(int resolution, Dispatcher dispatcher) {
+		Assert.notNull(dispatcher, "Dispatcher cannot be null.");
+		this.wheel = new HashWheelTimer("hash-wheel-timer",
+		                                resolution,
+		                                HashWheelTimer.DEFAULT_WHEEL_SIZE,
+		                                new HashWheelTimer.SleepWait(),
+		                                dispatcher);
 	}
 
 	@Override
 	public long getResolution() {
-		return resolution;
+		return wheel.getResolution();
 	}
 
 	@Override
@@ -120,11 +95,9 @@ public class SimpleHashWheelTimer implements Timer {
 	                                                       long period,
 	                                                       TimeUnit timeUnit,
 	                                                       long delayInMilliseconds) {
-		Assert.isTrue(!loop.isInterrupted(), "Cannot submit tasks to this timer as it has been cancelled.");
-		return tasks.register(
-				new PeriodSelector(TimeUnit.MILLISECONDS.convert(period, timeUnit), delayInMilliseconds, resolution),
-				consumer
-		);
+		// a period shorter than the resolution means every tick
+		long ms = Math.max(TimeUnit.MILLISECONDS.convert(period, timeUnit), wheel.getResolution());
+		return wheel.schedule(consumer, ms, TimeUnit.MILLISECONDS, delayInMilliseconds);
 	}
 
 	@Override
@@ -138,58 +111,18 @@ public class SimpleHashWheelTimer implements Timer {
 	public Registration<? extends Consumer<Long>> submit(Consumer<Long> consumer,
 	                                                     long delay,
 	                                                     TimeUnit timeUnit) {
-		Assert.isTrue(!loop.isInterrupted(), "Cannot submit tasks to this timer as it has been cancelled.");
-		long ms = TimeUnit.MILLISECONDS.convert(delay, timeUnit);
-		return tasks.register(
-				new PeriodSelector(ms, ms, resolution),
-				new SingleUseConsumer<Long>(consumer)
-		).cancelAfterUse();
+		return wheel.submit(consumer, delay, timeUnit);
 	}
 
 	@Override
 	public Registration<? extends Consumer<Long>> submit(Consumer<Long> consumer) {
-		return submit(consumer, resolution, TimeUnit.MILLISECONDS);
+		return submit(consumer, getResolution(), TimeUnit.MILLISECONDS);
 	}
 
 
 	@Override
 	public void cancel() {
-		this.loop.interrupt();
-	}
-
-	private static long now(int resolution) {
-		return (long)(Math.ceil(System.currentTimeMillis() / resolution) * resolution);
-	}
-
-	private static class PeriodSelector implements Selector {
-		private final long period;
-		private final long delay;
-		private final long createdMillis;
-		private final int  resolution;
-
-		private PeriodSelector(long period, long delay, int resolution) {
-			this.period = period;
-			this.delay = delay;
-			this.resolution = resolution;
-			this.createdMillis = now(resolution);
-		}
-
-		@Override
-		public Object getObject() {
-			return period;
-		}
-
-		@Override
-		public boolean matches(Object key) {
-			long now = (Long)key;
-			long period = (long)(Math.ceil((now - createdMillis) / resolution) * resolution);
-			return period >= delay && period % this.period == 0;
-		}
-
-		@Override
-		public HeaderResolver getHeaderResolver() {
-			return null;
-		}
+		wheel.cancel();
 	}
 
 }
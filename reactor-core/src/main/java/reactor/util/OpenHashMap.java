@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hash map using open addressing with linear probing. Keys are compared by equality, their hash codes are kept in a
+ * primitive array so a lookup neither boxes the hash nor allocates an entry. {@code null} keys and values are not
+ * supported.
+ * <p>
+ * This class is not thread-safe. A map that is not modified after having been {@link #copy() copied} and safely
+ * published can be read concurrently.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+public class OpenHashMap<K, V> {
+
+	private Object[] keys;
+	private Object[] values;
+	private int[]    hashes;
+	private int      size;
+
+	/**
+	 * Create a new, empty {@code OpenHashMap}.
+	 */
+	public OpenHashMap() {
+		this(16);
+	}
+
+	/**
+	 * Create a new, empty {@code OpenHashMap} with room for {@code expectedSize} entries.
+	 *
+	 * @param expectedSize The number of entries the map is expected to hold
+	 */
+	public OpenHashMap(int expectedSize) {
+		int capacity = 2;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		this.keys = new Object[capacity];
+		this.values = new Object[capacity];
+		this.hashes = new int[capacity];
+	}
+
+	/**
+	 * Get the value mapped to a key equal to the given {@code key}.
+	 *
+	 * @param key The key to look up
+	 * @return The value or {@code null} if there's no mapping for the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		int i = indexOf(key, spread(key.hashCode()));
+		return (i < 0 ? null : (V) values[i]);
+	}
+
+	/**
+	 * Map the given {@code key} to the given {@code value}.
+	 *
+	 * @param key   The key
+	 * @param value The value
+	 * @return The value previously mapped to the key or {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		Assert.notNull(key, "Key cannot be null.");
+		Assert.notNull(value, "Value cannot be null.");
+		int hash = spread(key.hashCode());
+		int i = indexOf(key, hash);
+		if (i >= 0) {
+			V old = (V) values[i];
+			values[i] = value;
+			return old;
+		}
+		if ((size + 1) * 2 > keys.length) {
+			resize(keys.length << 1);
+		}
+		insert(key, value, hash);
+		size++;
+		return null;
+	}
+
+	/**
+	 * Remove the mapping for the given {@code key}.
+	 *
+	 * @param key The key
+	 * @return The value that was mapped to the key or {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(Object key) {
+		int i = indexOf(key, spread(key.hashCode()));
+		if (i < 0) {
+			return null;
+		}
+		V old = (V) values[i];
+		int mask = keys.length - 1;
+		// shift the following entries of the probe sequence back so that lookups don't stop at the freed slot
+		int j = i;
+		for (; ; ) {
+			j = (j + 1) & mask;
+			if (null == keys[j]) {
+				break;
+			}
+			int home = hashes[j] & mask;
+			if ((j > i && (home <= i || home > j)) || (j < i && home <= i && home > j)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				hashes[i] = hashes[j];
+				i = j;
+			}
+		}
+		keys[i] = null;
+		values[i] = null;
+		size--;
+		return old;
+	}
+
+	/**
+	 * Get the values of this map.
+	 *
+	 * @return A new list holding the values of this map
+	 */
+	@SuppressWarnings("unchecked")
+	public List<V> values() {
+		List<V> vals = new ArrayList<V>(size);
+		for (int i = 0; i < keys.length; i++) {
+			if (null != keys[i]) {
+				vals.add((V) values[i]);
+			}
+		}
+		return vals;
+	}
+
+	/**
+	 * Get the number of mappings in this map.
+	 *
+	 * @return The number of mappings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Remove every mapping from this map.
+	 */
+	public void clear() {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = null;
+			values[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Create a copy of this map.
+	 *
+	 * @return A new map holding the same mappings
+	 */
+	public OpenHashMap<K, V> copy() {
+		OpenHashMap<K, V> copy = new OpenHashMap<K, V>(0);
+		copy.keys = keys.clone();
+		copy.values = values.clone();
+		copy.hashes = hashes.clone();
+		copy.size = size;
+		return copy;
+	}
+
+	private int indexOf(Object key, int hash) {
+		int mask = keys.length - 1;
+		int i = hash & mask;
+		Object k;
+		while (null != (k = keys[i])) {
+			if (hashes[i] == hash && (k == key || k.equals(key))) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void insert(Object key, Object value, int hash) {
+		int mask = keys.length - 1;
+		int i = hash & mask;
+		while (null != keys[i]) {
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		hashes[i] = hash;
+	}
+
+	private void resize(int capacity) {
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		int[] oldHashes = hashes;
+		keys = new Object[capacity];
+		values = new Object[capacity];
+		hashes = new int[capacity];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (null != oldKeys[i]) {
+				insert(oldKeys[i], oldValues[i], oldHashes[i]);
+			}
+		}
+	}
+
+	private static int spread(int h) {
+		h ^= (h >>> 16);
+		return h * 0x85ebca6b;
+	}
+
+}
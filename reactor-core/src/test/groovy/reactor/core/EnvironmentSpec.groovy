@@ -42,4 +42,29 @@ class EnvironmentSpec extends Specification {
       3 * dispatcher.shutdown()
   }
 
+  def "An environment's root timer dispatches tasks to the configured Dispatcher"() {
+
+    given:
+      "An Environment whose timer uses a named Dispatcher"
+      def props = ['reactor.timer.dispatcher': 'timer', 'reactor.timer.resolution': '10'] as Properties
+      ReactorConfiguration configuration = new ReactorConfiguration([], 'default', props)
+      Dispatcher dispatcher = Mock(Dispatcher)
+      Environment environment = new Environment(['timer': [dispatcher]], Mock(ConfigurationReader, {
+        read() >> configuration
+      }))
+
+    when:
+      "a task is submitted to the root timer"
+      environment.rootTimer.submit({ Long now -> } as reactor.function.Consumer<Long>, 10, java.util.concurrent.TimeUnit.MILLISECONDS)
+      Thread.sleep(200)
+
+    then:
+      "it was handed to the Dispatcher"
+      environment.rootTimer.resolution == 10
+      1 * dispatcher.execute(_)
+
+    cleanup:
+      environment.shutdown()
+  }
+
 }
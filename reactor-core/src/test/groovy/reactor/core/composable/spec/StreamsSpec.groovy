@@ -21,9 +21,14 @@ import reactor.core.composable.Deferred
 import reactor.core.composable.Stream
 import reactor.core.spec.Reactors
 import reactor.event.Event
+import reactor.event.dispatch.SynchronousDispatcher
+import reactor.event.dispatch.TraceableDelegatingDispatcher
+import reactor.event.registry.Registry
+import reactor.event.routing.EventRouter
 import reactor.event.selector.Selectors
 import reactor.function.Function
 import reactor.core.Observable
+import reactor.function.Consumer
 import reactor.function.Supplier
 import reactor.tuple.Tuple2
 import spock.lang.Specification
@@ -647,6 +652,78 @@ class StreamsSpec extends Specification {
 
 
 
+	def 'A fused Stream passes values through its pipeline with a single dispatch'() {
+		given:
+			'a fused composable with a map, filter and scan pipeline'
+			def dispatches = new AtomicInteger()
+			def dispatcher = new TraceableDelegatingDispatcher(new SynchronousDispatcher()) {
+				@Override
+				<E extends Event<?>> void dispatch(Object key,
+				                                   E event,
+				                                   Registry<Consumer<? extends Event<?>>> consumerRegistry,
+				                                   Consumer<Throwable> errorConsumer,
+				                                   EventRouter eventRouter,
+				                                   Consumer<E> completionConsumer) {
+					dispatches.incrementAndGet()
+					super.dispatch(key, event, consumerRegistry, errorConsumer, eventRouter, completionConsumer)
+				}
+			}
+			Deferred<Integer, Stream<Integer>> source = Streams.<Integer> defer().dispatcher(dispatcher).fused().get()
+			Stream<Integer> scanned = source.compose().
+					map(function { it * 2 }).
+					filter(predicate { it > 2 }).
+					scan(function { Tuple2<Integer, Integer> t -> t.t1 + (t.t2 ?: 0) })
+			def values = []
+			scanned.consume(consumer { values << it })
+
+		when:
+			'values are accepted'
+			dispatches.set(0)
+			[1, 2, 3].each { source.accept(it) }
+
+		then:
+			'they are passed through the pipeline'
+			scanned.fused
+			values == [4, 10]
+
+		and:
+			'only the values accepted by the head are dispatched'
+			dispatches.get() == 3
+	}
+
+	def 'A fused Stream passes errors and flushes through its pipeline'() {
+		given:
+			'a fused composable with a failing map and a reduce'
+			Deferred<Integer, Stream<Integer>> source = Streams.<Integer> defer().synchronousDispatcher().fused().get()
+			Stream<Integer> mapped = source.compose().map(function {
+				if(it < 0) {
+					throw new IllegalArgumentException()
+				}
+				it
+			})
+			def errors = 0
+			mapped.when(IllegalArgumentException, consumer { errors++ })
+			def value = mapped.reduce(function { Tuple2<Integer, Integer> t -> t.t1 + (t.t2 ?: 0) }).tap()
+
+		when:
+			'a value that fails the map is accepted'
+			source.accept(-1)
+
+		then:
+			'the error is passed to the consumer'
+			errors == 1
+
+		when:
+			'values are accepted and flushed'
+			source.accept(2)
+			source.accept(3)
+			source.flush()
+
+		then:
+			'the reduction is available'
+			value.get() == 5
+	}
+
 	def 'Reduce will accumulate a list of accepted values'() {
 		given:
 			'a composable'
@@ -37,6 +37,7 @@ class PropertiesConfigurationReaderSpec extends Specification {
 			matchesExpectedDefaultConfiguration(dispatchers.eventLoop, DispatcherType.EVENT_LOOP, 0, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.ringBuffer, DispatcherType.RING_BUFFER, null, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.workQueue, DispatcherType.WORK_QUEUE, 0, 2048)
+			matchesExpectedDefaultConfiguration(dispatchers.virtualThread, DispatcherType.VIRTUAL_THREAD, null, 1024)
 			matchesExpectedDefaultConfiguration(dispatchers.threadPoolExecutor, DispatcherType.THREAD_POOL_EXECUTOR, 0, 2048)
 	}
 
@@ -68,11 +69,12 @@ class PropertiesConfigurationReaderSpec extends Specification {
 			def dispatchers = toMapByName configuration.dispatcherConfigurations
 
 		then: "it contains the expected dispatchers"
-			dispatchers.size() == 5
+			dispatchers.size() == 6
 			matchesExpectedDefaultConfiguration(dispatchers.eventLoop, DispatcherType.EVENT_LOOP, 0, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.ringBuffer, DispatcherType.RING_BUFFER, null, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.threadPoolExecutor, DispatcherType.THREAD_POOL_EXECUTOR, 0, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.workQueue, DispatcherType.WORK_QUEUE, 0, 2048)
+			matchesExpectedDefaultConfiguration(dispatchers.virtualThread, DispatcherType.VIRTUAL_THREAD, null, 1024)
 			matchesExpectedDefaultConfiguration(dispatchers.alpha, DispatcherType.SYNCHRONOUS, null, null)
 	}
 
@@ -88,11 +90,12 @@ class PropertiesConfigurationReaderSpec extends Specification {
 			def dispatchers = toMapByName configuration.dispatcherConfigurations
 
 		then: "the later profile overrides the earlier profile"
-			dispatchers.size() == 5
+			dispatchers.size() == 6
 			matchesExpectedDefaultConfiguration(dispatchers.eventLoop, DispatcherType.EVENT_LOOP, 0, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.ringBuffer, DispatcherType.RING_BUFFER, null, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.threadPoolExecutor, DispatcherType.THREAD_POOL_EXECUTOR, 0, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.workQueue, DispatcherType.WORK_QUEUE, 0, 2048)
+			matchesExpectedDefaultConfiguration(dispatchers.virtualThread, DispatcherType.VIRTUAL_THREAD, null, 1024)
 			matchesExpectedDefaultConfiguration(dispatchers.alpha, DispatcherType.RING_BUFFER, null, null)
 	}
 
@@ -108,10 +111,11 @@ class PropertiesConfigurationReaderSpec extends Specification {
 			def dispatchers = toMapByName configuration.dispatcherConfigurations
 
 		then: "the active profile overrides the default profile"
-			dispatchers.size() == 4
+			dispatchers.size() == 5
 			matchesExpectedDefaultConfiguration(dispatchers.eventLoop, DispatcherType.EVENT_LOOP, 0, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.ringBuffer, DispatcherType.RING_BUFFER, null, 512)
 			matchesExpectedDefaultConfiguration(dispatchers.workQueue, DispatcherType.WORK_QUEUE, 0, 2048)
+			matchesExpectedDefaultConfiguration(dispatchers.virtualThread, DispatcherType.VIRTUAL_THREAD, null, 1024)
 			matchesExpectedDefaultConfiguration(dispatchers.threadPoolExecutor, DispatcherType.THREAD_POOL_EXECUTOR, 0, 2048)
 	}
 
@@ -129,10 +133,11 @@ class PropertiesConfigurationReaderSpec extends Specification {
 			def dispatchers = toMapByName configuration.dispatcherConfigurations
 
 		then: "the system property takes precedence"
-			dispatchers.size() == 5
+			dispatchers.size() == 6
 			matchesExpectedDefaultConfiguration(dispatchers.eventLoop, DispatcherType.EVENT_LOOP, 0, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.ringBuffer, DispatcherType.RING_BUFFER, null, 512)
 			matchesExpectedDefaultConfiguration(dispatchers.workQueue, DispatcherType.WORK_QUEUE, 0, 2048)
+			matchesExpectedDefaultConfiguration(dispatchers.virtualThread, DispatcherType.VIRTUAL_THREAD, null, 1024)
 			matchesExpectedDefaultConfiguration(dispatchers.threadPoolExecutor, DispatcherType.THREAD_POOL_EXECUTOR, 0, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.alpha, DispatcherType.EVENT_LOOP, null, null)
 	}
@@ -149,10 +154,11 @@ class PropertiesConfigurationReaderSpec extends Specification {
 			def dispatchers = toMapByName configuration.dispatcherConfigurations
 
 		then: "its absence is tolerated"
-			dispatchers.size() == 4
+			dispatchers.size() == 5
 			matchesExpectedDefaultConfiguration(dispatchers.eventLoop, DispatcherType.EVENT_LOOP, 0, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.ringBuffer, DispatcherType.RING_BUFFER, null, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.workQueue, DispatcherType.WORK_QUEUE, 0, 2048)
+			matchesExpectedDefaultConfiguration(dispatchers.virtualThread, DispatcherType.VIRTUAL_THREAD, null, 1024)
 			matchesExpectedDefaultConfiguration(dispatchers.threadPoolExecutor, DispatcherType.THREAD_POOL_EXECUTOR, 0, 2048)
 	}
 
@@ -185,10 +191,11 @@ class PropertiesConfigurationReaderSpec extends Specification {
 			def dispatchers = toMapByName configuration.dispatcherConfigurations
 
 		then: "the unrecognized dispatcher type is tolerated"
-			dispatchers.size() == 4
+			dispatchers.size() == 5
 			matchesExpectedDefaultConfiguration(dispatchers.eventLoop, DispatcherType.EVENT_LOOP, 0, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.ringBuffer, DispatcherType.RING_BUFFER, null, 2048)
 			matchesExpectedDefaultConfiguration(dispatchers.workQueue, DispatcherType.WORK_QUEUE, 0, 2048)
+			matchesExpectedDefaultConfiguration(dispatchers.virtualThread, DispatcherType.VIRTUAL_THREAD, null, 1024)
 			matchesExpectedDefaultConfiguration(dispatchers.threadPoolExecutor, DispatcherType.THREAD_POOL_EXECUTOR, 0, 2048)
 	}
 
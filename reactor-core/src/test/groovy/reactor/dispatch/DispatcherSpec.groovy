@@ -30,19 +30,28 @@ import reactor.core.Environment
 import reactor.core.Reactor
 import reactor.core.spec.Reactors
 import reactor.event.Event
+import reactor.event.dispatch.ActorDispatcher
+import reactor.event.dispatch.Dispatcher
+import reactor.event.dispatch.ForkJoinDispatcher
 import reactor.event.dispatch.RingBufferDispatcher
+import reactor.event.dispatch.ShardedRingBufferDispatcher
 import reactor.event.dispatch.SynchronousDispatcher
 import reactor.event.dispatch.ThreadPoolExecutorDispatcher
+import reactor.event.dispatch.VirtualThreadDispatcher
+import reactor.event.dispatch.WorkQueueDispatcher
 import reactor.event.registry.CachingRegistry
 import reactor.event.routing.ArgumentConvertingConsumerInvoker
 import reactor.event.routing.ConsumerFilteringEventRouter
 import reactor.filter.PassThroughFilter
 import reactor.function.Consumer
+import reactor.function.Function
 import reactor.function.support.Boundary
 import spock.lang.Specification
 
 import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 import static reactor.GroovyTestUtils.$
 import static reactor.GroovyTestUtils.consumer
@@ -170,4 +179,365 @@ class DispatcherSpec extends Specification {
 
 	}
 
+	def "ActorDispatcher maps keys with colliding hash codes to their own delegates"() {
+
+		given:
+			"an actor dispatcher creating a new delegate per key"
+			def delegates = [:]
+			def dispatcher = new ActorDispatcher({ key ->
+				def d = new SynchronousDispatcher()
+				delegates[key] = d
+				d
+			} as Function<Object, Dispatcher>)
+			def registry = new CachingRegistry<Consumer<Event>>()
+			def eventRouter = new ConsumerFilteringEventRouter(
+					new PassThroughFilter(), new ArgumentConvertingConsumerInvoker())
+
+		when:
+			"events are dispatched to keys with the same hash code"
+			assert "Aa".hashCode() == "BB".hashCode()
+			dispatcher.dispatch("Aa", Event.wrap("Hello"), registry, null, eventRouter, null)
+			dispatcher.dispatch("BB", Event.wrap("Hello"), registry, null, eventRouter, null)
+			dispatcher.dispatch("Aa", Event.wrap("Hello"), registry, null, eventRouter, null)
+
+		then:
+			"each key gets its own delegate"
+			delegates.size() == 2
+			!delegates["Aa"].is(delegates["BB"])
+
+	}
+
+	def "ActorDispatcher caches a bounded number of keys and keeps their delegates"() {
+
+		given:
+			"an actor dispatcher giving 16 keys their own delegate"
+			def mapped = 0
+			def used = [:]
+			def dispatcher = new ActorDispatcher({ key ->
+				mapped++
+				new SynchronousDispatcher()
+			} as Function<Object, Dispatcher>, 16)
+			def registry = new CachingRegistry<Consumer<Event>>()
+			def eventRouter = new ConsumerFilteringEventRouter(
+					new PassThroughFilter(), new ArgumentConvertingConsumerInvoker())
+			def ran = 0
+
+		when:
+			"events are dispatched to many keys twice and tasks are executed"
+			2.times {
+				(1..1000).each {
+					dispatcher.dispatch(it, Event.wrap("Hello"), registry, null, eventRouter, null)
+					def d = dispatcher.delegate(it)
+					assert !used.containsKey(it) || used[it].is(d)
+					used[it] = d
+				}
+			}
+			1000.times { dispatcher.execute({ ran++ } as Runnable) }
+
+		then:
+			"at most 16 keys are cached, the others share 16 delegates, and every key kept its delegate"
+			dispatcher.dispatcherCache.size() == 16
+			mapped <= 32
+			dispatcher.delegates.size() == mapped
+			ran == 1000
+			dispatcher.alive()
+
+	}
+
+	def "Dispatchers dispatch batches larger than their backlog in order"() {
+
+		given:
+			"a registry with a consumer recording the events it's given"
+			def registry = new CachingRegistry<Consumer<Event>>()
+			def eventRouter = new ConsumerFilteringEventRouter(
+					new PassThroughFilter(), new ArgumentConvertingConsumerInvoker())
+			def received = [].asSynchronized()
+			def latch = new CountDownLatch(20)
+			registry.register($("test"), consumer { received << it.data })
+			def completed = [].asSynchronized()
+
+		when:
+			"a batch of events is dispatched"
+			dispatcher.dispatchBatch("test", (1..20).collect { Event.wrap(it) }, registry, null, eventRouter,
+					consumer { completed << it.data; latch.countDown() })
+
+		then:
+			"every event is routed once, in order, and completed"
+			latch.await(5, TimeUnit.SECONDS)
+			received == (1..20).toList()
+			completed.sort() == (1..20).toList()
+
+		cleanup:
+			dispatcher.shutdown()
+
+		where:
+			dispatcher << [
+					new RingBufferDispatcher("rb", 8, null, ProducerType.SINGLE, new BlockingWaitStrategy()),
+					new WorkQueueDispatcher("wq", 1, 8, null, ProducerType.SINGLE, new BlockingWaitStrategy()),
+					new ForkJoinDispatcher(1, 8),
+					new SynchronousDispatcher()
+			]
+
+	}
+
+	def "Reactor batchNotify dispatches each event and completes once per batch"() {
+
+		given:
+			"a reactor backed by a ring buffer dispatcher"
+			def dispatcher = new RingBufferDispatcher("rb", 8, null, ProducerType.SINGLE, new BlockingWaitStrategy())
+			def r = new Reactor(dispatcher)
+			def received = [].asSynchronized()
+			def completions = 0
+			def latch = new CountDownLatch(1)
+			r.on($("test"), consumer { received << it.data })
+
+		when:
+			"a batch of events is notified"
+			r.batchNotify("test", consumer { completions++; latch.countDown() }).
+					accept((1..20).collect { Event.wrap(it) })
+
+		then:
+			"the completion consumer is called after every event has been received"
+			latch.await(5, TimeUnit.SECONDS)
+			received == (1..20).toList()
+			completions == 1
+
+		cleanup:
+			dispatcher.shutdown()
+
+	}
+
+	def "Reactor batchNotify completes even if routing an event fails"() {
+
+		given:
+			"a reactor whose dispatch error handler rethrows, and a consumer failing on one event"
+			def dispatcher = new RingBufferDispatcher("rb", 8, consumer {}, ProducerType.SINGLE, new BlockingWaitStrategy())
+			def r = new Reactor(dispatcher, null, null, consumer { Throwable t -> throw t }, null)
+			def received = [].asSynchronized()
+			def latch = new CountDownLatch(1)
+			r.on($("test"), consumer {
+				if (it.data == 5) {
+					throw new IllegalStateException("failed")
+				}
+				received << it.data
+			})
+			def events = (1..20).collect { Event.wrap(it).setKey("other") }
+
+		when:
+			"a batch of events is notified"
+			r.batchNotify("test", consumer { latch.countDown() }).accept(events)
+
+		then:
+			"the completion consumer is called once every event has been routed"
+			latch.await(5, TimeUnit.SECONDS)
+			received == (1..20).toList() - 5
+
+		and:
+			"the events were left alone"
+			events*.key.every { it == "other" }
+
+		cleanup:
+			dispatcher.shutdown()
+
+	}
+
+	def "ShardedRingBufferDispatcher runs the tasks of a key on one thread in order"() {
+
+		given:
+			"a sharded dispatcher whose shards record the thread they run on"
+			def shardThreads = [:].asSynchronized()
+			def dispatcher = new ShardedRingBufferDispatcher("sharded", 4, 64, null, consumer { shard ->
+				shardThreads[shard] = Thread.currentThread()
+			})
+			def registry = new CachingRegistry<Consumer<Event>>()
+			def eventRouter = new ConsumerFilteringEventRouter(
+					new PassThroughFilter(), new ArgumentConvertingConsumerInvoker())
+			def received = [:].asSynchronized()
+			def threads = [:].asSynchronized()
+			def latch = new CountDownLatch(400)
+			["a", "b", "c", "d"].each { key ->
+				received[key] = []
+				threads[key] = [] as Set
+				registry.register($(key), consumer { ev ->
+					received[key] << ev.data
+					threads[key] << Thread.currentThread()
+					latch.countDown()
+				})
+			}
+
+		when:
+			"events for several keys are dispatched"
+			100.times { i ->
+				["a", "b", "c", "d"].each { key ->
+					def ev = Event.wrap(i)
+					ev.key = key
+					dispatcher.dispatch(key, ev, registry, null, eventRouter, null)
+				}
+			}
+
+		then:
+			"each key's events are run in order by the thread of its shard"
+			latch.await(5, TimeUnit.SECONDS)
+			["a", "b", "c", "d"].every { key ->
+				received[key] == (0..99).toList() &&
+						threads[key] == [shardThreads[dispatcher.shardOf(key)]] as Set
+			}
+			(0..3).every { dispatcher.getPendingTasks(it) == 0 }
+
+		cleanup:
+			dispatcher.shutdown()
+
+	}
+
+	def "ForkJoinDispatcher runs recursive dispatches on its workers"() {
+
+		given:
+			"a reactor backed by a fork/join dispatcher"
+			def dispatcher = new ForkJoinDispatcher(2, 16)
+			def r = new Reactor(dispatcher)
+			def received = [].asSynchronized()
+			def threads = [].asSynchronized()
+			def latch = new CountDownLatch(1)
+			r.on($("fanout"), consumer { int n ->
+				n.times { r.notify("recursive", Event.wrap(it)) }
+			})
+			r.on($("recursive"), consumer { int i ->
+				received << i
+				threads << Thread.currentThread()
+				if (received.size() == 100) {
+					latch.countDown()
+				}
+			})
+
+		when:
+			"a consumer dispatches events recursively"
+			r.notify("fanout", Event.wrap(100))
+
+		then:
+			"every recursive event is run once, by one of the pool's workers"
+			latch.await(5, TimeUnit.SECONDS)
+			received.sort(false) == (0..99).toList()
+			!threads.contains(Thread.currentThread())
+
+		cleanup:
+			dispatcher.shutdown()
+
+	}
+
+	def "VirtualThreadDispatcher runs blocking consumers concurrently up to its backlog"() {
+
+		given:
+			"a virtual thread dispatcher with a backlog of 4 and a blocking consumer"
+			def dispatcher = new VirtualThreadDispatcher("vt", 4)
+			def r = new Reactor(dispatcher)
+			def running = new AtomicInteger()
+			def maxRunning = new AtomicInteger()
+			def latch = new CountDownLatch(8)
+			r.on($("block"), consumer {
+				def n = running.incrementAndGet()
+				while (maxRunning.get() < n && !maxRunning.compareAndSet(maxRunning.get(), n)) {
+				}
+				Thread.sleep(200)
+				running.decrementAndGet()
+				latch.countDown()
+			})
+
+		when:
+			"more blocking events than the backlog are notified"
+			long start = System.currentTimeMillis()
+			8.times { r.notify("block", Event.wrap(it)) }
+			latch.await(5, TimeUnit.SECONDS)
+			long elapsed = System.currentTimeMillis() - start
+
+		then:
+			"the consumers ran concurrently, but never more of them than the backlog"
+			maxRunning.get() == 4
+			elapsed < 1000
+
+		cleanup:
+			dispatcher.awaitAndShutdown(5, TimeUnit.SECONDS)
+
+	}
+
+	def "VirtualThreadDispatcher can run the tasks of a key in order"() {
+
+		given:
+			"a virtual thread dispatcher ordering its tasks by key"
+			def dispatcher = new VirtualThreadDispatcher("vt", 64, true, null)
+			def r = new Reactor(dispatcher)
+			def received = [a: [].asSynchronized(), b: [].asSynchronized()]
+			def latch = new CountDownLatch(200)
+			["a", "b"].each { key ->
+				r.on($(key), consumer { int i ->
+					if (i % 10 == 0) {
+						Thread.sleep(5)
+					}
+					received[key] << i
+					latch.countDown()
+				})
+			}
+
+		when:
+			"events are notified for two keys"
+			100.times { i ->
+				r.notify("a", Event.wrap(i))
+				r.notify("b", Event.wrap(i))
+			}
+
+		then:
+			"each key's events were consumed in order"
+			latch.await(5, TimeUnit.SECONDS)
+			received.a == (0..99).toList()
+			received.b == (0..99).toList()
+
+		cleanup:
+			dispatcher.awaitAndShutdown(5, TimeUnit.SECONDS)
+
+	}
+
+	def "VirtualThreadDispatcher rejects a task when interrupted waiting for room in its backlog"() {
+
+		given:
+			"a virtual thread dispatcher with a backlog of 1 taken by a blocked consumer"
+			def dispatcher = new VirtualThreadDispatcher("vt", 1)
+			def registry = new CachingRegistry<Consumer<Event>>()
+			def eventRouter = new ConsumerFilteringEventRouter(
+					new PassThroughFilter(), new ArgumentConvertingConsumerInvoker())
+			def blocked = new CountDownLatch(1)
+			def release = new CountDownLatch(1)
+			def done = new CountDownLatch(1)
+			registry.register($("block"), consumer { blocked.countDown(); release.await() })
+			registry.register($("done"), consumer { done.countDown() })
+			dispatcher.dispatch("block", Event.wrap("Hello"), registry, null, eventRouter, null)
+			blocked.await(5, TimeUnit.SECONDS)
+			def errors = []
+			def interrupted = false
+
+		when:
+			"a task is dispatched by an interrupted thread"
+			Thread.currentThread().interrupt()
+			dispatcher.dispatch("done", Event.wrap("Hello"), registry, consumer { errors << it }, eventRouter, null)
+			interrupted = Thread.interrupted()
+
+		then:
+			"the task was rejected and the thread is still interrupted"
+			errors.size() == 1
+			errors[0] instanceof RejectedExecutionException
+			interrupted
+			done.count == 1
+
+		when:
+			"the blocked consumer completes and another task is dispatched"
+			release.countDown()
+			dispatcher.dispatch("done", Event.wrap("Hello"), registry, null, eventRouter, null)
+
+		then:
+			"the rejected task didn't keep a permit"
+			done.await(5, TimeUnit.SECONDS)
+
+		cleanup:
+			dispatcher.awaitAndShutdown(5, TimeUnit.SECONDS)
+
+	}
+
 }
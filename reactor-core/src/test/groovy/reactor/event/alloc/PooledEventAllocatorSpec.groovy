@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.event.alloc
+
+import reactor.core.composable.spec.Streams
+import reactor.core.spec.Reactors
+import reactor.event.Event
+import reactor.event.dispatch.RingBufferDispatcher
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import static reactor.GroovyTestUtils.*
+
+/**
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+class PooledEventAllocatorSpec extends Specification {
+
+	def "A pooling Reactor recycles its events once they have been routed"() {
+		given: "a pooling reactor with a consumer"
+			def r = Reactors.reactor().synchronousDispatcher().pooledEvents().get()
+			def received = []
+			def events = []
+			r.on($('test'), consumer { Event ev ->
+				received << ev.data
+				events << ev
+			})
+
+		when: "values are notified"
+			r.notify('test', r.wrap(1))
+			r.notify('test', r.wrap(2))
+
+		then: "the consumer received them"
+			r.pooledEvents
+			received == [1, 2]
+
+		and: "the event was recycled and reused"
+			events[0].is(events[1])
+			events[0] instanceof PooledEvent
+			events[0].referenceCount == 0
+			!events[0].data
+	}
+
+	def "A pooled event is recycled once its last dispatch has been routed"() {
+		given: "a pooled event"
+			def allocator = new PooledEventAllocator()
+			PooledEvent ev = allocator.allocate('hello')
+
+		when: "it's part of two dispatches"
+			ev.retain()
+			ev.retain()
+			ev.release()
+
+		then: "it's not recycled"
+			ev.data == 'hello'
+
+		when: "the last dispatch is over"
+			ev.release()
+
+		then: "it's recycled"
+			!ev.data
+			allocator.allocate('world').is(ev)
+	}
+
+	def "A pooled event is recycled once its dispatch is refused"() {
+		given: "a pooling reactor whose dispatcher is shut down"
+			def dispatcher = new RingBufferDispatcher('pooled')
+			def r = Reactors.reactor().dispatcher(dispatcher).pooledEvents().get()
+			r.on($('test'), consumer { Event ev -> })
+			dispatcher.shutdown()
+			PooledEvent ev = r.wrap('hello')
+
+		when: "the event is notified"
+			r.notify('test', ev)
+
+		then: "the dispatch is refused"
+			thrown(IllegalArgumentException)
+
+		and: "the event is recycled and reused"
+			ev.referenceCount == 0
+			!ev.data
+			r.wrap('world').is(ev)
+	}
+
+	def "Releasing a pooled event with no pending uses does nothing"() {
+		given: "a pooled event that's not part of any dispatch"
+			def allocator = new PooledEventAllocator()
+			PooledEvent ev = allocator.allocate('hello')
+
+		when: "it's released"
+			ev.release()
+
+		then: "it's not recycled"
+			ev.referenceCount == 0
+			ev.data == 'hello'
+			!allocator.allocate('world').is(ev)
+	}
+
+	def "Copies of a pooled event are pooled and keep their headers"() {
+		given: "a pooled event with headers"
+			def allocator = new PooledEventAllocator()
+			PooledEvent ev = allocator.allocate('hello')
+			ev.headers.set('x-test', 'value')
+
+		when: "it's copied and recycled"
+			def copy = ev.copy('world')
+			ev.retain()
+			ev.release()
+
+		then: "the copy is pooled and keeps its headers"
+			copy instanceof PooledEvent
+			!copy.is(ev)
+			copy.data == 'world'
+			copy.headers.get('x-test') == 'value'
+	}
+
+	def "A pooling Stream passes its values through its actions"() {
+		given: "a pooling stream on a ring buffer dispatcher"
+			def dispatcher = new RingBufferDispatcher('pooled')
+			def d = Streams.<Integer> defer().dispatcher(dispatcher).pooledEvents().get()
+			def latch = new CountDownLatch(1)
+			def values = []
+			d.compose().
+					map(function { it * 2 }).
+					filter(predicate { it > 2 }).
+					consume(consumer {
+						values << it
+						if(it == 2000) {
+							latch.countDown()
+						}
+					})
+
+		when: "values are accepted"
+			(1..1000).each { d.accept(it) }
+			latch.await(5, TimeUnit.SECONDS)
+
+		then: "they are passed through the actions"
+			values == (2..1000).collect { it * 2 }
+
+		cleanup:
+			dispatcher.shutdown()
+	}
+
+	def "A pooling Stream keeps buffered events until they're flushed"() {
+		given: "a pooling stream with a buffer"
+			def d = Streams.<Integer> defer().synchronousDispatcher().pooledEvents().get()
+			def values = []
+			d.compose().buffer(3).consume(consumer { values << it })
+
+		when: "values are accepted"
+			(1..6).each { d.accept(it) }
+
+		then: "they are passed to the consumer"
+			values == [1, 2, 3, 4, 5, 6]
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.event.selector
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * @author Jon Brisbin
+ */
+class UriPathTemplateSpec extends Specification {
+
+	@Unroll
+	def "A UriPathTemplate matches '#uri' against '#template'"() {
+		given: "a template"
+			def tmpl = new UriPathTemplate(template)
+
+		expect: "the uri is matched and its variables are extracted"
+			tmpl.matches(uri) == matches
+			tmpl.match(uri) == vars
+
+		where:
+			template                     | uri                        | matches | vars
+			'/a/b'                       | '/a/b'                     | true    | [:]
+			'/a/b'                       | '/a/b/c'                   | false   | [:]
+			'/a/{id}'                    | '/a/42'                    | true    | [id: '42']
+			'/a/{id}'                    | '/a/'                      | true    | [id: '']
+			'/a/{id}'                    | '/a/b.json'                | false   | [:]
+			'/a/{id}.json'               | '/a/b.json'                | true    | [id: 'b']
+			'/a/b.json'                  | '/a/bxjson'                | false   | [:]
+			'/a/**'                      | '/a/b/c'                   | true    | [:]
+			'/**/c'                      | '/a/b/c'                   | true    | [:]
+			'/path/**/{resource}'        | '/path/to/some/resourceId' | true    | [resource: 'resourceId']
+			'/{first}/{rest}**'          | '/a/b/c.d'                 | true    | [first: 'a', rest: 'b/c.d']
+			'/{rest}**/{last}'           | '/a/b/c'                   | true    | [rest: 'a/b', last: 'c']
+			'/{user}/posts/{post}'       | '/jon/posts/1'             | true    | [user: 'jon', post: '1']
+			'/{user}/posts/{post}'       | '/jon/comments/1'          | false   | [:]
+			'/users/[0-9]+'              | '/users/42'                | true    | [:]
+	}
+
+	@Unroll
+	def "A UriPathTemplate matches a '.' literally in '#template'"() {
+		given: "a template"
+			def tmpl = new UriPathTemplate(template)
+
+		expect: "a '.' only matches itself"
+			tmpl.matches('/users/42.json')
+			tmpl.match('/users/42.json') == vars
+			!tmpl.matches('/users/42xjson')
+			tmpl.match('/users/42xjson') == [:]
+
+		where: "the template is compiled into segments or matched with a regular expression"
+			template              | vars
+			'/users/{id}.json'    | [id: '42']
+			'/users/[0-9]+.json'  | [:]
+			'/{kind}/[0-9]+.json' | [kind: 'users']
+			'/users/{id}\\.json'  | [id: '42']
+	}
+
+	@Unroll
+	def "A UriPathTemplate matches any character with a quantified '.' in '#template'"() {
+		given: "a template"
+			def tmpl = new UriPathTemplate(template)
+
+		expect: "a quantified '.' matches any character"
+			tmpl.matches(uri) == matches
+
+		where: "the template is a regular expression"
+			template             | uri              | matches
+			'/files/.*'          | '/files/abc'     | true
+			'/files/.+\\.txt'    | '/files/a.txt'   | true
+			'/files/.+\\.txt'    | '/files/a_txt'   | false
+			'/files/{name}.?txt' | '/files/abctxt'  | true
+	}
+
+	def "A UriPathTemplate only caches the variables of the most recently matched URIs"() {
+		given: "a template with a small cache"
+			def tmpl = new UriPathTemplate('/a/{id}', 2)
+
+		when: "uris are matched"
+			def first = tmpl.match('/a/1')
+			tmpl.match('/a/2')
+			def again = tmpl.match('/a/1')
+			tmpl.match('/a/3')
+			tmpl.match('/a/4')
+
+		then: "recently matched uris are cached and the others evicted"
+			first.is(again)
+			!first.is(tmpl.match('/a/1'))
+			first == tmpl.match('/a/1')
+	}
+
+	def "A UriPathTemplate can be matched from many threads"() {
+		given: "a template and a thread pool"
+			def tmpl = new UriPathTemplate('/users/{user}/posts/{post}', 64)
+			def threadPool = Executors.newFixedThreadPool(8)
+			def failures = new AtomicInteger()
+			def latch = new CountDownLatch(8)
+
+		when: "distinct uris are matched concurrently"
+			(1..8).each { t ->
+				threadPool.submit {
+					try {
+						for (int i = 0; i < 10000; i++) {
+							def vars = tmpl.match("/users/$t/posts/$i".toString())
+							if (vars.user != "$t".toString() || vars.post != "$i".toString()) {
+								failures.incrementAndGet()
+							}
+						}
+					} finally {
+						latch.countDown()
+					}
+				}
+			}
+			latch.await(30, TimeUnit.SECONDS)
+
+		then: "every uri got its own variables"
+			failures.get() == 0
+
+		cleanup:
+			threadPool.shutdown()
+	}
+
+}
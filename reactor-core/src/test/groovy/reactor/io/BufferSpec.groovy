@@ -22,6 +22,7 @@ import spock.lang.Specification
 
 import java.nio.BufferOverflowException
 import java.nio.ByteBuffer
+import java.nio.ByteOrder
 
 /**
  * @author Jon Brisbin
@@ -316,6 +317,45 @@ class BufferSpec extends Specification {
 			strings == ['One', 'Two', 'Three']
 	}
 
+	def "Splitting a buffer finds every delimiter and leaves the buffer positioned after the last one"() {
+		given: "a buffer of lines of every length, followed by an incomplete line"
+		def lines = (0..40).collect { "x" * it }
+		def bytes = (lines.join("\n") + "\nincomplete").bytes
+		def bb = (direct ? ByteBuffer.allocateDirect(bytes.length) : ByteBuffer.allocate(bytes.length))
+		def buff = new Buffer(bb.order(order).put(bytes).flip() as ByteBuffer)
+
+		when: "the buffer is split"
+		def parts = buff.split(10, true)
+
+		then: "the incomplete line is left to be read"
+		buff.position() == buff.limit() - "incomplete".length()
+
+		when: "the parts are read"
+		def strings = []
+		parts.each { part -> strings << part.get().asString() }
+
+		then: "every complete line is found"
+		strings == lines
+
+		where:
+		direct | order
+		false  | ByteOrder.BIG_ENDIAN
+		true   | ByteOrder.BIG_ENDIAN
+		true   | ByteOrder.LITTLE_ENDIAN
+	}
+
+	def "A buffer can be split on a delimiter whose prefix repeats or that is long"() {
+		given: "buffers with delimiters that start like the data around them"
+		def buff = Buffer.wrap("One\r\r\nTwo\r\n\r\nThree\r\n")
+		def delim = "--boundary-" * 3
+		def parts = (0..20).collect { "part-" * it + "--boundary" }
+		def big = Buffer.wrap(parts.join(delim) + delim)
+
+		expect: "the segments are found"
+		buff.split(Buffer.wrap("\r\n"), true).collect { it.get().asString() } == ['One\r', 'Two', '', 'Three']
+		big.split(Buffer.wrap(delim), true).collect { it.get().asString() } == parts
+	}
+
 	def "A Buffer can be sliced into segments"() {
 		given: "a syslog message, buffered"
 		def buff = Buffer.wrap("<34>Oct 11 22:14:15 mymachine su: 'su root' failed for lonvick on /dev/pts/8\n")
@@ -416,4 +456,96 @@ class BufferSpec extends Specification {
 		pos == -1
 	}
 
+	def "A dynamic Buffer doubles its capacity as content is appended"() {
+		given: "an empty dynamic Buffer"
+		def buffer = new Buffer()
+		def chunk = new byte[1000]
+		Arrays.fill(chunk, (byte)0x61)
+
+		when: "more content than a small buffer holds is appended"
+		10000.times { buffer.append(chunk) }
+		buffer.flip()
+
+		then: "the capacity doubled as needed and the content is intact"
+		buffer.remaining() == 10000 * 1000
+		buffer.capacity() == Buffer.MAX_BUFFER_SIZE
+		buffer.asBytes().every { it == (byte)0x61 }
+
+		when: "content is appended beyond the maximum size"
+		new Buffer(Buffer.MAX_BUFFER_SIZE, false).append(new byte[Buffer.MAX_BUFFER_SIZE]).append((byte)0x61)
+
+		then: "the Buffer overflows"
+		thrown(BufferOverflowException)
+	}
+
+	def "A dynamic Buffer takes its storage from a SizeClassedBufferAllocator"() {
+		given: "a Buffer whose storage is pooled"
+		def allocator = new SizeClassedBufferAllocator(1, false, 16, 1024)
+		def buffer = new Buffer(allocator)
+
+		when: "content is appended"
+		buffer.append("Hello World!")
+
+		then: "the storage is of the smallest size"
+		buffer.capacity() == 16
+
+		when: "content is appended beyond the storage"
+		buffer.append(" Hello World!")
+
+		then: "larger storage is taken from the next size class"
+		buffer.capacity() == 32
+
+		when: "content is prepended"
+		buffer.flip().prepend("> ")
+
+		then: "the content is intact"
+		buffer.asString() == "> Hello World! Hello World!"
+
+		when: "the Buffer is closed and another one is created"
+		def storage = buffer.byteBuffer()
+		buffer.close()
+		def other = new Buffer(allocator).append(new byte[20])
+
+		then: "the storage is reused"
+		other.byteBuffer().is(storage)
+		other.position() == 20
+	}
+
+	def "A CompositeBuffer appends and prepends without copying its content"() {
+		given: "a CompositeBuffer of small chunks"
+		def composite = new CompositeBuffer(new BufferAllocator(2, false, 8))
+
+		when: "content is appended and prepended"
+		composite.append("Hello World!").append(1).append(2L).append((byte)0x21)
+		composite.prepend("> ")
+
+		then: "the content is held in chunks"
+		composite.remaining() == 2 + 12 + 4 + 8 + 1
+		composite.byteBuffers().length == 5
+
+		when: "the content is flattened"
+		def flat = composite.flatten()
+
+		then: "the content is in order"
+		flat.asBytes() == ByteBuffer.allocate(27).put("> Hello World!".bytes).putInt(1).putLong(2L).put((byte)0x21).array()
+
+		when: "the content is written to a channel"
+		def file = File.createTempFile("composite", ".bin")
+		file.deleteOnExit()
+		def raf = new RandomAccessFile(file, "rw")
+		def written = composite.writeTo(raf.channel)
+		raf.close()
+
+		then: "every byte is written"
+		written == 27
+		file.bytes == flat.asBytes()
+
+		when: "the CompositeBuffer is closed"
+		composite.close()
+
+		then: "it is empty"
+		composite.remaining() == 0
+		composite.byteBuffers().length == 0
+	}
+
 }
@@ -18,8 +18,11 @@ package reactor.io.encoding
 
 import reactor.function.Consumer
 import reactor.io.Buffer
+import reactor.io.SizeClassedBufferAllocator
 import spock.lang.Specification
 
+import java.nio.ByteBuffer
+
 /**
  * Tests to cover the basic, built-in Codecs.
  * @author Jon Brisbin
@@ -123,4 +126,80 @@ class StandardCodecsSpec extends Specification {
 		data.asString() == "Hello World!"
 	}
 
+	def "LengthFieldCodec decodes items split across several Buffers"() {
+		given: "length-prefixed items split into pieces"
+		def codec = new LengthFieldCodec<String, String>(StandardCodecs.STRING_CODEC)
+		def hellos = []
+		def decoder = codec.decoder({ String s -> hellos << s } as Consumer<String>)
+		def data = new Buffer().append((int) 12).append("Hello World!").append((int) 14).append("Hello Reactor!").flip()
+		def bytes = data.asBytes()
+
+		when: "the pieces are decoded one after the other, keeping what wasn't consumed"
+		def rest = new byte[0]
+		[2, 3, 10, 1, 4, 14].inject(0) { int start, int len ->
+			def piece = new Buffer().append(rest).append(bytes, start, len).flip()
+			decoder.apply(piece)
+			rest = piece.asBytes()
+			start + len
+		}
+
+		then: "the items were decoded"
+		hellos == ["Hello World!", "Hello Reactor!"]
+	}
+
+	def "LengthFieldCodec accumulates split items into pooled Buffers"() {
+		given: "a codec with an allocator"
+		def allocator = new SizeClassedBufferAllocator(2, false, 16, 1024)
+		def codec = new LengthFieldCodec<String, String>(4, 1024, StandardCodecs.STRING_CODEC, allocator)
+		def hellos = []
+		def decoder = codec.decoder({ String s -> hellos << s } as Consumer<String>)
+		def item = "Hello World!" * 10
+
+		when: "an item is decoded in two pieces"
+		decoder.apply(new Buffer().append((int) item.length()).append(item.substring(0, 50)).flip())
+		decoder.apply(Buffer.wrap(item.substring(50)))
+
+		then: "the item was decoded"
+		hellos == [item]
+	}
+
+	def "LengthFieldCodec rejects lengths over the maximum"() {
+		given: "a codec with a maximum item length"
+		def codec = new LengthFieldCodec<String, String>(4, 16, StandardCodecs.STRING_CODEC, null)
+		def decoder = codec.decoder({ String s -> } as Consumer<String>)
+
+		when: "a corrupt length is decoded"
+		decoder.apply(new Buffer().append(Integer.MAX_VALUE).append("Hello World!").flip())
+
+		then: "it was rejected"
+		thrown(IllegalStateException)
+	}
+
+	def "FrameCodec decodes frames whole or split across several Buffers"() {
+		given: "prefixed, length-prefixed frames"
+		def codec = new FrameCodec(2, FrameCodec.LengthField.SHORT)
+		def frames = []
+		def decoder = codec.decoder({ Frame f -> frames << f } as Consumer<Frame>)
+		def data = new Buffer().
+				append((short) 1).append((short) 12).append("Hello World!").
+				append((short) 2).append((short) 14).append("Hello Reactor!").
+				flip()
+
+		when: "the first frame and the start of the second one are decoded"
+		def bytes = data.asBytes()
+		def first = new Buffer(ByteBuffer.wrap(bytes, 0, 18))
+		decoder.apply(first)
+
+		then: "the first frame was decoded"
+		frames.size() == 1
+		first.remaining() == 2
+
+		when: "the second frame is decoded from where the first Buffer was left"
+		decoder.apply(new Buffer(ByteBuffer.wrap(bytes, 16, bytes.length - 16)))
+
+		then: "the second frame was decoded"
+		frames*.prefix*.readShort() == [1, 2]
+		frames*.data*.asString() == ["Hello World!", "Hello Reactor!"]
+	}
+
 }
@@ -1,7 +1,16 @@
 package reactor.io.encoding.compress
 
+import org.xerial.snappy.SnappyInputStream
+import org.xerial.snappy.SnappyOutputStream
+import reactor.function.Consumer
 import reactor.io.Buffer
+import reactor.io.BufferAllocator
 import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.ByteBuffer
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
 
 import static reactor.io.encoding.StandardCodecs.PASS_THROUGH_CODEC
 
@@ -39,7 +48,7 @@ class CompressionCodecsSpec extends Specification {
 			buffer = snappy.encoder().apply(Buffer.wrap("Hello World!"))
 
 		then: "the Buffer was encoded and compressed"
-			buffer.remaining() == 34
+			buffer.remaining() == 38
 
 		when: "an object is decoded with Snappy"
 			hw = snappy.decoder(null).apply(buffer).asString()
@@ -49,4 +58,189 @@ class CompressionCodecsSpec extends Specification {
 
 	}
 
+	@Unroll
+	def "#name round-trips #length bytes"() {
+
+		given: "data to compress"
+			byte[] data = data(length)
+
+		when: "the data is encoded and decoded"
+			Buffer decoded = codec.decoder(null).apply(codec.encoder().apply(new Buffer(ByteBuffer.wrap(data))))
+
+		then: "the data is unchanged"
+			decoded.asBytes() == data
+
+		where:
+			name     | codec                                               | length
+			"gzip"   | new GzipCodec<Buffer, Buffer>(PASS_THROUGH_CODEC)   | 0
+			"gzip"   | new GzipCodec<Buffer, Buffer>(PASS_THROUGH_CODEC)   | 4 * 1024 * 1024 + 17
+			"snappy" | new SnappyCodec<Buffer, Buffer>(PASS_THROUGH_CODEC) | 0
+			"snappy" | new SnappyCodec<Buffer, Buffer>(PASS_THROUGH_CODEC) | 32 * 1024
+			"snappy" | new SnappyCodec<Buffer, Buffer>(PASS_THROUGH_CODEC) | 4 * 1024 * 1024 + 17
+	}
+
+	def "compressed data can be read by the standard streams"() {
+
+		given: "data to compress"
+			byte[] data = data(100 * 1024)
+			byte[] read
+
+		when: "the data is compressed with GZIP"
+			read = new GZIPInputStream(new ByteArrayInputStream(gzip.encoder().apply(new Buffer(ByteBuffer.wrap(data))).asBytes())).bytes
+
+		then: "GZIPInputStream reads the data"
+			read == data
+
+		when: "the data is compressed with Snappy"
+			byte[] frame = snappy.encoder().apply(new Buffer(ByteBuffer.wrap(data))).asBytes()
+			read = new SnappyInputStream(new ByteArrayInputStream(frame, 4, frame.length - 4)).bytes
+
+		then: "SnappyInputStream reads the data once the length prefix is removed"
+			read == data
+
+	}
+
+	def "data compressed by the standard streams can be decoded"() {
+
+		given: "data compressed by the standard streams"
+			byte[] data = data(100 * 1024)
+			def gzipped = new ByteArrayOutputStream()
+			new GZIPOutputStream(gzipped).withStream { it.write(data) }
+			def snapped = new ByteArrayOutputStream()
+			new SnappyOutputStream(snapped).withStream { it.write(data) }
+
+		expect: "the data is decoded"
+			gzip.decoder(null).apply(Buffer.wrap(gzipped.toByteArray())).asBytes() == data
+			snappy.decoder(null).apply(Buffer.wrap(lengthPrefixed(snapped.toByteArray()))).asBytes() == data
+
+	}
+
+	def "streams flushed part way through or ending with a full block are decoded"() {
+
+		given: "streams written by SnappyOutputStream, flushed after short writes or ending with a full block"
+			byte[] first = data(100 * 1024)
+			byte[] second = data(64 * 1024)
+			def flushed = new ByteArrayOutputStream()
+			new SnappyOutputStream(flushed).withStream { out ->
+				for(int i = 0; i < first.length; i += 1000) {
+					out.write(first, i, Math.min(1000, first.length - i))
+					out.flush()
+				}
+			}
+			def full = new ByteArrayOutputStream()
+			new SnappyOutputStream(full).withStream { it.write(second) }
+			def frames = new ByteArrayOutputStream()
+			frames.write(lengthPrefixed(flushed.toByteArray()))
+			frames.write(lengthPrefixed(full.toByteArray()))
+			byte[] bytes = frames.toByteArray()
+			def decoded = []
+			def decoder = snappy.decoder({ Buffer b -> decoded << b.asBytes() } as Consumer<Buffer>)
+
+		when: "the streams are decoded in chunks"
+			for(int i = 0; i < bytes.length; i += 999) {
+				decoder.apply(new Buffer(ByteBuffer.wrap(bytes, i, Math.min(999, bytes.length - i)).slice()))
+			}
+
+		then: "each stream is decoded as one frame as soon as it's complete"
+			decoded.size() == 2
+			decoded[0] == first
+			decoded[1] == second
+
+	}
+
+	@Unroll
+	def "#name decodes frames split across several Buffers"() {
+
+		given: "frames split in chunks, as read from a connection"
+			byte[] first = data(200 * 1024)
+			byte[] second = "Hello World!".bytes
+			def frames = new ByteArrayOutputStream()
+			frames.write(codec.encoder().apply(new Buffer(ByteBuffer.wrap(first))).asBytes())
+			frames.write(codec.encoder().apply(new Buffer(ByteBuffer.wrap(second))).asBytes())
+			byte[] bytes = frames.toByteArray()
+			def decoded = []
+			def decoder = codec.decoder({ Buffer b -> decoded << b.asBytes() } as Consumer<Buffer>)
+
+		when: "the chunks are decoded one by one"
+			for(int i = 0; i < bytes.length; i += chunk) {
+				decoder.apply(new Buffer(ByteBuffer.wrap(bytes, i, Math.min(chunk, bytes.length - i)).slice()))
+			}
+
+		then: "each frame is decoded once complete"
+			decoded.size() == 2
+			decoded[0] == first
+			decoded[1] == second
+
+		where:
+			name     | codec                                                                                   | chunk
+			"gzip"   | new GzipCodec<Buffer, Buffer>(PASS_THROUGH_CODEC)                                       | 1
+			"gzip"   | new GzipCodec<Buffer, Buffer>(PASS_THROUGH_CODEC, new BufferAllocator(2, true, 1024))   | 1500
+			"snappy" | new SnappyCodec<Buffer, Buffer>(PASS_THROUGH_CODEC)                                     | 7
+			"snappy" | new SnappyCodec<Buffer, Buffer>(PASS_THROUGH_CODEC, new BufferAllocator(2, true, 1024)) | 1500
+	}
+
+	@Unroll
+	def "#name consumes what it decodes, as a connection passing on the unread bytes expects"() {
+
+		given: "frames read in two chunks by a connection that passes the unread bytes in again with the next read"
+			def frames = new ByteArrayOutputStream()
+			frames.write(codec.encoder().apply(Buffer.wrap("hello")).asBytes())
+			frames.write(codec.encoder().apply(Buffer.wrap("world")).asBytes())
+			byte[] bytes = frames.toByteArray()
+			int split = bytes.length - 3
+			def reads = [Arrays.copyOfRange(bytes, 0, split), Arrays.copyOfRange(bytes, split, bytes.length)]
+			def decoded = []
+			def decoder = codec.decoder({ Buffer b -> decoded << b.asString() } as Consumer<Buffer>)
+			byte[] remainder = new byte[0]
+
+		when: "the reads are decoded"
+			reads.each { byte[] read ->
+				byte[] data = new byte[remainder.length + read.length]
+				System.arraycopy(remainder, 0, data, 0, remainder.length)
+				System.arraycopy(read, 0, data, remainder.length, read.length)
+				def buffer = new Buffer(ByteBuffer.wrap(data))
+				decoder.apply(buffer)
+				remainder = Arrays.copyOfRange(data, buffer.position(), data.length)
+			}
+
+		then: "each frame was decoded once and no bytes were left unread"
+			decoded == ["hello", "world"]
+			remainder.length == 0
+
+		where:
+			name     | codec
+			"gzip"   | new GzipCodec<Buffer, Buffer>(PASS_THROUGH_CODEC)
+			"snappy" | new SnappyCodec<Buffer, Buffer>(PASS_THROUGH_CODEC)
+	}
+
+	def "corrupt data is rejected"() {
+
+		when: "data that isn't in GZIP format is decoded"
+			gzip.decoder(null).apply(Buffer.wrap("Hello World! Hello World!"))
+
+		then: "an exception is thrown"
+			thrown(IllegalStateException)
+
+		when: "data that isn't in Snappy format is decoded"
+			snappy.decoder(null).apply(Buffer.wrap("Hello World! Hello World!"))
+
+		then: "an exception is thrown"
+			thrown(IllegalStateException)
+
+	}
+
+	static byte[] lengthPrefixed(byte[] stream) {
+		ByteBuffer.allocate(4 + stream.length).putInt(stream.length).put(stream).array()
+	}
+
+	static byte[] data(int length) {
+		def rand = new Random(length)
+		byte[] data = new byte[length]
+		for(int i = 0; i < length; i++) {
+			// compressible, but not trivially
+			data[i] = (byte)(97 + rand.nextInt(8))
+		}
+		data
+	}
+
 }
@@ -38,4 +38,65 @@ class JsonCodecSpec extends Specification {
 		decoded.get('a').textValue() == 'alpha'
 	}
 
+	def "Several JSON documents in a Buffer are decoded one after the other"() {
+		given: 'A JSON codec'
+		JsonCodec<Map<String, Object>, Object> codec = new JsonCodec<Map<String, Object>, Object>(Map);
+
+		when: 'The decoder is passed several documents'
+		List<Map<String, Object>> decoded = []
+		Function<Buffer, Map<String, Object>> decoder = codec.decoder({ decoded << it } as Consumer<Map<String, Object>>)
+		decoder.apply(Buffer.wrap('{"a": "alpha"}\n{"b": ["}", "\\"{"]} {"c": {"d": 1}}'));
+
+		then: 'All the documents were decoded'
+		decoded == [[a: 'alpha'], [b: ['}', '"{']], [c: [d: 1]]]
+	}
+
+	def "JSON documents split across several Buffers are decoded once complete"() {
+		given: 'A JSON codec'
+		JsonCodec<Map<String, Object>, Object> codec = new JsonCodec<Map<String, Object>, Object>(Map);
+		def json = '{"a": "al\\"pha"} {"b": [1, 2, {"c": "}"}]}'
+
+		when: 'The decoder is passed the documents in pieces'
+		List<Map<String, Object>> decoded = []
+		Function<Buffer, Map<String, Object>> decoder = codec.decoder({ decoded << it } as Consumer<Map<String, Object>>)
+		json.toList().collate(3)*.join().each {
+			decoder.apply(Buffer.wrap(it))
+		}
+
+		then: 'The documents were decoded'
+		decoded == [[a: 'al"pha'], [b: [1, 2, [c: '}']]]]
+	}
+
+	def "A decoder without a Consumer returns the first document"() {
+		given: 'A JSON codec'
+		JsonCodec<JsonNode, Object> codec = new JsonCodec<JsonNode, Object>(JsonNode);
+		def buffer = Buffer.wrap('42 {"a": "alpha"}')
+
+		when: 'The decoder is passed two documents'
+		Function<Buffer, JsonNode> decoder = codec.decoder(null)
+		JsonNode first = decoder.apply(buffer)
+		JsonNode second = decoder.apply(buffer)
+
+		then: 'The documents were returned one at a time'
+		first.intValue() == 42
+		second.get('a').textValue() == 'alpha'
+		buffer.remaining() == 0
+	}
+
+	def "Objects are encoded into JSON"() {
+		given: 'A JSON codec'
+		JsonCodec<Map<String, Object>, Object> codec = new JsonCodec<Map<String, Object>, Object>(Map);
+		def encoder = codec.encoder()
+		def big = [a: 'alpha' * 1000]
+
+		when: 'Objects are encoded'
+		def small = encoder.apply([a: 'alpha']).asString()
+		def large = encoder.apply(big).asString()
+
+		then: 'The JSON was written'
+		small == '{"a":"alpha"}'
+		large.length() == 5008
+		codec.decoder(null).apply(Buffer.wrap(large)) == big
+	}
+
 }
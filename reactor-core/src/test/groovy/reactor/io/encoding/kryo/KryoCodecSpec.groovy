@@ -1,9 +1,16 @@
 package reactor.io.encoding.kryo
 
 import com.esotericsoftware.kryo.Kryo
+import reactor.function.Consumer
+import reactor.function.Supplier
 import reactor.io.Buffer
 import spock.lang.Specification
 
+import java.nio.ByteBuffer
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
+
 /**
  * @author Jon Brisbin
  */
@@ -26,8 +33,8 @@ class KryoCodecSpec extends Specification {
 		when: "an objects are serialized"
 			buffer = codec.encoder().apply(obj)
 
-		then: "all objects were serialized"
-			buffer.remaining() == 78
+		then: "all objects were serialized, with the ID of the registered class"
+			buffer.remaining() == 20
 
 		when: "an object is deserialized"
 			RichObject newObj = codec.decoder(null).apply(buffer)
@@ -39,6 +46,55 @@ class KryoCodecSpec extends Specification {
 
 	}
 
+	def "decodes several objects from heap and direct Buffers"() {
+
+		given: "a Kryo codec and the Buffers of several objects"
+			def codec = new KryoCodec<RichObject, RichObject>(kryo, true)
+			def encoder = codec.encoder()
+			def bytes = new Buffer()
+			(1..3).each { bytes.append(encoder.apply(new RichObject("obj" + it, 0.5f, it as Long))) }
+			bytes.flip()
+			def direct = new Buffer(ByteBuffer.allocateDirect(bytes.remaining()).put(bytes.byteBuffer().duplicate()).flip() as ByteBuffer)
+			def objs = []
+			def consumer = { objs << it } as Consumer<RichObject>
+
+		when: "the objects are deserialized"
+			codec.decoder(consumer).apply(bytes)
+			codec.decoder(consumer).apply(direct)
+
+		then: "all objects were deserialized"
+			objs*.name == ["obj1", "obj2", "obj3"] * 2
+			objs*.total == [1l, 2l, 3l] * 2
+
+	}
+
+	def "uses a Kryo instance per thread"() {
+
+		given: "a Kryo codec that creates a Kryo instance per thread"
+			def kryos = new ConcurrentLinkedQueue<Kryo>()
+			def codec = new KryoCodec<RichObject, RichObject>({
+				def k = new Kryo()
+				k.register(RichObject)
+				kryos << k
+				k
+			} as Supplier<Kryo>, true)
+			def pool = Executors.newFixedThreadPool(4)
+
+		when: "objects are serialized and deserialized from several threads"
+			def results = (1..100).collect { n ->
+				pool.submit({
+					def buffer = codec.encoder().apply(new RichObject("obj" + n, 0.5f, n as Long))
+					codec.decoder(null).apply(buffer).total
+				} as Callable<Long>)
+			}*.get()
+			pool.shutdown()
+
+		then: "all objects were serialized and deserialized, by as many Kryo instances as threads"
+			results == (1..100)*.longValue()
+			kryos.size() <= 4
+
+	}
+
 	static class RichObject {
 		String name
 		Float percent
@@ -3,6 +3,8 @@ package reactor.io.encoding.protobuf
 import reactor.io.Buffer
 import spock.lang.Specification
 
+import java.nio.ByteBuffer
+
 /**
  * @author Jon Brisbin
  */
@@ -40,4 +42,20 @@ class ProtobufCodecSpec extends Specification {
 
 	}
 
+	def "deserializes objects from direct Buffers"() {
+
+		given: "a ProtobufCodec and a direct Buffer"
+			def codec = new ProtobufCodec<TestObjects.RichObject, TestObjects.RichObject>()
+			def bytes = codec.encoder().apply(obj).byteBuffer()
+			def buffer = new Buffer(ByteBuffer.allocateDirect(bytes.remaining()).put(bytes).flip() as ByteBuffer)
+
+		when: "an object is deserialized"
+			TestObjects.RichObject newObj = codec.decoder(null).apply(buffer)
+
+		then: "the object was deserialized"
+			newObj == obj
+			buffer.remaining() == 0
+
+	}
+
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.io.selector
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import reactor.event.registry.CachingRegistry
+import reactor.event.registry.CopyOnWriteRegistry
+import reactor.io.Buffer
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * @author Jon Brisbin
+ */
+class JsonPathSelectorSpec extends Specification {
+
+	@Unroll
+	def "A JsonPathSelector matches '#path' against '#json'"() {
+		given: "a selector"
+			def sel = new JsonPathSelector(path)
+
+		expect: "JSON text is matched whatever its type"
+			sel.matches(json) == matches
+			sel.matches(json.getBytes('UTF-8')) == matches
+			sel.matches(Buffer.wrap(json)) == matches
+
+		where:
+			path                       | json                                  | matches
+			'$.a.b'                    | '{"a": {"b": 1}}'                     | true
+			'$.a.b'                    | '{"x": [1, {"b": 2}], "a": {"b": 1}}' | true
+			'$.a.b'                    | '{"a": {"c": 1}}'                     | false
+			'$.a.b'                    | '{"a": {"b": null}}'                  | false
+			'$.a.b'                    | '{"a": {"b": false}}'                 | true
+			'$.a.b'                    | '{"a": {"b": []}}'                    | false
+			'$.a.b'                    | '{"a": {"b": {"c": 1}}}'              | true
+			'$.a.b'                    | '{"a": 5}'                            | false
+			'$.a.b'                    | '[1, 2]'                              | false
+			'$.data[?(@.run == 1)]'    | '{"data": [{"run": 1}]}'              | true
+			'$.data[?(@.run == 1)]'    | '{"data": [{"run": 2}]}'              | false
+	}
+
+	def "A JsonPathSelector matches objects converted to JSON"() {
+		given: "selectors with a simple and a filtering path"
+			def simple = new JsonPathSelector('$.a.b')
+			def filtering = new JsonPathSelector('$.data[?(@.run == 1)]')
+
+		expect: "maps are matched"
+			simple.matches([a: [b: 1]])
+			!simple.matches([a: [c: 1]])
+			filtering.matches([data: [[run: 1]]])
+			!filtering.matches([data: [[run: 2]]])
+	}
+
+	@Unroll
+	def "A key is parsed once when selected by #registry.class.simpleName"() {
+		given: "several selectors sharing a mapper"
+			def parses = 0
+			def mapper = new ObjectMapper() {
+				@Override
+				def <T> T readValue(String content, Class<T> valueType) {
+					parses++
+					super.readValue(content, valueType)
+				}
+			}
+			(1..5).each { i ->
+				registry.register(new JsonPathSelector(mapper, "\$.data[?(@.run == $i)]"), i)
+			}
+			def json = '{"data": [{"run": 3}]}'
+
+		when: "the key is selected"
+			def regs = registry.select(json)
+
+		then: "it was parsed once for all of the selectors"
+			regs*.object == [3]
+			parses == 1
+
+		when: "the key is matched outside of a selection"
+			parses = 0
+			def sel = new JsonPathSelector(mapper, '$.data[?(@.run == 3)]')
+			sel.matches(json)
+			sel.matches(json)
+
+		then: "nothing is memoized"
+			parses == 2
+
+		where:
+			registry << [new CachingRegistry(), new CopyOnWriteRegistry()]
+	}
+
+}
@@ -20,8 +20,11 @@ import net.openhft.chronicle.ChronicleConfig
 import net.openhft.chronicle.tools.ChronicleTools
 import reactor.io.encoding.StandardCodecs
 import reactor.io.encoding.json.JsonCodec
+import reactor.queue.spec.PersistentQueueSpec as QueueSpec
 import spock.lang.Specification
 
+import java.util.concurrent.TimeUnit
+
 /**
  * @author Jon Brisbin
  */
@@ -115,4 +118,195 @@ class PersistentQueueSpec extends Specification {
 
 	}
 
+	def "Mapped segment PersistentQueue acknowledges writes once synced"() {
+
+		given:
+			"a queue synced on every write"
+			def q = mappedQueue(SyncPolicy.EVERY_WRITE)
+
+		when:
+			"several producers offer elements concurrently"
+			def acks = Collections.synchronizedList([])
+			def threads = (0..<4).collect { t ->
+				Thread.start {
+					(0..<250).each { acks << q.offerDurably("$t-$it".toString()) }
+				}
+			}
+			threads*.join()
+
+		then:
+			"every element was acknowledged with its id"
+			q.size() == 1000
+			acks*.await(5, TimeUnit.SECONDS).sort() == (0L..<1000L).toList()
+
+		cleanup:
+			q?.close()
+
+	}
+
+	def "Mapped segment PersistentQueue syncs every N messages"() {
+
+		given:
+			"a queue synced every 10 messages"
+			def q = mappedQueue(SyncPolicy.everyMessages(10))
+
+		when:
+			"fewer elements than that are offered"
+			def acks = (0..<9).collect { q.offerDurably("test $it".toString()) }
+
+		then:
+			"none of them is acknowledged"
+			acks.every { it.pending }
+
+		when:
+			"the tenth element is offered"
+			acks << q.offerDurably("test 9")
+
+		then:
+			"all of them are acknowledged"
+			acks.every { it.success }
+			acks*.get() == (0L..<10L).toList()
+
+		cleanup:
+			q?.close()
+
+	}
+
+	def "Mapped segment PersistentQueue syncs every N messages within a maximum delay"() {
+
+		given:
+			"a queue synced every 10 messages or 50ms"
+			def q = mappedQueue(SyncPolicy.everyMessages(10, 50, TimeUnit.MILLISECONDS))
+
+		when:
+			"fewer elements than that are offered"
+			def acks = (0..<3).collect { q.offerDurably("test $it".toString()) }
+
+		then:
+			"they are acknowledged once the delay has elapsed"
+			acks*.await(5, TimeUnit.SECONDS) == (0L..<3L).toList()
+
+		cleanup:
+			q?.close()
+
+	}
+
+	def "Mapped segment PersistentQueue syncs pending messages when closed"() {
+
+		given:
+			"a queue synced every 10 messages"
+			def q = mappedQueue(SyncPolicy.everyMessages(10))
+
+		when:
+			"fewer elements than that are offered and the queue is closed"
+			def acks = (0..<3).collect { q.offerDurably("test $it".toString()) }
+			q.close()
+
+		then:
+			"they are acknowledged"
+			acks.every { it.success }
+			acks*.get() == (0L..<3L).toList()
+
+	}
+
+	def "Mapped segment PersistentQueue syncs periodically"() {
+
+		given:
+			"a queue synced every 50ms"
+			def q = mappedQueue(SyncPolicy.every(50, TimeUnit.MILLISECONDS))
+
+		when:
+			"an element is offered"
+			def ack = q.offerDurably("test")
+
+		then:
+			"it is acknowledged once the period has elapsed"
+			ack.await(5, TimeUnit.SECONDS) == 0L
+
+		cleanup:
+			q?.close()
+
+	}
+
+	def "Mapped segment PersistentQueue that never syncs acknowledges writes immediately"() {
+
+		given:
+			"a queue never synced"
+			def q = mappedQueue(SyncPolicy.NEVER)
+
+		when:
+			"an element is offered"
+			def ack = q.offerDurably("test")
+
+		then:
+			"it is acknowledged"
+			ack.success
+			ack.get() == 0L
+			q.poll() == "test"
+
+		cleanup:
+			q?.close()
+
+	}
+
+	def "PersistentQueue peeks at its head"() {
+
+		given:
+			"a queue with elements"
+			def q = mappedQueue(SyncPolicy.NEVER)
+			(1..3).each { q.offer("test $it".toString()) }
+
+		when:
+			"an element is polled"
+			def first = q.peek()
+			def polled = q.poll()
+
+		then:
+			"peek returned the element at the head"
+			first == "test 1"
+			polled == "test 1"
+			q.peek() == "test 2"
+			q.peek() == "test 2"
+			q.size() == 2
+
+		cleanup:
+			q?.close()
+
+	}
+
+	def "Mapped segment PersistentQueue has cursors"() {
+
+		given:
+			"a queue with elements"
+			def q = mappedQueue(SyncPolicy.NEVER)
+			(1..3).each { q.offer("test $it".toString()) }
+
+		when:
+			"the elements are read with a cursor"
+			def cursor = q.cursor("indexer")
+			def read = cursor.pollBatch(10)
+
+		then:
+			"they were read without being removed"
+			read*.asString() == ["test 1", "test 2", "test 3"]
+			q.size() == 3
+
+		cleanup:
+			q?.close()
+
+	}
+
+	static PersistentQueue<String> mappedQueue(SyncPolicy syncPolicy) {
+		def dir = File.createTempFile("persistent-queue", "")
+		dir.delete()
+		new QueueSpec<String>().
+				codec(StandardCodecs.STRING_CODEC).
+				basePath(dir.absolutePath).
+				clearOnStart(true).
+				deleteOnExit(true).
+				segmentSize(1024 * 1024).
+				syncPolicy(syncPolicy).
+				get()
+	}
+
 }
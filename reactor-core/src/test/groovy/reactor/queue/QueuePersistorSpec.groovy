@@ -91,4 +91,279 @@ class QueuePersistorSpec extends Specification {
 
 	}
 
+	def "MappedSegmentQueuePersistor persists objects"() {
+
+		given:
+			"a MappedSegmentQueuePersistor"
+			def persistor = new MappedSegmentQueuePersistor<String>(
+					tempDir(),
+					StandardCodecs.STRING_CODEC,
+					true,
+					true,
+					MappedSegmentQueuePersistor.DEFAULT_SEGMENT_SIZE
+			)
+			def obj = "Hello World!"
+
+		when:
+			"an object is persisted"
+			def id = persistor.offer().apply(obj)
+
+		then:
+			"the object was persisted"
+			id == 0
+			persistor.get().apply(id) == obj
+			persistor.hasNext()
+
+		when:
+			"the object is removed"
+			def removed = persistor.remove().get()
+
+		then:
+			"the object was removed"
+			removed == obj
+			persistor.size() == 0
+			null == persistor.remove().get()
+
+		cleanup:
+			persistor.close()
+
+	}
+
+	def "MappedSegmentQueuePersistor rolls segments and deletes them once consumed"() {
+
+		given:
+			"a MappedSegmentQueuePersistor with small segments"
+			def dir = tempDir()
+			def persistor = new MappedSegmentQueuePersistor<String>(dir, StandardCodecs.STRING_CODEC, true, true, 1024)
+			def segments = { new File(dir).list().findAll { it.endsWith(".log") }.size() }
+
+		when:
+			"more objects are persisted than fit in a segment"
+			def ids = (0..<500).collect { persistor.offer().apply("item $it".toString()) }
+
+		then:
+			"they are spread over several segments and can all be read"
+			ids == (0..<500).toList()
+			segments() > 1
+			(0..<500).every { persistor.get().apply(it) == "item $it".toString() }
+			persistor.iterator().collect() == (0..<500).collect { "item $it".toString() }
+
+		when:
+			"all the objects are removed"
+			def removed = (0..<500).collect { persistor.remove().get() }
+
+		then:
+			"the consumed segments were deleted"
+			removed == (0..<500).collect { "item $it".toString() }
+			segments() == 1
+			persistor.size() == 0
+
+		cleanup:
+			persistor.close()
+
+	}
+
+	def "MappedSegmentQueuePersistor restarts where it left off"() {
+
+		given:
+			"a MappedSegmentQueuePersistor with objects partly removed"
+			def dir = tempDir()
+			def persistor = new MappedSegmentQueuePersistor<String>(dir, StandardCodecs.STRING_CODEC, true, true, 1024)
+			(0..<300).each { persistor.offer().apply("item $it".toString()) }
+			(0..<100).each { persistor.remove().get() }
+			persistor.close()
+
+		when:
+			"it is reopened"
+			persistor = new MappedSegmentQueuePersistor<String>(dir, StandardCodecs.STRING_CODEC, false, true, 1024)
+
+		then:
+			"the remaining objects are still there"
+			persistor.size() == 200
+			persistor.lastId() == 299
+			persistor.remove().get() == "item 100"
+
+		when:
+			"an object is persisted"
+			def id = persistor.offer().apply("item 300")
+
+		then:
+			"it is appended after the others"
+			id == 300
+			persistor.get().apply(300L) == "item 300"
+
+		cleanup:
+			persistor.close()
+
+	}
+
+	def "MappedSegmentQueuePersistor accepts objects from several threads"() {
+
+		given:
+			"a MappedSegmentQueuePersistor with small segments"
+			def persistor = new MappedSegmentQueuePersistor<String>(tempDir(), StandardCodecs.STRING_CODEC, true, true, 4096)
+
+		when:
+			"objects are persisted concurrently"
+			def threads = (0..<4).collect { t ->
+				Thread.start {
+					(0..<1000).each { persistor.offer().apply("$t-$it".toString()) }
+				}
+			}
+			threads*.join()
+
+		then:
+			"every object was persisted once"
+			persistor.size() == 4000
+			persistor.iterator().collect() as Set == ((0..<4).collect { t -> (0..<1000).collect { "$t-$it".toString() } }.flatten() as Set)
+
+		cleanup:
+			persistor.close()
+
+	}
+
+	def "MappedSegmentQueuePersistor gives objects to several removing threads"() {
+
+		given:
+			"a MappedSegmentQueuePersistor with small segments holding many objects"
+			def persistor = new MappedSegmentQueuePersistor<String>(tempDir(), StandardCodecs.STRING_CODEC, true, true, 1024)
+			(0..<4000).each { persistor.offer().apply("test$it".toString()) }
+			def removed = [].asSynchronized()
+
+		when:
+			"objects are removed concurrently"
+			def threads = (0..<4).collect {
+				Thread.start {
+					def obj
+					while(null != (obj = persistor.remove().get())) {
+						removed << obj
+					}
+				}
+			}
+			threads*.join()
+
+		then:
+			"every object was removed once"
+			persistor.size() == 0
+			removed.size() == 4000
+			removed as Set == ((0..<4000).collect { "test$it".toString() } as Set)
+
+		cleanup:
+			persistor.close()
+
+	}
+
+	def "MappedSegmentQueuePersistor cursors read independently"() {
+
+		given:
+			"a MappedSegmentQueuePersistor with objects"
+			def persistor = new MappedSegmentQueuePersistor<String>(tempDir(), StandardCodecs.STRING_CODEC, true, true, 1024)
+			(0..<10).each { persistor.offer().apply("item $it".toString()) }
+
+		when:
+			"two cursors read at their own pace"
+			def indexer = persistor.cursor("indexer")
+			def archiver = persistor.cursor("archiver")
+			def indexed = (0..<10).collect { indexer.poll() }
+			def archived = archiver.pollBatch(4)
+
+		then:
+			"each read from the start"
+			indexed == (0..<10).collect { "item $it".toString() }
+			!indexer.hasNext()
+			null == indexer.poll()
+			archived*.asString() == (0..<4).collect { "item $it".toString() }
+			archiver.position() == 4
+			persistor.cursor("indexer").is(indexer)
+
+		when:
+			"objects are removed"
+			persistor.remove().get()
+
+		then:
+			"the cursors are unaffected"
+			archiver.poll() == "item 4"
+			persistor.size() == 9
+
+		cleanup:
+			persistor.close()
+
+	}
+
+	def "MappedSegmentQueuePersistor cursors restart from their committed position"() {
+
+		given:
+			"a cursor that has committed part of what it read"
+			def dir = tempDir()
+			def persistor = new MappedSegmentQueuePersistor<String>(dir, StandardCodecs.STRING_CODEC, true, true, 1024)
+			(0..<300).each { persistor.offer().apply("item $it".toString()) }
+			def cursor = persistor.cursor("replicator")
+			cursor.pollBatch(150)
+			cursor.commit()
+			cursor.pollBatch(50)
+
+		when:
+			"the persistor is reopened"
+			persistor.close()
+			persistor = new MappedSegmentQueuePersistor<String>(dir, StandardCodecs.STRING_CODEC, false, true, 1024)
+			cursor = persistor.cursor("replicator")
+
+		then:
+			"the cursor starts from its committed position"
+			cursor.committed() == 150
+			cursor.poll() == "item 150"
+
+		when:
+			"the cursor is reset"
+			cursor.pollBatch(10)
+			cursor.reset()
+
+		then:
+			"it goes back to its committed position"
+			cursor.poll() == "item 150"
+
+		cleanup:
+			persistor.close()
+
+	}
+
+	def "MappedSegmentQueuePersistor keeps segments until cursors have committed past them"() {
+
+		given:
+			"a MappedSegmentQueuePersistor with small segments and a cursor"
+			def dir = tempDir()
+			def persistor = new MappedSegmentQueuePersistor<String>(dir, StandardCodecs.STRING_CODEC, true, true, 1024)
+			def segments = { new File(dir).list().findAll { it.endsWith(".log") }.size() }
+			def cursor = persistor.cursor("archiver")
+			(0..<500).each { persistor.offer().apply("item $it".toString()) }
+			def total = segments()
+
+		when:
+			"all the objects are removed"
+			(0..<500).each { persistor.remove().get() }
+
+		then:
+			"the segments the cursor hasn't committed past are kept"
+			segments() == total
+			cursor.pollBatch(500).size() == 500
+
+		when:
+			"the cursor commits"
+			cursor.commit()
+
+		then:
+			"the consumed segments are deleted"
+			segments() == 1
+
+		cleanup:
+			persistor.close()
+
+	}
+
+	static String tempDir() {
+		def dir = File.createTempFile("mapped-segments", "")
+		dir.delete()
+		dir.absolutePath
+	}
+
 }
@@ -5,6 +5,7 @@ import spock.lang.Specification
 
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * @author Oleksandr Petrov
@@ -65,5 +66,83 @@ class HashWheelTimerSleepWaitStrategy extends Specification {
 
   }
 
-}
+  def "HashWheelTimer runs submitted tasks once"() {
+
+    given:
+    "a new timer"
+    def timer = new HashWheelTimer(10, 8, new HashWheelTimer.SleepWait())
+    def runs = new AtomicInteger()
+
+    when:
+    "a task is submitted"
+    timer.submit({ Long now -> runs.incrementAndGet() } as Consumer<Long>, 20, TimeUnit.MILLISECONDS)
+    Thread.sleep(200)
+
+    then:
+    "the task ran once"
+    runs.get() == 1
+
+    cleanup:
+    timer.cancel()
+
+  }
+
+  def "HashWheelTimer runs tasks due after a whole wheel on time"() {
+
+    given:
+    "a timer whose wheel covers 80ms"
+    def timer = new HashWheelTimer(10, 8, new HashWheelTimer.SleepWait())
+    def delays = [35, 150, 700, 1300]
+    def latch = new CountDownLatch(delays.size())
+    def start = System.currentTimeMillis()
+    def elapsed = [:].asSynchronized()
+
+    when:
+    "tasks are submitted for later than that"
+    delays.each { delay ->
+      timer.submit({ Long now ->
+        elapsed[delay] = System.currentTimeMillis() - start
+        latch.countDown()
+      } as Consumer<Long>, delay, TimeUnit.MILLISECONDS)
+    }
 
+    then:
+    "they ran once their delay had elapsed"
+    latch.await(3, TimeUnit.SECONDS)
+    delays.every { elapsed[it] >= it && elapsed[it] < it + 100 }
+
+    cleanup:
+    timer.cancel()
+
+  }
+
+  def "HashWheelTimer never runs cancelled tasks"() {
+
+    given:
+    "a new timer"
+    def timer = new HashWheelTimer(10, 8, new HashWheelTimer.SleepWait())
+    def runs = new AtomicInteger()
+    def latch = new CountDownLatch(1)
+
+    when:
+    "many tasks are submitted and all but one are cancelled"
+    def registrations = (1..10000).collect {
+      timer.submit({ Long now -> runs.incrementAndGet() } as Consumer<Long>, 1000 + it % 200, TimeUnit.MILLISECONDS)
+    }
+    timer.submit({ Long now -> latch.countDown() } as Consumer<Long>, 1400, TimeUnit.MILLISECONDS)
+    def start = System.currentTimeMillis()
+    registrations*.cancel()
+    def cancelling = System.currentTimeMillis() - start
+
+    then:
+    "only the task left ran"
+    cancelling < 1000
+    latch.await(3, TimeUnit.SECONDS)
+    runs.get() == 0
+
+    cleanup:
+    timer.cancel()
+
+  }
+
+}
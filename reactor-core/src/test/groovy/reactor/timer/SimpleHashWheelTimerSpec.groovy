@@ -1,11 +1,13 @@
 package reactor.timer
 
+import reactor.event.dispatch.ThreadPoolExecutorDispatcher
 import reactor.function.Consumer
-import spock.lang.Ignore
+import reactor.function.support.CancelConsumerException
 import spock.lang.Specification
 
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * @author Jon Brisbin
@@ -36,7 +38,6 @@ class SimpleHashWheelTimerSpec extends Specification {
 
   }
 
-	@Ignore
   def "HashWheelTimer can delay submitted tasks"() {
 
     given:
@@ -67,4 +68,83 @@ class SimpleHashWheelTimerSpec extends Specification {
 
   }
 
+  def "SimpleHashWheelTimer dispatches tasks to a Dispatcher"() {
+
+    given:
+      "a timer with a thread pool Dispatcher"
+      def dispatcher = new ThreadPoolExecutorDispatcher(1, 128, "timer-tasks")
+      def timer = new SimpleHashWheelTimer(10, dispatcher)
+      def latch = new CountDownLatch(1)
+      def thread = null
+
+    when:
+      "a task is submitted"
+      timer.submit({ Long now ->
+        thread = Thread.currentThread().name
+        latch.countDown()
+      } as Consumer<Long>, 20, TimeUnit.MILLISECONDS)
+
+    then:
+      "the task ran on the Dispatcher"
+      latch.await(1, TimeUnit.SECONDS)
+      thread.startsWith("timer-tasks")
+
+    cleanup:
+      timer.cancel()
+      dispatcher.shutdown()
+
+  }
+
+  def "SimpleHashWheelTimer runs a task taking longer than its period once per tick"() {
+
+    given:
+      "a timer running its tasks on the timer thread"
+      def timer = new SimpleHashWheelTimer(10)
+      def runs = new AtomicInteger()
+      def latch = new CountDownLatch(1)
+
+    when:
+      "a recurring task runs longer than its period and another task is submitted"
+      timer.schedule({ Long now ->
+        runs.incrementAndGet()
+        Thread.sleep(30)
+      } as Consumer<Long>, 10, TimeUnit.MILLISECONDS)
+      Thread.sleep(100)
+      timer.submit({ Long now -> latch.countDown() } as Consumer<Long>, 10, TimeUnit.MILLISECONDS)
+
+    then:
+      "the submitted task ran, and the recurring task wasn't run more than once per tick"
+      latch.await(1, TimeUnit.SECONDS)
+      runs.get() <= 10
+
+    cleanup:
+      timer.cancel()
+
+  }
+
+  def "SimpleHashWheelTimer cancels tasks that throw CancelConsumerException"() {
+
+    given:
+      "a new timer"
+      def timer = new SimpleHashWheelTimer(10)
+      def runs = new AtomicInteger()
+
+    when:
+      "a recurring task cancels itself"
+      def registration = timer.schedule({ Long now ->
+        runs.incrementAndGet()
+        throw new CancelConsumerException()
+      } as Consumer<Long>, 10, TimeUnit.MILLISECONDS)
+      Thread.sleep(200)
+
+    then:
+      "it ran once"
+      runs.get() == 1
+      registration.cancelled
+
+    cleanup:
+      timer.cancel()
+
+  }
+
 }
@@ -23,7 +23,9 @@ import reactor.event.registry.Registry;
 import reactor.event.selector.ObjectSelector;
 import reactor.event.selector.Selector;
 import reactor.event.selector.Selectors;
+import reactor.function.Predicate;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -143,6 +145,156 @@ public final class CachingRegistryTests {
 	}
 
 
+	@Test
+	public void selectorsOfDifferentTypesAreSelectedInInsertionOrder() {
+		this.cachingRegistry.register(Selectors.R("/test/.*"), "regex");
+		this.cachingRegistry.register(Selectors.U("/test/{id}"), "uri");
+		this.cachingRegistry.register(Selectors.$("/test/1"), "object");
+		this.cachingRegistry.register(Selectors.predicate(new Predicate<Object>() {
+			@Override
+			public boolean test(Object o) {
+				return true;
+			}
+		}), "predicate");
+		this.cachingRegistry.register(Selectors.U("/other/{id}"), "other-uri");
+		this.cachingRegistry.register(Selectors.R("/other/.*"), "other-regex");
+
+		assertEquals(Arrays.asList("regex", "uri", "object", "predicate"), objects(this.cachingRegistry.select("/test/1")));
+		assertEquals(Arrays.asList("regex", "uri", "predicate"), objects(this.cachingRegistry.select("/test/2")));
+	}
+
+	@Test
+	public void classSelectorsMatchSupertypesOfTheKey() {
+		this.cachingRegistry.register(Selectors.T(Object.class), "object");
+		this.cachingRegistry.register(Selectors.T(Exception.class), "exception");
+		this.cachingRegistry.register(Selectors.T(Serializable.class), "serializable");
+		this.cachingRegistry.register(Selectors.T(Error.class), "error");
+		this.cachingRegistry.register(Selectors.T(IllegalArgumentException.class), "iae");
+
+		assertEquals(Arrays.asList("object", "exception", "serializable", "iae"),
+		             objects(this.cachingRegistry.select(IllegalArgumentException.class)));
+		assertEquals(Arrays.asList("object", "serializable"), objects(this.cachingRegistry.select(Serializable.class)));
+		assertEquals(Arrays.asList("object"), objects(this.cachingRegistry.select(Runnable.class)));
+	}
+
+	@Test
+	public void uriPathSelectorsOnlyMatchTheirTemplate() {
+		this.cachingRegistry.register(Selectors.U("/a/b"), "exact");
+		this.cachingRegistry.register(Selectors.U("/a/{id}"), "var");
+		this.cachingRegistry.register(Selectors.U("/a/**"), "splat");
+		this.cachingRegistry.register(Selectors.U("/**/c"), "leading-splat");
+		this.cachingRegistry.register(Selectors.U("/a/b.json"), "dot");
+
+		assertEquals(Arrays.asList("exact", "var", "splat"), objects(this.cachingRegistry.select("/a/b")));
+		assertEquals(Arrays.asList("splat", "leading-splat"), objects(this.cachingRegistry.select("/a/b/c")));
+		assertEquals(Arrays.asList("splat", "dot"), objects(this.cachingRegistry.select("/a/b.json")));
+		assertEquals(Arrays.asList("leading-splat"), objects(this.cachingRegistry.select("/x/c")));
+		assertEquals(0, this.cachingRegistry.select("/x/y").size());
+	}
+
+	@Test
+	public void regexSelectorsArePrefilteredByTheirLiteralPrefix() {
+		this.cachingRegistry.register(Selectors.R("user\\.(\\d+)"), "user");
+		this.cachingRegistry.register(Selectors.R("users?"), "optional");
+		this.cachingRegistry.register(Selectors.R("^order.*"), "order");
+		this.cachingRegistry.register(Selectors.R("user|order"), "alternation");
+		this.cachingRegistry.register(Selectors.R(".*"), "any");
+
+		assertEquals(Arrays.asList("user", "any"), objects(this.cachingRegistry.select("user.42")));
+		assertEquals(Arrays.asList("optional", "alternation", "any"), objects(this.cachingRegistry.select("user")));
+		assertEquals(Arrays.asList("optional", "any"), objects(this.cachingRegistry.select("users")));
+		assertEquals(Arrays.asList("order", "alternation", "any"), objects(this.cachingRegistry.select("order")));
+	}
+
+	@Test
+	public void cancelledRegistrationsAreNotSelected() {
+		Registration<?> reg = this.cachingRegistry.register(Selectors.R("key.*"), "alpha");
+		this.cachingRegistry.register(Selectors.R("key.*"), "bravo");
+		reg.cancel();
+
+		assertEquals(Arrays.asList("bravo"), objects(this.cachingRegistry.select("key1")));
+	}
+
+	@Test
+	public void registrationOnlyInvalidatesTheSelectionsItMatches() {
+		this.cachingRegistry.register(Selectors.$("alpha"), "alpha");
+		this.cachingRegistry.register(Selectors.$("bravo"), "bravo");
+		this.cachingRegistry.select("alpha");
+		this.cachingRegistry.select("bravo");
+
+		this.cachingRegistry.register(Selectors.$("bravo"), "bravo2");
+
+		assertEquals(Arrays.asList("alpha"), objects(this.cachingRegistry.select("alpha")));
+		assertEquals(Arrays.asList("bravo", "bravo2"), objects(this.cachingRegistry.select("bravo")));
+		assertEquals(3, this.cacheMisses.get());
+	}
+
+	@Test
+	public void cacheIsBoundedAndEvictsUnreferencedSelections() {
+		CachingRegistry<Object> registry = new CacheMissCountingCachingRegistry<Object>(cacheMisses, 4);
+		registry.register(Selectors.R("key.*"), "alpha");
+		for (int i = 0; i < 4; i++) {
+			registry.select("key" + i);
+		}
+		// reference every selection but the first
+		for (int i = 1; i < 4; i++) {
+			registry.select("key" + i);
+		}
+		registry.select("key4");
+
+		assertEquals(1, registry.getCacheEvictions());
+		registry.select("key1");
+		assertEquals(5, registry.getCacheMisses());
+		registry.select("key0");
+		assertEquals(6, registry.getCacheMisses());
+		assertEquals(4, registry.getCacheHits());
+		assertEquals(2, registry.getCacheEvictions());
+		assertEquals(6, this.cacheMisses.get());
+	}
+
+	@Test
+	public void unregisterInvalidatesTheSelectionsOfTheCancelledRegistrations() {
+		this.cachingRegistry.register(Selectors.R("key.*"), "alpha");
+		this.cachingRegistry.select("key1");
+		this.cachingRegistry.select("key2");
+
+		assertEquals(true, this.cachingRegistry.unregister("key1"));
+		assertEquals(0, this.cachingRegistry.select("key2").size());
+	}
+
+	@Test
+	public void keysWithTheSameHashCodeDoNotShareSelections() {
+		// "Aa" and "BB" have the same hashCode
+		this.cachingRegistry.register(Selectors.$("Aa"), "alpha");
+		this.cachingRegistry.register(Selectors.$("BB"), "bravo");
+
+		assertEquals(Arrays.asList("alpha"), objects(this.cachingRegistry.select("Aa")));
+		assertEquals(Arrays.asList("bravo"), objects(this.cachingRegistry.select("BB")));
+		assertEquals(Arrays.asList("alpha"), objects(this.cachingRegistry.select("Aa")));
+	}
+
+	@Test
+	public void anonymousKeysAreSelectedByEquality() {
+		Selector alpha = Selectors.anonymous();
+		Selector bravo = Selectors.anonymous();
+		this.cachingRegistry.register(alpha, "alpha");
+		this.cachingRegistry.register(bravo, "bravo");
+
+		assertEquals(Arrays.asList("alpha"), objects(this.cachingRegistry.select(alpha.getObject())));
+		assertEquals(Arrays.asList("bravo"), objects(this.cachingRegistry.select(bravo.getObject())));
+		assertEquals(0, this.cachingRegistry.select(new Object()).size());
+	}
+
+	@Test
+	public void unregisterRemovesTheRegistrationsOfAnAnonymousKey() {
+		Selector alpha = Selectors.anonymous();
+		this.cachingRegistry.register(alpha, "alpha");
+
+		assertEquals(true, this.cachingRegistry.unregister(alpha.getObject()));
+		assertEquals(0, this.cachingRegistry.select(alpha.getObject()).size());
+		assertEquals(false, this.cachingRegistry.unregister(alpha.getObject()));
+	}
+
 	//Issue : https://github.com/reactor/reactor/issues/237
 	@Test
 	public void invokeConsumersWithCustomSelector() {
@@ -192,6 +344,14 @@ public final class CachingRegistryTests {
 
 	}
 
+	private static List<Object> objects(List<Registration<?>> registrations) {
+		List<Object> objects = new ArrayList<Object>();
+		for (Registration<?> registration : registrations) {
+			objects.add(registration.getObject());
+		}
+		return objects;
+	}
+
 	private static final class CacheMissCountingCachingRegistry<T> extends CachingRegistry<T> {
 		private final AtomicInteger cacheMisses;
 
@@ -199,6 +359,11 @@ public final class CachingRegistryTests {
 			this.cacheMisses = cacheMisses;
 		}
 
+		public CacheMissCountingCachingRegistry(AtomicInteger cacheMisses, int maxCacheSize) {
+			super(maxCacheSize);
+			this.cacheMisses = cacheMisses;
+		}
+
 		@Override
 		protected void cacheMiss(Object key) {
 			this.cacheMisses.incrementAndGet();
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.event;
+
+import org.junit.Test;
+import reactor.event.registry.CopyOnWriteRegistry;
+import reactor.event.registry.Registration;
+import reactor.event.registry.Registry;
+import reactor.event.selector.Selector;
+import reactor.event.selector.Selectors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class CopyOnWriteRegistryTests {
+
+	private final AtomicInteger    cacheMisses = new AtomicInteger();
+	private final Registry<Object> registry    = new CacheMissCountingRegistry<Object>(cacheMisses);
+
+	@Test
+	public void registrationsWithTheSameSelectorAreOrderedByInsertionOrder() {
+		Selector selector = Selectors.$("selector");
+
+		registry.register(selector, "echo");
+		registry.register(selector, "bravo");
+		registry.register(selector, "alpha");
+
+		assertEquals(Arrays.asList("echo", "bravo", "alpha"), objects(registry.select("selector")));
+	}
+
+	@Test
+	public void resultsAreCached() {
+		registry.register(Selectors.uri("/**/selector"), "alpha");
+
+		registry.select("/test/selector");
+		registry.select("/test/selector");
+		registry.select("/test/other");
+		registry.select("/test/other");
+
+		assertEquals(2, cacheMisses.get());
+	}
+
+	@Test
+	public void registrationOnlyInvalidatesTheSelectionsItMatches() {
+		registry.register(Selectors.$("alpha"), "alpha");
+		registry.register(Selectors.$("bravo"), "bravo");
+		registry.select("alpha");
+		registry.select("bravo");
+
+		registry.register(Selectors.$("bravo"), "bravo2");
+
+		assertEquals(Arrays.asList("alpha"), objects(registry.select("alpha")));
+		assertEquals(Arrays.asList("bravo", "bravo2"), objects(registry.select("bravo")));
+		assertEquals(3, cacheMisses.get());
+	}
+
+	@Test
+	public void collidingKeysDoNotShareSelections() {
+		// "Aa" and "BB" have the same hashCode
+		registry.register(Selectors.$("Aa"), "alpha");
+		registry.register(Selectors.$("BB"), "bravo");
+
+		assertEquals(Arrays.asList("alpha"), objects(registry.select("Aa")));
+		assertEquals(Arrays.asList("bravo"), objects(registry.select("BB")));
+	}
+
+	@Test
+	public void cancelledRegistrationsAreRemoved() {
+		Registration<?> reg = registry.register(Selectors.$("key"), "alpha");
+		registry.register(Selectors.$("key"), "bravo");
+		registry.select("key");
+
+		reg.cancel();
+
+		assertEquals(Arrays.asList("bravo"), objects(registry.select("key")));
+		assertEquals(1, count(registry));
+	}
+
+	@Test
+	public void pausedRegistrationsAreNotSelected() {
+		Registration<?> reg = registry.register(Selectors.$("key"), "alpha");
+		registry.select("key");
+
+		reg.pause();
+		assertTrue(registry.select("key").isEmpty());
+
+		reg.resume();
+		assertEquals(Arrays.asList("alpha"), objects(registry.select("key")));
+	}
+
+	@Test
+	public void unregisterCancelsMatchingRegistrations() {
+		Registration<?> reg = registry.register(Selectors.$("key"), "alpha");
+		registry.register(Selectors.$("other"), "bravo");
+
+		assertTrue(registry.unregister("key"));
+		assertFalse(registry.unregister("key"));
+		assertTrue(reg.isCancelled());
+		assertTrue(registry.select("key").isEmpty());
+		assertEquals(1, count(registry));
+	}
+
+	@Test
+	public void cacheIsBounded() {
+		Registry<Object> registry = new CacheMissCountingRegistry<Object>(cacheMisses, 4);
+		registry.register(Selectors.$("key"), "alpha");
+		for (int i = 0; i < 5; i++) {
+			registry.select("key" + i);
+		}
+		registry.select("key4");
+		registry.select("key0");
+
+		assertEquals(6, cacheMisses.get());
+	}
+
+	@Test
+	public void cacheEvictsItsOldestSelectionsOnly() {
+		Registry<Object> registry = new CacheMissCountingRegistry<Object>(cacheMisses, 4);
+		registry.register(Selectors.$("key"), "alpha");
+		for (int i = 0; i < 5; i++) {
+			registry.select("key" + i);
+		}
+		for (int i = 1; i < 5; i++) {
+			registry.select("key" + i);
+		}
+
+		assertEquals(5, cacheMisses.get());
+	}
+
+	@Test
+	public void missesAreCachedBeforeTheyAreFoldedAndSurviveRegistrations() {
+		registry.register(Selectors.uri("/users/{id}"), "alpha");
+		for (int i = 0; i < 100; i++) {
+			registry.select("/users/" + i);
+		}
+		registry.register(Selectors.$("other"), "bravo");
+		for (int i = 0; i < 100; i++) {
+			registry.select("/users/" + i);
+		}
+
+		assertEquals(100, cacheMisses.get());
+	}
+
+	@Test
+	public void selectionsOfManyKeysSeeConcurrentRegistrations() throws InterruptedException {
+		final Registry<Object> registry = new CopyOnWriteRegistry<Object>(64);
+		registry.register(Selectors.uri("/users/{id}"), 0);
+		final int threads = 4;
+		final CountDownLatch latch = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 10000; i++) {
+						registry.select("/users/" + (i % 500));
+					}
+					latch.countDown();
+				}
+			}.start();
+		}
+		for (int i = 1; i <= 100; i++) {
+			registry.register(Selectors.uri("/users/{id}"), i);
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+		for (int i = 0; i < 500; i++) {
+			assertEquals(101, registry.select("/users/" + i).size());
+		}
+	}
+
+	@Test
+	public void concurrentRegistrationsAreNotLost() throws InterruptedException {
+		final int threads = 4;
+		final int perThread = 500;
+		final CountDownLatch latch = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < perThread; i++) {
+						registry.register(Selectors.$("key"), i);
+						registry.select("key");
+					}
+					latch.countDown();
+				}
+			}.start();
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+		assertEquals(threads * perThread, registry.select("key").size());
+	}
+
+	private static List<Object> objects(List<Registration<?>> registrations) {
+		List<Object> objects = new ArrayList<Object>();
+		for (Registration<?> registration : registrations) {
+			objects.add(registration.getObject());
+		}
+		return objects;
+	}
+
+	private static int count(Registry<?> registry) {
+		int count = 0;
+		for (Registration<?> ignored : registry) {
+			count++;
+		}
+		return count;
+	}
+
+	private static final class CacheMissCountingRegistry<T> extends CopyOnWriteRegistry<T> {
+		private final AtomicInteger cacheMisses;
+
+		public CacheMissCountingRegistry(AtomicInteger cacheMisses) {
+			this.cacheMisses = cacheMisses;
+		}
+
+		public CacheMissCountingRegistry(AtomicInteger cacheMisses, int maxCacheSize) {
+			super(maxCacheSize);
+			this.cacheMisses = cacheMisses;
+		}
+
+		@Override
+		protected void cacheMiss(Object key) {
+			this.cacheMisses.incrementAndGet();
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.util;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Jon Brisbin
+ */
+public class OpenHashMapTests {
+
+	static final Logger LOG = LoggerFactory.getLogger(OpenHashMapTests.class);
+
+	@Test
+	public void keysWithTheSameHashCodeAreKeptApart() {
+		OpenHashMap<Object, String> map = new OpenHashMap<Object, String>();
+		map.put("Aa", "alpha");
+		map.put("BB", "bravo");
+
+		assertEquals("alpha", map.get("Aa"));
+		assertEquals("bravo", map.get("BB"));
+		assertEquals(2, map.size());
+
+		assertEquals("alpha", map.remove("Aa"));
+		assertNull(map.get("Aa"));
+		assertEquals("bravo", map.get("BB"));
+	}
+
+	@Test
+	public void behavesLikeAHashMapWhenEveryKeyCollides() {
+		OpenHashMap<Object, Integer> map = new OpenHashMap<Object, Integer>();
+		Map<Object, Integer> expected = new HashMap<Object, Integer>();
+		Random random = new Random(42);
+
+		for (int i = 0; i < 20000; i++) {
+			CollidingKey key = new CollidingKey(random.nextInt(512));
+			switch (random.nextInt(3)) {
+				case 0:
+					assertEquals(expected.remove(key), map.remove(key));
+					break;
+				default:
+					assertEquals(expected.put(key, i), map.put(key, i));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (Map.Entry<Object, Integer> entry : expected.entrySet()) {
+			assertEquals(entry.getValue(), map.get(entry.getKey()));
+		}
+		assertEquals(expected.size(), map.values().size());
+	}
+
+	@Test
+	public void copiesAreIndependent() {
+		OpenHashMap<Object, String> map = new OpenHashMap<Object, String>();
+		map.put("Aa", "alpha");
+		OpenHashMap<Object, String> copy = map.copy();
+		copy.put("BB", "bravo");
+
+		assertNull(map.get("BB"));
+		assertEquals("alpha", copy.get("Aa"));
+		assertEquals("bravo", copy.get("BB"));
+	}
+
+	@Test
+	public void testCollidingKeysThroughput() {
+		int keys = 64;
+		int iterations = 1000000;
+		OpenHashMap<Object, Integer> map = new OpenHashMap<Object, Integer>();
+		CollidingKey[] lookups = new CollidingKey[keys];
+		for (int i = 0; i < keys; i++) {
+			lookups[i] = new CollidingKey(i);
+			map.put(lookups[i], i);
+		}
+
+		long start = System.currentTimeMillis();
+		long found = 0;
+		for (int i = 0; i < iterations; i++) {
+			if (null != map.get(lookups[i % keys])) {
+				found++;
+			}
+		}
+		long elapsed = System.currentTimeMillis() - start;
+		long throughput = Math.round(iterations / (Math.max(elapsed, 1) / 1000.0));
+		LOG.info("OpenHashMap colliding keys throughput: {}/s in {}ms", throughput, elapsed);
+
+		assertEquals(iterations, found);
+	}
+
+	private static final class CollidingKey {
+		private final int id;
+
+		private CollidingKey(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			// only 4 distinct hash codes
+			return id & 3;
+		}
+	}
+
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.spring.selector;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.ExpressionState;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.*;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import reactor.function.Predicate;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * A {@link Predicate} compiled from the AST of a SpEL expression. Property and field references, literals, {@code
+ * #root} and {@code #this}, comparisons and boolean operators are turned into a tree of plain Java calls, property
+ * accessors being resolved by reflection once per key type. Any other node is evaluated by the SpEL interpreter.
+ * <p>
+ * Whenever a compiled node can't evaluate a key the way SpEL would, e.g. a property of a {@code null} value, a property
+ * that has no getter or public field, or an operand of a boolean operator that isn't a {@code Boolean}, the whole
+ * expression is interpreted instead, so that the result, or the exception thrown, is the same.
+ *
+ * @author Jon Brisbin
+ */
+final class ExpressionPredicate implements Predicate<Object> {
+
+	/**
+	 * Thrown by compiled nodes that can't evaluate a key, shared as it never escapes this class.
+	 */
+	private static final RuntimeException INTERPRET = new InterpretException();
+
+	/**
+	 * The configuration of the default {@code SpelExpressionParser}, which interpreted nodes need to be evaluated.
+	 */
+	private static final SpelParserConfiguration CONFIGURATION = new SpelParserConfiguration(false, false);
+
+	private final Expression        expr;
+	private final EvaluationContext evalCtx;
+	private final Evaluator         root;
+	private final boolean           compiled;
+
+	private ExpressionPredicate(Expression expr, EvaluationContext evalCtx, Evaluator root, boolean compiled) {
+		this.expr = expr;
+		this.evalCtx = evalCtx;
+		this.root = root;
+		this.compiled = compiled;
+	}
+
+	/**
+	 * Compile the given expression, which is evaluated against the given context.
+	 *
+	 * @param expr
+	 * 		The expression to compile.
+	 * @param evalCtx
+	 * 		The context used by the interpreted nodes.
+	 *
+	 * @return A new {@code ExpressionPredicate}
+	 */
+	static ExpressionPredicate compile(Expression expr, EvaluationContext evalCtx) {
+		if(!(expr instanceof SpelExpression)) {
+			return new ExpressionPredicate(expr, evalCtx, null, false);
+		}
+		Compiler compiler = new Compiler(evalCtx);
+		Evaluator root = compiler.compile(((SpelExpression)expr).getAST());
+		return new ExpressionPredicate(expr, evalCtx, root, compiler.complete);
+	}
+
+	/**
+	 * Whether every node of the expression has been compiled, in which case its result depends on the key only.
+	 *
+	 * @return {@code true} if no node is left to the SpEL interpreter
+	 */
+	boolean isCompiled() {
+		return compiled;
+	}
+
+	@Override
+	public boolean test(Object key) {
+		if(null != root) {
+			try {
+				Object result = root.eval(key);
+				if(result instanceof Boolean) {
+					return (Boolean)result;
+				}
+			} catch(RuntimeException e) {
+				if(e != INTERPRET) {
+					throw e;
+				}
+			}
+		}
+		return expr.getValue(evalCtx, key, Boolean.class);
+	}
+
+	private static boolean isTrue(Object value) {
+		if(!(value instanceof Boolean)) {
+			throw INTERPRET;
+		}
+		return (Boolean)value;
+	}
+
+	private static final class InterpretException extends RuntimeException {
+		private static final long serialVersionUID = 2915283962458218447L;
+
+		private InterpretException() {
+			super("interpret");
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+
+	private static abstract class Evaluator {
+		abstract Object eval(Object root);
+	}
+
+	private static class Compiler {
+		private final EvaluationContext evalCtx;
+		private final TypeComparator    comparator;
+		private final boolean           reflective;
+		private       boolean           complete = true;
+
+		private Compiler(EvaluationContext evalCtx) {
+			this.evalCtx = evalCtx;
+			this.comparator = evalCtx.getTypeComparator();
+			boolean reflective = true;
+			for(PropertyAccessor accessor : evalCtx.getPropertyAccessors()) {
+				reflective &= (accessor.getClass() == ReflectivePropertyAccessor.class);
+			}
+			this.reflective = reflective;
+		}
+
+		private Evaluator compile(final SpelNode node) {
+			if(node instanceof Literal) {
+				final Object value = ((Literal)node).getLiteralValue().getValue();
+				return new Evaluator() {
+					@Override
+					Object eval(Object root) {
+						return value;
+					}
+				};
+			} else if(node instanceof VariableReference &&
+					("#root".equals(node.toStringAST()) || "#this".equals(node.toStringAST()))) {
+				return new Evaluator() {
+					@Override
+					Object eval(Object root) {
+						return root;
+					}
+				};
+			} else if(reflective && node instanceof PropertyOrFieldReference && !((PropertyOrFieldReference)node).isNullSafe()) {
+				return new PropertyEvaluator(null, ((PropertyOrFieldReference)node).getName());
+			} else if(reflective && node instanceof CompoundExpression && isPropertyChain(node)) {
+				Evaluator chain = null;
+				for(int i = 0; i < node.getChildCount(); i++) {
+					chain = new PropertyEvaluator(chain, ((PropertyOrFieldReference)node.getChild(i)).getName());
+				}
+				return chain;
+			} else if(node instanceof OpAnd) {
+				final Evaluator left = compile(node.getChild(0));
+				final Evaluator right = compile(node.getChild(1));
+				return new Evaluator() {
+					@Override
+					Object eval(Object root) {
+						return isTrue(left.eval(root)) && isTrue(right.eval(root));
+					}
+				};
+			} else if(node instanceof OpOr) {
+				final Evaluator left = compile(node.getChild(0));
+				final Evaluator right = compile(node.getChild(1));
+				return new Evaluator() {
+					@Override
+					Object eval(Object root) {
+						return isTrue(left.eval(root)) || isTrue(right.eval(root));
+					}
+				};
+			} else if(node instanceof OperatorNot) {
+				final Evaluator operand = compile(node.getChild(0));
+				return new Evaluator() {
+					@Override
+					Object eval(Object root) {
+						return !isTrue(operand.eval(root));
+					}
+				};
+			} else if(node instanceof OpEQ || node instanceof OpNE) {
+				final boolean negate = (node instanceof OpNE);
+				final Evaluator left = compile(node.getChild(0));
+				final Evaluator right = compile(node.getChild(1));
+				return new Evaluator() {
+					@Override
+					Object eval(Object root) {
+						return negate != equal(left.eval(root), right.eval(root));
+					}
+				};
+			} else if(node instanceof OpLT || node instanceof OpLE || node instanceof OpGT || node instanceof OpGE) {
+				final Evaluator left = compile(node.getChild(0));
+				final Evaluator right = compile(node.getChild(1));
+				final boolean lt = (node instanceof OpLT);
+				final boolean le = (node instanceof OpLE);
+				final boolean gt = (node instanceof OpGT);
+				return new Evaluator() {
+					@Override
+					Object eval(Object root) {
+						int cmp = compare(left.eval(root), right.eval(root));
+						return (lt ? cmp < 0 : le ? cmp <= 0 : gt ? cmp > 0 : cmp >= 0);
+					}
+				};
+			} else {
+				complete = false;
+				return new Evaluator() {
+					@Override
+					Object eval(Object root) {
+						return node.getValue(new ExpressionState(evalCtx, new TypedValue(root), CONFIGURATION));
+					}
+				};
+			}
+		}
+
+		private boolean isPropertyChain(SpelNode node) {
+			for(int i = 0; i < node.getChildCount(); i++) {
+				SpelNode child = node.getChild(i);
+				if(!(child instanceof PropertyOrFieldReference) || ((PropertyOrFieldReference)child).isNullSafe()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean equal(Object left, Object right) {
+			if(left instanceof Number && right instanceof Number) {
+				return compareNumbers((Number)left, (Number)right) == 0;
+			} else if(null != left && left instanceof Comparable) {
+				return comparator.compare(left, right) == 0;
+			} else {
+				return left == right;
+			}
+		}
+
+		private int compare(Object left, Object right) {
+			if(left instanceof Number && right instanceof Number) {
+				return compareNumbers((Number)left, (Number)right);
+			}
+			return comparator.compare(left, right);
+		}
+
+		private static int compareNumbers(Number left, Number right) {
+			// widened the same way as the SpEL operators do
+			if(left instanceof Double || right instanceof Double) {
+				double l = left.doubleValue();
+				double r = right.doubleValue();
+				return (l < r ? -1 : l == r ? 0 : 1);
+			} else if(left instanceof Float || right instanceof Float) {
+				float l = left.floatValue();
+				float r = right.floatValue();
+				return (l < r ? -1 : l == r ? 0 : 1);
+			} else if(left instanceof Long || right instanceof Long) {
+				long l = left.longValue();
+				long r = right.longValue();
+				return (l < r ? -1 : l == r ? 0 : 1);
+			} else {
+				int l = left.intValue();
+				int r = right.intValue();
+				return (l < r ? -1 : l == r ? 0 : 1);
+			}
+		}
+	}
+
+	/**
+	 * Reads a property of the value of its target, or of the key if it has none, through the getter or the public field
+	 * resolved for the last type of value it has read.
+	 */
+	private static class PropertyEvaluator extends Evaluator {
+		private final Evaluator target;
+		private final String    name;
+		private volatile Accessor accessor;
+
+		private PropertyEvaluator(Evaluator target, String name) {
+			this.target = target;
+			this.name = name;
+		}
+
+		@Override
+		Object eval(Object root) {
+			Object obj = (null != target ? target.eval(root) : root);
+			if(null == obj || obj instanceof Class) {
+				throw INTERPRET;
+			}
+			Accessor acc = accessor;
+			if(null == acc || acc.type != obj.getClass()) {
+				acc = Accessor.resolve(obj.getClass(), name);
+				if(null == acc) {
+					throw INTERPRET;
+				}
+				accessor = acc;
+			}
+			// read here rather than in the accessor, to keep the call chain short enough to be inlined
+			try {
+				return (null != acc.getter ? acc.getter.invoke(obj) : acc.field.get(obj));
+			} catch(Exception e) {
+				// let SpEL report the failure the way it usually does
+				throw INTERPRET;
+			}
+		}
+	}
+
+	private static class Accessor {
+		private final Class<?> type;
+		private final Method   getter;
+		private final Field    field;
+
+		private Accessor(Class<?> type, Method getter, Field field) {
+			this.type = type;
+			this.getter = getter;
+			this.field = field;
+		}
+
+		private static Accessor resolve(Class<?> type, String name) {
+			if(name.length() == 0) {
+				return null;
+			}
+			String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+			Method getter = null;
+			for(String prefix : new String[]{"get", "is"}) {
+				try {
+					Method m = type.getMethod(prefix + suffix);
+					Class<?> returnType = m.getReturnType();
+					if(!Modifier.isStatic(m.getModifiers()) && returnType != void.class &&
+							("get".equals(prefix) || returnType == boolean.class || returnType == Boolean.class)) {
+						getter = m;
+						break;
+					}
+				} catch(NoSuchMethodException ignored) {
+				}
+			}
+			Field field = null;
+			if(null == getter) {
+				try {
+					Field f = type.getField(name);
+					if(!Modifier.isStatic(f.getModifiers())) {
+						field = f;
+					}
+				} catch(NoSuchFieldException ignored) {
+				}
+			}
+			Member member = (null != getter ? getter : field);
+			if(null == member) {
+				return null;
+			}
+			try {
+				// also spares the access check of every read
+				((AccessibleObject)member).setAccessible(true);
+			} catch(SecurityException e) {
+				if(!Modifier.isPublic(member.getDeclaringClass().getModifiers())) {
+					return null;
+				}
+			}
+			return new Accessor(type, getter, field);
+		}
+	}
+
+}
@@ -6,11 +6,20 @@ import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import reactor.event.selector.ImmutableKey;
 import reactor.event.selector.ObjectSelector;
 import reactor.event.selector.Selector;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * An implementation of {@link reactor.event.selector.Selector} that uses a SpEL expression to evaluate the match.
+ * <p>
+ * A compiled {@code ExpressionSelector} turns the property references, literals, comparisons and boolean operators of
+ * its expression into a {@link reactor.function.Predicate} when it's created, leaving only the other nodes to the SpEL
+ * interpreter. If the whole expression has been compiled, the result of matching a key that can't change, such as a
+ * {@code String}, a boxed primitive, an enum or an {@link ImmutableKey}, is cached for the keys equal to it.
  *
  * @author Jon Brisbin
  */
@@ -18,16 +27,95 @@ public class ExpressionSelector extends ObjectSelector<Expression> {
 
 	private static final SpelExpressionParser SPEL_PARSER = new SpelExpressionParser();
 
-	private final EvaluationContext evalCtx;
+	/**
+	 * The default maximum number of results cached for immutable keys.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+
+	private static final Class<?>[] IMMUTABLE_TYPES = {
+			String.class, Integer.class, Long.class, Short.class, Byte.class, Character.class, Boolean.class, Double.class,
+			Float.class
+	};
+
+	private final EvaluationContext    evalCtx;
+	private final ExpressionPredicate  predicate;
+	private final Map<Object, Boolean> results;
+	private volatile Class<?> lastMutableType;
 
 	public ExpressionSelector(Expression expr, EvaluationContext evalCtx) {
+		this(expr, evalCtx, false);
+	}
+
+	/**
+	 * Create a new {@code ExpressionSelector}, optionally compiling its expression.
+	 *
+	 * @param expr
+	 * 		The expression to evaluate.
+	 * @param evalCtx
+	 * 		The {@link org.springframework.expression.EvaluationContext} to use.
+	 * @param compiled
+	 * 		Whether the expression should be compiled into a predicate.
+	 */
+	public ExpressionSelector(Expression expr, EvaluationContext evalCtx, boolean compiled) {
 		super(expr);
 		this.evalCtx = evalCtx;
+		this.predicate = (compiled ? ExpressionPredicate.compile(expr, evalCtx) : null);
+		this.results = (null != predicate && predicate.isCompiled() ? new ResultCache(DEFAULT_CACHE_SIZE) : null);
+	}
+
+	/**
+	 * Whether the expression of this selector has been compiled.
+	 *
+	 * @return {@code true} if the expression has been compiled, {@code false} if it's interpreted
+	 */
+	public boolean isCompiled() {
+		return null != predicate;
 	}
 
 	@Override
 	public boolean matches(Object key) {
-		return getObject().getValue(evalCtx, key, Boolean.class);
+		if(null == predicate) {
+			return getObject().getValue(evalCtx, key, Boolean.class);
+		}
+		if(null != results && isImmutable(key)) {
+			return cachedMatch(key);
+		}
+		return predicate.test(key);
+	}
+
+	private boolean cachedMatch(Object key) {
+		Boolean result;
+		synchronized(results) {
+			result = results.get(key);
+		}
+		if(null == result) {
+			result = predicate.test(key);
+			synchronized(results) {
+				results.put(key, result);
+			}
+		}
+		return result;
+	}
+
+	private boolean isImmutable(Object key) {
+		if(null == key) {
+			return false;
+		}
+		Class<?> type = key.getClass();
+		if(type == lastMutableType) {
+			return false;
+		}
+		if(key instanceof ImmutableKey || key instanceof Enum) {
+			return true;
+		}
+		for(Class<?> immutableType : IMMUTABLE_TYPES) {
+			if(type == immutableType) {
+				return true;
+			}
+		}
+		// the JVM doesn't remember that a type isn't an ImmutableKey, and checking it again is costly
+		lastMutableType = type;
+		return false;
 	}
 
 	/**
@@ -86,4 +174,67 @@ public class ExpressionSelector extends ObjectSelector<Expression> {
 		return new ExpressionSelector(SPEL_PARSER.parseExpression(expr), evalCtx);
 	}
 
+	/**
+	 * Helper method for creating a compiled {@code ExpressionSelector}.
+	 *
+	 * @param expr
+	 * 		The expression to parse and compile.
+	 *
+	 * @return A new {@link reactor.event.selector.Selector}
+	 */
+	public static Selector compiledExpressionSelector(String expr) {
+		return compiledExpressionSelector(expr, (BeanFactory)null);
+	}
+
+	/**
+	 * Helper method for creating a compiled {@code ExpressionSelector}.
+	 *
+	 * @param expr
+	 * 		The expression to parse and compile.
+	 * @param beanFactory
+	 * 		The {@link org.springframework.beans.factory.BeanFactory} to use to resolve references in the expression.
+	 *
+	 * @return A new {@link reactor.event.selector.Selector}
+	 */
+	public static Selector compiledExpressionSelector(String expr, BeanFactory beanFactory) {
+		StandardEvaluationContext evalCtx = new StandardEvaluationContext();
+		if(null != beanFactory) {
+			evalCtx.setBeanResolver(new BeanFactoryResolver(beanFactory));
+		}
+		return compiledExpressionSelector(expr, evalCtx);
+	}
+
+	/**
+	 * Helper method for creating a compiled {@code ExpressionSelector}.
+	 *
+	 * @param expr
+	 * 		The expression to parse and compile.
+	 * @param evalCtx
+	 * 		The {@link org.springframework.expression.EvaluationContext} to use for the nodes that aren't compiled.
+	 *
+	 * @return A new {@link reactor.event.selector.Selector}
+	 */
+	public static Selector compiledExpressionSelector(String expr, EvaluationContext evalCtx) {
+		return new ExpressionSelector(SPEL_PARSER.parseExpression(expr), evalCtx, true);
+	}
+
+	/**
+	 * The results of the most recently matched keys.
+	 */
+	private static class ResultCache extends LinkedHashMap<Object, Boolean> {
+		private static final long serialVersionUID = -3497914364209387421L;
+
+		private final int maxSize;
+
+		private ResultCache(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, Boolean> eldest) {
+			return size() > maxSize;
+		}
+	}
+
 }
@@ -1,12 +1,19 @@
 package reactor.spring.selector
 
+import org.springframework.expression.spel.SpelEvaluationException
+import org.springframework.expression.spel.standard.SpelExpressionParser
+import org.springframework.expression.spel.support.StandardEvaluationContext
 import reactor.core.Environment
 import reactor.core.spec.Reactors
 import reactor.event.Event
+import reactor.event.selector.ImmutableKey
 import reactor.function.Consumer
 import spock.lang.Specification
+import spock.lang.Unroll
 
 import static ExpressionSelector.E
+import static ExpressionSelector.compiledExpressionSelector
+import static ExpressionSelector.expressionSelector
 /**
  * @author Jon Brisbin
  */
@@ -38,8 +45,102 @@ class ExpressionSelectorSpec extends Specification {
 
 	}
 
+	@Unroll
+	def "A compiled ExpressionSelector matches '#expr' like an interpreted one"() {
+		given:
+			"a compiled and an interpreted selector"
+			def compiled = compiledExpressionSelector(expr)
+			def interpreted = expressionSelector(expr)
+
+		expect:
+			"they match the same keys"
+			compiled.matches(key) == matches
+			interpreted.matches(key) == matches
+
+		where:
+			expr                                      | key                                          | matches
+			"name == 'John Doe'"                      | new TestBean(name: 'John Doe')               | true
+			"name == 'John Doe'"                      | new TestBean(name: 'Jane Doe')               | false
+			"name != 'John Doe' and age >= 18"        | new TestBean(name: 'Jane Doe', age: 18)      | true
+			"name != 'John Doe' and age >= 18"        | new TestBean(name: 'Jane Doe', age: 17)      | false
+			"age < 18 or !(name == 'John Doe')"       | new TestBean(name: 'John Doe', age: 20)      | false
+			"age > 17.5"                              | new TestBean(age: 18)                        | true
+			"age <= 18L"                              | new TestBean(age: 18)                        | true
+			"parent.name == 'Jim Doe'"                | new TestBean(parent: new TestBean(name: 'Jim Doe')) | true
+			"parent?.name == 'Jim Doe'"               | new TestBean()                               | false
+			"name matches 'J.*' and age == 1"         | new TestBean(name: 'John', age: 1)           | true
+			"#root == 'test'"                         | 'test'                                       | true
+			"length() > 3"                            | 'test'                                       | true
+	}
+
+	def "An ExpressionSelector is only compiled when asked to"() {
+		given:
+			"a compiled selector"
+			def sel = new ExpressionSelector(new SpelExpressionParser().parseExpression("name == 'John Doe'"),
+			                                 new StandardEvaluationContext(),
+			                                 true)
+
+		expect:
+			"only the selector asked to be compiled is"
+			sel.compiled
+			!new ExpressionSelector(sel.object, new StandardEvaluationContext()).compiled
+	}
+
+	def "A compiled ExpressionSelector fails like an interpreted one"() {
+		when:
+			"a property of null is read"
+			compiledExpressionSelector("parent.name == 'Jim Doe'").matches(new TestBean())
+
+		then:
+			"SpEL reports it"
+			thrown(SpelEvaluationException)
+	}
+
+	def "A compiled ExpressionSelector caches the results of immutable keys"() {
+		given:
+			"a compiled selector"
+			def sel = compiledExpressionSelector("name == 'John Doe'")
+			def key = new ImmutableTestBean(name: 'John Doe')
+
+		when:
+			"an immutable key is matched twice"
+			def first = sel.matches(key)
+			def second = sel.matches(key)
+
+		then:
+			"its properties were read once"
+			first
+			second
+			key.reads == 1
+
+		when:
+			"a mutable key is matched twice"
+			def mutable = new CountingTestBean(name: 'John Doe')
+			sel.matches(mutable)
+			sel.matches(mutable)
+
+		then:
+			"its properties were read every time"
+			mutable.reads == 2
+	}
+
 }
 
 class TestBean {
 	String name
+	int age
+	TestBean parent
+}
+
+class CountingTestBean {
+	String name
+	int reads
+
+	String getName() {
+		reads++
+		name
+	}
+}
+
+class ImmutableTestBean extends CountingTestBean implements ImmutableKey {
 }
@@ -220,6 +220,18 @@ public abstract class AbstractTcpConnection<IN, OUT> implements TcpConnection<IN
 	 */
 	protected abstract void write(Buffer data, Deferred<Void, Promise<Void>> onComplete, boolean flush);
 
+	/**
+	 * Write a {@link Buffer} returned by the encoder. Encoders return a new {@link Buffer} for every object they encode,
+	 * so subclasses may hand its memory to the connection without copying it. Writes it like any other {@link Buffer}
+	 * by default.
+	 *
+	 * @param data       The encoded data to write.
+	 * @param onComplete The callback to invoke when the write is complete.
+	 */
+	protected void writeEncoded(Buffer data, Deferred<Void, Promise<Void>> onComplete, boolean flush) {
+		write(data, onComplete, flush);
+	}
+
 	/**
 	 * Subclasses must implement this method to perform the actual IO of writing data to the connection.
 	 *
@@ -258,7 +270,7 @@ public abstract class AbstractTcpConnection<IN, OUT> implements TcpConnection<IN
 				if (null != encoder) {
 					Buffer bytes = encoder.apply(data);
 					if (bytes.remaining() > 0) {
-						write(bytes, onComplete, autoflush);
+						writeEncoded(bytes, onComplete, autoflush);
 					}
 				} else {
 					if (Buffer.class.isInstance(data)) {
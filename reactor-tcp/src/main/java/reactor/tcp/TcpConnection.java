@@ -129,6 +129,14 @@ public interface TcpConnection<IN, OUT> extends Pausable {
 	 * reactor.io.Buffer}. If the send fails for some reason, the returned {@link Promise} will be fulfilled with an
 	 * error
 	 * indicating the cause of the failure.
+	 * <p>
+	 * The {@link reactor.io.Buffer} returned by the codec's encoder is written without copying, so an encoder must return
+	 * a new {@link reactor.io.Buffer} for every object. The bytes of a {@link reactor.io.Buffer} sent on a connection
+	 * without a codec are copied when the data is written to the connection, so the {@link reactor.io.Buffer} may be
+	 * reused once the returned {@link Promise} is completed. On a connection without a codec, a
+	 * {@link reactor.alloc.Reference} to a {@link reactor.io.Buffer} is written without copying instead: the {@link
+	 * reactor.io.Buffer} must not be changed until the {@link reactor.alloc.Reference} is released, which happens once
+	 * the write has completed.
 	 *
 	 * @param data
 	 * 		The outgoing data.
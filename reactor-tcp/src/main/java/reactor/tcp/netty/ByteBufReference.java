@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.tcp.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import reactor.alloc.Reference;
+import reactor.io.Buffer;
+import reactor.timer.TimeUtils;
+import reactor.util.Assert;
+
+/**
+ * A {@link Reference} to a {@link Buffer} that shares the memory of a reference-counted Netty {@link ByteBuf}, whose
+ * reference count is the count of this {@code Reference}: retaining or releasing the {@code Reference} retains or
+ * releases the {@link ByteBuf}. The {@link Buffer} covers the readable bytes of the {@link ByteBuf} when the {@code
+ * Reference} is created.
+ * <p>
+ * A {@link Buffer} is backed by a single {@link java.nio.ByteBuffer}, so the components of a {@link CompositeByteBuf}
+ * are consolidated first if there are more than one of them.
+ *
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+public class ByteBufReference implements Reference<Buffer> {
+
+  private final long    inception;
+  private final ByteBuf byteBuf;
+  private final Buffer  buffer;
+
+  /**
+   * Create a {@code ByteBufReference} to the readable bytes of the given {@link ByteBuf}, which it takes ownership of.
+   *
+   * @param byteBuf
+   *     The {@link ByteBuf} to share.
+   */
+  public ByteBufReference(ByteBuf byteBuf) {
+    Assert.notNull(byteBuf, "ByteBuf cannot be null.");
+    if(byteBuf instanceof CompositeByteBuf && byteBuf.nioBufferCount() > 1) {
+      ((CompositeByteBuf)byteBuf).consolidate();
+    }
+    this.inception = TimeUtils.approxCurrentTimeMillis();
+    this.byteBuf = byteBuf;
+    this.buffer = new Buffer(byteBuf.nioBuffer());
+  }
+
+  /**
+   * Wrap the remaining bytes of the given {@link Buffer} into a {@link ByteBuf}, without copying them. The {@link
+   * Buffer} must not be changed until Netty is done with the {@link ByteBuf}.
+   *
+   * @param buffer
+   *     The {@link Buffer} to wrap.
+   *
+   * @return A {@link ByteBuf} sharing the memory of the {@link Buffer}
+   */
+  public static ByteBuf wrap(Buffer buffer) {
+    return (null != buffer.byteBuffer() ? Unpooled.wrappedBuffer(buffer.byteBuffer()) : Unpooled.EMPTY_BUFFER);
+  }
+
+  /**
+   * Get the {@link ByteBuf} whose memory the {@link Buffer} shares.
+   *
+   * @return The {@link ByteBuf}
+   */
+  public ByteBuf byteBuf() {
+    return byteBuf;
+  }
+
+  @Override
+  public long getAge() {
+    return TimeUtils.approxCurrentTimeMillis() - inception;
+  }
+
+  @Override
+  public int getReferenceCount() {
+    return byteBuf.refCnt();
+  }
+
+  @Override
+  public void retain() {
+    byteBuf.retain();
+  }
+
+  @Override
+  public void retain(int incr) {
+    byteBuf.retain(incr);
+  }
+
+  @Override
+  public void release() {
+    byteBuf.release();
+  }
+
+  @Override
+  public void release(int decr) {
+    byteBuf.release(decr);
+  }
+
+  @Override
+  public Buffer get() {
+    return buffer;
+  }
+
+  @Override
+  public String toString() {
+    return "ByteBufReference{" +
+        "refCnt=" + byteBuf.refCnt() +
+        ", inception=" + inception +
+        ", buffer=" + buffer +
+        '}';
+  }
+
+}
@@ -17,6 +17,7 @@
 package reactor.tcp.netty;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
@@ -24,6 +25,7 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.handler.timeout.IdleStateHandler;
+import reactor.alloc.Reference;
 import reactor.core.Environment;
 import reactor.core.Reactor;
 import reactor.core.composable.Deferred;
@@ -132,6 +134,17 @@ public class NettyTcpConnection<IN, OUT> extends AbstractTcpConnection<IN, OUT>
     write(data.byteBuffer(), onComplete, flush);
   }
 
+  @Override
+  protected void writeEncoded(Buffer data, Deferred<Void, Promise<Void>> onComplete, boolean flush) {
+    // nothing else holds on to the encoder's Buffer, so Netty can write it where it is
+    write(Unpooled.wrappedBuffer(data.byteBuffer()), onComplete, flush);
+  }
+
+  /**
+   * Write the remaining bytes of the given {@link ByteBuffer}. They are copied before this method returns, as the
+   * {@link ByteBuffer} may be reused, by an encoder for instance, before Netty has written them. Write a {@link
+   * Reference} to a {@link Buffer} instead to hand Netty its memory without copying it.
+   */
   protected void write(ByteBuffer data, final Deferred<Void, Promise<Void>> onComplete, boolean flush) {
     ByteBuf buf = channel.alloc().buffer(data.remaining());
     buf.writeBytes(data);
@@ -139,11 +152,27 @@ public class NettyTcpConnection<IN, OUT> extends AbstractTcpConnection<IN, OUT>
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   protected void write(Object data, final Deferred<Void, Promise<Void>> onComplete, final boolean flush) {
+    // a Reference to a Buffer is released once Netty is done with its memory
+    final Reference<Buffer> ref;
+    if(data instanceof ByteBufReference) {
+      ref = null;
+      data = ((ByteBufReference)data).byteBuf();
+    } else if(data instanceof Reference && ((Reference)data).get() instanceof Buffer) {
+      ref = (Reference<Buffer>)data;
+      data = ByteBufReference.wrap(ref.get());
+    } else {
+      ref = null;
+    }
+
     ChannelFuture writeFuture = (flush ? channel.writeAndFlush(data) : channel.write(data));
     writeFuture.addListener(new ChannelFutureListener() {
       @Override
       public void operationComplete(ChannelFuture future) throws Exception {
+        if(null != ref) {
+          ref.release();
+        }
         boolean success = future.isSuccess();
 
         if(!success) {
@@ -52,6 +52,7 @@ class NettyTcpConnectionChannelInboundHandler extends ChannelInboundHandlerAdapt
         passToConnection(data);
       } finally {
         if(data.isReadable()) {
+          // the bytes of a partial frame stay where they were read until more of them arrive
           remainder = data;
         } else {
           data.release();
@@ -60,13 +61,14 @@ class NettyTcpConnectionChannelInboundHandler extends ChannelInboundHandlerAdapt
       return;
     }
 
-    if(!bufferHasSufficientCapacity(remainder, data)) {
-      ByteBuf combined = createCombinedBuffer(remainder, data, ctx);
+    if(remainder.maxWritableBytes() < data.readableBytes()) {
+      ByteBuf combined = ctx.alloc().buffer(remainder.readableBytes() + data.readableBytes());
+      combined.writeBytes(remainder);
       remainder.release();
       remainder = combined;
-    } else {
-      remainder.writeBytes(data);
     }
+    // the remainder grows geometrically, so a frame arriving over several reads is copied in amortised linear time
+    remainder.writeBytes(data);
     data.release();
 
     try {
@@ -81,6 +83,15 @@ class NettyTcpConnectionChannelInboundHandler extends ChannelInboundHandlerAdapt
     }
   }
 
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    if(null != remainder) {
+      remainder.release();
+      remainder = null;
+    }
+    super.channelInactive(ctx);
+  }
+
   @Override
   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
     if("Broken pipe".equals(cause.getMessage()) || "Connection reset by peer".equals(cause.getMessage())) {
@@ -93,17 +104,6 @@ class NettyTcpConnectionChannelInboundHandler extends ChannelInboundHandlerAdapt
     ctx.close();
   }
 
-  private boolean bufferHasSufficientCapacity(ByteBuf receiver, ByteBuf provider) {
-    return receiver.writerIndex() <= receiver.maxCapacity() - provider.readableBytes();
-  }
-
-  private ByteBuf createCombinedBuffer(ByteBuf partOne, ByteBuf partTwo, ChannelHandlerContext ctx) {
-    ByteBuf combined = ctx.alloc().buffer(partOne.readableBytes() + partTwo.readableBytes());
-    combined.writeBytes(partOne);
-    combined.writeBytes(partTwo);
-    return combined;
-  }
-
   private void passToConnection(ByteBuf data) {
     Buffer b = new Buffer(data.nioBuffer());
     int start = b.position();
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2011-2013 GoPivotal, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.tcp.netty
+
+import io.netty.buffer.Unpooled
+import reactor.io.Buffer
+import spock.lang.Specification
+
+/**
+ * @author Jon Brisbin
+ */
+class ByteBufReferenceSpec extends Specification {
+
+	def "A ByteBufReference shares the readable bytes of a ByteBuf"() {
+		given: "a ByteBuf that has been partly read"
+		def byteBuf = Unpooled.directBuffer(32).writeBytes("Hello World!".bytes)
+		byteBuf.skipBytes(6)
+
+		when: "a reference to it is created"
+		def ref = new ByteBufReference(byteBuf)
+
+		then: "its Buffer holds the readable bytes"
+		ref.get().remaining() == 6
+
+		when: "the ByteBuf is changed"
+		byteBuf.setByte(6, (byte)119)
+
+		then: "the Buffer sees the change"
+		ref.get().asString() == "world!"
+	}
+
+	def "A ByteBufReference consolidates a CompositeByteBuf"() {
+		given: "a CompositeByteBuf of several ByteBufs"
+		def byteBuf = Unpooled.compositeBuffer()
+		["Hello ", "Reactor", "!"].each {
+			byteBuf.addComponent(Unpooled.wrappedBuffer(it.bytes))
+			byteBuf.writerIndex(byteBuf.writerIndex() + it.length())
+		}
+
+		when: "a reference to it is created"
+		def ref = new ByteBufReference(byteBuf)
+
+		then: "its Buffer holds all the bytes"
+		byteBuf.numComponents() == 1
+		ref.get().asString() == "Hello Reactor!"
+	}
+
+	def "A ByteBufReference counts references with its ByteBuf"() {
+		given: "a reference to a ByteBuf"
+		def byteBuf = Unpooled.buffer(16)
+		def ref = new ByteBufReference(byteBuf)
+
+		when: "the reference is retained"
+		ref.retain(2)
+
+		then: "the ByteBuf is retained"
+		byteBuf.refCnt() == 3
+		ref.referenceCount == 3
+
+		when: "the reference is released"
+		ref.release()
+		ref.release(2)
+
+		then: "the ByteBuf is released"
+		byteBuf.refCnt() == 0
+	}
+
+	def "A Buffer is wrapped into a ByteBuf without copying it"() {
+		given: "a Buffer"
+		def buffer = Buffer.wrap("Hello World!")
+
+		when: "it is wrapped"
+		def byteBuf = ByteBufReference.wrap(buffer)
+		buffer.byteBuffer().put(0, (byte)104)
+
+		then: "the ByteBuf shares its bytes"
+		byteBuf.readableBytes() == 12
+		byteBuf.toString(0, 12, java.nio.charset.Charset.forName("UTF-8")) == "hello World!"
+	}
+
+}
@@ -21,6 +21,7 @@ import reactor.function.Consumer
 import reactor.function.Function
 import reactor.io.Buffer
 import reactor.io.encoding.PassThroughCodec
+import reactor.io.encoding.StandardCodecs
 import reactor.tcp.TcpConnection
 import reactor.io.encoding.json.JsonCodec
 import reactor.tcp.spec.TcpServerSpec
@@ -134,6 +135,108 @@ class NettyTcpServerSpec extends Specification {
 		stopLatch.count == 0
 	}
 
+	def "NettyTcpServer decodes frames split across several reads"() {
+		given: "a TcpServer with a line codec"
+		def startLatch = new CountDownLatch(1)
+		def stopLatch = new CountDownLatch(1)
+		def dataLatch = new CountDownLatch(3)
+		def lines = []
+		def server = new TcpServerSpec<String, String>(NettyTcpServer).
+				env(env).
+				listen(port).
+				codec(StandardCodecs.LINE_FEED_CODEC).
+				consume({ conn ->
+					conn.consume({ String line ->
+						lines << line
+						dataLatch.countDown()
+					} as Consumer<String>)
+				} as Consumer<TcpConnection<String, String>>).
+				get()
+
+		when: "the server is started"
+		server.start({
+			startLatch.countDown()
+		} as Consumer<Void>)
+		startLatch.await(5, TimeUnit.SECONDS)
+
+		then: "the server was started"
+		startLatch.count == 0
+
+		when: "lines are written in pieces"
+		def ch = SocketChannel.open(new InetSocketAddress(port))
+		["Hello ", "World!\nHello ", "Reac", "tor!\nBye", "!\n"].each {
+			ch.write(Buffer.wrap(it).byteBuffer())
+			Thread.sleep(100)
+		}
+		dataLatch.await(5, TimeUnit.SECONDS)
+		ch.close()
+
+		then: "whole lines were decoded"
+		dataLatch.count == 0
+		lines == ["Hello World!", "Hello Reactor!", "Bye!"]
+
+		when: "the server is stopped"
+		server.shutdown().onSuccess({
+			stopLatch.countDown()
+		} as Consumer<Void>)
+		stopLatch.await(5, TimeUnit.SECONDS)
+
+		then: "the server was stopped"
+		stopLatch.count == 0
+	}
+
+	def "NettyTcpServer decodes a large frame arriving over many reads"() {
+		given: "a TcpServer with a line codec"
+		def startLatch = new CountDownLatch(1)
+		def stopLatch = new CountDownLatch(1)
+		def dataLatch = new CountDownLatch(1)
+		def lines = []
+		def server = new TcpServerSpec<String, String>(NettyTcpServer).
+				env(env).
+				listen(port).
+				codec(StandardCodecs.LINE_FEED_CODEC).
+				consume({ conn ->
+					conn.consume({ String line ->
+						lines << line
+						dataLatch.countDown()
+					} as Consumer<String>)
+				} as Consumer<TcpConnection<String, String>>).
+				get()
+
+		when: "the server is started"
+		server.start({
+			startLatch.countDown()
+		} as Consumer<Void>)
+		startLatch.await(5, TimeUnit.SECONDS)
+
+		then: "the server was started"
+		startLatch.count == 0
+
+		when: "a 256KB line is written 1KB at a time"
+		def ch = SocketChannel.open(new InetSocketAddress(port))
+		def chunk = "x" * 1024
+		256.times {
+			ch.write(Buffer.wrap(chunk).byteBuffer())
+		}
+		ch.write(Buffer.wrap("\n").byteBuffer())
+		dataLatch.await(5, TimeUnit.SECONDS)
+		ch.close()
+
+		then: "the whole line was decoded"
+		dataLatch.count == 0
+		lines.size() == 1
+		lines[0] == chunk * 256
+
+		when: "the server is stopped"
+		server.shutdown().onSuccess({
+			stopLatch.countDown()
+		} as Consumer<Void>)
+		stopLatch.await(5, TimeUnit.SECONDS)
+
+		then: "the server was stopped"
+		stopLatch.count == 0
+	}
+
 	static class SimpleClient extends Thread {
 		final int port
 		final CountDownLatch latch